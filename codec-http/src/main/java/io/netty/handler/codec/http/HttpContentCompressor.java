@@ -15,10 +15,15 @@
  */
 package io.netty.handler.codec.http;
 
+import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.compression.Brotli;
+import io.netty.handler.codec.compression.BrotliEncoder;
 import io.netty.handler.codec.compression.ZlibCodecFactory;
 import io.netty.handler.codec.compression.ZlibWrapper;
+import io.netty.handler.codec.compression.Zstd;
+import io.netty.handler.codec.compression.ZstdEncoder;
 
 /**
  * Compresses an {@link HttpMessage} and an {@link HttpContent} in {@code gzip} or
@@ -26,6 +31,11 @@ import io.netty.handler.codec.compression.ZlibWrapper;
  * If there is no matching encoding, no compression is done.  For more
  * information on how this handler modifies the message, please refer to
  * {@link HttpContentEncoder}.
+ * <p>
+ * If the optional Brotli4j or zstd-jni libraries are available (see {@link Brotli#isAvailable()} and
+ * {@link Zstd#isAvailable()}), the {@code br} and {@code zstd} encodings are supported as well. They are only used
+ * if the client asks for them explicitly and are preferred over {@code gzip} and {@code deflate} if the client
+ * accepts them with the same quality value.
  */
 public class HttpContentCompressor extends HttpContentEncoder {
 
@@ -33,6 +43,8 @@ public class HttpContentCompressor extends HttpContentEncoder {
     private final int windowBits;
     private final int memLevel;
     private final int contentSizeThreshold;
+    private final int brotliQuality;
+    private final int zstdCompressionLevel;
     private ChannelHandlerContext ctx;
 
     /**
@@ -103,6 +115,40 @@ public class HttpContentCompressor extends HttpContentEncoder {
      *        number. {@code 0} will enable compression for all responses.
      */
     public HttpContentCompressor(int compressionLevel, int windowBits, int memLevel, int contentSizeThreshold) {
+        this(compressionLevel, windowBits, memLevel, contentSizeThreshold,
+                BrotliEncoder.DEFAULT_QUALITY, ZstdEncoder.DEFAULT_COMPRESSION_LEVEL);
+    }
+
+    /**
+     * Creates a new handler with the specified settings for all supported encodings.
+     *
+     * @param compressionLevel
+     *        {@code 1} yields the fastest compression and {@code 9} yields the
+     *        best compression.  {@code 0} means no compression.  The default
+     *        compression level is {@code 6}.
+     * @param windowBits
+     *        The base two logarithm of the size of the history buffer.  The
+     *        value should be in the range {@code 9} to {@code 15} inclusive.
+     *        Larger values result in better compression at the expense of
+     *        memory usage.  The default value is {@code 15}.
+     * @param memLevel
+     *        How much memory should be allocated for the internal compression
+     *        state.  {@code 1} uses minimum memory and {@code 9} uses maximum
+     *        memory.  Larger values result in better and faster compression
+     *        at the expense of memory usage.  The default value is {@code 8}
+     * @param contentSizeThreshold
+     *        The response body is compressed when the size of the response
+     *        body exceeds the threshold. The value should be a non negative
+     *        number. {@code 0} will enable compression for all responses.
+     * @param brotliQuality
+     *        The quality of the {@code br} encoding, from {@code 0} to {@code 11}.
+     *        {@code -1} disables the {@code br} encoding.  The default value is {@code 4}.
+     * @param zstdCompressionLevel
+     *        The compression level of the {@code zstd} encoding, from {@code 1} to {@code 22}.
+     *        {@code -1} disables the {@code zstd} encoding.  The default value is {@code 3}.
+     */
+    public HttpContentCompressor(int compressionLevel, int windowBits, int memLevel, int contentSizeThreshold,
+                                 int brotliQuality, int zstdCompressionLevel) {
         if (compressionLevel < 0 || compressionLevel > 9) {
             throw new IllegalArgumentException(
                     "compressionLevel: " + compressionLevel +
@@ -120,10 +166,22 @@ public class HttpContentCompressor extends HttpContentEncoder {
             throw new IllegalArgumentException(
                     "contentSizeThreshold: " + contentSizeThreshold + " (expected: non negative number)");
         }
+        if (brotliQuality < -1 || brotliQuality > 11) {
+            throw new IllegalArgumentException(
+                    "brotliQuality: " + brotliQuality + " (expected: -1-11)");
+        }
+        if (zstdCompressionLevel < -1 || zstdCompressionLevel == 0 ||
+                zstdCompressionLevel > ZstdEncoder.MAX_COMPRESSION_LEVEL) {
+            throw new IllegalArgumentException(
+                    "zstdCompressionLevel: " + zstdCompressionLevel +
+                    " (expected: -1 or 1-" + ZstdEncoder.MAX_COMPRESSION_LEVEL + ')');
+        }
         this.compressionLevel = compressionLevel;
         this.windowBits = windowBits;
         this.memLevel = memLevel;
         this.contentSizeThreshold = contentSizeThreshold;
+        this.brotliQuality = brotliQuality != -1 && Brotli.isAvailable() ? brotliQuality : -1;
+        this.zstdCompressionLevel = zstdCompressionLevel != -1 && Zstd.isAvailable() ? zstdCompressionLevel : -1;
     }
 
     @Override
@@ -147,28 +205,102 @@ public class HttpContentCompressor extends HttpContentEncoder {
             return null;
         }
 
+        String targetContentEncoding = determineEncoding(acceptEncoding);
+        if (targetContentEncoding == null) {
+            return null;
+        }
+
+        ChannelHandler encoder;
+        if (HttpHeaderValues.BR.contentEquals(targetContentEncoding)) {
+            encoder = new BrotliEncoder(brotliQuality);
+        } else if (HttpHeaderValues.ZSTD.contentEquals(targetContentEncoding)) {
+            encoder = new ZstdEncoder(zstdCompressionLevel);
+        } else if (HttpHeaderValues.GZIP.contentEquals(targetContentEncoding)) {
+            encoder = ZlibCodecFactory.newZlibEncoder(ZlibWrapper.GZIP, compressionLevel, windowBits, memLevel);
+        } else if (HttpHeaderValues.DEFLATE.contentEquals(targetContentEncoding)) {
+            encoder = ZlibCodecFactory.newZlibEncoder(ZlibWrapper.ZLIB, compressionLevel, windowBits, memLevel);
+        } else {
+            throw new Error();
+        }
+
+        return new Result(
+                targetContentEncoding,
+                new EmbeddedChannel(ctx.channel().id(), ctx.channel().metadata().hasDisconnect(),
+                        ctx.channel().config(), encoder));
+    }
+
+    /**
+     * Returns the content encoding to use for the given {@code "Accept-Encoding"} header or {@code null} if the
+     * content should not be compressed.
+     * <p>
+     * The {@code br} and {@code zstd} encodings are chosen if they are enabled and accepted with a quality value
+     * that is at least as high as the one of the encoding {@link #determineWrapper(String)} selects.  Otherwise
+     * the result of {@link #determineWrapper(String)} is used.
+     */
+    @SuppressWarnings("FloatingPointEquality")
+    protected String determineEncoding(String acceptEncoding) {
         ZlibWrapper wrapper = determineWrapper(acceptEncoding);
+        if (brotliQuality == -1 && zstdCompressionLevel == -1) {
+            return zlibEncoding(wrapper);
+        }
+
+        float starQ = -1.0f;
+        float gzipQ = -1.0f;
+        float deflateQ = -1.0f;
+        float brQ = -1.0f;
+        float zstdQ = -1.0f;
+        for (String encoding : acceptEncoding.split(",")) {
+            float q = qValue(encoding);
+            String name = contentCoding(encoding);
+            if ("*".equals(name)) {
+                starQ = q;
+            } else if (HttpHeaderValues.BR.contentEqualsIgnoreCase(name)) {
+                brQ = Math.max(brQ, q);
+            } else if (HttpHeaderValues.ZSTD.contentEqualsIgnoreCase(name)) {
+                zstdQ = Math.max(zstdQ, q);
+            } else if (name.contains("gzip")) {
+                gzipQ = Math.max(gzipQ, q);
+            } else if (name.contains("deflate")) {
+                deflateQ = Math.max(deflateQ, q);
+            }
+        }
+        if (brotliQuality == -1) {
+            brQ = -1.0f;
+        }
+        if (zstdCompressionLevel == -1) {
+            zstdQ = -1.0f;
+        }
+
+        float zlibQ;
+        if (wrapper == ZlibWrapper.GZIP) {
+            zlibQ = gzipQ == -1.0f ? starQ : gzipQ;
+        } else if (wrapper == ZlibWrapper.ZLIB) {
+            zlibQ = deflateQ == -1.0f ? starQ : deflateQ;
+        } else {
+            zlibQ = 0.0f;
+        }
+
+        if (brQ > 0.0f && brQ >= zstdQ && brQ >= zlibQ) {
+            return HttpHeaderValues.BR.toString();
+        }
+        if (zstdQ > 0.0f && zstdQ >= zlibQ) {
+            return HttpHeaderValues.ZSTD.toString();
+        }
+        return zlibEncoding(wrapper);
+    }
+
+    private static String zlibEncoding(ZlibWrapper wrapper) {
         if (wrapper == null) {
             return null;
         }
-
-        String targetContentEncoding;
         switch (wrapper) {
         case GZIP:
-            targetContentEncoding = "gzip";
-            break;
+            return HttpHeaderValues.GZIP.toString();
         case ZLIB:
-            targetContentEncoding = "deflate";
-            break;
+            return HttpHeaderValues.DEFLATE.toString();
         default:
             throw new Error();
         }
-
-        return new Result(
-                targetContentEncoding,
-                new EmbeddedChannel(ctx.channel().id(), ctx.channel().metadata().hasDisconnect(),
-                        ctx.channel().config(), ZlibCodecFactory.newZlibEncoder(
-                        wrapper, compressionLevel, windowBits, memLevel)));
     }
 
     @SuppressWarnings("FloatingPointEquality")
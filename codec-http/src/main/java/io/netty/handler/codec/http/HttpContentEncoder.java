@@ -23,8 +23,10 @@ import io.netty.handler.codec.MessageToMessageCodec;
 import io.netty.util.ReferenceCountUtil;
 
 import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Queue;
+import java.util.Set;
 
 /**
  * Encodes the content of the outbound {@link HttpResponse} and {@link HttpContent}.
@@ -44,6 +46,10 @@ import java.util.Queue;
  * this class functional.  For example, refer to the source code of
  * {@link HttpContentCompressor}.
  * <p>
+ * A {@link PrecompressedHttpResponse} is not encoded.  Instead the variant selected
+ * by {@link #selectPrecompressedEncoding(PrecompressedHttpResponse, String)} is sent
+ * as it is.
+ * <p>
  * This handler must be placed after {@link HttpObjectEncoder} in the pipeline
  * so that this handler can intercept HTTP responses before {@link HttpObjectEncoder}
  * converts them into {@link ByteBuf}s.
@@ -124,6 +130,11 @@ public abstract class HttpContentEncoder extends MessageToMessageCodec<HttpReque
                  *
                  * See https://github.com/netty/netty/issues/5382
                  */
+                if (res instanceof PrecompressedHttpResponse) {
+                    encodePrecompressed((PrecompressedHttpResponse) res, acceptEncoding, out);
+                    break;
+                }
+
                 if (isPassthru(res.protocolVersion(), code, acceptEncoding)) {
                     if (isFull) {
                         out.add(ReferenceCountUtil.retain(res));
@@ -227,6 +238,134 @@ public abstract class HttpContentEncoder extends MessageToMessageCodec<HttpReque
         }
     }
 
+    private void encodePrecompressed(PrecompressedHttpResponse res, CharSequence acceptEncoding, List<Object> out) {
+        final HttpVersion version = res.protocolVersion();
+        final int code = res.status().code();
+        String contentEncoding = null;
+        if (!isPassthru(version, code, acceptEncoding) && !res.contentEncodings().isEmpty()) {
+            contentEncoding = selectPrecompressedEncoding(res, acceptEncoding.toString());
+        }
+        final Object content = res.removeContent(contentEncoding);
+
+        HttpResponse newRes = new DefaultHttpResponse(version, res.status());
+        HttpHeaders headers = newRes.headers().set(res.headers());
+        if (!res.contentEncodings().isEmpty() || contentEncoding != null) {
+            // Caches must not serve the selected variant to peers which accept different encodings.
+            if (!headers.containsValue(HttpHeaderNames.VARY, HttpHeaderNames.ACCEPT_ENCODING, true)) {
+                headers.add(HttpHeaderNames.VARY, HttpHeaderNames.ACCEPT_ENCODING);
+            }
+        }
+        if (contentEncoding != null) {
+            headers.set(HttpHeaderNames.CONTENT_ENCODING, contentEncoding);
+        }
+
+        long contentLength = PrecompressedHttpResponse.contentLength(content);
+        if (code < 200 || code == 204) {
+            headers.remove(HttpHeaderNames.CONTENT_LENGTH);
+            headers.remove(HttpHeaderNames.TRANSFER_ENCODING);
+        } else if (contentLength >= 0) {
+            headers.remove(HttpHeaderNames.TRANSFER_ENCODING);
+            HttpUtil.setContentLength(newRes, contentLength);
+        } else if (version != HttpVersion.HTTP_1_0) {
+            HttpUtil.setTransferEncodingChunked(newRes, true);
+        }
+        out.add(newRes);
+
+        if (code < 200 || code == 204 || code == 304 ||
+                acceptEncoding == ZERO_LENGTH_HEAD || (acceptEncoding == ZERO_LENGTH_CONNECT && code == 200)) {
+            PrecompressedHttpResponse.release(content);
+            out.add(LastHttpContent.EMPTY_LAST_CONTENT);
+        } else if (content instanceof ByteBuf) {
+            out.add(new DefaultLastHttpContent((ByteBuf) content));
+        } else {
+            out.add(content);
+            out.add(LastHttpContent.EMPTY_LAST_CONTENT);
+        }
+    }
+
+    /**
+     * Returns the content encoding of the variant of a {@link PrecompressedHttpResponse} that should be sent, or
+     * {@code null} if the content should be sent in the identity encoding.
+     * <p>
+     * By default the variant with the highest quality value in {@code acceptEncoding} is selected.  If several
+     * variants have the same quality value the one which was added first to the response wins.  The identity
+     * encoding is only preferred if the peer accepts it explicitly with a higher quality value.
+     *
+     * @param res
+     *        the response, which has at least one variant
+     * @param acceptEncoding
+     *        the value of the {@code "Accept-Encoding"} header
+     */
+    @SuppressWarnings("FloatingPointEquality")
+    protected String selectPrecompressedEncoding(PrecompressedHttpResponse res, String acceptEncoding) {
+        Set<String> contentEncodings = res.contentEncodings();
+        float[] qValues = new float[contentEncodings.size()];
+        Arrays.fill(qValues, -1.0f);
+        float starQ = -1.0f;
+        float identityQ = -1.0f;
+        for (String element : acceptEncoding.split(",")) {
+            String contentCoding = contentCoding(element);
+            float q = qValue(element);
+            if ("*".equals(contentCoding)) {
+                starQ = q;
+            } else if (HttpHeaderValues.IDENTITY.contentEqualsIgnoreCase(contentCoding)) {
+                identityQ = q;
+            } else {
+                int i = 0;
+                for (String contentEncoding : contentEncodings) {
+                    if (contentEncoding.equalsIgnoreCase(contentCoding)) {
+                        qValues[i] = Math.max(qValues[i], q);
+                        break;
+                    }
+                    i++;
+                }
+            }
+        }
+
+        String selected = null;
+        float selectedQ = 0.0f;
+        int i = 0;
+        for (String contentEncoding : contentEncodings) {
+            float q = qValues[i++];
+            if (q == -1.0f) {
+                q = starQ;
+            }
+            if (q > selectedQ) {
+                selected = contentEncoding;
+                selectedQ = q;
+            }
+        }
+        return selectedQ >= identityQ ? selected : null;
+    }
+
+    /**
+     * Returns the content coding of an element of an {@code "Accept-Encoding"} header, without its parameters.
+     */
+    static String contentCoding(String element) {
+        int paramsPos = element.indexOf(';');
+        return (paramsPos == -1 ? element : element.substring(0, paramsPos)).trim();
+    }
+
+    /**
+     * Returns the quality value of an element of an {@code "Accept-Encoding"} header, which is {@code 1} if none is
+     * given and {@code 0} if it is invalid.
+     */
+    static float qValue(String element) {
+        int paramsPos = element.indexOf(';');
+        if (paramsPos != -1) {
+            int equalsPos = element.indexOf('=', paramsPos);
+            if (equalsPos != -1) {
+                try {
+                    return Float.parseFloat(element.substring(equalsPos + 1));
+                } catch (NumberFormatException e) {
+                    // Ignore encoding
+                    return 0.0f;
+                }
+            }
+        }
+        return 1.0f;
+    }
+
     private static boolean isPassthru(HttpVersion version, int code, CharSequence httpMethod) {
         return code < 200 || code == 204 || code == 304 ||
                (httpMethod == ZERO_LENGTH_HEAD || (httpMethod == ZERO_LENGTH_CONNECT && code == 200)) ||
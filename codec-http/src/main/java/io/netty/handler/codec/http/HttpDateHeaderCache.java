@@ -0,0 +1,59 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.http;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.DateFormatter;
+import io.netty.util.CharsetUtil;
+import io.netty.util.concurrent.FastThreadLocal;
+
+import java.util.Date;
+
+/**
+ * Caches the encoded {@code Date} header per thread, and so per {@link io.netty.channel.EventLoop}, so it only needs
+ * to be formatted once per second.
+ */
+final class HttpDateHeaderCache {
+
+    private static final FastThreadLocal<HttpDateHeaderCache> CACHE = new FastThreadLocal<HttpDateHeaderCache>() {
+        @Override
+        protected HttpDateHeaderCache initialValue() {
+            return new HttpDateHeaderCache();
+        }
+    };
+
+    private long second = Long.MIN_VALUE;
+    private byte[] encoded;
+
+    private HttpDateHeaderCache() { }
+
+    /**
+     * Writes the {@code Date} header for the current time into {@code buf}.
+     */
+    static void encode(ByteBuf buf) {
+        buf.writeBytes(CACHE.get().encoded(System.currentTimeMillis()));
+    }
+
+    byte[] encoded(long millis) {
+        long second = millis / 1000;
+        if (second != this.second) {
+            encoded = (HttpHeaderNames.DATE + ": " + DateFormatter.format(new Date(second * 1000)) + "\r\n")
+                    .getBytes(CharsetUtil.US_ASCII);
+            this.second = second;
+        }
+        return encoded;
+    }
+}
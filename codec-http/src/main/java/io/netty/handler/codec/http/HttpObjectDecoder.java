@@ -23,8 +23,10 @@ import io.netty.handler.codec.ByteToMessageDecoder;
 import io.netty.handler.codec.DecoderResult;
 import io.netty.handler.codec.PrematureChannelClosureException;
 import io.netty.handler.codec.TooLongFrameException;
+import io.netty.util.AsciiString;
 import io.netty.util.ByteProcessor;
 import io.netty.util.internal.AppendableCharSequence;
+import io.netty.util.internal.PlatformDependent;
 
 import java.util.List;
 
@@ -90,6 +92,14 @@ import java.util.List;
  * {@link ChannelPipeline}.  However, please note that your server might not
  * be as memory efficient as without the aggregator.
  *
+ * <h3>ASCII Headers</h3>
+ *
+ * If {@code asciiHeaders} is enabled the header block is located on the byte level and copied into a single
+ * {@code byte[]} once it was received completely. The names and values of the headers are {@link AsciiString}s
+ * which share this array, so neither a {@link String} nor a {@code char} copy is created per header. Names that
+ * match one of the {@link HttpHeaderNames} (ignoring case) are replaced by the constant, which means they are
+ * reported in lower case. Trailing headers are not affected by this option.
+ *
  * <h3>Extensibility</h3>
  *
  * Please note that this decoder is designed to be extended to implement
@@ -105,6 +115,7 @@ public abstract class HttpObjectDecoder extends ByteToMessageDecoder {
     private final int maxChunkSize;
     private final boolean chunkedSupported;
     protected final boolean validateHeaders;
+    private final boolean asciiHeaders;
     private final HeaderParser headerParser;
     private final LineParser lineParser;
 
@@ -113,6 +124,10 @@ public abstract class HttpObjectDecoder extends ByteToMessageDecoder {
     private long contentLength = Long.MIN_VALUE;
     private volatile boolean resetRequested;
 
+    // Used by findEndOfAsciiHeaders(...) to continue where it stopped when not all headers were received yet.
+    private int asciiHeadersScanOffset;
+    private int asciiHeadersScanSize;
+
     // These will be updated by splitHeader(...)
     private CharSequence name;
     private CharSequence value;
@@ -168,6 +183,19 @@ public abstract class HttpObjectDecoder extends ByteToMessageDecoder {
     protected HttpObjectDecoder(
             int maxInitialLineLength, int maxHeaderSize, int maxChunkSize,
             boolean chunkedSupported, boolean validateHeaders, int initialBufferSize) {
+        this(maxInitialLineLength, maxHeaderSize, maxChunkSize, chunkedSupported, validateHeaders, initialBufferSize,
+             false);
+    }
+
+    /**
+     * Creates a new instance with the specified parameters.
+     *
+     * @param asciiHeaders {@code true} if the headers should be decoded into {@link AsciiString}s which share a single
+     *                     copy of the received header block. See the class documentation for details.
+     */
+    protected HttpObjectDecoder(
+            int maxInitialLineLength, int maxHeaderSize, int maxChunkSize,
+            boolean chunkedSupported, boolean validateHeaders, int initialBufferSize, boolean asciiHeaders) {
         if (maxInitialLineLength <= 0) {
             throw new IllegalArgumentException(
                     "maxInitialLineLength must be a positive integer: " +
@@ -189,6 +217,7 @@ public abstract class HttpObjectDecoder extends ByteToMessageDecoder {
         this.maxChunkSize = maxChunkSize;
         this.chunkedSupported = chunkedSupported;
         this.validateHeaders = validateHeaders;
+        this.asciiHeaders = asciiHeaders;
     }
 
     @Override
@@ -511,6 +540,8 @@ public abstract class HttpObjectDecoder extends ByteToMessageDecoder {
         this.message = null;
         name = null;
         value = null;
+        asciiHeadersScanOffset = 0;
+        asciiHeadersScanSize = 0;
         contentLength = Long.MIN_VALUE;
         lineParser.reset();
         headerParser.reset();
@@ -578,6 +609,13 @@ public abstract class HttpObjectDecoder extends ByteToMessageDecoder {
         final HttpMessage message = this.message;
         final HttpHeaders headers = message.headers();
 
+        if (asciiHeaders) {
+            if (!readAsciiHeaders(buffer, headers)) {
+                return null;
+            }
+            return nextState(message);
+        }
+
         AppendableCharSequence line = headerParser.parse(buffer);
         if (line == null) {
             return null;
@@ -613,6 +651,10 @@ public abstract class HttpObjectDecoder extends ByteToMessageDecoder {
         name = null;
         value = null;
 
+        return nextState(message);
+    }
+
+    private State nextState(HttpMessage message) {
         State nextState;
 
         if (isContentAlwaysEmpty(message)) {
@@ -628,6 +670,156 @@ public abstract class HttpObjectDecoder extends ByteToMessageDecoder {
         return nextState;
     }
 
+    private boolean readAsciiHeaders(ByteBuf buffer, HttpHeaders headers) {
+        final int start = buffer.readerIndex();
+        final int end = findEndOfAsciiHeaders(buffer);
+        if (end == -1) {
+            return false;
+        }
+        // Copy the whole header block at once, all names and values are views of this array.
+        final byte[] bytes = new byte[end - start];
+        buffer.getBytes(start, bytes);
+        buffer.readerIndex(end);
+
+        int lineStart = 0;
+        for (;;) {
+            int lineEnd = lineStart;
+            while (bytes[lineEnd] != HttpConstants.LF) {
+                lineEnd ++;
+            }
+            final int next = lineEnd + 1;
+            if (lineEnd > lineStart && bytes[lineEnd - 1] == HttpConstants.CR) {
+                lineEnd --;
+            }
+            if (lineEnd == lineStart) {
+                break;
+            }
+
+            byte firstByte = bytes[lineStart];
+            if (name != null && (firstByte == ' ' || firstByte == '\t')) {
+                appendAsciiValue(bytes, lineStart, lineEnd);
+            } else {
+                if (name != null) {
+                    headers.add(name, value);
+                }
+                splitAsciiHeader(bytes, lineStart, lineEnd);
+            }
+            lineStart = next;
+        }
+
+        // Add the last header.
+        if (name != null) {
+            headers.add(name, value);
+        }
+        // reset name and value fields
+        name = null;
+        value = null;
+        return true;
+    }
+
+    /**
+     * Returns the index after the empty line which terminates the headers or {@code -1} if it was not received yet.
+     */
+    private int findEndOfAsciiHeaders(ByteBuf buffer) {
+        final int readerIndex = buffer.readerIndex();
+        final int writerIndex = buffer.writerIndex();
+        final int maxLength = headerParser.maxLength;
+        int lineStart = readerIndex + asciiHeadersScanOffset;
+        int size = asciiHeadersScanSize;
+        for (;;) {
+            int lf = buffer.indexOf(lineStart, writerIndex, HttpConstants.LF);
+            if (lf == -1) {
+                if (size + writerIndex - lineStart > maxLength + 1) {
+                    // Even without a trailing CR the line would be too long.
+                    throw headerParser.newException(maxLength);
+                }
+                asciiHeadersScanOffset = lineStart - readerIndex;
+                asciiHeadersScanSize = size;
+                return -1;
+            }
+            int length = lf - lineStart;
+            if (length > 0 && buffer.getByte(lf - 1) == HttpConstants.CR) {
+                length --;
+            }
+            if (length == 0) {
+                // Account for the header bytes in case trailing headers follow.
+                headerParser.size += size;
+                asciiHeadersScanOffset = 0;
+                asciiHeadersScanSize = 0;
+                return lf + 1;
+            }
+            size += length;
+            if (size > maxLength) {
+                throw headerParser.newException(maxLength);
+            }
+            lineStart = lf + 1;
+        }
+    }
+
+    private void splitAsciiHeader(byte[] bytes, int start, int end) {
+        int nameStart;
+        int nameEnd;
+        int colonEnd;
+        int valueStart;
+
+        nameStart = findNonWhitespace(bytes, start, end);
+        for (nameEnd = nameStart; nameEnd < end; nameEnd ++) {
+            byte b = bytes[nameEnd];
+            if (b == ':' || isWhitespace(b)) {
+                break;
+            }
+        }
+
+        for (colonEnd = nameEnd; colonEnd < end; colonEnd ++) {
+            if (bytes[colonEnd] == ':') {
+                colonEnd ++;
+                break;
+            }
+        }
+
+        name = KnownHeaderNames.get(bytes, nameStart, nameEnd - nameStart);
+        valueStart = findNonWhitespace(bytes, colonEnd, end);
+        if (valueStart == end) {
+            value = AsciiString.EMPTY_STRING;
+        } else {
+            value = new AsciiString(bytes, valueStart, findEndOfString(bytes, valueStart, end) - valueStart, false);
+        }
+    }
+
+    private void appendAsciiValue(byte[] bytes, int start, int end) {
+        int trimmedStart = findNonWhitespace(bytes, start, end);
+        int trimmedLength = trimmedStart == end ? 0 : findEndOfString(bytes, trimmedStart, end) - trimmedStart;
+        AsciiString value = (AsciiString) this.value;
+        byte[] joined = new byte[value.length() + 1 + trimmedLength];
+        System.arraycopy(value.array(), value.arrayOffset(), joined, 0, value.length());
+        joined[value.length()] = ' ';
+        System.arraycopy(bytes, trimmedStart, joined, value.length() + 1, trimmedLength);
+        this.value = new AsciiString(joined, false);
+    }
+
+    private static int findNonWhitespace(byte[] bytes, int offset, int end) {
+        for (int result = offset; result < end; ++result) {
+            if (!isWhitespace(bytes[result])) {
+                return result;
+            }
+        }
+        return end;
+    }
+
+    private static int findEndOfString(byte[] bytes, int start, int end) {
+        for (int result = end - 1; result > start; --result) {
+            if (!isWhitespace(bytes[result])) {
+                return result + 1;
+            }
+        }
+        return start + 1;
+    }
+
+    // Same as Character.isWhitespace(char) for US-ASCII.
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b >= 0x09 && b <= 0x0D || b >= 0x1C && b <= 0x1F;
+    }
+
     private long contentLength() {
         if (contentLength == Long.MIN_VALUE) {
             contentLength = HttpUtil.getContentLength(message, -1L);
@@ -785,6 +977,96 @@ public abstract class HttpObjectDecoder extends ByteToMessageDecoder {
         return 0;
     }
 
+    /**
+     * Maps the bytes of a header name to the matching {@link HttpHeaderNames} constant without allocating.
+     */
+    private static final class KnownHeaderNames {
+        private static final AsciiString[] NAMES;
+        private static final int MASK;
+
+        static {
+            // Listed explicitly instead of looked up by reflection. The deprecated names are left out.
+            AsciiString[] known = {
+                HttpHeaderNames.ACCEPT, HttpHeaderNames.ACCEPT_CHARSET, HttpHeaderNames.ACCEPT_ENCODING,
+                HttpHeaderNames.ACCEPT_LANGUAGE, HttpHeaderNames.ACCEPT_RANGES, HttpHeaderNames.ACCEPT_PATCH,
+                HttpHeaderNames.ACCESS_CONTROL_ALLOW_CREDENTIALS, HttpHeaderNames.ACCESS_CONTROL_ALLOW_HEADERS,
+                HttpHeaderNames.ACCESS_CONTROL_ALLOW_METHODS, HttpHeaderNames.ACCESS_CONTROL_ALLOW_ORIGIN,
+                HttpHeaderNames.ACCESS_CONTROL_EXPOSE_HEADERS, HttpHeaderNames.ACCESS_CONTROL_MAX_AGE,
+                HttpHeaderNames.ACCESS_CONTROL_REQUEST_HEADERS, HttpHeaderNames.ACCESS_CONTROL_REQUEST_METHOD,
+                HttpHeaderNames.AGE, HttpHeaderNames.ALLOW, HttpHeaderNames.AUTHORIZATION,
+                HttpHeaderNames.CACHE_CONTROL, HttpHeaderNames.CONNECTION, HttpHeaderNames.CONTENT_BASE,
+                HttpHeaderNames.CONTENT_ENCODING, HttpHeaderNames.CONTENT_LANGUAGE, HttpHeaderNames.CONTENT_LENGTH,
+                HttpHeaderNames.CONTENT_LOCATION, HttpHeaderNames.CONTENT_TRANSFER_ENCODING,
+                HttpHeaderNames.CONTENT_DISPOSITION, HttpHeaderNames.CONTENT_MD5, HttpHeaderNames.CONTENT_RANGE,
+                HttpHeaderNames.CONTENT_SECURITY_POLICY, HttpHeaderNames.CONTENT_TYPE, HttpHeaderNames.COOKIE,
+                HttpHeaderNames.DATE, HttpHeaderNames.ETAG, HttpHeaderNames.EXPECT, HttpHeaderNames.EXPIRES,
+                HttpHeaderNames.FROM, HttpHeaderNames.HOST, HttpHeaderNames.IF_MATCH,
+                HttpHeaderNames.IF_MODIFIED_SINCE, HttpHeaderNames.IF_NONE_MATCH, HttpHeaderNames.IF_RANGE,
+                HttpHeaderNames.IF_UNMODIFIED_SINCE, HttpHeaderNames.LAST_MODIFIED, HttpHeaderNames.LOCATION,
+                HttpHeaderNames.MAX_FORWARDS, HttpHeaderNames.ORIGIN, HttpHeaderNames.PRAGMA,
+                HttpHeaderNames.PROXY_AUTHENTICATE, HttpHeaderNames.PROXY_AUTHORIZATION, HttpHeaderNames.RANGE,
+                HttpHeaderNames.REFERER, HttpHeaderNames.RETRY_AFTER, HttpHeaderNames.SEC_WEBSOCKET_KEY1,
+                HttpHeaderNames.SEC_WEBSOCKET_KEY2, HttpHeaderNames.SEC_WEBSOCKET_LOCATION,
+                HttpHeaderNames.SEC_WEBSOCKET_ORIGIN, HttpHeaderNames.SEC_WEBSOCKET_PROTOCOL,
+                HttpHeaderNames.SEC_WEBSOCKET_VERSION, HttpHeaderNames.SEC_WEBSOCKET_KEY,
+                HttpHeaderNames.SEC_WEBSOCKET_ACCEPT, HttpHeaderNames.SEC_WEBSOCKET_EXTENSIONS, HttpHeaderNames.SERVER,
+                HttpHeaderNames.SET_COOKIE, HttpHeaderNames.SET_COOKIE2, HttpHeaderNames.TE, HttpHeaderNames.TRAILER,
+                HttpHeaderNames.TRANSFER_ENCODING, HttpHeaderNames.UPGRADE, HttpHeaderNames.USER_AGENT,
+                HttpHeaderNames.VARY, HttpHeaderNames.VIA, HttpHeaderNames.WARNING, HttpHeaderNames.WEBSOCKET_LOCATION,
+                HttpHeaderNames.WEBSOCKET_ORIGIN, HttpHeaderNames.WEBSOCKET_PROTOCOL, HttpHeaderNames.WWW_AUTHENTICATE,
+                HttpHeaderNames.X_FRAME_OPTIONS
+            };
+            AsciiString[] names = new AsciiString[1 << 8];
+            while (names.length < known.length << 2) {
+                names = new AsciiString[names.length << 1];
+            }
+            int mask = names.length - 1;
+            for (AsciiString name: known) {
+                int index = name.hashCode() & mask;
+                while (names[index] != null) {
+                    index = index + 1 & mask;
+                }
+                names[index] = name;
+            }
+            NAMES = names;
+            MASK = mask;
+        }
+
+        static AsciiString get(byte[] bytes, int start, int length) {
+            // The hash code of AsciiString ignores the case.
+            int index = PlatformDependent.hashCodeAscii(bytes, start, length) & MASK;
+            for (;;) {
+                AsciiString name = NAMES[index];
+                if (name == null) {
+                    return new AsciiString(bytes, start, length, false);
+                }
+                if (equalsIgnoreCase(name, bytes, start, length)) {
+                    return name;
+                }
+                index = index + 1 & MASK;
+            }
+        }
+
+        private static boolean equalsIgnoreCase(AsciiString name, byte[] bytes, int start, int length) {
+            if (name.length() != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                byte b = bytes[start + i];
+                if (b >= 'A' && b <= 'Z') {
+                    b += 32;
+                }
+                // The constants are all lower case.
+                if (b != name.byteAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private KnownHeaderNames() { }
+    }
+
     private static class HeaderParser implements ByteProcessor {
         private final AppendableCharSequence seq;
         private final int maxLength;
@@ -98,7 +98,7 @@ public abstract class HttpObjectEncoder<H extends HttpMessage> extends MessageTo
 
             sanitizeHeadersBeforeEncode(m, state == ST_CONTENT_ALWAYS_EMPTY);
 
-            encodeHeaders(m.headers(), buf);
+            encodeMessageHeaders(m, buf);
             ByteBufUtil.writeShortBE(buf, CRLF_SHORT);
 
             headersEncodedSizeAccumulator = HEADERS_WEIGHT_NEW * padSizeForAccumulation(buf.readableBytes()) +
@@ -181,6 +181,14 @@ public abstract class HttpObjectEncoder<H extends HttpMessage> extends MessageTo
         }
     }
 
+    /**
+     * Encode the headers of the given message into a {@link ByteBuf}. The default implementation calls
+     * {@link #encodeHeaders(HttpHeaders, ByteBuf)} for {@link HttpMessage#headers()}.
+     */
+    protected void encodeMessageHeaders(H msg, ByteBuf buf) {
+        encodeHeaders(msg.headers(), buf);
+    }
+
     /**
      * Encode the {@link HttpHeaders} into a {@link ByteBuf}.
      */
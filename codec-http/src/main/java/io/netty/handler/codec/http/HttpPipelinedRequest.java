@@ -0,0 +1,113 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.http;
+
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.ReferenceCounted;
+import io.netty.util.internal.ObjectUtil;
+import io.netty.util.internal.StringUtil;
+
+/**
+ * A {@link HttpRequest} which was received by {@link HttpPipeliningHandler}, together with the sequence id that
+ * must be used to write its response. Reference counting is delegated to the wrapped request.
+ */
+public final class HttpPipelinedRequest implements ReferenceCounted {
+
+    private final HttpRequest request;
+    private final int sequenceId;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param request       the received request
+     * @param sequenceId    the sequence id of the request on its connection
+     */
+    public HttpPipelinedRequest(HttpRequest request, int sequenceId) {
+        this.request = ObjectUtil.checkNotNull(request, "request");
+        this.sequenceId = sequenceId;
+    }
+
+    /**
+     * Returns the received request. If it is not a {@link FullHttpRequest} its {@link HttpContent}s follow as
+     * separate messages.
+     */
+    public HttpRequest request() {
+        return request;
+    }
+
+    /**
+     * Returns the sequence id of the request on its connection.
+     */
+    public int sequenceId() {
+        return sequenceId;
+    }
+
+    /**
+     * Returns a new {@link HttpPipelinedResponse} which writes {@code message} as (part of) the response to this
+     * request.
+     */
+    public HttpPipelinedResponse response(HttpObject message) {
+        return new HttpPipelinedResponse(message, sequenceId);
+    }
+
+    @Override
+    public int refCnt() {
+        if (request instanceof ReferenceCounted) {
+            return ((ReferenceCounted) request).refCnt();
+        } else {
+            return 1;
+        }
+    }
+
+    @Override
+    public HttpPipelinedRequest retain() {
+        ReferenceCountUtil.retain(request);
+        return this;
+    }
+
+    @Override
+    public HttpPipelinedRequest retain(int increment) {
+        ReferenceCountUtil.retain(request, increment);
+        return this;
+    }
+
+    @Override
+    public boolean release() {
+        return ReferenceCountUtil.release(request);
+    }
+
+    @Override
+    public boolean release(int decrement) {
+        return ReferenceCountUtil.release(request, decrement);
+    }
+
+    @Override
+    public HttpPipelinedRequest touch() {
+        ReferenceCountUtil.touch(request);
+        return this;
+    }
+
+    @Override
+    public HttpPipelinedRequest touch(Object hint) {
+        ReferenceCountUtil.touch(request, hint);
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return StringUtil.simpleClassName(this) + "(sequenceId: " + sequenceId + ", " + request + ')';
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.http;
+
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.ReferenceCounted;
+import io.netty.util.internal.ObjectUtil;
+import io.netty.util.internal.StringUtil;
+
+/**
+ * A {@link HttpObject} of the response to a {@link HttpPipelinedRequest}, which is written in request order by
+ * {@link HttpPipeliningHandler}. A response may be written as several {@link HttpPipelinedResponse}s with the same
+ * sequence id, it is complete once a {@link LastHttpContent} was written. Reference counting is delegated to the
+ * wrapped message.
+ */
+public final class HttpPipelinedResponse implements ReferenceCounted {
+
+    private final HttpObject message;
+    private final int sequenceId;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param message       the {@link HttpResponse}, {@link HttpContent} or {@link FullHttpResponse} to write
+     * @param sequenceId    the {@link HttpPipelinedRequest#sequenceId()} of the request this message responds to
+     */
+    public HttpPipelinedResponse(HttpObject message, int sequenceId) {
+        this.message = ObjectUtil.checkNotNull(message, "message");
+        this.sequenceId = sequenceId;
+    }
+
+    /**
+     * Returns the message to write.
+     */
+    public HttpObject message() {
+        return message;
+    }
+
+    /**
+     * Returns the sequence id of the request this message responds to.
+     */
+    public int sequenceId() {
+        return sequenceId;
+    }
+
+    @Override
+    public int refCnt() {
+        if (message instanceof ReferenceCounted) {
+            return ((ReferenceCounted) message).refCnt();
+        } else {
+            return 1;
+        }
+    }
+
+    @Override
+    public HttpPipelinedResponse retain() {
+        ReferenceCountUtil.retain(message);
+        return this;
+    }
+
+    @Override
+    public HttpPipelinedResponse retain(int increment) {
+        ReferenceCountUtil.retain(message, increment);
+        return this;
+    }
+
+    @Override
+    public boolean release() {
+        return ReferenceCountUtil.release(message);
+    }
+
+    @Override
+    public boolean release(int decrement) {
+        return ReferenceCountUtil.release(message, decrement);
+    }
+
+    @Override
+    public HttpPipelinedResponse touch() {
+        ReferenceCountUtil.touch(message);
+        return this;
+    }
+
+    @Override
+    public HttpPipelinedResponse touch(Object hint) {
+        ReferenceCountUtil.touch(message, hint);
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return StringUtil.simpleClassName(this) + "(sequenceId: " + sequenceId + ", " + message + ')';
+    }
+}
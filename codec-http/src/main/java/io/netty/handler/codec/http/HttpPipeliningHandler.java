@@ -0,0 +1,306 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.http;
+
+import io.netty.buffer.ByteBufHolder;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.TooLongFrameException;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.internal.PendingWrite;
+
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayDeque;
+
+import static io.netty.util.internal.ObjectUtil.checkPositive;
+
+/**
+ * Allows to process pipelined HTTP/1.1 requests concurrently while their responses are still sent in request order,
+ * as required by <a href="https://tools.ietf.org/html/rfc7230#section-6.3.2">RFC 7230</a>.
+ * <p>
+ * Every received {@link HttpRequest} is wrapped in a {@link HttpPipelinedRequest} which carries the sequence id of
+ * the request on its connection. {@link HttpContent}s that follow a request are passed on as they are. The response
+ * must be written as one or more {@link HttpPipelinedResponse}s with this sequence id, for example via
+ * {@link HttpPipelinedRequest#response(HttpObject)}. The response to the oldest outstanding request is written
+ * through directly, responses to later requests are buffered until all responses before them are complete, that is
+ * until their {@link LastHttpContent} was written. Any other message is written through directly.
+ * <p>
+ * At most {@code maxInFlightRequests} requests are handed to the next handlers before their response is complete.
+ * Once this limit is reached the handler stops reading from the connection and holds back requests which were
+ * already decoded. If the content of the buffered responses exceeds {@code maxBufferedResponseBytes} the write fails
+ * with a {@link TooLongFrameException} and the connection is closed, as the responses can not be sent in order
+ * anymore.
+ * <blockquote>
+ * <pre>
+ *  {@link ChannelPipeline} p = ...;
+ *  ...
+ *  p.addLast("serverCodec", new {@link HttpServerCodec}());
+ *  p.addLast("httpKeepAlive", new {@link HttpServerKeepAliveHandler}());
+ *  p.addLast("aggregator", new {@link HttpObjectAggregator}(1048576));
+ *  p.addLast("pipelining", <b>new {@link HttpPipeliningHandler}()</b>);
+ *  ...
+ *  p.addLast("handler", new HttpRequestHandler());
+ *  </pre>
+ * </blockquote>
+ */
+public class HttpPipeliningHandler extends ChannelDuplexHandler {
+
+    static final int DEFAULT_MAX_IN_FLIGHT_REQUESTS = 16;
+    static final int DEFAULT_MAX_BUFFERED_RESPONSE_BYTES = 4 * 1024 * 1024;
+
+    private final int maxInFlightRequests;
+    private final int maxBufferedResponseBytes;
+    // One slot per in-flight request, the slot of the oldest outstanding request is at headSlot.
+    private final ResponseSlot[] slots;
+    private final ArrayDeque<Object> heldMessages = new ArrayDeque<Object>();
+
+    private int nextSequenceId;
+    private int writeSequenceId;
+    private int headSlot;
+    private long bufferedResponseBytes;
+    private boolean readPending;
+    private boolean draining;
+    private boolean releasingHeldMessages;
+
+    /**
+     * Creates a new instance which allows {@code 16} in-flight requests and buffers up to {@code 4 MiB} of response
+     * content.
+     */
+    public HttpPipeliningHandler() {
+        this(DEFAULT_MAX_IN_FLIGHT_REQUESTS, DEFAULT_MAX_BUFFERED_RESPONSE_BYTES);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param maxInFlightRequests       the maximum number of requests that are processed at the same time
+     * @param maxBufferedResponseBytes  the maximum number of content bytes of responses which wait for the responses
+     *                                  to earlier requests
+     */
+    public HttpPipeliningHandler(int maxInFlightRequests, int maxBufferedResponseBytes) {
+        this.maxInFlightRequests = checkPositive(maxInFlightRequests, "maxInFlightRequests");
+        this.maxBufferedResponseBytes = checkPositive(maxBufferedResponseBytes, "maxBufferedResponseBytes");
+        slots = new ResponseSlot[maxInFlightRequests];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new ResponseSlot();
+        }
+    }
+
+    /**
+     * Returns the number of requests that were passed on and whose response is not complete yet.
+     */
+    public int inFlightRequests() {
+        return nextSequenceId - writeSequenceId;
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (!heldMessages.isEmpty() || msg instanceof HttpRequest && inFlightRequests() >= maxInFlightRequests) {
+            heldMessages.add(msg);
+        } else {
+            forward(ctx, msg);
+        }
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        releaseAll();
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        releaseAll();
+    }
+
+    @Override
+    public void read(ChannelHandlerContext ctx) throws Exception {
+        if (!heldMessages.isEmpty() || inFlightRequests() >= maxInFlightRequests) {
+            readPending = true;
+        } else {
+            ctx.read();
+        }
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        if (!(msg instanceof HttpPipelinedResponse)) {
+            ctx.write(msg, promise);
+            return;
+        }
+
+        HttpPipelinedResponse response = (HttpPipelinedResponse) msg;
+        HttpObject message = response.message();
+        int offset = response.sequenceId() - writeSequenceId;
+        if (offset < 0 || offset >= inFlightRequests()) {
+            ReferenceCountUtil.release(message);
+            promise.setFailure(new IllegalStateException(
+                    "no in-flight request with sequence id: " + response.sequenceId()));
+            return;
+        }
+        ResponseSlot slot = slots[(headSlot + offset) % slots.length];
+        if (slot.complete) {
+            ReferenceCountUtil.release(message);
+            promise.setFailure(new IllegalStateException(
+                    "response already complete for sequence id: " + response.sequenceId()));
+            return;
+        }
+
+        if (offset == 0 && !draining) {
+            ctx.write(message, promise);
+            if (message instanceof LastHttpContent) {
+                completeHead(ctx);
+            }
+            return;
+        }
+
+        int size = contentSize(message);
+        if (bufferedResponseBytes + size > maxBufferedResponseBytes) {
+            ReferenceCountUtil.release(message);
+            promise.setFailure(new TooLongFrameException(
+                    "buffered pipelined responses exceed " + maxBufferedResponseBytes + " bytes"));
+            ctx.close();
+            return;
+        }
+        slot.add(PendingWrite.newInstance(message, promise), size);
+        bufferedResponseBytes += size;
+        slot.complete = message instanceof LastHttpContent;
+    }
+
+    private void forward(ChannelHandlerContext ctx, Object msg) {
+        if (msg instanceof HttpRequest) {
+            ctx.fireChannelRead(new HttpPipelinedRequest((HttpRequest) msg, nextSequenceId++));
+        } else {
+            ctx.fireChannelRead(msg);
+        }
+    }
+
+    /**
+     * Called once the response to the oldest outstanding request is complete. Writes all buffered responses which
+     * are next in order and passes on held back requests for which there is room now.
+     */
+    private void completeHead(ChannelHandlerContext ctx) {
+        draining = true;
+        try {
+            for (;;) {
+                slots[headSlot].complete = false;
+                headSlot = (headSlot + 1) % slots.length;
+                writeSequenceId++;
+                if (writeSequenceId == nextSequenceId) {
+                    break;
+                }
+
+                ResponseSlot slot = slots[headSlot];
+                // Writes which are issued while we drain, for example by a listener of a failed promise, are added
+                // to the slot, so they are written after what was buffered before.
+                for (;;) {
+                    PendingWrite write = slot.poll();
+                    if (write == null) {
+                        break;
+                    }
+                    Object message = write.msg();
+                    ctx.write(message, (ChannelPromise) write.recycleAndGet());
+                }
+                bufferedResponseBytes -= slot.bytes;
+                slot.bytes = 0;
+                if (!slot.complete) {
+                    break;
+                }
+            }
+        } finally {
+            draining = false;
+        }
+        releaseHeldMessages(ctx);
+    }
+
+    private void releaseHeldMessages(ChannelHandlerContext ctx) {
+        if (releasingHeldMessages) {
+            // Passing on a held back request may complete its response right away, the outer call continues.
+            return;
+        }
+        releasingHeldMessages = true;
+        try {
+            boolean forwarded = false;
+            for (;;) {
+                Object msg = heldMessages.peek();
+                if (msg == null || msg instanceof HttpRequest && inFlightRequests() >= maxInFlightRequests) {
+                    break;
+                }
+                heldMessages.poll();
+                forward(ctx, msg);
+                forwarded = true;
+            }
+            if (forwarded) {
+                ctx.fireChannelReadComplete();
+            }
+        } finally {
+            releasingHeldMessages = false;
+        }
+        if (readPending && heldMessages.isEmpty() && inFlightRequests() < maxInFlightRequests) {
+            readPending = false;
+            ctx.read();
+        }
+    }
+
+    private void releaseAll() {
+        for (;;) {
+            Object msg = heldMessages.poll();
+            if (msg == null) {
+                break;
+            }
+            ReferenceCountUtil.release(msg);
+        }
+        ClosedChannelException cause = null;
+        for (ResponseSlot slot: slots) {
+            for (;;) {
+                PendingWrite write = slot.poll();
+                if (write == null) {
+                    break;
+                }
+                if (cause == null) {
+                    cause = new ClosedChannelException();
+                }
+                write.failAndRecycle(cause);
+            }
+            slot.bytes = 0;
+        }
+        bufferedResponseBytes = 0;
+    }
+
+    private static int contentSize(Object msg) {
+        return msg instanceof ByteBufHolder ? ((ByteBufHolder) msg).content().readableBytes() : 0;
+    }
+
+    private static final class ResponseSlot {
+        private ArrayDeque<PendingWrite> writes;
+        long bytes;
+        boolean complete;
+
+        void add(PendingWrite write, int size) {
+            if (writes == null) {
+                writes = new ArrayDeque<PendingWrite>(4);
+            }
+            writes.add(write);
+            bytes += size;
+        }
+
+        PendingWrite poll() {
+            return writes == null ? null : writes.poll();
+        }
+    }
+}
@@ -18,6 +18,7 @@ package io.netty.handler.codec.http;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelPipeline;
 import io.netty.handler.codec.TooLongFrameException;
+import io.netty.util.AsciiString;
 
 
 /**
@@ -81,6 +82,19 @@ public class HttpRequestDecoder extends HttpObjectDecoder {
         super(maxInitialLineLength, maxHeaderSize, maxChunkSize, true, validateHeaders, initialBufferSize);
     }
 
+    /**
+     * Creates a new instance with the specified parameters.
+     *
+     * @param asciiHeaders {@code true} if the headers should be decoded into {@link AsciiString}s which share a single
+     *                     copy of the received header block. See {@link HttpObjectDecoder} for details.
+     */
+    public HttpRequestDecoder(
+            int maxInitialLineLength, int maxHeaderSize, int maxChunkSize, boolean validateHeaders,
+            int initialBufferSize, boolean asciiHeaders) {
+        super(maxInitialLineLength, maxHeaderSize, maxChunkSize, true, validateHeaders, initialBufferSize,
+              asciiHeaders);
+    }
+
     @Override
     protected HttpMessage createMessage(String[] initialLine) throws Exception {
         return new DefaultHttpRequest(
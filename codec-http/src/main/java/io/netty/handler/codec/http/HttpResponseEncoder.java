@@ -17,6 +17,7 @@ package io.netty.handler.codec.http;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.EventLoop;
 
 import static io.netty.handler.codec.http.HttpConstants.*;
 
@@ -26,6 +27,29 @@ import static io.netty.handler.codec.http.HttpConstants.*;
  */
 public class HttpResponseEncoder extends HttpObjectEncoder<HttpResponse> {
 
+    private final PreEncodedHttpHeaders preEncodedHeaders;
+    private final boolean dateHeader;
+
+    /**
+     * Creates a new instance.
+     */
+    public HttpResponseEncoder() {
+        this(null, false);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param preEncodedHeaders the headers to add to every response which may carry them or {@code null}.
+     *                          See {@link #preEncodedHeaders(HttpResponse)}.
+     * @param dateHeader        {@code true} if a {@code Date} header should be added to every response which does not
+     *                          have one. It is formatted at most once per second per {@link EventLoop}.
+     */
+    public HttpResponseEncoder(PreEncodedHttpHeaders preEncodedHeaders, boolean dateHeader) {
+        this.preEncodedHeaders = preEncodedHeaders;
+        this.dateHeader = dateHeader;
+    }
+
     @Override
     public boolean acceptOutboundMessage(Object msg) throws Exception {
         return super.acceptOutboundMessage(msg) && !(msg instanceof HttpRequest);
@@ -39,6 +63,36 @@ public class HttpResponseEncoder extends HttpObjectEncoder<HttpResponse> {
         ByteBufUtil.writeShortBE(buf, CRLF_SHORT);
     }
 
+    @Override
+    protected void encodeMessageHeaders(HttpResponse msg, ByteBuf buf) {
+        HttpHeaders headers = msg.headers();
+        PreEncodedHttpHeaders preEncodedHeaders = preEncodedHeaders(msg);
+        if (preEncodedHeaders != null) {
+            preEncodedHeaders.encode(headers, buf);
+        }
+        if (dateHeader && !headers.contains(HttpHeaderNames.DATE) &&
+                (preEncodedHeaders == null || !preEncodedHeaders.contains(HttpHeaderNames.DATE))) {
+            HttpDateHeaderCache.encode(buf);
+        }
+        super.encodeMessageHeaders(msg, buf);
+    }
+
+    /**
+     * Returns the {@link PreEncodedHttpHeaders} to add to the given response or {@code null} if none should be added.
+     * The default implementation returns the instance this encoder was created with, except for {@code 1xx},
+     * {@code 204 No Content} and {@code 304 Not Modified} responses, which must not carry the entity headers that are
+     * usually pre-encoded. Sub-classes may override this to select the headers per response.
+     */
+    protected PreEncodedHttpHeaders preEncodedHeaders(HttpResponse msg) {
+        HttpResponseStatus status = msg.status();
+        if (status.codeClass() == HttpStatusClass.INFORMATIONAL ||
+                status.code() == HttpResponseStatus.NO_CONTENT.code() ||
+                status.code() == HttpResponseStatus.NOT_MODIFIED.code()) {
+            return null;
+        }
+        return preEncodedHeaders;
+    }
+
     @Override
     protected void sanitizeHeadersBeforeEncode(HttpResponse msg, boolean isAlwaysEmpty) {
         if (isAlwaysEmpty) {
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.http;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.HeadersUtils;
+import io.netty.util.AsciiString;
+import io.netty.util.internal.UnstableApi;
+
+import java.util.Iterator;
+import java.util.Map.Entry;
+
+import static io.netty.util.internal.ObjectUtil.checkNotNull;
+
+/**
+ * An immutable set of headers which is encoded only once and then written with a single copy for every message it
+ * is used for. This is useful for headers like {@code Server} or {@code Cache-Control} which are the same for all
+ * responses of a service.
+ * <p>
+ * If the headers of a message contain a header with the same name, the header of the message is used instead of
+ * the pre-encoded one. The per message headers {@code Content-Length} and {@code Transfer-Encoding} can not be
+ * pre-encoded. {@link HttpResponseEncoder} does not add them to {@code 1xx}, {@code 204} and {@code 304} responses.
+ *
+ * @see HttpResponseEncoder#HttpResponseEncoder(PreEncodedHttpHeaders, boolean)
+ */
+@UnstableApi
+public final class PreEncodedHttpHeaders {
+    private final CharSequence[] nameValuePairs;
+    private final byte[] encoded;
+
+    /**
+     * Creates a new instance from a snapshot of the given {@link HttpHeaders}.
+     */
+    public PreEncodedHttpHeaders(HttpHeaders headers) {
+        checkNotNull(headers, "headers");
+        CharSequence[] nameValuePairs = new CharSequence[headers.size() << 1];
+        ByteBuf buf = Unpooled.buffer();
+        try {
+            Iterator<Entry<CharSequence, CharSequence>> iter = headers.iteratorCharSequence();
+            for (int i = 0; iter.hasNext(); i += 2) {
+                Entry<CharSequence, CharSequence> header = iter.next();
+                AsciiString name = AsciiString.of(header.getKey());
+                if (HttpHeaderNames.CONTENT_LENGTH.contentEqualsIgnoreCase(name) ||
+                        HttpHeaderNames.TRANSFER_ENCODING.contentEqualsIgnoreCase(name)) {
+                    throw new IllegalArgumentException("can not pre-encode header: " + name);
+                }
+                AsciiString value = AsciiString.of(header.getValue());
+                nameValuePairs[i] = name;
+                nameValuePairs[i + 1] = value;
+                HttpHeadersEncoder.encoderHeader(name, value, buf);
+            }
+            encoded = new byte[buf.readableBytes()];
+            buf.readBytes(encoded);
+        } finally {
+            buf.release();
+        }
+        this.nameValuePairs = nameValuePairs;
+    }
+
+    /**
+     * Returns a read-only view of the pre-encoded headers.
+     */
+    public HttpHeaders headers() {
+        return new ReadOnlyHttpHeaders(false, nameValuePairs.clone());
+    }
+
+    /**
+     * Returns the number of bytes of the encoded headers.
+     */
+    public int encodedLength() {
+        return encoded.length;
+    }
+
+    boolean contains(CharSequence name) {
+        for (int i = 0; i < nameValuePairs.length; i += 2) {
+            if (AsciiString.contentEqualsIgnoreCase(nameValuePairs[i], name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes the pre-encoded headers which are not overridden by {@code messageHeaders} into {@code buf}.
+     */
+    void encode(HttpHeaders messageHeaders, ByteBuf buf) {
+        if (!messageHeaders.isEmpty()) {
+            for (int i = 0; i < nameValuePairs.length; i += 2) {
+                if (messageHeaders.contains(nameValuePairs[i])) {
+                    encodeNotOverridden(messageHeaders, buf);
+                    return;
+                }
+            }
+        }
+        buf.writeBytes(encoded);
+    }
+
+    private void encodeNotOverridden(HttpHeaders messageHeaders, ByteBuf buf) {
+        for (int i = 0; i < nameValuePairs.length; i += 2) {
+            CharSequence name = nameValuePairs[i];
+            if (!messageHeaders.contains(name)) {
+                HttpHeadersEncoder.encoderHeader(name, nameValuePairs[i + 1], buf);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return HeadersUtils.toString(getClass(), headers().iteratorCharSequence(), nameValuePairs.length >>> 1);
+    }
+}
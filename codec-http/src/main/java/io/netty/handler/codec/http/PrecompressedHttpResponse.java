@@ -0,0 +1,235 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.http;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.FileRegion;
+import io.netty.handler.stream.ChunkedInput;
+import io.netty.util.AbstractReferenceCounted;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.ReferenceCounted;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import static io.netty.util.internal.ObjectUtil.checkNotNull;
+
+/**
+ * An {@link HttpResponse} which carries its content in the identity encoding and in any number of already compressed
+ * variants, for example the {@code gzip} and {@code br} encoded versions of a static file. {@link HttpContentEncoder}
+ * implementations like {@link HttpContentCompressor} pick the variant which matches the {@code "Accept-Encoding"}
+ * header of the request best and send it as it is, so the same content is not compressed over and over again.
+ * <p>
+ * The content of a variant is either a {@link ByteBuf}, a {@link FileRegion} or a {@link ChunkedInput} which
+ * produces {@link ByteBuf}s, like {@link io.netty.handler.stream.ChunkedFile}. A {@link ChunkedInput} requires
+ * a {@link io.netty.handler.stream.ChunkedWriteHandler} between the {@link HttpObjectEncoder} and the
+ * {@link HttpContentEncoder} in the pipeline.
+ * <p>
+ * This message is sent instead of the response headers and all of the content, so no {@link HttpContent} must be
+ * written for it. It must be written through a {@link HttpContentEncoder}, otherwise only the headers are sent.
+ * The content of the variants which are not sent is released once the message was written, so a shared
+ * {@link ByteBuf} should be passed as {@link ByteBuf#retainedDuplicate()}.
+ */
+public class PrecompressedHttpResponse extends DefaultHttpResponse implements ReferenceCounted {
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(PrecompressedHttpResponse.class);
+
+    private final Map<String, Object> variants = new LinkedHashMap<String, Object>(4);
+    private Object content;
+
+    private final AbstractReferenceCounted refCnt = new AbstractReferenceCounted() {
+        @Override
+        protected void deallocate() {
+            releaseVariants();
+        }
+
+        @Override
+        public ReferenceCounted touch(Object hint) {
+            if (content != null) {
+                ReferenceCountUtil.touch(content, hint);
+            }
+            for (Object variant: variants.values()) {
+                ReferenceCountUtil.touch(variant, hint);
+            }
+            return this;
+        }
+    };
+
+    /**
+     * Creates a new instance.
+     *
+     * @param version the HTTP version of this response
+     * @param status  the status of this response
+     * @param content the content in the identity encoding, which is sent if the peer does not accept any of the
+     *                variants
+     */
+    public PrecompressedHttpResponse(HttpVersion version, HttpResponseStatus status, Object content) {
+        super(version, status);
+        this.content = checkContent(content);
+    }
+
+    /**
+     * Adds the {@code content} in the given {@code contentEncoding}. If the peer accepts several variants with the
+     * same quality value, the one that was added first is sent.
+     *
+     * @return this response
+     */
+    public PrecompressedHttpResponse addVariant(CharSequence contentEncoding, Object content) {
+        String encoding = checkNotNull(contentEncoding, "contentEncoding").toString().trim().toLowerCase(Locale.US);
+        checkContent(content);
+        if (encoding.isEmpty() || HttpHeaderValues.IDENTITY.contentEquals(encoding)) {
+            throw new IllegalArgumentException("contentEncoding: " + contentEncoding);
+        }
+        if (variants.containsKey(encoding)) {
+            throw new IllegalArgumentException("duplicate contentEncoding: " + contentEncoding);
+        }
+        variants.put(encoding, content);
+        return this;
+    }
+
+    /**
+     * Returns the content encodings of the variants in the order in which they were added, not including the
+     * identity encoding.
+     */
+    public Set<String> contentEncodings() {
+        return Collections.unmodifiableSet(variants.keySet());
+    }
+
+    /**
+     * Removes and returns the content in the given encoding, or the identity content if {@code contentEncoding} is
+     * {@code null}. The caller is responsible for releasing it.
+     */
+    Object removeContent(String contentEncoding) {
+        Object removed;
+        if (contentEncoding == null) {
+            removed = content;
+            content = null;
+        } else {
+            removed = variants.remove(contentEncoding);
+        }
+        if (removed == null) {
+            throw new IllegalStateException("content already removed: " +
+                    (contentEncoding == null ? HttpHeaderValues.IDENTITY : contentEncoding));
+        }
+        return removed;
+    }
+
+    /**
+     * Returns the length of the content or {@code -1} if it is unknown.
+     */
+    static long contentLength(Object content) {
+        if (content instanceof ByteBuf) {
+            return ((ByteBuf) content).readableBytes();
+        }
+        if (content instanceof FileRegion) {
+            return ((FileRegion) content).count();
+        }
+        return ((ChunkedInput<?>) content).length();
+    }
+
+    /**
+     * Releases the content of a variant which is not sent.
+     */
+    static void release(Object content) {
+        if (content instanceof ChunkedInput) {
+            try {
+                ((ChunkedInput<?>) content).close();
+            } catch (Throwable t) {
+                if (logger.isWarnEnabled()) {
+                    logger.warn("Failed to close a chunked input.", t);
+                }
+            }
+        } else {
+            ReferenceCountUtil.release(content);
+        }
+    }
+
+    private void releaseVariants() {
+        if (content != null) {
+            release(content);
+            content = null;
+        }
+        for (Iterator<Object> i = variants.values().iterator(); i.hasNext();) {
+            release(i.next());
+            i.remove();
+        }
+    }
+
+    private static Object checkContent(Object content) {
+        checkNotNull(content, "content");
+        if (!(content instanceof ByteBuf || content instanceof FileRegion || content instanceof ChunkedInput)) {
+            throw new IllegalArgumentException("unsupported content type: " + content.getClass().getName() +
+                    " (expected: ByteBuf, FileRegion or ChunkedInput)");
+        }
+        return content;
+    }
+
+    @Override
+    public int refCnt() {
+        return refCnt.refCnt();
+    }
+
+    @Override
+    public PrecompressedHttpResponse retain() {
+        refCnt.retain();
+        return this;
+    }
+
+    @Override
+    public PrecompressedHttpResponse retain(int increment) {
+        refCnt.retain(increment);
+        return this;
+    }
+
+    @Override
+    public PrecompressedHttpResponse touch() {
+        refCnt.touch();
+        return this;
+    }
+
+    @Override
+    public PrecompressedHttpResponse touch(Object hint) {
+        refCnt.touch(hint);
+        return this;
+    }
+
+    @Override
+    public boolean release() {
+        return refCnt.release();
+    }
+
+    @Override
+    public boolean release(int decrement) {
+        return refCnt.release(decrement);
+    }
+
+    @Override
+    public PrecompressedHttpResponse setStatus(HttpResponseStatus status) {
+        super.setStatus(status);
+        return this;
+    }
+
+    @Override
+    public PrecompressedHttpResponse setProtocolVersion(HttpVersion version) {
+        super.setProtocolVersion(version);
+        return this;
+    }
+}
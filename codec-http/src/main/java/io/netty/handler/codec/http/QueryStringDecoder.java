@@ -16,6 +16,7 @@
 package io.netty.handler.codec.http;
 
 import io.netty.util.CharsetUtil;
+import io.netty.util.internal.EmptyArrays;
 
 import java.net.URI;
 import java.net.URLDecoder;
@@ -26,6 +27,7 @@ import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CoderResult;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -52,6 +54,13 @@ import static io.netty.util.internal.StringUtil.*;
  * ...
  * </pre>
  *
+ * <h3>Lazy decoding</h3>
+ *
+ * {@link #parameters()} decodes all parameters at once. If only a few parameters are needed
+ * {@link #parameter(CharSequence)}, {@link #parameterValues(CharSequence)} and
+ * {@link #containsParameter(CharSequence)} may be used instead. They only record the offsets of the parameters
+ * within the URI on first use and decode the values of the requested parameter only.
+ *
  * <h3>HashDOS vulnerability fix</h3>
  *
  * As a workaround to the <a href="http://netty.io/s/hashdos">HashDOS</a> vulnerability, the decoder
@@ -71,6 +80,9 @@ public class QueryStringDecoder {
     private int pathEndIdx;
     private String path;
     private Map<String, List<String>> params;
+    // Offsets of the parameters in the uri: name start, name end, value start and value end.
+    private int[] paramOffsets;
+    private int paramCount;
 
     /**
      * Creates a new decoder that decodes the specified URI. The decoder will
@@ -182,6 +194,149 @@ public class QueryStringDecoder {
         return params;
     }
 
+    /**
+     * Returns the decoded value of the first parameter with the given decoded {@code name} or {@code null} if there is
+     * no such parameter. Unlike {@link #parameters()} only the value of this parameter is decoded.
+     */
+    public String parameter(CharSequence name) {
+        checkNotNull(name, "name");
+        int[] offsets = paramOffsets();
+        for (int i = 0; i < paramCount; i++) {
+            int idx = i << 2;
+            if (nameEquals(offsets[idx], offsets[idx + 1], name)) {
+                return decodeComponent(uri, offsets[idx + 2], offsets[idx + 3], charset, false);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the decoded values of all parameters with the given decoded {@code name}, which is empty if there is no
+     * such parameter. Unlike {@link #parameters()} only the values of these parameters are decoded.
+     */
+    public List<String> parameterValues(CharSequence name) {
+        checkNotNull(name, "name");
+        int[] offsets = paramOffsets();
+        List<String> values = null;
+        for (int i = 0; i < paramCount; i++) {
+            int idx = i << 2;
+            if (nameEquals(offsets[idx], offsets[idx + 1], name)) {
+                if (values == null) {
+                    values = new ArrayList<String>(1);  // Often there's only 1 value.
+                }
+                values.add(decodeComponent(uri, offsets[idx + 2], offsets[idx + 3], charset, false));
+            }
+        }
+        return values == null ? Collections.<String>emptyList() : values;
+    }
+
+    /**
+     * Returns {@code true} if there is a parameter with the given decoded {@code name}. No value is decoded.
+     */
+    public boolean containsParameter(CharSequence name) {
+        checkNotNull(name, "name");
+        int[] offsets = paramOffsets();
+        for (int i = 0; i < paramCount; i++) {
+            int idx = i << 2;
+            if (nameEquals(offsets[idx], offsets[idx + 1], name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean nameEquals(int start, int end, CharSequence name) {
+        for (int i = start; i < end; i++) {
+            char c = uri.charAt(i);
+            if (c == '%' || c == '+') {
+                // Rare, so just decode the name to compare it.
+                return decodeComponent(uri, start, end, charset, false).contentEquals(name);
+            }
+        }
+        int len = end - start;
+        if (len != name.length()) {
+            return false;
+        }
+        for (int i = 0; i < len; i++) {
+            if (uri.charAt(start + i) != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int[] paramOffsets() {
+        if (paramOffsets == null) {
+            paramOffsets = indexParams(pathEndIdx());
+        }
+        return paramOffsets;
+    }
+
+    /**
+     * Records the offsets of the parameters following the same rules as
+     * {@link #decodeParams(String, int, Charset, int)}.
+     */
+    private int[] indexParams(int from) {
+        String s = uri;
+        int len = s.length();
+        if (from >= len) {
+            return EmptyArrays.EMPTY_INTS;
+        }
+        if (s.charAt(from) == '?') {
+            from++;
+        }
+        int[] offsets = new int[16];
+        int nameStart = from;
+        int valueStart = -1;
+        int i;
+        loop:
+        for (i = from; i < len; i++) {
+            switch (s.charAt(i)) {
+            case '=':
+                if (nameStart == i) {
+                    nameStart = i + 1;
+                } else if (valueStart < nameStart) {
+                    valueStart = i + 1;
+                }
+                break;
+            case '&':
+            case ';':
+                if (nameStart < i) {
+                    offsets = addParamOffsets(offsets, nameStart, valueStart, i);
+                    if (paramCount == maxParams) {
+                        return offsets;
+                    }
+                }
+                nameStart = i + 1;
+                break;
+            case '#':
+                break loop;
+            default:
+                // continue
+            }
+        }
+        if (nameStart < i) {
+            offsets = addParamOffsets(offsets, nameStart, valueStart, i);
+        }
+        return offsets;
+    }
+
+    private int[] addParamOffsets(int[] offsets, int nameStart, int valueStart, int valueEnd) {
+        if (valueStart <= nameStart) {
+            valueStart = valueEnd + 1;
+        }
+        int idx = paramCount << 2;
+        if (idx == offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length << 1);
+        }
+        offsets[idx] = nameStart;
+        offsets[idx + 1] = valueStart - 1;
+        offsets[idx + 2] = valueStart;
+        offsets[idx + 3] = valueEnd;
+        paramCount++;
+        return offsets;
+    }
+
     /**
      * Returns the raw path string of the URI.
      */
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.http.client;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.PrematureChannelClosureException;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpStatusClass;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.util.AsciiString;
+
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The last handler in the pipeline of a connection of a {@link HttpClientOriginPool}. It keeps track of the requests
+ * which were sent and completes them with their responses in order.
+ */
+final class HttpClientConnection extends ChannelDuplexHandler {
+
+    // HttpHeaderNames.KEEP_ALIVE is deprecated, but HTTP/1.1 servers still announce their limits with this header.
+    private static final AsciiString KEEP_ALIVE = AsciiString.cached("keep-alive");
+
+    private final HttpClientOriginPool pool;
+    private final Channel channel;
+    // Only accessed from the EventLoop.
+    private final ArrayDeque<HttpClientExchange> exchanges = new ArrayDeque<HttpClientExchange>();
+    private boolean used;
+
+    // Guarded by the pool.
+    int outstanding;
+    boolean nonIdempotent;
+
+    // Written under the lock of the pool, but also read by its ChannelHealthChecker.
+    private volatile boolean reusable = true;
+    private volatile long keepAliveDeadline;
+    private volatile int remainingRequests = Integer.MAX_VALUE;
+
+    // Written before the connection is handed out the first time.
+    long dnsNanos = -1;
+    long connectNanos = -1;
+    long connectedNanos;
+    long tlsNanos = -1;
+
+    /**
+     * Notes the arrival of the response head of the oldest request. It is placed in front of the
+     * {@link io.netty.handler.codec.http.HttpObjectAggregator}.
+     */
+    final ChannelHandler firstByteHandler = new ChannelInboundHandlerAdapter() {
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            if (msg instanceof HttpResponse) {
+                HttpClientExchange exchange = exchanges.peek();
+                if (exchange != null && exchange.firstByteNanos == 0) {
+                    exchange.firstByteNanos = System.nanoTime();
+                }
+            }
+            ctx.fireChannelRead(msg);
+        }
+    };
+
+    HttpClientConnection(HttpClientOriginPool pool, Channel channel) {
+        this.pool = pool;
+        this.channel = channel;
+    }
+
+    Channel channel() {
+        return channel;
+    }
+
+    /**
+     * Returns {@code true} if another request may be sent on this connection.
+     */
+    boolean isReusable() {
+        if (!reusable || remainingRequests <= 0 || !channel.isActive()) {
+            return false;
+        }
+        long deadline = keepAliveDeadline;
+        return deadline == 0 || deadline - System.nanoTime() > 0;
+    }
+
+    void requestAdded() {
+        remainingRequests--;
+    }
+
+    /**
+     * Updates the keep-alive state from a response, must be called while holding the lock of the pool.
+     */
+    void responseReceived(boolean keepAlive, long timeoutNanos, int max) {
+        if (!keepAlive) {
+            reusable = false;
+        }
+        if (timeoutNanos >= 0) {
+            keepAliveDeadline = System.nanoTime() + timeoutNanos;
+        }
+        if (max >= 0) {
+            // The requests which were pipelined after this one count against max as well.
+            remainingRequests = max - (outstanding - 1);
+        }
+    }
+
+    void write(HttpClientExchange exchange) {
+        channel.writeAndFlush(exchange).addListener(exchange);
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        if (!(msg instanceof HttpClientExchange)) {
+            ctx.write(msg, promise);
+            return;
+        }
+        HttpClientExchange exchange = (HttpClientExchange) msg;
+        if (!ctx.channel().isActive()) {
+            promise.setFailure(new ClosedChannelException());
+            return;
+        }
+        exchanges.add(exchange);
+        exchange.handedOff();
+        exchange.writtenNanos = System.nanoTime();
+        if (exchange.timings != null) {
+            if (used) {
+                exchange.timings.connection(true, -1, -1, -1);
+            } else {
+                // The handshake is still in progress, so the TLS timing is filled in once the response arrived.
+                exchange.timings.connection(false, dnsNanos, connectNanos, -1);
+            }
+        }
+        used = true;
+        ctx.write(exchange.request, promise).addListener(ChannelFutureListener.CLOSE_ON_FAILURE);
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (!(msg instanceof FullHttpResponse)) {
+            ctx.fireChannelRead(msg);
+            return;
+        }
+        FullHttpResponse response = (FullHttpResponse) msg;
+        HttpResponseStatus status = response.status();
+        if (status.codeClass() == HttpStatusClass.INFORMATIONAL &&
+                status.code() != HttpResponseStatus.SWITCHING_PROTOCOLS.code()) {
+            // Interim response, the final one follows.
+            response.release();
+            return;
+        }
+        HttpClientExchange exchange = exchanges.poll();
+        if (exchange == null) {
+            response.release();
+            ctx.close();
+            return;
+        }
+
+        long now = System.nanoTime();
+        if (exchange.timings != null && !exchange.timings.isReusedConnection()) {
+            exchange.timings.connection(false, dnsNanos, connectNanos, tlsNanos);
+        }
+        long timeoutNanos = -1;
+        int max = -1;
+        String keepAliveParams = response.headers().get(KEEP_ALIVE);
+        if (keepAliveParams != null) {
+            for (String param: keepAliveParams.split(",")) {
+                int eq = param.indexOf('=');
+                if (eq < 0) {
+                    continue;
+                }
+                String name = param.substring(0, eq).trim();
+                try {
+                    if ("timeout".equalsIgnoreCase(name)) {
+                        timeoutNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(param.substring(eq + 1).trim()));
+                    } else if ("max".equalsIgnoreCase(name)) {
+                        max = Integer.parseInt(param.substring(eq + 1).trim());
+                    }
+                } catch (NumberFormatException ignore) {
+                    // Malformed parameters are ignored.
+                }
+            }
+        }
+        pool.exchangeCompleted(this, exchange.keepAlive && HttpUtil.isKeepAlive(response), timeoutNanos, max);
+        exchange.succeed(response, now);
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        if (!exchanges.isEmpty()) {
+            failAll(new PrematureChannelClosureException(
+                    "channel gone inactive with " + exchanges.size() + " missing response(s)"));
+        }
+        pool.connectionClosed(this);
+        ctx.fireChannelInactive();
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+        failAll(cause);
+        ctx.close();
+    }
+
+    void failAll(Throwable cause) {
+        for (;;) {
+            HttpClientExchange exchange = exchanges.poll();
+            if (exchange == null) {
+                break;
+            }
+            exchange.fail(cause);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.http.client;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.pool.AbstractChannelPoolMap;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.ssl.SslContext;
+import io.netty.util.NetUtil;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.Promise;
+
+import java.io.Closeable;
+import java.net.InetSocketAddress;
+
+import static io.netty.util.internal.ObjectUtil.checkNotNull;
+import static io.netty.util.internal.ObjectUtil.checkPositive;
+
+/**
+ * Executes HTTP/1.1 requests on persistent connections which are pooled per origin.
+ * <p>
+ * Connections are established via the given {@link Bootstrap}, which only needs its
+ * {@link io.netty.channel.EventLoopGroup} and {@link io.netty.channel.Channel} type configured. The pipeline of each
+ * connection is set up by this class, with a {@link io.netty.handler.ssl.SslHandler} if a {@link SslContext} is given,
+ * a {@link io.netty.handler.codec.http.HttpClientCodec} and a {@link io.netty.handler.codec.http.HttpObjectAggregator}.
+ * A handler of the {@link Bootstrap} is not used. A connection is returned to the pool of its origin once all its
+ * responses were received, unless the request or the response asked to close it, and is dropped once the timeout or
+ * the maximum number of requests announced by a {@code Keep-Alive} response header is reached. Idempotent requests
+ * are pipelined on connections which wait for responses as long as these only carry idempotent requests and
+ * {@code maxPipelinedRequests} is not reached. At most {@code maxConnectionsPerOrigin} connections are opened per
+ * origin, further requests wait until a connection is returned.
+ * <p>
+ * The time spent resolving the address of the origin, connecting, doing the TLS handshake and waiting for the
+ * response of a request can be obtained by passing a {@link HttpClientTimings} to
+ * {@link #execute(InetSocketAddress, FullHttpRequest, HttpClientTimings)}.
+ */
+public class HttpClientConnectionManager implements Closeable {
+
+    static final int DEFAULT_MAX_CONNECTIONS_PER_ORIGIN = 8;
+    static final int DEFAULT_MAX_PIPELINED_REQUESTS = 1;
+    static final int DEFAULT_MAX_CONTENT_LENGTH = 10 * 1024 * 1024;
+
+    private final Bootstrap bootstrap;
+    private final SslContext sslContext;
+    private final int maxConnectionsPerOrigin;
+    private final int maxPipelinedRequests;
+    private final int maxContentLength;
+    private final AbstractChannelPoolMap<InetSocketAddress, HttpClientOriginPool> pools =
+            new AbstractChannelPoolMap<InetSocketAddress, HttpClientOriginPool>() {
+                @Override
+                protected HttpClientOriginPool newPool(InetSocketAddress origin) {
+                    return new HttpClientOriginPool(bootstrap, origin, sslContext, maxConnectionsPerOrigin,
+                            maxPipelinedRequests, maxContentLength);
+                }
+            };
+    private volatile boolean closed;
+
+    /**
+     * Creates a new instance which uses plain text connections, opens up to {@code 8} connections per origin, does
+     * not pipeline requests and accepts responses with up to {@code 10 MiB} of content.
+     */
+    public HttpClientConnectionManager(Bootstrap bootstrap) {
+        this(bootstrap, null, DEFAULT_MAX_CONNECTIONS_PER_ORIGIN, DEFAULT_MAX_PIPELINED_REQUESTS,
+                DEFAULT_MAX_CONTENT_LENGTH);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param bootstrap                 the {@link Bootstrap} used to open connections
+     * @param sslContext                the {@link SslContext} used for TLS or {@code null} for plain text connections
+     * @param maxConnectionsPerOrigin   the maximum number of connections per origin
+     * @param maxPipelinedRequests      the maximum number of requests which wait for a response on a connection,
+     *                                  {@code 1} disables pipelining
+     * @param maxContentLength          the maximum length of the content of a response
+     */
+    public HttpClientConnectionManager(Bootstrap bootstrap, SslContext sslContext, int maxConnectionsPerOrigin,
+                                       int maxPipelinedRequests, int maxContentLength) {
+        this.bootstrap = checkNotNull(bootstrap, "bootstrap");
+        checkNotNull(bootstrap.config().group(), "bootstrap.config().group()");
+        if (sslContext != null && !sslContext.isClient()) {
+            throw new IllegalArgumentException("sslContext must be a client context");
+        }
+        this.sslContext = sslContext;
+        this.maxConnectionsPerOrigin = checkPositive(maxConnectionsPerOrigin, "maxConnectionsPerOrigin");
+        this.maxPipelinedRequests = checkPositive(maxPipelinedRequests, "maxPipelinedRequests");
+        this.maxContentLength = checkPositive(maxContentLength, "maxContentLength");
+    }
+
+    /**
+     * Sends {@code request} to {@code origin} and returns the {@link Future} which is notified with its response.
+     * The caller takes over the response and must release it.
+     */
+    public Future<FullHttpResponse> execute(InetSocketAddress origin, FullHttpRequest request) {
+        return execute(origin, request, null);
+    }
+
+    /**
+     * Sends {@code request} to {@code origin} and returns the {@link Future} which is notified with its response.
+     * The caller takes over the response and must release it. Once the response was received {@code timings}
+     * contains the timings of the request.
+     */
+    public Future<FullHttpResponse> execute(InetSocketAddress origin, FullHttpRequest request,
+                                            HttpClientTimings timings) {
+        checkNotNull(origin, "origin");
+        checkNotNull(request, "request");
+        Promise<FullHttpResponse> promise = bootstrap.config().group().next().newPromise();
+        if (!request.headers().contains(HttpHeaderNames.HOST)) {
+            request.headers().set(HttpHeaderNames.HOST, hostHeader(origin));
+        }
+        HttpClientExchange exchange = new HttpClientExchange(request, promise, timings);
+        if (closed) {
+            exchange.fail(new IllegalStateException("HttpClientConnectionManager was closed"));
+        } else {
+            pools.get(origin).execute(exchange);
+        }
+        return promise;
+    }
+
+    private String hostHeader(InetSocketAddress origin) {
+        String host = NetUtil.getHostname(origin);
+        if (host.indexOf(':') >= 0) {
+            // IPv6 literal
+            host = '[' + host + ']';
+        }
+        int defaultPort = sslContext == null ? 80 : 443;
+        return origin.getPort() == defaultPort ? host : host + ':' + origin.getPort();
+    }
+
+    /**
+     * Closes all connections. Requests which wait for a response are failed.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        pools.close();
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.http.client;
+
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.util.concurrent.Promise;
+
+/**
+ * A request together with everything that is needed to complete it once its response was received. It is written
+ * to the {@link io.netty.channel.Channel} and unwrapped by {@link HttpClientConnection}, which takes over the
+ * request from then on.
+ */
+final class HttpClientExchange implements ChannelFutureListener {
+
+    final FullHttpRequest request;
+    final Promise<FullHttpResponse> promise;
+    final HttpClientTimings timings;
+    final boolean idempotent;
+    final boolean keepAlive;
+    final long startNanos;
+    long writtenNanos;
+    long firstByteNanos;
+    private boolean handedOff;
+
+    HttpClientExchange(FullHttpRequest request, Promise<FullHttpResponse> promise, HttpClientTimings timings) {
+        this.request = request;
+        this.promise = promise;
+        this.timings = timings;
+        idempotent = isIdempotent(request.method());
+        keepAlive = HttpUtil.isKeepAlive(request);
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * Called once the request was handed to the next handler, which will release it from now on.
+     */
+    void handedOff() {
+        handedOff = true;
+    }
+
+    void succeed(FullHttpResponse response, long completedNanos) {
+        if (timings != null) {
+            timings.response(firstByteNanos == 0 ? -1 : firstByteNanos - writtenNanos, completedNanos - startNanos);
+        }
+        if (!promise.trySuccess(response)) {
+            // Cancelled in the meantime.
+            response.release();
+        }
+    }
+
+    void fail(Throwable cause) {
+        if (!handedOff) {
+            handedOff = true;
+            request.release();
+        }
+        promise.tryFailure(cause);
+    }
+
+    @Override
+    public void operationComplete(ChannelFuture future) {
+        if (!future.isSuccess()) {
+            fail(future.cause());
+        }
+    }
+
+    private static boolean isIdempotent(HttpMethod method) {
+        return method.equals(HttpMethod.GET) || method.equals(HttpMethod.HEAD) || method.equals(HttpMethod.OPTIONS) ||
+                method.equals(HttpMethod.TRACE) || method.equals(HttpMethod.PUT) || method.equals(HttpMethod.DELETE);
+    }
+}
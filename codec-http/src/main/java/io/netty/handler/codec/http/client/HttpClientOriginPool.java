@@ -0,0 +1,288 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.http.client;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.EventLoop;
+import io.netty.channel.pool.AbstractChannelPoolHandler;
+import io.netty.channel.pool.ChannelHealthChecker;
+import io.netty.channel.pool.FixedChannelPool;
+import io.netty.handler.codec.http.HttpClientCodec;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.resolver.AddressResolver;
+import io.netty.util.AttributeKey;
+import io.netty.util.NetUtil;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.FutureListener;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The connections to a single origin. Idle connections are kept by the {@link FixedChannelPool}, connections which
+ * wait for responses are kept in {@link #active} so further requests can be pipelined on them.
+ */
+final class HttpClientOriginPool extends FixedChannelPool {
+
+    private static final AttributeKey<HttpClientOriginPool> POOL_KEY =
+            AttributeKey.valueOf(HttpClientOriginPool.class, "POOL");
+    private static final AttributeKey<HttpClientConnection> CONNECTION_KEY =
+            AttributeKey.valueOf(HttpClientOriginPool.class, "CONNECTION");
+
+    private static final ChannelHealthChecker HEALTH_CHECKER = new ChannelHealthChecker() {
+        @Override
+        public Future<Boolean> isHealthy(Channel channel) {
+            HttpClientConnection connection = channel.attr(CONNECTION_KEY).get();
+            return channel.eventLoop().newSucceededFuture(connection != null && connection.isReusable());
+        }
+    };
+
+    private final InetSocketAddress origin;
+    private final int maxPipelinedRequests;
+    // Guarded by this.
+    private final List<HttpClientConnection> active = new ArrayList<HttpClientConnection>();
+
+    HttpClientOriginPool(Bootstrap bootstrap, InetSocketAddress origin, SslContext sslContext,
+                         int maxConnections, int maxPipelinedRequests, int maxContentLength) {
+        super(bootstrap.clone().remoteAddress(origin), new PoolHandler(origin, sslContext, maxContentLength),
+                HEALTH_CHECKER, null, -1, maxConnections, Integer.MAX_VALUE, true, true);
+        this.origin = origin;
+        this.maxPipelinedRequests = maxPipelinedRequests;
+    }
+
+    /**
+     * Sends the request of {@code exchange} on a connection which already waits for responses if it may be pipelined
+     * there, or on a connection acquired from the pool otherwise.
+     */
+    void execute(final HttpClientExchange exchange) {
+        HttpClientConnection connection = join(exchange.idempotent);
+        if (connection != null) {
+            connection.write(exchange);
+            return;
+        }
+        acquire().addListener(new FutureListener<Channel>() {
+            @Override
+            public void operationComplete(Future<Channel> future) throws Exception {
+                if (!future.isSuccess()) {
+                    exchange.fail(future.cause());
+                    return;
+                }
+                final HttpClientConnection connection = future.getNow().attr(CONNECTION_KEY).get();
+                EventLoop loop = connection.channel().eventLoop();
+                if (loop.inEventLoop()) {
+                    attachAndWrite(connection, exchange);
+                } else {
+                    loop.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            attachAndWrite(connection, exchange);
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    private HttpClientConnection join(boolean idempotent) {
+        // Only idempotent requests are pipelined, see https://tools.ietf.org/html/rfc7230#section-6.3.2
+        if (!idempotent || maxPipelinedRequests == 1) {
+            return null;
+        }
+        synchronized (this) {
+            for (HttpClientConnection connection: active) {
+                if (!connection.nonIdempotent && connection.outstanding < maxPipelinedRequests &&
+                        connection.isReusable()) {
+                    connection.outstanding++;
+                    connection.requestAdded();
+                    return connection;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void attachAndWrite(HttpClientConnection connection, HttpClientExchange exchange) {
+        // Runs on the EventLoop of the connection, so it can not be closed concurrently.
+        if (!connection.channel().isActive()) {
+            release(connection.channel());
+            exchange.fail(new ClosedChannelException());
+            return;
+        }
+        synchronized (this) {
+            connection.outstanding = 1;
+            connection.nonIdempotent = !exchange.idempotent;
+            connection.requestAdded();
+            active.add(connection);
+        }
+        connection.write(exchange);
+    }
+
+    void exchangeCompleted(HttpClientConnection connection, boolean keepAlive, long timeoutNanos, int max) {
+        boolean release;
+        synchronized (this) {
+            connection.responseReceived(keepAlive, timeoutNanos, max);
+            release = --connection.outstanding == 0 && active.remove(connection);
+            if (release) {
+                connection.nonIdempotent = false;
+            }
+        }
+        if (release) {
+            if (!connection.isReusable()) {
+                connection.channel().close();
+            }
+            release(connection.channel());
+        }
+    }
+
+    void connectionClosed(HttpClientConnection connection) {
+        boolean release;
+        synchronized (this) {
+            release = active.remove(connection);
+            connection.outstanding = 0;
+        }
+        if (release) {
+            release(connection.channel());
+        }
+    }
+
+    /**
+     * Connects like {@link Bootstrap#connect()}, but resolves the address itself so the timings of both steps are
+     * known.
+     */
+    @Override
+    protected ChannelFuture connectChannel(Bootstrap bs) {
+        final long startNanos = System.nanoTime();
+        // Picked up by the PoolHandler when the connection is initialized.
+        bs.attr(POOL_KEY, this);
+        final ChannelFuture registered = bs.register();
+        if (registered.isDone() && !registered.isSuccess()) {
+            return registered;
+        }
+        final Channel channel = registered.channel();
+        final ChannelPromise promise = channel.newPromise();
+        @SuppressWarnings("unchecked")
+        final AddressResolver<SocketAddress> resolver =
+                (AddressResolver<SocketAddress>) bs.config().resolver().getResolver(channel.eventLoop());
+        registered.addListener(new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture future) throws Exception {
+                if (!future.isSuccess()) {
+                    promise.setFailure(future.cause());
+                    return;
+                }
+                final HttpClientConnection connection = channel.attr(CONNECTION_KEY).get();
+                if (!resolver.isSupported(origin) || resolver.isResolved(origin)) {
+                    connect(connection, origin, promise);
+                    return;
+                }
+                resolver.resolve(origin).addListener(new FutureListener<SocketAddress>() {
+                    @Override
+                    public void operationComplete(Future<SocketAddress> future) throws Exception {
+                        if (!future.isSuccess()) {
+                            channel.close();
+                            promise.setFailure(future.cause());
+                            return;
+                        }
+                        connection.dnsNanos = System.nanoTime() - startNanos;
+                        connect(connection, future.getNow(), promise);
+                    }
+                });
+            }
+        });
+        return promise;
+    }
+
+    private static void connect(final HttpClientConnection connection, SocketAddress remoteAddress,
+                                final ChannelPromise promise) {
+        final long startNanos = System.nanoTime();
+        connection.channel().connect(remoteAddress).addListener(new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture future) throws Exception {
+                if (!future.isSuccess()) {
+                    future.channel().close();
+                    promise.setFailure(future.cause());
+                    return;
+                }
+                long now = System.nanoTime();
+                connection.connectNanos = now - startNanos;
+                connection.connectedNanos = now;
+                promise.setSuccess();
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        List<HttpClientConnection> connections;
+        synchronized (this) {
+            connections = new ArrayList<HttpClientConnection>(active);
+        }
+        super.close();
+        for (HttpClientConnection connection: connections) {
+            connection.channel().close();
+        }
+    }
+
+    private static final class PoolHandler extends AbstractChannelPoolHandler {
+        private final InetSocketAddress origin;
+        private final SslContext sslContext;
+        private final int maxContentLength;
+
+        PoolHandler(InetSocketAddress origin, SslContext sslContext, int maxContentLength) {
+            this.origin = origin;
+            this.sslContext = sslContext;
+            this.maxContentLength = maxContentLength;
+        }
+
+        @Override
+        public void channelCreated(Channel ch) throws Exception {
+            final HttpClientConnection connection =
+                    new HttpClientConnection(ch.attr(POOL_KEY).get(), ch);
+            ch.attr(CONNECTION_KEY).set(connection);
+
+            ChannelPipeline p = ch.pipeline();
+            if (sslContext != null) {
+                SslHandler sslHandler = sslContext.newHandler(ch.alloc(), NetUtil.getHostname(origin),
+                        origin.getPort());
+                sslHandler.handshakeFuture().addListener(new FutureListener<Channel>() {
+                    @Override
+                    public void operationComplete(Future<Channel> future) throws Exception {
+                        if (future.isSuccess()) {
+                            connection.tlsNanos = System.nanoTime() - connection.connectedNanos;
+                        } else {
+                            connection.failAll(future.cause());
+                        }
+                    }
+                });
+                p.addLast(sslHandler);
+            }
+            p.addLast(new HttpClientCodec());
+            p.addLast(connection.firstByteHandler);
+            p.addLast(new HttpObjectAggregator(maxContentLength));
+            p.addLast(connection);
+        }
+    }
+}
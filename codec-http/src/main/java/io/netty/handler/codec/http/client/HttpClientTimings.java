@@ -0,0 +1,98 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.http.client;
+
+import io.netty.util.internal.StringUtil;
+
+/**
+ * The timings of a single request executed by {@link HttpClientConnectionManager}. An instance may be reused for
+ * several requests one after the other, it is filled once the response was received. All values are in nanoseconds,
+ * {@code -1} means the phase did not take place for the request, for example as the connection was reused.
+ */
+public final class HttpClientTimings {
+
+    private boolean reusedConnection;
+    private long dnsNanos = -1;
+    private long connectNanos = -1;
+    private long tlsNanos = -1;
+    private long ttfbNanos = -1;
+    private long totalNanos = -1;
+
+    /**
+     * Returns {@code true} if the request was sent on a connection that was used before.
+     */
+    public boolean isReusedConnection() {
+        return reusedConnection;
+    }
+
+    /**
+     * Returns the time it took to resolve the address of the origin.
+     */
+    public long dnsNanos() {
+        return dnsNanos;
+    }
+
+    /**
+     * Returns the time it took to establish the TCP connection.
+     */
+    public long connectNanos() {
+        return connectNanos;
+    }
+
+    /**
+     * Returns the time it took to complete the TLS handshake.
+     */
+    public long tlsNanos() {
+        return tlsNanos;
+    }
+
+    /**
+     * Returns the time from the request being written until the head of the response was received.
+     */
+    public long ttfbNanos() {
+        return ttfbNanos;
+    }
+
+    /**
+     * Returns the time from the request being submitted until the response was received completely.
+     */
+    public long totalNanos() {
+        return totalNanos;
+    }
+
+    void connection(boolean reusedConnection, long dnsNanos, long connectNanos, long tlsNanos) {
+        this.reusedConnection = reusedConnection;
+        this.dnsNanos = dnsNanos;
+        this.connectNanos = connectNanos;
+        this.tlsNanos = tlsNanos;
+    }
+
+    void response(long ttfbNanos, long totalNanos) {
+        this.ttfbNanos = ttfbNanos;
+        this.totalNanos = totalNanos;
+    }
+
+    @Override
+    public String toString() {
+        return StringUtil.simpleClassName(this) +
+                "(reusedConnection: " + reusedConnection +
+                ", dnsNanos: " + dnsNanos +
+                ", connectNanos: " + connectNanos +
+                ", tlsNanos: " + tlsNanos +
+                ", ttfbNanos: " + ttfbNanos +
+                ", totalNanos: " + totalNanos + ')';
+    }
+}
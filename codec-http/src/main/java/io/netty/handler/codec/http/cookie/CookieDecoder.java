@@ -31,7 +31,7 @@ public abstract class CookieDecoder {
 
     private final InternalLogger logger = InternalLoggerFactory.getInstance(getClass());
 
-    private final boolean strict;
+    final boolean strict;
 
     protected CookieDecoder(boolean strict) {
         this.strict = strict;
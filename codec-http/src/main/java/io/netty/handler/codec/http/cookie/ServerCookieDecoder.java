@@ -15,8 +15,12 @@
  */
 package io.netty.handler.codec.http.cookie;
 
+import static io.netty.handler.codec.http.cookie.CookieUtil.firstInvalidCookieNameOctet;
+import static io.netty.handler.codec.http.cookie.CookieUtil.firstInvalidCookieValueOctet;
 import static io.netty.util.internal.ObjectUtil.checkNotNull;
 
+import io.netty.util.AsciiString;
+
 import java.util.Collections;
 import java.util.Set;
 import java.util.TreeSet;
@@ -152,4 +156,69 @@ public final class ServerCookieDecoder extends CookieDecoder {
 
         return cookies;
     }
+
+    /**
+     * Returns the value of the first cookie with the given {@code name} in the specified Cookie HTTP header value, or
+     * {@code null} if there is no such cookie. The same cookies as by {@link #decode(String)} are considered, but no
+     * {@link Cookie} is created for the other ones. If {@code header} is an {@link AsciiString}, for example as the
+     * request was decoded with ASCII headers, the returned value is a view of it and nothing is copied.
+     */
+    public CharSequence decodeValue(CharSequence header, CharSequence name) {
+        checkNotNull(header, "header");
+        checkNotNull(name, "name");
+        final int headerLen = header.length();
+
+        int i = 0;
+        if (AsciiString.regionMatches(header, true, 0, RFC2965_VERSION, 0, RFC2965_VERSION.length())) {
+            // RFC 2965 style cookie, move to after version value
+            i = AsciiString.indexOf(header, ';', 0) + 1;
+            if (i == 0) {
+                return null;
+            }
+        }
+
+        while (i < headerLen) {
+            // Skip spaces and separators.
+            char c = header.charAt(i);
+            if (c == '\t' || c == '\n' || c == 0x0b || c == '\f'
+                    || c == '\r' || c == ' ' || c == ',' || c == ';') {
+                i++;
+                continue;
+            }
+
+            int nameBegin = i;
+            while (i < headerLen && (c = header.charAt(i)) != ';' && c != '=') {
+                i++;
+            }
+            int nameEnd = i;
+            if (i == headerLen || c == ';') {
+                // Cookies without value are skipped.
+                continue;
+            }
+            int valueBegin = ++i;
+            int valueEnd = AsciiString.indexOf(header, ';', i);
+            i = valueEnd = valueEnd < 0 ? headerLen : valueEnd;
+
+            if (nameEnd - nameBegin != name.length() ||
+                    !AsciiString.regionMatches(header, false, nameBegin, name, 0, name.length())) {
+                continue;
+            }
+            if (valueBegin < valueEnd && header.charAt(valueBegin) == '"') {
+                if (valueEnd - valueBegin < 2 || header.charAt(valueEnd - 1) != '"') {
+                    // Unbalanced quotes
+                    continue;
+                }
+                valueBegin++;
+                valueEnd--;
+            }
+            CharSequence value = header instanceof AsciiString ?
+                    ((AsciiString) header).subSequence(valueBegin, valueEnd, false) :
+                    header.subSequence(valueBegin, valueEnd);
+            if (strict && (firstInvalidCookieNameOctet(name) >= 0 || firstInvalidCookieValueOctet(value) >= 0)) {
+                continue;
+            }
+            return value;
+        }
+        return null;
+    }
 }
@@ -21,6 +21,8 @@ import static io.netty.handler.codec.http.cookie.CookieUtil.stringBuilder;
 import static io.netty.handler.codec.http.cookie.CookieUtil.stripTrailingSeparator;
 import static io.netty.util.internal.ObjectUtil.checkNotNull;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.handler.codec.DateFormatter;
 import io.netty.handler.codec.http.HttpConstants;
 import io.netty.handler.codec.http.HttpResponse;
@@ -128,6 +130,64 @@ public final class ServerCookieEncoder extends CookieEncoder {
         return stripTrailingSeparator(buf);
     }
 
+    /**
+     * Encodes the specified cookie into a Set-Cookie header value and writes it into {@code out}. The result is the
+     * same as the one of {@link #encode(Cookie)}, but no {@link String} is created for it.
+     *
+     * @param cookie the cookie
+     * @param out the buffer to write the header value into
+     */
+    public void encode(Cookie cookie, ByteBuf out) {
+        final String name = checkNotNull(cookie, "cookie").name();
+        final String value = cookie.value() != null ? cookie.value() : "";
+        checkNotNull(out, "out");
+
+        validateCookie(name, value);
+
+        ByteBufUtil.writeAscii(out, name);
+        out.writeByte(HttpConstants.EQUALS);
+        if (cookie.wrap()) {
+            out.writeByte(HttpConstants.DOUBLE_QUOTE);
+            ByteBufUtil.writeAscii(out, value);
+            out.writeByte(HttpConstants.DOUBLE_QUOTE);
+        } else {
+            ByteBufUtil.writeAscii(out, value);
+        }
+
+        if (cookie.maxAge() != Long.MIN_VALUE) {
+            StringBuilder buf = stringBuilder();
+            buf.append(cookie.maxAge());
+            writeAttribute(out, CookieHeaderNames.MAX_AGE, buf);
+            buf.setLength(0);
+            DateFormatter.append(new Date(cookie.maxAge() * 1000 + System.currentTimeMillis()), buf);
+            writeAttribute(out, CookieHeaderNames.EXPIRES, buf);
+        }
+
+        if (cookie.path() != null) {
+            writeAttribute(out, CookieHeaderNames.PATH, cookie.path());
+        }
+
+        if (cookie.domain() != null) {
+            writeAttribute(out, CookieHeaderNames.DOMAIN, cookie.domain());
+        }
+        if (cookie.isSecure()) {
+            writeAttribute(out, CookieHeaderNames.SECURE, null);
+        }
+        if (cookie.isHttpOnly()) {
+            writeAttribute(out, CookieHeaderNames.HTTPONLY, null);
+        }
+    }
+
+    private static void writeAttribute(ByteBuf out, String name, CharSequence value) {
+        out.writeByte(HttpConstants.SEMICOLON);
+        out.writeByte(HttpConstants.SP);
+        ByteBufUtil.writeAscii(out, name);
+        if (value != null) {
+            out.writeByte(HttpConstants.EQUALS);
+            ByteBufUtil.writeAscii(out, value);
+        }
+    }
+
     /** Deduplicate a list of encoded cookies by keeping only the last instance with a given name.
      *
      * @param encoded The list of encoded cookies.
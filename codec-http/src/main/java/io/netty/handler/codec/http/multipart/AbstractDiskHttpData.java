@@ -157,7 +157,6 @@ public abstract class AbstractDiskHttpData extends AbstractHttpData {
                     throw new IOException("Out of size: " + (size + localsize) +
                             " > " + definedSize);
                 }
-                ByteBuffer byteBuffer = buffer.nioBufferCount() == 1 ? buffer.nioBuffer() : buffer.copy().nioBuffer();
                 int written = 0;
                 if (file == null) {
                     file = tempFile();
@@ -166,8 +165,17 @@ public abstract class AbstractDiskHttpData extends AbstractHttpData {
                     FileOutputStream outputStream = new FileOutputStream(file);
                     fileChannel = outputStream.getChannel();
                 }
-                while (written < localsize) {
-                    written += fileChannel.write(byteBuffer);
+                if (buffer.nioBufferCount() == 1) {
+                    ByteBuffer byteBuffer = buffer.nioBuffer();
+                    while (written < localsize) {
+                        written += fileChannel.write(byteBuffer);
+                    }
+                } else {
+                    // Use a gathering write instead of copying the components into a single buffer.
+                    ByteBuffer[] byteBuffers = buffer.nioBuffers();
+                    while (written < localsize) {
+                        written += (int) fileChannel.write(byteBuffers);
+                    }
                 }
                 size += localsize;
                 buffer.readerIndex(buffer.readerIndex() + written);
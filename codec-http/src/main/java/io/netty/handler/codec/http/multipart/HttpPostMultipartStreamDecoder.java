@@ -0,0 +1,439 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.http.multipart;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.HttpConstants;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpObject;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.handler.codec.http.multipart.HttpPostRequestDecoder.ErrorDataDecoderException;
+import io.netty.util.CharsetUtil;
+import io.netty.util.ReferenceCountUtil;
+
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+import static io.netty.util.internal.ObjectUtil.checkNotNull;
+import static io.netty.util.internal.ObjectUtil.checkPositive;
+
+/**
+ * Decodes a {@code multipart/form-data} body into a stream of parts without keeping the content of the parts.
+ * <p>
+ * Unlike {@link HttpPostMultipartRequestDecoder}, which collects the whole body and copies every part into an
+ * {@link HttpData}, this decoder hands out the content of a part as soon as it is received.  For every part
+ * {@link #next()} returns a {@link MultipartPart} with the headers of the part, followed by any number of
+ * {@link HttpContent}s and a {@link LastHttpContent} with the content of the part.  The content is a retained slice
+ * of the buffers passed to {@link #offer(HttpContent)}, so the content of large file uploads is never copied and can
+ * be written to disk as it is, for example with a {@link MultipartFileWriter}.  The caller must release every
+ * {@link HttpContent} returned by {@link #next()}.
+ * <p>
+ * The delimiters are found with the Boyer-Moore-Horspool algorithm, so most of the content is not even inspected.
+ * Only the headers of the parts and less than a delimiter length of bytes at the end of a received buffer are copied.
+ * <p>
+ * The content of the parts is not transformed: a {@code "Content-Transfer-Encoding"} other than {@code binary}
+ * is not decoded and nested {@code multipart/mixed} parts are returned as they are.
+ */
+public class HttpPostMultipartStreamDecoder {
+
+    private enum State {
+        PREAMBLE_START,
+        PREAMBLE,
+        DELIMITER_TAIL,
+        HEADERS,
+        BODY,
+        EPILOGUE
+    }
+
+    private static final int DEFAULT_MAX_HEADER_SIZE = 8192;
+    // Headers are copied in larger steps than the content, which is copied as little as possible.
+    private static final int HEADERS_COPY_SIZE = 512;
+
+    private final Charset charset;
+    private final int maxHeaderSize;
+    private final byte[] dashBoundary;
+    private final MultipartDelimiter delimiter;
+    private final Queue<HttpObject> parts = new ArrayDeque<HttpObject>();
+    // Only holds the bytes that could not be processed yet, which are less than a delimiter or the headers of a part.
+    private final ByteBuf pending = Unpooled.buffer(HEADERS_COPY_SIZE);
+    private State state = State.PREAMBLE_START;
+    private int headersSearchOffset;
+    private boolean destroyed;
+
+    /**
+     * Creates a new decoder which decodes the headers of the parts with {@link HttpConstants#DEFAULT_CHARSET}, unless
+     * the request specifies a different charset.
+     *
+     * @param request the request to decode
+     * @throws ErrorDataDecoderException if the request is not a {@code multipart/form-data} request
+     */
+    public HttpPostMultipartStreamDecoder(HttpRequest request) {
+        this(request, HttpConstants.DEFAULT_CHARSET);
+    }
+
+    /**
+     * Creates a new decoder.
+     *
+     * @param request the request to decode
+     * @param charset the charset of the headers of the parts, unless the request specifies a different one
+     * @throws ErrorDataDecoderException if the request is not a {@code multipart/form-data} request
+     */
+    public HttpPostMultipartStreamDecoder(HttpRequest request, Charset charset) {
+        this(request, charset, DEFAULT_MAX_HEADER_SIZE);
+    }
+
+    /**
+     * Creates a new decoder.
+     *
+     * @param request       the request to decode
+     * @param charset       the charset of the headers of the parts, unless the request specifies a different one
+     * @param maxHeaderSize the maximum size of the headers of a single part
+     * @throws ErrorDataDecoderException if the request is not a {@code multipart/form-data} request
+     */
+    public HttpPostMultipartStreamDecoder(HttpRequest request, Charset charset, int maxHeaderSize) {
+        checkNotNull(request, "request");
+        checkNotNull(charset, "charset");
+        this.maxHeaderSize = checkPositive(maxHeaderSize, "maxHeaderSize");
+
+        String contentType = request.headers().get(HttpHeaderNames.CONTENT_TYPE);
+        String[] dataBoundary = contentType == null ? null
+                : HttpPostRequestDecoder.getMultipartDataBoundary(contentType);
+        if (dataBoundary == null) {
+            throw new ErrorDataDecoderException("not a multipart/form-data request: " + contentType);
+        }
+        if (dataBoundary.length > 1 && dataBoundary[1] != null) {
+            charset = Charset.forName(dataBoundary[1]);
+        }
+        this.charset = charset;
+
+        dashBoundary = dataBoundary[0].getBytes(CharsetUtil.US_ASCII);
+        byte[] delimiter = new byte[dashBoundary.length + 2];
+        delimiter[0] = HttpConstants.CR;
+        delimiter[1] = HttpConstants.LF;
+        System.arraycopy(dashBoundary, 0, delimiter, 2, dashBoundary.length);
+        this.delimiter = new MultipartDelimiter(delimiter);
+
+        if (request instanceof HttpContent) {
+            offer((HttpContent) request);
+        }
+    }
+
+    /**
+     * Decodes the given content.  The content is not released and its reader index is not modified.
+     *
+     * @return this decoder
+     * @throws ErrorDataDecoderException if the body is malformed or ends before the close delimiter
+     */
+    public HttpPostMultipartStreamDecoder offer(HttpContent content) {
+        checkDestroyed();
+        try {
+            decode(content.content().duplicate());
+        } catch (IllegalArgumentException e) {
+            throw new ErrorDataDecoderException(e);
+        }
+        if (content instanceof LastHttpContent && state != State.EPILOGUE) {
+            throw new ErrorDataDecoderException("multipart body ended before the close delimiter");
+        }
+        return this;
+    }
+
+    /**
+     * Returns {@code true} if {@link #next()} will return a {@link MultipartPart} or content.
+     */
+    public boolean hasNext() {
+        checkDestroyed();
+        return !parts.isEmpty();
+    }
+
+    /**
+     * Returns the next {@link MultipartPart}, {@link HttpContent} or {@link LastHttpContent}, or {@code null} if
+     * more data needs to be offered.
+     */
+    public HttpObject next() {
+        checkDestroyed();
+        return parts.poll();
+    }
+
+    /**
+     * Returns {@code true} once the close delimiter of the body was decoded.
+     */
+    public boolean isEndOfData() {
+        return state == State.EPILOGUE;
+    }
+
+    /**
+     * Releases all content which was not returned by {@link #next()} yet.
+     */
+    public void destroy() {
+        if (destroyed) {
+            return;
+        }
+        destroyed = true;
+        for (;;) {
+            HttpObject part = parts.poll();
+            if (part == null) {
+                break;
+            }
+            ReferenceCountUtil.release(part);
+        }
+        pending.release();
+    }
+
+    private void checkDestroyed() {
+        if (destroyed) {
+            throw new IllegalStateException(
+                    HttpPostMultipartStreamDecoder.class.getSimpleName() + " was destroyed already");
+        }
+    }
+
+    private void decode(ByteBuf in) {
+        // The number of bytes at the end of pending which were copied from in.
+        int copied = 0;
+        for (;;) {
+            if (pending.isReadable()) {
+                boolean progress = decode(pending, false);
+                int remaining = pending.readableBytes();
+                if (remaining <= copied) {
+                    // Everything that was pending before is processed, continue with the original buffer so the
+                    // content does not need to be copied.
+                    in.readerIndex(in.readerIndex() - remaining);
+                    pending.clear();
+                    copied = 0;
+                } else if (!progress) {
+                    if (!in.isReadable()) {
+                        pending.discardReadBytes();
+                        return;
+                    }
+                    int length = Math.min(in.readableBytes(),
+                            state == State.HEADERS ? HEADERS_COPY_SIZE : delimiter.length());
+                    pending.writeBytes(in, length);
+                    copied += length;
+                }
+            } else {
+                if (!in.isReadable()) {
+                    return;
+                }
+                if (!decode(in, true)) {
+                    // The remaining bytes are less than a delimiter or the beginning of the headers of a part.
+                    pending.clear();
+                    pending.writeBytes(in);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Decodes as much of {@code buf} as possible and returns {@code false} if more data is needed to continue.
+     */
+    private boolean decode(ByteBuf buf, boolean retainedSlice) {
+        switch (state) {
+        case PREAMBLE_START:
+            return decodePreambleStart(buf);
+        case PREAMBLE:
+            return decodePreamble(buf);
+        case DELIMITER_TAIL:
+            return decodeDelimiterTail(buf);
+        case HEADERS:
+            return decodeHeaders(buf);
+        case BODY:
+            return decodeBody(buf, retainedSlice);
+        case EPILOGUE:
+            // Ignore everything after the close delimiter.
+            buf.skipBytes(buf.readableBytes());
+            return true;
+        default:
+            throw new Error();
+        }
+    }
+
+    private boolean decodePreambleStart(ByteBuf buf) {
+        // The body usually starts with the first boundary, which is not preceded by a CRLF.
+        int length = Math.min(buf.readableBytes(), dashBoundary.length);
+        int readerIndex = buf.readerIndex();
+        for (int i = 0; i < length; i++) {
+            if (buf.getByte(readerIndex + i) != dashBoundary[i]) {
+                state = State.PREAMBLE;
+                return true;
+            }
+        }
+        if (length < dashBoundary.length) {
+            return false;
+        }
+        buf.skipBytes(length);
+        state = State.DELIMITER_TAIL;
+        return true;
+    }
+
+    private boolean decodePreamble(ByteBuf buf) {
+        int readerIndex = buf.readerIndex();
+        int writerIndex = buf.writerIndex();
+        int index = delimiter.indexOf(buf, readerIndex, writerIndex);
+        if (index == -1) {
+            buf.readerIndex(delimiter.partialMatchStart(buf, readerIndex, writerIndex));
+            return false;
+        }
+        buf.readerIndex(index + delimiter.length());
+        state = State.DELIMITER_TAIL;
+        return true;
+    }
+
+    private boolean decodeDelimiterTail(ByteBuf buf) {
+        for (;;) {
+            if (!buf.isReadable()) {
+                return false;
+            }
+            int readerIndex = buf.readerIndex();
+            byte first = buf.getByte(readerIndex);
+            if (first == HttpConstants.SP || first == HttpConstants.HT) {
+                // Skip the transport padding.
+                buf.skipBytes(1);
+                continue;
+            }
+            if (buf.readableBytes() < 2) {
+                return false;
+            }
+            byte second = buf.getByte(readerIndex + 1);
+            if (first == '-' && second == '-') {
+                buf.skipBytes(2);
+                state = State.EPILOGUE;
+                return true;
+            }
+            if (first == HttpConstants.CR && second == HttpConstants.LF) {
+                buf.skipBytes(2);
+                state = State.HEADERS;
+                headersSearchOffset = 0;
+                return true;
+            }
+            throw new ErrorDataDecoderException("invalid multipart delimiter");
+        }
+    }
+
+    private boolean decodeHeaders(ByteBuf buf) {
+        int readerIndex = buf.readerIndex();
+        int writerIndex = buf.writerIndex();
+        int end;
+        if (buf.readableBytes() >= 2 && buf.getByte(readerIndex) == HttpConstants.CR &&
+                buf.getByte(readerIndex + 1) == HttpConstants.LF) {
+            // A part without any headers.
+            end = readerIndex;
+        } else {
+            end = findEndOfHeaders(buf, readerIndex + headersSearchOffset, writerIndex);
+            if (end == -1) {
+                int size = writerIndex - readerIndex;
+                if (size > maxHeaderSize) {
+                    throw new ErrorDataDecoderException("multipart headers are larger than " + maxHeaderSize +
+                            " bytes");
+                }
+                // Continue where we stopped once more data was received, the last bytes could be part of CRLFCRLF.
+                headersSearchOffset = Math.max(0, size - 3);
+                return false;
+            }
+            end += 2;
+        }
+
+        HttpHeaders headers = new DefaultHttpHeaders();
+        if (end > readerIndex) {
+            parseHeaders(buf.toString(readerIndex, end - readerIndex, charset), headers);
+        }
+        buf.readerIndex(end + 2);
+        parts.add(new MultipartPart(headers));
+        state = State.BODY;
+        return true;
+    }
+
+    private static int findEndOfHeaders(ByteBuf buf, int fromIndex, int toIndex) {
+        for (int i = fromIndex;;) {
+            int lf = buf.indexOf(i, toIndex, HttpConstants.LF);
+            if (lf == -1 || lf + 1 >= toIndex) {
+                return -1;
+            }
+            if (buf.getByte(lf + 1) == HttpConstants.CR) {
+                if (lf + 2 >= toIndex) {
+                    return -1;
+                }
+                if (buf.getByte(lf + 2) == HttpConstants.LF && lf > fromIndex &&
+                        buf.getByte(lf - 1) == HttpConstants.CR) {
+                    return lf - 1;
+                }
+            }
+            i = lf + 1;
+        }
+    }
+
+    private static void parseHeaders(String block, HttpHeaders headers) {
+        String name = null;
+        StringBuilder value = null;
+        for (String line : block.split("\r\n")) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            char first = line.charAt(0);
+            if ((first == ' ' || first == '\t') && name != null) {
+                // Folded header value.
+                value.append(' ').append(line.trim());
+                continue;
+            }
+            if (name != null) {
+                headers.add(name, value.toString());
+            }
+            int colon = line.indexOf(':');
+            if (colon <= 0) {
+                throw new ErrorDataDecoderException("invalid multipart header: " + line);
+            }
+            name = line.substring(0, colon).trim();
+            value = new StringBuilder(line.substring(colon + 1).trim());
+        }
+        if (name != null) {
+            headers.add(name, value.toString());
+        }
+    }
+
+    private boolean decodeBody(ByteBuf buf, boolean retainedSlice) {
+        int readerIndex = buf.readerIndex();
+        int writerIndex = buf.writerIndex();
+        int index = delimiter.indexOf(buf, readerIndex, writerIndex);
+        if (index != -1) {
+            ByteBuf content = readContent(buf, index - readerIndex, retainedSlice);
+            parts.add(content.isReadable() ? new DefaultLastHttpContent(content) : LastHttpContent.EMPTY_LAST_CONTENT);
+            buf.skipBytes(delimiter.length());
+            state = State.DELIMITER_TAIL;
+            return true;
+        }
+
+        // Hand out everything that can not be the start of the delimiter.
+        int end = delimiter.partialMatchStart(buf, readerIndex, writerIndex);
+        if (end > readerIndex) {
+            parts.add(new DefaultHttpContent(readContent(buf, end - readerIndex, retainedSlice)));
+        }
+        return false;
+    }
+
+    private static ByteBuf readContent(ByteBuf buf, int length, boolean retainedSlice) {
+        if (length == 0) {
+            return Unpooled.EMPTY_BUFFER;
+        }
+        return retainedSlice ? buf.readRetainedSlice(length) : buf.readBytes(length);
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.http.multipart;
+
+import io.netty.buffer.ByteBuf;
+
+import java.util.Arrays;
+
+/**
+ * Finds a multipart delimiter in a {@link ByteBuf} using the Boyer-Moore-Horspool algorithm, so most bytes of the
+ * content of a part are not even looked at.
+ */
+final class MultipartDelimiter {
+    private final byte[] delimiter;
+    private final int[] shift = new int[256];
+
+    MultipartDelimiter(byte[] delimiter) {
+        this.delimiter = delimiter;
+        int last = delimiter.length - 1;
+        Arrays.fill(shift, delimiter.length);
+        for (int i = 0; i < last; i++) {
+            shift[delimiter[i] & 0xff] = last - i;
+        }
+    }
+
+    int length() {
+        return delimiter.length;
+    }
+
+    /**
+     * Returns the index of the first occurrence of the delimiter in {@code buf} between {@code fromIndex}
+     * (inclusive) and {@code toIndex} (exclusive), or {@code -1} if there is none.
+     */
+    int indexOf(ByteBuf buf, int fromIndex, int toIndex) {
+        if (buf.hasArray()) {
+            int offset = buf.arrayOffset();
+            int index = indexOf(buf.array(), offset + fromIndex, offset + toIndex);
+            return index == -1 ? -1 : index - offset;
+        }
+        final byte[] delimiter = this.delimiter;
+        final int last = delimiter.length - 1;
+        final byte lastByte = delimiter[last];
+        for (int i = fromIndex + last; i < toIndex;) {
+            byte b = buf.getByte(i);
+            if (b == lastByte) {
+                int j = last - 1;
+                while (j >= 0 && buf.getByte(i - last + j) == delimiter[j]) {
+                    j--;
+                }
+                if (j < 0) {
+                    return i - last;
+                }
+            }
+            i += shift[b & 0xff];
+        }
+        return -1;
+    }
+
+    private int indexOf(byte[] array, int fromIndex, int toIndex) {
+        final byte[] delimiter = this.delimiter;
+        final int last = delimiter.length - 1;
+        final byte lastByte = delimiter[last];
+        for (int i = fromIndex + last; i < toIndex;) {
+            byte b = array[i];
+            if (b == lastByte) {
+                int j = last - 1;
+                while (j >= 0 && array[i - last + j] == delimiter[j]) {
+                    j--;
+                }
+                if (j < 0) {
+                    return i - last;
+                }
+            }
+            i += shift[b & 0xff];
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of the first byte between {@code fromIndex} and {@code toIndex} from which on the remaining
+     * bytes could be the start of the delimiter, or {@code toIndex} if there is none. Only the bytes before this
+     * index can safely be handed out as content if {@link #indexOf(ByteBuf, int, int)} found no delimiter.
+     */
+    int partialMatchStart(ByteBuf buf, int fromIndex, int toIndex) {
+        for (int i = Math.max(fromIndex, toIndex - delimiter.length + 1); i < toIndex; i++) {
+            if (startsWith(buf, i, toIndex - i)) {
+                return i;
+            }
+        }
+        return toIndex;
+    }
+
+    private boolean startsWith(ByteBuf buf, int index, int length) {
+        for (int i = 0; i < length; i++) {
+            if (buf.getByte(index + i) != delimiter[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.http.multipart;
+
+import io.netty.buffer.ByteBuf;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+import static io.netty.util.internal.ObjectUtil.checkNotNull;
+import static io.netty.util.internal.ObjectUtil.checkPositive;
+
+/**
+ * Writes the content of a file part, as returned by {@link HttpPostMultipartStreamDecoder}, to a {@link FileChannel}.
+ * The buffers are not copied but collected until enough bytes are pending, which are then written with a single
+ * gathering write.
+ */
+public final class MultipartFileWriter implements Closeable {
+
+    private static final int DEFAULT_MAX_PENDING_BYTES = 256 * 1024;
+    // Stay well below IOV_MAX, which is 1024 on most platforms.
+    private static final int MAX_PENDING_BUFFERS = 256;
+
+    private final FileChannel channel;
+    private final int maxPendingBytes;
+    private ByteBuf[] buffers = new ByteBuf[16];
+    private ByteBuffer[] nioBuffers = new ByteBuffer[16];
+    private int bufferCount;
+    private int nioBufferCount;
+    private long pendingBytes;
+    private long writtenBytes;
+
+    /**
+     * Creates a new writer which writes once {@code 256 KiB} are pending.
+     */
+    public MultipartFileWriter(FileChannel channel) {
+        this(channel, DEFAULT_MAX_PENDING_BYTES);
+    }
+
+    /**
+     * Creates a new writer which writes once {@code maxPendingBytes} are pending.
+     */
+    public MultipartFileWriter(FileChannel channel, int maxPendingBytes) {
+        this.channel = checkNotNull(channel, "channel");
+        this.maxPendingBytes = checkPositive(maxPendingBytes, "maxPendingBytes");
+    }
+
+    /**
+     * Adds the given content, which is released once it was written.
+     */
+    public void write(ByteBuf content) throws IOException {
+        int length = content.readableBytes();
+        if (length == 0) {
+            content.release();
+            return;
+        }
+        if (bufferCount == buffers.length) {
+            buffers = Arrays.copyOf(buffers, bufferCount << 1);
+        }
+        buffers[bufferCount++] = content;
+
+        int count = content.nioBufferCount();
+        if (nioBufferCount + count > nioBuffers.length) {
+            nioBuffers = Arrays.copyOf(nioBuffers, Math.max(nioBufferCount + count, nioBuffers.length << 1));
+        }
+        if (count == 1) {
+            nioBuffers[nioBufferCount++] = content.nioBuffer();
+        } else {
+            for (ByteBuffer nioBuffer : content.nioBuffers()) {
+                nioBuffers[nioBufferCount++] = nioBuffer;
+            }
+        }
+        pendingBytes += length;
+
+        if (pendingBytes >= maxPendingBytes || nioBufferCount >= MAX_PENDING_BUFFERS) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes all pending content.
+     */
+    public void flush() throws IOException {
+        try {
+            int offset = 0;
+            while (pendingBytes > 0) {
+                long written = channel.write(nioBuffers, offset, nioBufferCount - offset);
+                pendingBytes -= written;
+                writtenBytes += written;
+                while (offset < nioBufferCount && !nioBuffers[offset].hasRemaining()) {
+                    offset++;
+                }
+            }
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Returns the number of bytes which were written to the {@link FileChannel} so far.
+     */
+    public long writtenBytes() {
+        return writtenBytes;
+    }
+
+    /**
+     * Writes all pending content and closes the {@link FileChannel}.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void release() {
+        for (int i = 0; i < bufferCount; i++) {
+            buffers[i].release();
+            buffers[i] = null;
+        }
+        Arrays.fill(nioBuffers, 0, nioBufferCount, null);
+        bufferCount = 0;
+        nioBufferCount = 0;
+        pendingBytes = 0;
+    }
+}
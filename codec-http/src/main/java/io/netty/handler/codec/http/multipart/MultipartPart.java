@@ -0,0 +1,150 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.http.multipart;
+
+import io.netty.handler.codec.http.DefaultHttpObject;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import io.netty.util.internal.StringUtil;
+
+import java.nio.charset.Charset;
+import java.util.Locale;
+
+import static io.netty.util.internal.ObjectUtil.checkNotNull;
+
+/**
+ * The headers of a part of a {@code multipart/form-data} body, as emitted by
+ * {@link HttpPostMultipartStreamDecoder} before the content of the part.
+ */
+public final class MultipartPart extends DefaultHttpObject {
+
+    private final HttpHeaders headers;
+    private String name;
+    private String filename;
+
+    /**
+     * Creates a new instance and parses the {@code "Content-Disposition"} header of the given {@code headers}.
+     */
+    public MultipartPart(HttpHeaders headers) {
+        this.headers = checkNotNull(headers, "headers");
+        String contentDisposition = headers.get(HttpHeaderNames.CONTENT_DISPOSITION);
+        if (contentDisposition != null) {
+            parseContentDisposition(contentDisposition);
+        }
+    }
+
+    /**
+     * Returns the headers of this part.
+     */
+    public HttpHeaders headers() {
+        return headers;
+    }
+
+    /**
+     * Returns the {@code name} parameter of the {@code "Content-Disposition"} header, or {@code null}.
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Returns the {@code filename} parameter of the {@code "Content-Disposition"} header, or {@code null} if this
+     * part is not a file.
+     */
+    public String filename() {
+        return filename;
+    }
+
+    /**
+     * Returns {@code true} if this part is a file upload, which means it has a {@code filename}.
+     */
+    public boolean isFileUpload() {
+        return filename != null;
+    }
+
+    /**
+     * Returns the value of the {@code "Content-Type"} header or the default content type of a file or an attribute
+     * if there is none.
+     */
+    public String contentType() {
+        String contentType = headers.get(HttpHeaderNames.CONTENT_TYPE);
+        if (contentType != null) {
+            return contentType;
+        }
+        return isFileUpload() ? HttpPostBodyUtil.DEFAULT_BINARY_CONTENT_TYPE
+                : HttpPostBodyUtil.DEFAULT_TEXT_CONTENT_TYPE;
+    }
+
+    private void parseContentDisposition(String value) {
+        int length = value.length();
+        int start = value.indexOf(';');
+        while (start != -1 && start < length) {
+            // Parse the next "key=value" or "key="quoted value"" parameter.
+            int equals = value.indexOf('=', start + 1);
+            if (equals == -1) {
+                return;
+            }
+            String key = value.substring(start + 1, equals).trim().toLowerCase(Locale.US);
+            int valueStart = HttpPostBodyUtil.findNonWhitespace(value, equals + 1);
+            String paramValue;
+            if (valueStart < length && value.charAt(valueStart) == '"') {
+                StringBuilder sb = new StringBuilder();
+                int i = valueStart + 1;
+                for (; i < length; i++) {
+                    char c = value.charAt(i);
+                    if (c == '"') {
+                        break;
+                    }
+                    if (c == '\\' && i + 1 < length) {
+                        c = value.charAt(++i);
+                    }
+                    sb.append(c);
+                }
+                paramValue = sb.toString();
+                start = value.indexOf(';', i);
+            } else {
+                int end = value.indexOf(';', valueStart);
+                paramValue = value.substring(valueStart, end == -1 ? length : end).trim();
+                start = end;
+            }
+
+            if ("name".equals(key)) {
+                name = paramValue;
+            } else if ("filename".equals(key)) {
+                if (filename == null) {
+                    filename = paramValue;
+                }
+            } else if ("filename*".equals(key)) {
+                // RFC 5987: charset'language'percent-encoded-value, takes precedence over filename.
+                String[] split = paramValue.split("'", 3);
+                if (split.length == 3) {
+                    try {
+                        filename = QueryStringDecoder.decodeComponent(
+                                split[2].replace("+", "%2B"), Charset.forName(split[0]));
+                    } catch (IllegalArgumentException e) {
+                        throw new HttpPostRequestDecoder.ErrorDataDecoderException(e);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return StringUtil.simpleClassName(this) + "(name: " + name + ", filename: " + filename + ')';
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.http.router;
+
+import io.netty.util.AsciiString;
+import io.netty.util.internal.StringUtil;
+
+/**
+ * The result of {@link HttpRouter#route(io.netty.handler.codec.http.HttpMethod, CharSequence)}: the target of the
+ * matching route and the values of its path parameters. The values are views of the request URI, they are neither
+ * copied nor percent-decoded.
+ */
+public final class HttpRouteMatch<T> {
+
+    private final T target;
+    private final String[] paramNames;
+    private final byte[] path;
+    private final int[] paramOffsets;
+
+    HttpRouteMatch(T target, String[] paramNames, byte[] path, int[] paramOffsets) {
+        this.target = target;
+        this.paramNames = paramNames;
+        this.path = path;
+        this.paramOffsets = paramOffsets;
+    }
+
+    /**
+     * Returns the target of the matching route.
+     */
+    public T target() {
+        return target;
+    }
+
+    /**
+     * Returns the number of path parameters of the matching route.
+     */
+    public int paramCount() {
+        return paramNames.length;
+    }
+
+    /**
+     * Returns the name of the path parameter at {@code index}, in the order they appear in the template.
+     */
+    public String paramName(int index) {
+        return paramNames[index];
+    }
+
+    /**
+     * Returns the value of the path parameter at {@code index}, in the order they appear in the template.
+     */
+    public AsciiString param(int index) {
+        if (index < 0 || index >= paramNames.length) {
+            throw new IndexOutOfBoundsException("index: " + index + " (expected: 0-" + (paramNames.length - 1) + ')');
+        }
+        int start = paramOffsets[index << 1];
+        return new AsciiString(path, start, paramOffsets[(index << 1) + 1] - start, false);
+    }
+
+    /**
+     * Returns the value of the path parameter with the given {@code name} or {@code null} if the route has no such
+     * parameter.
+     */
+    public AsciiString param(String name) {
+        for (int i = 0; i < paramNames.length; i++) {
+            if (paramNames[i].equals(name)) {
+                return param(i);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder buf = new StringBuilder(StringUtil.simpleClassName(this)).append("(target: ").append(target);
+        for (int i = 0; i < paramNames.length; i++) {
+            buf.append(", ").append(paramNames[i]).append(": ").append(param(i));
+        }
+        return buf.append(')').toString();
+    }
+}
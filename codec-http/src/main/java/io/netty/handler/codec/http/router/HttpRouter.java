@@ -0,0 +1,332 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.http.router;
+
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.util.AsciiString;
+import io.netty.util.internal.EmptyArrays;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static io.netty.util.internal.ObjectUtil.checkNotNull;
+
+/**
+ * Maps the method and path of requests to targets, for example the {@link io.netty.channel.ChannelHandler}s which
+ * handle them.
+ * <p>
+ * Routes are given as path templates. A segment starting with {@code :} is a parameter which matches any non-empty
+ * segment, for example {@code /users/:id}. A last segment starting with {@code *} is a wildcard which matches the
+ * remainder of the path, including further {@code /}, for example {@code /static/*file}. When several routes match,
+ * a static segment takes precedence over a parameter and a parameter over a wildcard. A route may be added for a
+ * single {@link HttpMethod} or for all methods, where a route for the method of the request takes precedence.
+ * <p>
+ * The templates are kept in a radix trie of the raw bytes of the path, so the time to find a route depends on the
+ * length of the path but not on the number of routes. The path is matched as it appears in the request URI without
+ * percent-decoding it, the query and fragment are ignored. Parameters are returned as views of the URI, so no
+ * {@link String}s are created while routing. Routes must be added before the router is used, after that it may be
+ * used by several threads concurrently.
+ */
+public final class HttpRouter<T> {
+
+    private static final byte[] ROOT_PATH = { '/' };
+
+    private final Node<T> root = new Node<T>(EmptyArrays.EMPTY_BYTES);
+    private int maxParams;
+
+    /**
+     * Adds a route for all methods which have no route of their own.
+     */
+    public HttpRouter<T> addRoute(String pathTemplate, T target) {
+        return addRoute0(null, pathTemplate, target);
+    }
+
+    /**
+     * Adds a route for requests with the given {@link HttpMethod}.
+     */
+    public HttpRouter<T> addRoute(HttpMethod method, String pathTemplate, T target) {
+        return addRoute0(checkNotNull(method, "method"), pathTemplate, target);
+    }
+
+    private HttpRouter<T> addRoute0(HttpMethod method, String pathTemplate, T target) {
+        checkNotNull(pathTemplate, "pathTemplate");
+        checkNotNull(target, "target");
+        if (pathTemplate.isEmpty() || pathTemplate.charAt(0) != '/') {
+            throw new IllegalArgumentException("pathTemplate must start with '/': " + pathTemplate);
+        }
+
+        List<String> paramNames = new ArrayList<String>(2);
+        Node<T> node = root;
+        int staticStart = 0;
+        int i = 1;
+        while (i < pathTemplate.length()) {
+            char c = pathTemplate.charAt(i);
+            if ((c != ':' && c != '*') || pathTemplate.charAt(i - 1) != '/') {
+                i++;
+                continue;
+            }
+            node = insertStatic(node, pathTemplate.substring(staticStart, i));
+            int end = pathTemplate.indexOf('/', i);
+            if (end < 0) {
+                end = pathTemplate.length();
+            }
+            String name = pathTemplate.substring(i + 1, end);
+            if (c == ':') {
+                if (name.isEmpty()) {
+                    throw new IllegalArgumentException("parameter without name: " + pathTemplate);
+                }
+                if (node.paramChild == null) {
+                    node.paramChild = new Node<T>(EmptyArrays.EMPTY_BYTES);
+                }
+                node = node.paramChild;
+            } else {
+                if (end != pathTemplate.length()) {
+                    throw new IllegalArgumentException("wildcard must be the last segment: " + pathTemplate);
+                }
+                if (node.wildcardChild == null) {
+                    node.wildcardChild = new Node<T>(EmptyArrays.EMPTY_BYTES);
+                }
+                node = node.wildcardChild;
+            }
+            paramNames.add(name);
+            staticStart = i = end;
+        }
+        if (staticStart < pathTemplate.length()) {
+            node = insertStatic(node, pathTemplate.substring(staticStart));
+        }
+
+        node.addRoute(new Route<T>(method, target, paramNames.toArray(new String[0])), pathTemplate);
+        maxParams = Math.max(maxParams, paramNames.size());
+        return this;
+    }
+
+    private static <T> Node<T> insertStatic(Node<T> node, String segment) {
+        byte[] bytes = new AsciiString(segment).toByteArray();
+        int i = 0;
+        while (i < bytes.length) {
+            int index = node.childIndex(bytes[i]);
+            if (index < 0) {
+                Node<T> child = new Node<T>(Arrays.copyOfRange(bytes, i, bytes.length));
+                node.addChild(child);
+                return child;
+            }
+            Node<T> child = node.children[index];
+            byte[] label = child.label;
+            int common = 1;
+            while (common < label.length && i + common < bytes.length && label[common] == bytes[i + common]) {
+                common++;
+            }
+            if (common < label.length) {
+                // Split the edge at the end of the common prefix.
+                Node<T> split = new Node<T>(Arrays.copyOf(label, common));
+                child.label = Arrays.copyOfRange(label, common, label.length);
+                split.addChild(child);
+                node.children[index] = split;
+                child = split;
+            }
+            node = child;
+            i += common;
+        }
+        return node;
+    }
+
+    /**
+     * Returns the matching route for the method and URI of {@code request} or {@code null} if there is none.
+     */
+    public HttpRouteMatch<T> route(HttpRequest request) {
+        return route(request.method(), request.uri());
+    }
+
+    /**
+     * Returns the matching route for {@code method} and {@code uri} or {@code null} if there is none. The URI may be
+     * given in origin-form or absolute-form, an {@link AsciiString} is matched without copying it.
+     */
+    public HttpRouteMatch<T> route(HttpMethod method, CharSequence uri) {
+        checkNotNull(method, "method");
+        AsciiString string = uri instanceof AsciiString ? (AsciiString) uri : new AsciiString(uri);
+        byte[] path = string.array();
+        int start = string.arrayOffset();
+        int end = start + string.length();
+
+        if (start < end && path[start] != '/') {
+            // absolute-form, skip the scheme and authority.
+            int authority = string.indexOf("://", 0);
+            if (authority < 0) {
+                return null;
+            }
+            int slash = string.indexOf('/', authority + 3);
+            if (slash < 0) {
+                return match(method, ROOT_PATH, 0, 1);
+            }
+            start += slash;
+        }
+        for (int i = start; i < end; i++) {
+            byte b = path[i];
+            if (b == '?' || b == '#') {
+                end = i;
+                break;
+            }
+        }
+        if (start == end) {
+            return null;
+        }
+        return match(method, path, start, end);
+    }
+
+    private HttpRouteMatch<T> match(HttpMethod method, byte[] path, int start, int end) {
+        int[] paramOffsets = maxParams == 0 ? EmptyArrays.EMPTY_INTS : new int[maxParams << 1];
+        Route<T> route = match(root, method, path, start, end, paramOffsets, 0);
+        return route == null ? null : new HttpRouteMatch<T>(route.target, route.paramNames, path, paramOffsets);
+    }
+
+    private static <T> Route<T> match(Node<T> node, HttpMethod method, byte[] path, int pos, int end,
+                                      int[] paramOffsets, int depth) {
+        if (pos == end) {
+            Route<T> route = node.route(method);
+            if (route != null) {
+                return route;
+            }
+        } else {
+            int index = node.childIndex(path[pos]);
+            if (index >= 0) {
+                Node<T> child = node.children[index];
+                if (regionMatches(path, pos, end, child.label)) {
+                    Route<T> route = match(child, method, path, pos + child.label.length, end, paramOffsets, depth);
+                    if (route != null) {
+                        return route;
+                    }
+                }
+            }
+            if (node.paramChild != null && path[pos] != '/') {
+                int segmentEnd = pos + 1;
+                while (segmentEnd < end && path[segmentEnd] != '/') {
+                    segmentEnd++;
+                }
+                Route<T> route = match(node.paramChild, method, path, segmentEnd, end, paramOffsets, depth + 1);
+                if (route != null) {
+                    paramOffsets[depth << 1] = pos;
+                    paramOffsets[(depth << 1) + 1] = segmentEnd;
+                    return route;
+                }
+            }
+        }
+        if (node.wildcardChild != null) {
+            Route<T> route = node.wildcardChild.route(method);
+            if (route != null) {
+                paramOffsets[depth << 1] = pos;
+                paramOffsets[(depth << 1) + 1] = end;
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private static boolean regionMatches(byte[] path, int pos, int end, byte[] label) {
+        if (end - pos < label.length) {
+            return false;
+        }
+        // The first byte was already compared when the child was selected.
+        for (int i = 1; i < label.length; i++) {
+            if (path[pos + i] != label[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class Node<T> {
+        // Shared by all nodes, the arrays are copied when they grow so the empty ones are never written to.
+        private static final Node<?>[] EMPTY_NODES = new Node<?>[0];
+        private static final Route<?>[] EMPTY_ROUTES = new Route<?>[0];
+
+        byte[] label;
+        private byte[] firstBytes = EmptyArrays.EMPTY_BYTES;
+        Node<T>[] children = emptyNodes();
+        Node<T> paramChild;
+        Node<T> wildcardChild;
+        private Route<T>[] routes = emptyRoutes();
+
+        Node(byte[] label) {
+            this.label = label;
+        }
+
+        int childIndex(byte b) {
+            byte[] firstBytes = this.firstBytes;
+            for (int i = 0; i < firstBytes.length; i++) {
+                if (firstBytes[i] == b) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> Node<T>[] emptyNodes() {
+            return (Node<T>[]) EMPTY_NODES;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> Route<T>[] emptyRoutes() {
+            return (Route<T>[]) EMPTY_ROUTES;
+        }
+
+        void addChild(Node<T> child) {
+            int length = children.length;
+            children = Arrays.copyOf(children, length + 1);
+            children[length] = child;
+            firstBytes = Arrays.copyOf(firstBytes, length + 1);
+            firstBytes[length] = child.label[0];
+        }
+
+        void addRoute(Route<T> route, String pathTemplate) {
+            for (Route<T> existing: routes) {
+                if (existing.method == null ? route.method == null : existing.method.equals(route.method)) {
+                    throw new IllegalArgumentException("route already exists: " +
+                            (route.method == null ? "" : route.method + " ") + pathTemplate);
+                }
+            }
+            int length = routes.length;
+            routes = Arrays.copyOf(routes, length + 1);
+            routes[length] = route;
+        }
+
+        Route<T> route(HttpMethod method) {
+            Route<T> anyMethod = null;
+            for (Route<T> route: routes) {
+                if (route.method == null) {
+                    anyMethod = route;
+                } else if (route.method == method || route.method.equals(method)) {
+                    return route;
+                }
+            }
+            return anyMethod;
+        }
+    }
+
+    private static final class Route<T> {
+        final HttpMethod method;
+        final T target;
+        final String[] paramNames;
+
+        Route(HttpMethod method, T target, String[] paramNames) {
+            this.method = method;
+            this.target = target;
+            this.paramNames = paramNames;
+        }
+    }
+}
@@ -45,6 +45,8 @@ import io.netty.util.ByteProcessor;
 final class Utf8Validator implements ByteProcessor {
     private static final int UTF8_ACCEPT = 0;
     private static final int UTF8_REJECT = 12;
+    // The high bit of every byte is only set for bytes that are not US-ASCII.
+    private static final long ASCII_MASK = 0x8080808080808080L;
 
     private static final byte[] TYPES = { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
             0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
@@ -71,7 +73,35 @@ final class Utf8Validator implements ByteProcessor {
 
     public void check(ByteBuf buffer) {
         checking = true;
-        buffer.forEachByte(this);
+        int index = buffer.readerIndex();
+        final int end = buffer.writerIndex();
+        while (index < end) {
+            if (state == UTF8_ACCEPT) {
+                // US-ASCII bytes do not change the state as long as no multi-byte sequence is pending.
+                index = skipAscii(buffer, index, end);
+                if (index == end) {
+                    return;
+                }
+            }
+            // Run the DFA until it consumed the next US-ASCII byte, which ends all pending sequences.
+            index = buffer.forEachByte(index, end - index, this);
+            if (index < 0) {
+                return;
+            }
+            index++;
+        }
+    }
+
+    private static int skipAscii(ByteBuf buffer, int index, int end) {
+        for (; index + 7 < end; index += 8) {
+            if ((buffer.getLong(index) & ASCII_MASK) != 0) {
+                break;
+            }
+        }
+        while (index < end && buffer.getByte(index) >= 0) {
+            index++;
+        }
+        return index;
     }
 
     public void finish() {
@@ -95,7 +125,7 @@ final class Utf8Validator implements ByteProcessor {
             checking = false;
             throw new CorruptedFrameException("bytes are not UTF-8");
         }
-        return true;
+        return b < 0;
     }
 
     public boolean isChecking() {
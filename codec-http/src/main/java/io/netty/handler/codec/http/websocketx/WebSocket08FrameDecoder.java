@@ -63,7 +63,6 @@ import io.netty.handler.codec.TooLongFrameException;
 import io.netty.util.internal.logging.InternalLogger;
 import io.netty.util.internal.logging.InternalLoggerFactory;
 
-import java.nio.ByteOrder;
 import java.util.List;
 
 import static io.netty.buffer.ByteBufUtil.readBytes;
@@ -104,7 +103,7 @@ public class WebSocket08FrameDecoder extends ByteToMessageDecoder
     private int frameRsv;
     private int frameOpcode;
     private long framePayloadLength;
-    private byte[] maskingKey;
+    private int maskingKey;
     private int framePayloadLen1;
     private boolean receivedClosingHandshake;
     private State state = State.READING_FIRST;
@@ -288,10 +287,7 @@ public class WebSocket08FrameDecoder extends ByteToMessageDecoder
                         if (in.readableBytes() < 4) {
                             return;
                         }
-                        if (maskingKey == null) {
-                            maskingKey = new byte[4];
-                        }
-                        in.readBytes(maskingKey);
+                        maskingKey = in.readInt();
                     }
                     state = State.PAYLOAD;
                 case PAYLOAD:
@@ -301,17 +297,21 @@ public class WebSocket08FrameDecoder extends ByteToMessageDecoder
 
                     ByteBuf payloadBuffer = null;
                     try {
-                        payloadBuffer = readBytes(ctx.alloc(), in, toFrameLength(framePayloadLength));
+                        int frameLength = toFrameLength(framePayloadLength);
+                        if (frameMasked) {
+                            // Unmask the data while copying it, the inbound buffer itself must not be modified.
+                            payloadBuffer = ctx.alloc().buffer(frameLength);
+                            WebSocketUtil.mask(maskingKey, in, in.readerIndex(), payloadBuffer, 0, frameLength);
+                            payloadBuffer.writerIndex(frameLength);
+                            in.skipBytes(frameLength);
+                        } else {
+                            payloadBuffer = readBytes(ctx.alloc(), in, frameLength);
+                        }
 
                         // Now we have all the data, the next checkpoint must be the next
                         // frame
                         state = State.READING_FIRST;
 
-                        // Unmask data if needed
-                        if (frameMasked) {
-                            unmask(payloadBuffer);
-                        }
-
                         // Processing ping/pong/close frames because they cannot be
                         // fragmented
                         if (frameOpcode == OPCODE_PING) {
@@ -380,34 +380,6 @@ public class WebSocket08FrameDecoder extends ByteToMessageDecoder
             }
     }
 
-    private void unmask(ByteBuf frame) {
-        int i = frame.readerIndex();
-        int end = frame.writerIndex();
-
-        ByteOrder order = frame.order();
-
-        // Remark: & 0xFF is necessary because Java will do signed expansion from
-        // byte to int which we don't want.
-        int intMask = ((maskingKey[0] & 0xFF) << 24)
-                    | ((maskingKey[1] & 0xFF) << 16)
-                    | ((maskingKey[2] & 0xFF) << 8)
-                    | (maskingKey[3] & 0xFF);
-
-        // If the byte order of our buffers it little endian we have to bring our mask
-        // into the same format, because getInt() and writeInt() will use a reversed byte order
-        if (order == ByteOrder.LITTLE_ENDIAN) {
-            intMask = Integer.reverseBytes(intMask);
-        }
-
-        for (; i + 3 < end; i += 4) {
-            int unmasked = frame.getInt(i) ^ intMask;
-            frame.setInt(i, unmasked);
-        }
-        for (; i < end; i++) {
-            frame.setByte(i, frame.getByte(i) ^ maskingKey[i % 4]);
-        }
-    }
-
     private void protocolViolation(ChannelHandlerContext ctx, String reason) {
         protocolViolation(ctx, new CorruptedFrameException(reason));
     }
@@ -54,14 +54,14 @@
 package io.netty.handler.codec.http.websocketx;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToMessageEncoder;
 import io.netty.handler.codec.TooLongFrameException;
+import io.netty.util.internal.PlatformDependent;
 import io.netty.util.internal.logging.InternalLogger;
 import io.netty.util.internal.logging.InternalLoggerFactory;
 
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.util.List;
 
 /**
@@ -105,41 +105,11 @@ public class WebSocket08FrameEncoder extends MessageToMessageEncoder<WebSocketFr
     @Override
     protected void encode(ChannelHandlerContext ctx, WebSocketFrame msg, List<Object> out) throws Exception {
         final ByteBuf data = msg.content();
-        byte[] mask;
-
-        byte opcode;
-        if (msg instanceof TextWebSocketFrame) {
-            opcode = OPCODE_TEXT;
-        } else if (msg instanceof PingWebSocketFrame) {
-            opcode = OPCODE_PING;
-        } else if (msg instanceof PongWebSocketFrame) {
-            opcode = OPCODE_PONG;
-        } else if (msg instanceof CloseWebSocketFrame) {
-            opcode = OPCODE_CLOSE;
-        } else if (msg instanceof BinaryWebSocketFrame) {
-            opcode = OPCODE_BINARY;
-        } else if (msg instanceof ContinuationWebSocketFrame) {
-            opcode = OPCODE_CONT;
-        } else {
-            throw new UnsupportedOperationException("Cannot encode frame of type: " + msg.getClass().getName());
-        }
-
         int length = data.readableBytes();
+        int b0 = firstByte(msg, length);
 
         if (logger.isDebugEnabled()) {
-            logger.debug("Encoding WebSocket Frame opCode=" + opcode + " length=" + length);
-        }
-
-        int b0 = 0;
-        if (msg.isFinalFragment()) {
-            b0 |= 1 << 7;
-        }
-        b0 |= msg.rsv() % 8 << 4;
-        b0 |= opcode % 128;
-
-        if (opcode == OPCODE_PING && length > 125) {
-            throw new TooLongFrameException("invalid payload for PING (payload length must be <= 125, was "
-                    + length);
+            logger.debug("Encoding WebSocket Frame opCode=" + (b0 & 0x0F) + " length=" + length);
         }
 
         boolean release = true;
@@ -178,41 +148,13 @@ public class WebSocket08FrameEncoder extends MessageToMessageEncoder<WebSocketFr
 
             // Write payload
             if (maskPayload) {
-                int random = (int) (Math.random() * Integer.MAX_VALUE);
-                mask = ByteBuffer.allocate(4).putInt(random).array();
-                buf.writeBytes(mask);
-
-                ByteOrder srcOrder = data.order();
-                ByteOrder dstOrder = buf.order();
-
-                int counter = 0;
-                int i = data.readerIndex();
-                int end = data.writerIndex();
-
-                if (srcOrder == dstOrder) {
-                    // Use the optimized path only when byte orders match
-                    // Remark: & 0xFF is necessary because Java will do signed expansion from
-                    // byte to int which we don't want.
-                    int intMask = ((mask[0] & 0xFF) << 24)
-                                | ((mask[1] & 0xFF) << 16)
-                                | ((mask[2] & 0xFF) << 8)
-                                | (mask[3] & 0xFF);
-
-                    // If the byte order of our buffers it little endian we have to bring our mask
-                    // into the same format, because getInt() and writeInt() will use a reversed byte order
-                    if (srcOrder == ByteOrder.LITTLE_ENDIAN) {
-                        intMask = Integer.reverseBytes(intMask);
-                    }
-
-                    for (; i + 3 < end; i += 4) {
-                        int intData = data.getInt(i);
-                        buf.writeInt(intData ^ intMask);
-                    }
-                }
-                for (; i < end; i++) {
-                    byte byteData = data.getByte(i);
-                    buf.writeByte(byteData ^ mask[counter++ % 4]);
-                }
+                int mask = PlatformDependent.threadLocalRandom().nextInt();
+                buf.writeInt(mask);
+
+                buf.ensureWritable(length);
+                int writerIndex = buf.writerIndex();
+                WebSocketUtil.mask(mask, data, data.readerIndex(), buf, writerIndex, length);
+                buf.writerIndex(writerIndex + length);
                 out.add(buf);
             } else {
                 if (buf.writableBytes() >= data.readableBytes()) {
@@ -231,4 +173,65 @@ public class WebSocket08FrameEncoder extends MessageToMessageEncoder<WebSocketFr
             }
         }
     }
+
+    /**
+     * Encodes the frame without a mask, as sent by servers, into a single buffer which contains the header and the
+     * payload. The frame is not released.
+     */
+    static ByteBuf encodeUnmasked(ByteBufAllocator alloc, WebSocketFrame msg) throws TooLongFrameException {
+        final ByteBuf data = msg.content();
+        int length = data.readableBytes();
+        int b0 = firstByte(msg, length);
+
+        ByteBuf buf;
+        if (length <= 125) {
+            buf = alloc.ioBuffer(2 + length);
+            buf.writeByte(b0);
+            buf.writeByte(length);
+        } else if (length <= 0xFFFF) {
+            buf = alloc.ioBuffer(4 + length);
+            buf.writeByte(b0);
+            buf.writeByte(126);
+            buf.writeShort(length);
+        } else {
+            buf = alloc.ioBuffer(10 + length);
+            buf.writeByte(b0);
+            buf.writeByte(127);
+            buf.writeLong(length);
+        }
+        buf.writeBytes(data, data.readerIndex(), length);
+        return buf;
+    }
+
+    private static int firstByte(WebSocketFrame msg, int length) throws TooLongFrameException {
+        byte opcode;
+        if (msg instanceof TextWebSocketFrame) {
+            opcode = OPCODE_TEXT;
+        } else if (msg instanceof PingWebSocketFrame) {
+            opcode = OPCODE_PING;
+        } else if (msg instanceof PongWebSocketFrame) {
+            opcode = OPCODE_PONG;
+        } else if (msg instanceof CloseWebSocketFrame) {
+            opcode = OPCODE_CLOSE;
+        } else if (msg instanceof BinaryWebSocketFrame) {
+            opcode = OPCODE_BINARY;
+        } else if (msg instanceof ContinuationWebSocketFrame) {
+            opcode = OPCODE_CONT;
+        } else {
+            throw new UnsupportedOperationException("Cannot encode frame of type: " + msg.getClass().getName());
+        }
+
+        if (opcode == OPCODE_PING && length > 125) {
+            throw new TooLongFrameException("invalid payload for PING (payload length must be <= 125, was "
+                    + length);
+        }
+
+        int b0 = 0;
+        if (msg.isFinalFragment()) {
+            b0 |= 1 << 7;
+        }
+        b0 |= msg.rsv() % 8 << 4;
+        b0 |= opcode % 128;
+        return b0;
+    }
 }
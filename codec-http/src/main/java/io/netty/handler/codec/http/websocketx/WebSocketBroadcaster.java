@@ -0,0 +1,91 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.http.websocketx;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.group.ChannelGroupFuture;
+import io.netty.channel.group.ChannelMatcher;
+import io.netty.channel.group.ChannelMatchers;
+import io.netty.channel.group.DefaultChannelGroup;
+import io.netty.channel.group.UnwritableChannelPolicy;
+import io.netty.handler.codec.EncoderException;
+import io.netty.handler.codec.TooLongFrameException;
+import io.netty.util.ReferenceCountUtil;
+
+/**
+ * Sends the same {@link WebSocketFrame} to many web socket {@link Channel}s of a {@link DefaultChannelGroup}.
+ * <p>
+ * Writing a {@link WebSocketFrame} to a {@link DefaultChannelGroup} encodes (and compresses, if permessage-deflate was
+ * negotiated) the frame once per {@link Channel}. The frame is encoded only once here, into a read-only buffer
+ * which contains the header and the payload. This buffer is shared by all {@link Channel}s and passes the
+ * {@link WebSocketFrame} encoders of their pipelines unchanged. See
+ * {@link DefaultChannelGroup#broadcast(Object, ChannelMatcher, UnwritableChannelPolicy, boolean)} for how it is
+ * written.
+ * <p>
+ * The frames are encoded as sent by servers of protocol version 07 and later, so without a mask. They are never
+ * compressed, which is allowed by permessage-deflate, unless the given frame has the RSV1 bit set already. A frame
+ * must not be broadcast while a {@link Channel} sends a fragmented message.
+ */
+public final class WebSocketBroadcaster {
+
+    /**
+     * Encodes the frame into a read-only buffer which can be written to many web socket {@link Channel}s. The frame
+     * is released.
+     */
+    public static ByteBuf encode(ByteBufAllocator alloc, WebSocketFrame frame) {
+        if (alloc == null) {
+            throw new NullPointerException("alloc");
+        }
+        if (frame == null) {
+            throw new NullPointerException("frame");
+        }
+        try {
+            return WebSocket08FrameEncoder.encodeUnmasked(alloc, frame).asReadOnly();
+        } catch (TooLongFrameException e) {
+            throw new EncoderException(e);
+        } finally {
+            frame.release();
+        }
+    }
+
+    /**
+     * Sends the frame to all web socket {@link Channel}s of the group, skipping {@link Channel}s which are not
+     * writable. The frame is released.
+     */
+    public static ChannelGroupFuture broadcast(DefaultChannelGroup group, WebSocketFrame frame) {
+        return broadcast(group, frame, ChannelMatchers.isNonServerChannel(), UnwritableChannelPolicy.SKIP, false);
+    }
+
+    /**
+     * Sends the frame to all web socket {@link Channel}s of the group which are matched by the given
+     * {@link ChannelMatcher}. The frame is released.
+     */
+    public static ChannelGroupFuture broadcast(DefaultChannelGroup group, WebSocketFrame frame,
+                                               ChannelMatcher matcher, UnwritableChannelPolicy policy,
+                                               boolean voidPromise) {
+        if (group == null) {
+            ReferenceCountUtil.release(frame);
+            throw new NullPointerException("group");
+        }
+        return group.broadcast(encode(ByteBufAllocator.DEFAULT, frame), matcher, policy, voidPromise);
+    }
+
+    private WebSocketBroadcaster() {
+        // Unused
+    }
+}
@@ -143,6 +143,63 @@ final class WebSocketUtil {
         return (int) (minimum + fraction * (maximum - minimum));
     }
 
+    /**
+     * XORs {@code length} bytes of {@code src} starting at {@code srcIndex} with the masking key and stores the result
+     * in {@code dst} starting at {@code dstIndex}. {@code src} and {@code dst} may be the same buffer to (un)mask the
+     * data in place. The indexes of the buffers are not modified.
+     *
+     * @param mask the masking key in network byte order, the first byte of the key is applied to {@code srcIndex}
+     */
+    static void mask(int mask, ByteBuf src, int srcIndex, ByteBuf dst, int dstIndex, int length) {
+        if (length == 0) {
+            return;
+        }
+        if (srcIndex < 0 || length > src.capacity() - srcIndex) {
+            throw new IndexOutOfBoundsException("srcIndex: " + srcIndex + ", length: " + length +
+                    " (expected: range(0, " + src.capacity() + "))");
+        }
+        if (dstIndex < 0 || length > dst.capacity() - dstIndex) {
+            throw new IndexOutOfBoundsException("dstIndex: " + dstIndex + ", length: " + length +
+                    " (expected: range(0, " + dst.capacity() + "))");
+        }
+        // The key repeated twice, so we can process 8 bytes at once.
+        long longMask = mask & 0xFFFFFFFFL | (long) mask << 32;
+        int i = 0;
+        if (PlatformDependent.hasUnsafe() && PlatformDependent.isUnaligned() &&
+                (src.hasArray() || src.hasMemoryAddress()) && (dst.hasArray() || dst.hasMemoryAddress())) {
+            // Bounds were checked above, so we can access the memory directly without doing it again for each long.
+            byte[] srcArray = src.hasArray() ? src.array() : null;
+            long srcAddress = srcArray != null ? src.arrayOffset() + srcIndex : src.memoryAddress() + srcIndex;
+            byte[] dstArray = dst.hasArray() ? dst.array() : null;
+            long dstAddress = dstArray != null ? dst.arrayOffset() + dstIndex : dst.memoryAddress() + dstIndex;
+            long nativeMask = PlatformDependent.BIG_ENDIAN_NATIVE_ORDER ? longMask : Long.reverseBytes(longMask);
+            for (; i + 7 < length; i += 8) {
+                putLong(dstArray, dstAddress + i, getLong(srcArray, srcAddress + i) ^ nativeMask);
+            }
+        } else {
+            // getLongLE() and setLongLE() read and write the first byte of the key as the least significant one.
+            long reversedMask = Long.reverseBytes(longMask);
+            for (; i + 7 < length; i += 8) {
+                dst.setLongLE(dstIndex + i, src.getLongLE(srcIndex + i) ^ reversedMask);
+            }
+        }
+        for (; i < length; i++) {
+            dst.setByte(dstIndex + i, src.getByte(srcIndex + i) ^ mask >>> 24 - ((i & 3) << 3));
+        }
+    }
+
+    private static long getLong(byte[] array, long address) {
+        return array != null ? PlatformDependent.getLong(array, (int) address) : PlatformDependent.getLong(address);
+    }
+
+    private static void putLong(byte[] array, long address, long value) {
+        if (array != null) {
+            PlatformDependent.putLong(array, (int) address, value);
+        } else {
+            PlatformDependent.putLong(address, value);
+        }
+    }
+
     /**
      * A private constructor to ensure that instances of this class cannot be made
      */
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.http.websocketx.extensions.compression;
+
+import io.netty.util.concurrent.FastThreadLocal;
+import io.netty.util.internal.PlatformDependent;
+import io.netty.util.internal.SystemPropertyUtil;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Pools the {@link Deflater}s and {@link Inflater}s of connections that negotiated no context takeover. Such a
+ * connection only needs a compression context while it processes a message, so it borrows one from the pool of its
+ * {@link io.netty.channel.EventLoop} and returns it once the message is complete instead of keeping its own.
+ * <p>
+ * At most {@code io.netty.websocket.maxPooledDeflateContexts} idle {@link Deflater}s and {@link Inflater}s are kept
+ * per {@link io.netty.channel.EventLoop}. All methods must be called from the {@link io.netty.channel.EventLoop} of
+ * the connection.
+ */
+final class DeflateContextPool {
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(DeflateContextPool.class);
+
+    private static final int MAX_POOLED_CONTEXTS = Math.max(0,
+            SystemPropertyUtil.getInt("io.netty.websocket.maxPooledDeflateContexts", 8));
+
+    static {
+        if (logger.isDebugEnabled()) {
+            logger.debug("-Dio.netty.websocket.maxPooledDeflateContexts: {}", MAX_POOLED_CONTEXTS);
+        }
+    }
+
+    private final int compressionLevel;
+
+    // Every EventLoop is powered by exactly one thread, so this gives us one pool per EventLoop.
+    private final FastThreadLocal<ArrayDeque<Deflater>> deflaters = new FastThreadLocal<ArrayDeque<Deflater>>() {
+        @Override
+        protected ArrayDeque<Deflater> initialValue() {
+            return new ArrayDeque<Deflater>();
+        }
+
+        @Override
+        protected void onRemoval(ArrayDeque<Deflater> value) {
+            for (Deflater deflater: value) {
+                deflater.end();
+            }
+            value.clear();
+        }
+    };
+
+    private final FastThreadLocal<ArrayDeque<Inflater>> inflaters = new FastThreadLocal<ArrayDeque<Inflater>>() {
+        @Override
+        protected ArrayDeque<Inflater> initialValue() {
+            return new ArrayDeque<Inflater>();
+        }
+
+        @Override
+        protected void onRemoval(ArrayDeque<Inflater> value) {
+            for (Inflater inflater: value) {
+                inflater.end();
+            }
+            value.clear();
+        }
+    };
+
+    /**
+     * @param compressionLevel the compression level of the pooled {@link Deflater}s.
+     */
+    DeflateContextPool(int compressionLevel) {
+        this.compressionLevel = compressionLevel;
+    }
+
+    /**
+     * Returns {@code true} if the pooled contexts can be used. Flushing a {@link Deflater} requires Java 7.
+     */
+    static boolean isSupported() {
+        return PlatformDependent.javaVersion() >= 7;
+    }
+
+    Deflater acquireDeflater() {
+        Deflater deflater = deflaters.get().pollLast();
+        return deflater != null ? deflater : new Deflater(compressionLevel, true);
+    }
+
+    void releaseDeflater(Deflater deflater) {
+        ArrayDeque<Deflater> pool = deflaters.get();
+        if (pool.size() < MAX_POOLED_CONTEXTS) {
+            deflater.reset();
+            pool.addLast(deflater);
+        } else {
+            deflater.end();
+        }
+    }
+
+    Inflater acquireInflater() {
+        Inflater inflater = inflaters.get().pollLast();
+        return inflater != null ? inflater : new Inflater(true);
+    }
+
+    void releaseInflater(Inflater inflater) {
+        ArrayDeque<Inflater> pool = inflaters.get();
+        if (pool.size() < MAX_POOLED_CONTEXTS) {
+            inflater.reset();
+            pool.addLast(inflater);
+        } else {
+            inflater.end();
+        }
+    }
+}
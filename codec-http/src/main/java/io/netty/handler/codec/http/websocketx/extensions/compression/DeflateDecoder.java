@@ -16,11 +16,14 @@
 package io.netty.handler.codec.http.websocketx.extensions.compression;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.buffer.CompositeByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.embedded.EmbeddedChannel;
 import io.netty.handler.codec.CodecException;
+import io.netty.handler.codec.compression.DecompressionException;
 import io.netty.handler.codec.compression.ZlibCodecFactory;
 import io.netty.handler.codec.compression.ZlibWrapper;
 import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
@@ -30,6 +33,8 @@ import io.netty.handler.codec.http.websocketx.WebSocketFrame;
 import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtensionDecoder;
 
 import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
 
 /**
  * Deflate implementation of a payload decompressor for
@@ -40,15 +45,28 @@ abstract class DeflateDecoder extends WebSocketExtensionDecoder {
     static final byte[] FRAME_TAIL = new byte[] {0x00, 0x00, (byte) 0xff, (byte) 0xff};
 
     private final boolean noContext;
+    private final DeflateContextPool pool;
 
     private EmbeddedChannel decoder;
+    private Inflater inflater;
 
     /**
      * Constructor
      * @param noContext true to disable context takeover.
      */
     public DeflateDecoder(boolean noContext) {
+        this(noContext, null);
+    }
+
+    /**
+     * Constructor
+     * @param noContext true to disable context takeover.
+     * @param pool the pool to borrow the {@link Inflater} of a message from if context takeover is disabled,
+     *             or {@code null} to create a new decompressor for every message.
+     */
+    DeflateDecoder(boolean noContext, DeflateContextPool pool) {
         this.noContext = noContext;
+        this.pool = noContext ? pool : null;
     }
 
     protected abstract boolean appendFrameTail(WebSocketFrame msg);
@@ -57,6 +75,23 @@ abstract class DeflateDecoder extends WebSocketExtensionDecoder {
 
     @Override
     protected void decode(ChannelHandlerContext ctx, WebSocketFrame msg, List<Object> out) throws Exception {
+        ByteBuf uncompressedContent = pool != null ? inflate(ctx.alloc(), msg) : decompress(ctx.alloc(), msg);
+
+        WebSocketFrame outMsg;
+        if (msg instanceof TextWebSocketFrame) {
+            outMsg = new TextWebSocketFrame(msg.isFinalFragment(), newRsv(msg), uncompressedContent);
+        } else if (msg instanceof BinaryWebSocketFrame) {
+            outMsg = new BinaryWebSocketFrame(msg.isFinalFragment(), newRsv(msg), uncompressedContent);
+        } else if (msg instanceof ContinuationWebSocketFrame) {
+            outMsg = new ContinuationWebSocketFrame(msg.isFinalFragment(), newRsv(msg),
+                    uncompressedContent);
+        } else {
+            throw new CodecException("unexpected frame type: " + msg.getClass().getName());
+        }
+        out.add(outMsg);
+    }
+
+    private ByteBuf decompress(ByteBufAllocator alloc, WebSocketFrame msg) {
         if (decoder == null) {
             if (!(msg instanceof TextWebSocketFrame) && !(msg instanceof BinaryWebSocketFrame)) {
                 throw new CodecException("unexpected initial frame type: " + msg.getClass().getName());
@@ -70,7 +105,7 @@ abstract class DeflateDecoder extends WebSocketExtensionDecoder {
             decoder.writeInbound(Unpooled.wrappedBuffer(FRAME_TAIL));
         }
 
-        CompositeByteBuf compositeUncompressedContent = ctx.alloc().compositeBuffer();
+        CompositeByteBuf compositeUncompressedContent = alloc.compositeBuffer();
         for (;;) {
             ByteBuf partUncompressedContent = decoder.readInbound();
             if (partUncompressedContent == null) {
@@ -92,29 +127,82 @@ abstract class DeflateDecoder extends WebSocketExtensionDecoder {
         if (msg.isFinalFragment() && noContext) {
             cleanup();
         }
+        return compositeUncompressedContent;
+    }
 
-        WebSocketFrame outMsg;
-        if (msg instanceof TextWebSocketFrame) {
-            outMsg = new TextWebSocketFrame(msg.isFinalFragment(), newRsv(msg), compositeUncompressedContent);
-        } else if (msg instanceof BinaryWebSocketFrame) {
-            outMsg = new BinaryWebSocketFrame(msg.isFinalFragment(), newRsv(msg), compositeUncompressedContent);
-        } else if (msg instanceof ContinuationWebSocketFrame) {
-            outMsg = new ContinuationWebSocketFrame(msg.isFinalFragment(), newRsv(msg),
-                    compositeUncompressedContent);
-        } else {
-            throw new CodecException("unexpected frame type: " + msg.getClass().getName());
+    private ByteBuf inflate(ByteBufAllocator alloc, WebSocketFrame msg) {
+        if (inflater == null) {
+            if (!(msg instanceof TextWebSocketFrame) && !(msg instanceof BinaryWebSocketFrame)) {
+                throw new CodecException("unexpected initial frame type: " + msg.getClass().getName());
+            }
+            inflater = pool.acquireInflater();
+        }
+
+        ByteBuf content = msg.content();
+        int length = content.readableBytes();
+        ByteBuf out = alloc.heapBuffer(length << 1);
+        boolean release = true;
+        try {
+            if (content.hasArray()) {
+                inflater.setInput(content.array(), content.arrayOffset() + content.readerIndex(), length);
+            } else {
+                inflater.setInput(ByteBufUtil.getBytes(content, content.readerIndex(), length, false));
+            }
+            inflate(out);
+            if (appendFrameTail(msg)) {
+                inflater.setInput(FRAME_TAIL);
+                inflate(out);
+            }
+            // No output is fine, for example an empty stored block produces none. Invalid input is detected by the
+            // Inflater itself.
+            release = false;
+        } catch (DataFormatException e) {
+            throw new DecompressionException("decompression failure", e);
+        } finally {
+            if (release) {
+                out.release();
+            }
+            if (release || msg.isFinalFragment()) {
+                releaseInflater();
+            }
+        }
+        return out;
+    }
+
+    private void inflate(ByteBuf out) throws DataFormatException {
+        for (;;) {
+            if (inflater.needsDictionary()) {
+                throw new DecompressionException("decompression failure, unable to set dictionary");
+            }
+            out.ensureWritable(out.writerIndex() < 64 ? 64 : out.writerIndex());
+            int writerIndex = out.writerIndex();
+            int writableBytes = out.writableBytes();
+            int numBytes = inflater.inflate(out.array(), out.arrayOffset() + writerIndex, writableBytes);
+            out.writerIndex(writerIndex + numBytes);
+            // If the buffer was filled there may be more output pending even if all input was consumed.
+            if (numBytes < writableBytes && (inflater.needsInput() || inflater.finished())) {
+                return;
+            }
+        }
+    }
+
+    private void releaseInflater() {
+        if (inflater != null) {
+            pool.releaseInflater(inflater);
+            inflater = null;
         }
-        out.add(outMsg);
     }
 
     @Override
     public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        releaseInflater();
         cleanup();
         super.handlerRemoved(ctx);
     }
 
     @Override
     public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        releaseInflater();
         cleanup();
         super.channelInactive(ctx);
     }
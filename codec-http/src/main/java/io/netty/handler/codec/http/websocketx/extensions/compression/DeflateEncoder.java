@@ -17,6 +17,8 @@ package io.netty.handler.codec.http.websocketx.extensions.compression;
 
 import static io.netty.handler.codec.http.websocketx.extensions.compression.PerMessageDeflateDecoder.*;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.buffer.CompositeByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.embedded.EmbeddedChannel;
@@ -30,6 +32,7 @@ import io.netty.handler.codec.http.websocketx.WebSocketFrame;
 import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtensionEncoder;
 
 import java.util.List;
+import java.util.zip.Deflater;
 
 /**
  * Deflate implementation of a payload compressor for
@@ -37,11 +40,18 @@ import java.util.List;
  */
 abstract class DeflateEncoder extends WebSocketExtensionEncoder {
 
+    static final int DEFAULT_MEM_LEVEL = 8;
+
+    private static final byte[] EMPTY_STORED_BLOCK = { 0x00, 0x00, 0x00, (byte) 0xff, (byte) 0xff };
+
     private final int compressionLevel;
     private final int windowSize;
+    private final int memLevel;
     private final boolean noContext;
+    private final DeflateContextPool pool;
 
     private EmbeddedChannel encoder;
+    private Deflater deflater;
 
     /**
      * Constructor
@@ -50,9 +60,26 @@ abstract class DeflateEncoder extends WebSocketExtensionEncoder {
      * @param noContext true to disable context takeover.
      */
     public DeflateEncoder(int compressionLevel, int windowSize, boolean noContext) {
+        this(compressionLevel, windowSize, DEFAULT_MEM_LEVEL, noContext, null);
+    }
+
+    /**
+     * Constructor
+     * @param compressionLevel compression level of the compressor.
+     * @param windowSize maximum size of the window compressor buffer.
+     * @param memLevel how much memory should be allocated for the internal compression state.
+     * @param noContext true to disable context takeover.
+     * @param pool the pool to borrow the {@link Deflater} of a message from if context takeover is disabled,
+     *             or {@code null} to create a new compressor for every message.
+     */
+    DeflateEncoder(int compressionLevel, int windowSize, int memLevel, boolean noContext, DeflateContextPool pool) {
         this.compressionLevel = compressionLevel;
         this.windowSize = windowSize;
+        this.memLevel = memLevel;
         this.noContext = noContext;
+        // The pooled contexts are JDK Deflaters, which always use the maximum window size and the default memLevel.
+        this.pool = noContext && windowSize == PerMessageDeflateServerExtensionHandshaker.MAX_WINDOW_SIZE &&
+                memLevel == DEFAULT_MEM_LEVEL && DeflateContextPool.isSupported() ? pool : null;
     }
 
     /**
@@ -70,14 +97,38 @@ abstract class DeflateEncoder extends WebSocketExtensionEncoder {
     @Override
     protected void encode(ChannelHandlerContext ctx, WebSocketFrame msg,
             List<Object> out) throws Exception {
+        ByteBuf fullCompressedContent = pool != null ? deflate(ctx.alloc(), msg) : compress(ctx.alloc(), msg);
+
+        ByteBuf compressedContent;
+        if (removeFrameTail(msg)) {
+            int realLength = fullCompressedContent.readableBytes() - FRAME_TAIL.length;
+            compressedContent = fullCompressedContent.slice(0, realLength);
+        } else {
+            compressedContent = fullCompressedContent;
+        }
+
+        WebSocketFrame outMsg;
+        if (msg instanceof TextWebSocketFrame) {
+            outMsg = new TextWebSocketFrame(msg.isFinalFragment(), rsv(msg), compressedContent);
+        } else if (msg instanceof BinaryWebSocketFrame) {
+            outMsg = new BinaryWebSocketFrame(msg.isFinalFragment(), rsv(msg), compressedContent);
+        } else if (msg instanceof ContinuationWebSocketFrame) {
+            outMsg = new ContinuationWebSocketFrame(msg.isFinalFragment(), rsv(msg), compressedContent);
+        } else {
+            throw new CodecException("unexpected frame type: " + msg.getClass().getName());
+        }
+        out.add(outMsg);
+    }
+
+    private ByteBuf compress(ByteBufAllocator alloc, WebSocketFrame msg) {
         if (encoder == null) {
             encoder = new EmbeddedChannel(ZlibCodecFactory.newZlibEncoder(
-                    ZlibWrapper.NONE, compressionLevel, windowSize, 8));
+                    ZlibWrapper.NONE, compressionLevel, windowSize, memLevel));
         }
 
         encoder.writeOutbound(msg.content().retain());
 
-        CompositeByteBuf fullCompressedContent = ctx.alloc().compositeBuffer();
+        CompositeByteBuf fullCompressedContent = alloc.compositeBuffer();
         for (;;) {
             ByteBuf partCompressedContent = encoder.readOutbound();
             if (partCompressedContent == null) {
@@ -97,30 +148,63 @@ abstract class DeflateEncoder extends WebSocketExtensionEncoder {
         if (msg.isFinalFragment() && noContext) {
             cleanup();
         }
+        return fullCompressedContent;
+    }
 
-        ByteBuf compressedContent;
-        if (removeFrameTail(msg)) {
-            int realLength = fullCompressedContent.readableBytes() - FRAME_TAIL.length;
-            compressedContent = fullCompressedContent.slice(0, realLength);
-        } else {
-            compressedContent = fullCompressedContent;
+    private ByteBuf deflate(ByteBufAllocator alloc, WebSocketFrame msg) {
+        if (deflater == null) {
+            deflater = pool.acquireDeflater();
         }
 
-        WebSocketFrame outMsg;
-        if (msg instanceof TextWebSocketFrame) {
-            outMsg = new TextWebSocketFrame(msg.isFinalFragment(), rsv(msg), compressedContent);
-        } else if (msg instanceof BinaryWebSocketFrame) {
-            outMsg = new BinaryWebSocketFrame(msg.isFinalFragment(), rsv(msg), compressedContent);
-        } else if (msg instanceof ContinuationWebSocketFrame) {
-            outMsg = new ContinuationWebSocketFrame(msg.isFinalFragment(), rsv(msg), compressedContent);
+        ByteBuf content = msg.content();
+        int length = content.readableBytes();
+        if (content.hasArray()) {
+            deflater.setInput(content.array(), content.arrayOffset() + content.readerIndex(), length);
         } else {
-            throw new CodecException("unexpected frame type: " + msg.getClass().getName());
+            deflater.setInput(ByteBufUtil.getBytes(content, content.readerIndex(), length, false));
+        }
+
+        // Same estimation as JdkZlibEncoder, the output is only larger for incompressible data.
+        ByteBuf out = alloc.heapBuffer((int) Math.ceil(length * 1.001) + 12);
+        boolean release = true;
+        try {
+            for (;;) {
+                int writerIndex = out.writerIndex();
+                int numBytes = deflater.deflate(out.array(), out.arrayOffset() + writerIndex, out.writableBytes(),
+                        Deflater.SYNC_FLUSH);
+                out.writerIndex(writerIndex + numBytes);
+                if (out.isWritable() && deflater.needsInput()) {
+                    break;
+                }
+                out.ensureWritable(out.writerIndex());
+            }
+            if (!out.isReadable() && removeFrameTail(msg)) {
+                // Nothing was flushed, as there was no input since the last flush. Still the last frame of a message
+                // has to end with the flush marker we remove, so add an empty stored block which ends with it.
+                out.writeBytes(EMPTY_STORED_BLOCK);
+            }
+            release = false;
+        } finally {
+            if (release) {
+                out.release();
+            }
+            if (release || msg.isFinalFragment()) {
+                releaseDeflater();
+            }
+        }
+        return out;
+    }
+
+    private void releaseDeflater() {
+        if (deflater != null) {
+            pool.releaseDeflater(deflater);
+            deflater = null;
         }
-        out.add(outMsg);
     }
 
     @Override
     public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        releaseDeflater();
         cleanup();
         super.handlerRemoved(ctx);
     }
@@ -39,6 +39,16 @@ class PerMessageDeflateDecoder extends DeflateDecoder {
         super(noContext);
     }
 
+    /**
+     * Constructor
+     * @param noContext true to disable context takeover.
+     * @param pool the pool to borrow the decompressor of a message from if context takeover is disabled,
+     *             or {@code null} to create a new decompressor for every message.
+     */
+    PerMessageDeflateDecoder(boolean noContext, DeflateContextPool pool) {
+        super(noContext, pool);
+    }
+
     @Override
     public boolean acceptInboundMessage(Object msg) throws Exception {
         return ((msg instanceof TextWebSocketFrame ||
@@ -29,6 +29,8 @@ import java.util.List;
  */
 class PerMessageDeflateEncoder extends DeflateEncoder {
 
+    private final int compressionThreshold;
+
     private boolean compressing;
 
     /**
@@ -38,15 +40,35 @@ class PerMessageDeflateEncoder extends DeflateEncoder {
      * @param noContext true to disable context takeover.
      */
     public PerMessageDeflateEncoder(int compressionLevel, int windowSize, boolean noContext) {
-        super(compressionLevel, windowSize, noContext);
+        this(compressionLevel, windowSize, DEFAULT_MEM_LEVEL, noContext, 0, null);
+    }
+
+    /**
+     * Constructor
+     * @param compressionLevel compression level of the compressor.
+     * @param windowSize maximum size of the window compressor buffer.
+     * @param memLevel how much memory should be allocated for the internal compression state.
+     * @param noContext true to disable context takeover.
+     * @param compressionThreshold messages which consist of a single frame with less payload bytes are not
+     *                             compressed.
+     * @param pool the pool to borrow the compressor of a message from if context takeover is disabled,
+     *             or {@code null} to create a new compressor for every message.
+     */
+    PerMessageDeflateEncoder(int compressionLevel, int windowSize, int memLevel, boolean noContext,
+                             int compressionThreshold, DeflateContextPool pool) {
+        super(compressionLevel, windowSize, memLevel, noContext, pool);
+        this.compressionThreshold = compressionThreshold;
     }
 
     @Override
     public boolean acceptOutboundMessage(Object msg) throws Exception {
-        return ((msg instanceof TextWebSocketFrame ||
-                msg instanceof BinaryWebSocketFrame) &&
-                   (((WebSocketFrame) msg).rsv() & WebSocketExtension.RSV1) == 0) ||
-               (msg instanceof ContinuationWebSocketFrame && compressing);
+        if (msg instanceof TextWebSocketFrame || msg instanceof BinaryWebSocketFrame) {
+            WebSocketFrame frame = (WebSocketFrame) msg;
+            // The first frame decides if the message is compressed, so we only know the size of single frames.
+            return (frame.rsv() & WebSocketExtension.RSV1) == 0 &&
+                    (!frame.isFinalFragment() || frame.content().readableBytes() >= compressionThreshold);
+        }
+        return msg instanceof ContinuationWebSocketFrame && compressing;
     }
 
     @Override
@@ -15,6 +15,8 @@
  */
 package io.netty.handler.codec.http.websocketx.extensions.compression;
 
+import static io.netty.util.internal.ObjectUtil.checkPositiveOrZero;
+
 import io.netty.handler.codec.compression.ZlibCodecFactory;
 import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtensionData;
 import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtensionDecoder;
@@ -46,6 +48,9 @@ public final class PerMessageDeflateServerExtensionHandshaker implements WebSock
     private final int preferredClientWindowSize;
     private final boolean allowServerNoContext;
     private final boolean preferredClientNoContext;
+    private final int memLevel;
+    private final int compressionThreshold;
+    private final DeflateContextPool pool;
 
     /**
      * Constructor with default configuration.
@@ -74,6 +79,43 @@ public final class PerMessageDeflateServerExtensionHandshaker implements WebSock
     public PerMessageDeflateServerExtensionHandshaker(int compressionLevel,
             boolean allowServerWindowSize, int preferredClientWindowSize,
             boolean allowServerNoContext, boolean preferredClientNoContext) {
+        this(compressionLevel, allowServerWindowSize, preferredClientWindowSize, allowServerNoContext,
+                preferredClientNoContext, DeflateEncoder.DEFAULT_MEM_LEVEL, 0, false);
+    }
+
+    /**
+     * Constructor with custom configuration which allows to bound the memory used for compression.
+     *
+     * @param compressionLevel
+     *            Compression level between 0 and 9 (default is 6).
+     * @param allowServerWindowSize
+     *            allows WebSocket client to customize the server inflater window size
+     *            (default is false).
+     * @param preferredClientWindowSize
+     *            indicates the preferred client window size to use if client inflater is customizable.
+     * @param allowServerNoContext
+     *            allows WebSocket client to activate server_no_context_takeover
+     *            (default is false).
+     * @param preferredClientNoContext
+     *            indicates if server prefers to activate client_no_context_takeover
+     *            if client is compatible with (default is false).
+     * @param memLevel
+     *            how much memory should be allocated for the internal compression state, between 1 and 9
+     *            (default is 8). Other values than the default require JZlib.
+     * @param compressionThreshold
+     *            messages which consist of a single frame with less payload bytes are sent uncompressed
+     *            (default is 0).
+     * @param pooledContexts
+     *            if true, server_no_context_takeover is always activated and the connections only borrow a
+     *            compressor from a pool of their {@link io.netty.channel.EventLoop} while they send a message,
+     *            so idle connections do not hold one (default is false). The same is done for the decompressor of
+     *            clients which activate client_no_context_takeover. Pooling requires Java 7 or later, the maximum
+     *            server window size and the default memLevel, otherwise a compressor is created per message.
+     */
+    public PerMessageDeflateServerExtensionHandshaker(int compressionLevel,
+            boolean allowServerWindowSize, int preferredClientWindowSize,
+            boolean allowServerNoContext, boolean preferredClientNoContext,
+            int memLevel, int compressionThreshold, boolean pooledContexts) {
         if (preferredClientWindowSize > MAX_WINDOW_SIZE || preferredClientWindowSize < MIN_WINDOW_SIZE) {
             throw new IllegalArgumentException(
                     "preferredServerWindowSize: " + preferredClientWindowSize + " (expected: 8-15)");
@@ -82,11 +124,18 @@ public final class PerMessageDeflateServerExtensionHandshaker implements WebSock
             throw new IllegalArgumentException(
                     "compressionLevel: " + compressionLevel + " (expected: 0-9)");
         }
+        if (memLevel < 1 || memLevel > 9) {
+            throw new IllegalArgumentException(
+                    "memLevel: " + memLevel + " (expected: 1-9)");
+        }
         this.compressionLevel = compressionLevel;
         this.allowServerWindowSize = allowServerWindowSize;
         this.preferredClientWindowSize = preferredClientWindowSize;
         this.allowServerNoContext = allowServerNoContext;
         this.preferredClientNoContext = preferredClientNoContext;
+        this.memLevel = memLevel;
+        this.compressionThreshold = checkPositiveOrZero(compressionThreshold, "compressionThreshold");
+        pool = pooledContexts ? new DeflateContextPool(compressionLevel) : null;
     }
 
     @Override
@@ -98,7 +147,8 @@ public final class PerMessageDeflateServerExtensionHandshaker implements WebSock
         boolean deflateEnabled = true;
         int clientWindowSize = MAX_WINDOW_SIZE;
         int serverWindowSize = MAX_WINDOW_SIZE;
-        boolean serverNoContext = false;
+        // Without context takeover we only need a compressor while we send a message.
+        boolean serverNoContext = pool != null;
         boolean clientNoContext = false;
 
         Iterator<Entry<String, String>> parametersIterator =
@@ -124,7 +174,7 @@ public final class PerMessageDeflateServerExtensionHandshaker implements WebSock
                 clientNoContext = preferredClientNoContext;
             } else if (SERVER_NO_CONTEXT.equalsIgnoreCase(parameter.getKey())) {
                 // use server no context if allowed
-                if (allowServerNoContext) {
+                if (allowServerNoContext || pool != null) {
                     serverNoContext = true;
                 } else {
                     deflateEnabled = false;
@@ -137,7 +187,7 @@ public final class PerMessageDeflateServerExtensionHandshaker implements WebSock
 
         if (deflateEnabled) {
             return new PermessageDeflateExtension(compressionLevel, serverNoContext,
-                    serverWindowSize, clientNoContext, clientWindowSize);
+                    serverWindowSize, clientNoContext, clientWindowSize, memLevel, compressionThreshold, pool);
         } else {
             return null;
         }
@@ -150,14 +200,21 @@ public final class PerMessageDeflateServerExtensionHandshaker implements WebSock
         private final int serverWindowSize;
         private final boolean clientNoContext;
         private final int clientWindowSize;
+        private final int memLevel;
+        private final int compressionThreshold;
+        private final DeflateContextPool pool;
 
         public PermessageDeflateExtension(int compressionLevel, boolean serverNoContext,
-                int serverWindowSize, boolean clientNoContext, int clientWindowSize) {
+                int serverWindowSize, boolean clientNoContext, int clientWindowSize,
+                int memLevel, int compressionThreshold, DeflateContextPool pool) {
             this.compressionLevel = compressionLevel;
             this.serverNoContext = serverNoContext;
             this.serverWindowSize = serverWindowSize;
             this.clientNoContext = clientNoContext;
             this.clientWindowSize = clientWindowSize;
+            this.memLevel = memLevel;
+            this.compressionThreshold = compressionThreshold;
+            this.pool = pool;
         }
 
         @Override
@@ -167,12 +224,13 @@ public final class PerMessageDeflateServerExtensionHandshaker implements WebSock
 
         @Override
         public WebSocketExtensionEncoder newExtensionEncoder() {
-            return new PerMessageDeflateEncoder(compressionLevel, serverWindowSize, serverNoContext);
+            return new PerMessageDeflateEncoder(compressionLevel, serverWindowSize, memLevel, serverNoContext,
+                    compressionThreshold, pool);
         }
 
         @Override
         public WebSocketExtensionDecoder newExtensionDecoder() {
-            return new PerMessageDeflateDecoder(clientNoContext);
+            return new PerMessageDeflateDecoder(clientNoContext, pool);
         }
 
         @Override
@@ -15,15 +15,23 @@
  */
 package io.netty.handler.codec.http;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufUtil;
 import io.netty.buffer.Unpooled;
+import io.netty.channel.DefaultFileRegion;
+import io.netty.channel.FileRegion;
 import io.netty.channel.embedded.EmbeddedChannel;
 import io.netty.handler.codec.EncoderException;
+import io.netty.handler.codec.compression.Brotli;
 import io.netty.handler.codec.compression.ZlibWrapper;
+import io.netty.handler.codec.compression.Zstd;
 import io.netty.util.CharsetUtil;
 import io.netty.util.ReferenceCountUtil;
+import org.junit.Assume;
 import org.junit.Test;
 
+import java.io.File;
+
 import static io.netty.handler.codec.http.HttpHeadersTestUtils.of;
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
@@ -70,6 +78,46 @@ public class HttpContentCompressorTest {
         }
     }
 
+    @Test
+    public void testDetermineEncodingWithoutBrotliAndZstd() throws Exception {
+        HttpContentCompressor compressor = new HttpContentCompressor(6, 15, 8, 0, -1, -1);
+
+        String[] tests = {
+            // Accept-Encoding -> Content-Encoding
+            "", null,
+            "*", "gzip",
+            "br", null,
+            "zstd, br", null,
+            "br, gzip;q=0.5", "gzip",
+            "zstd, deflate;q=0.1", "deflate",
+        };
+        for (int i = 0; i < tests.length; i += 2) {
+            assertEquals(tests[i + 1], compressor.determineEncoding(tests[i]));
+        }
+    }
+
+    @Test
+    public void testDetermineEncodingWithBrotliAndZstd() throws Exception {
+        Assume.assumeTrue(Brotli.isAvailable() && Zstd.isAvailable());
+        HttpContentCompressor compressor = new HttpContentCompressor();
+
+        String[] tests = {
+            // Accept-Encoding -> Content-Encoding
+            "*", "gzip",
+            "br", "br",
+            "gzip, deflate, br", "br",
+            "gzip, br;q=0.5", "gzip",
+            "zstd, gzip", "zstd",
+            "br, zstd", "br",
+            "br;q=0.8, zstd;q=0.9", "zstd",
+            "br;q=0, gzip;q=0.1", "gzip",
+            "*;q=0.5, br;q=0.6", "br",
+        };
+        for (int i = 0; i < tests.length; i += 2) {
+            assertEquals(tests[i + 1], compressor.determineEncoding(tests[i]));
+        }
+    }
+
     @Test
     public void testSplitContent() throws Exception {
         EmbeddedChannel ch = new EmbeddedChannel(new HttpContentCompressor());
@@ -496,6 +544,143 @@ public class HttpContentCompressorTest {
         assertTrue(ch.finishAndReleaseAll());
     }
 
+    @Test
+    public void testPrecompressedResponse() throws Exception {
+        EmbeddedChannel ch = new EmbeddedChannel(new HttpContentCompressor());
+        FullHttpRequest req = newRequest();
+        req.headers().set(HttpHeaderNames.ACCEPT_ENCODING, "gzip;q=0.8, br");
+        ch.writeInbound(req);
+
+        ByteBuf identity = Unpooled.copiedBuffer("Hello, World", CharsetUtil.US_ASCII);
+        ByteBuf gzip = Unpooled.copiedBuffer("gzip", CharsetUtil.US_ASCII);
+        ByteBuf br = Unpooled.copiedBuffer("br", CharsetUtil.US_ASCII);
+        PrecompressedHttpResponse res = new PrecompressedHttpResponse(
+                HttpVersion.HTTP_1_1, HttpResponseStatus.OK, identity).addVariant("gzip", gzip).addVariant("br", br);
+        res.headers().set(HttpHeaderNames.TRANSFER_ENCODING, HttpHeaderValues.CHUNKED);
+        assertTrue(ch.writeOutbound(res));
+
+        HttpResponse headers = ch.readOutbound();
+        assertFalse(headers instanceof HttpContent);
+        assertEquals("br", headers.headers().get(HttpHeaderNames.CONTENT_ENCODING));
+        assertEquals("2", headers.headers().get(HttpHeaderNames.CONTENT_LENGTH));
+        assertFalse(headers.headers().contains(HttpHeaderNames.TRANSFER_ENCODING));
+        assertEquals("accept-encoding", headers.headers().get(HttpHeaderNames.VARY));
+
+        LastHttpContent content = ch.readOutbound();
+        assertSame(br, content.content());
+        content.release();
+        assertNull(ch.readOutbound());
+
+        assertEquals(0, identity.refCnt());
+        assertEquals(0, gzip.refCnt());
+        assertEquals(0, res.refCnt());
+        assertTrue(ch.finishAndReleaseAll());
+    }
+
+    @Test
+    public void testPrecompressedResponseIdentity() throws Exception {
+        EmbeddedChannel ch = new EmbeddedChannel(new HttpContentCompressor());
+        FullHttpRequest req = newRequest();
+        req.headers().set(HttpHeaderNames.ACCEPT_ENCODING, "br;q=0.5, identity");
+        ch.writeInbound(req);
+
+        ByteBuf identity = Unpooled.copiedBuffer("Hello, World", CharsetUtil.US_ASCII);
+        ByteBuf br = Unpooled.copiedBuffer("br", CharsetUtil.US_ASCII);
+        assertTrue(ch.writeOutbound(new PrecompressedHttpResponse(
+                HttpVersion.HTTP_1_1, HttpResponseStatus.OK, identity).addVariant("br", br)));
+
+        HttpResponse headers = ch.readOutbound();
+        assertFalse(headers.headers().contains(HttpHeaderNames.CONTENT_ENCODING));
+        assertEquals("12", headers.headers().get(HttpHeaderNames.CONTENT_LENGTH));
+        assertEquals("accept-encoding", headers.headers().get(HttpHeaderNames.VARY));
+
+        LastHttpContent content = ch.readOutbound();
+        assertSame(identity, content.content());
+        content.release();
+        assertNull(ch.readOutbound());
+        assertEquals(0, br.refCnt());
+        assertTrue(ch.finishAndReleaseAll());
+    }
+
+    @Test
+    public void testPrecompressedResponseFileRegion() throws Exception {
+        EmbeddedChannel ch = new EmbeddedChannel(new HttpContentCompressor());
+        ch.writeInbound(newRequest());
+
+        File file = File.createTempFile("netty-", ".tmp");
+        file.deleteOnExit();
+        try {
+            DefaultFileRegion identity = new DefaultFileRegion(file, 0, 100);
+            DefaultFileRegion gzip = new DefaultFileRegion(file, 0, 42);
+            assertTrue(ch.writeOutbound(new PrecompressedHttpResponse(
+                    HttpVersion.HTTP_1_1, HttpResponseStatus.OK, identity).addVariant("gzip", gzip)));
+
+            HttpResponse headers = ch.readOutbound();
+            assertEquals("gzip", headers.headers().get(HttpHeaderNames.CONTENT_ENCODING));
+            assertEquals("42", headers.headers().get(HttpHeaderNames.CONTENT_LENGTH));
+
+            FileRegion region = ch.readOutbound();
+            assertSame(gzip, region);
+            region.release();
+            assertSame(LastHttpContent.EMPTY_LAST_CONTENT, ch.readOutbound());
+            assertNull(ch.readOutbound());
+            assertEquals(0, identity.refCnt());
+            assertTrue(ch.finishAndReleaseAll());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testPrecompressedResponseToHeadRequest() throws Exception {
+        EmbeddedChannel ch = new EmbeddedChannel(new HttpContentCompressor());
+        FullHttpRequest req = newRequest();
+        req.setMethod(HttpMethod.HEAD);
+        ch.writeInbound(req);
+
+        ByteBuf identity = Unpooled.copiedBuffer("Hello, World", CharsetUtil.US_ASCII);
+        ByteBuf gzip = Unpooled.copiedBuffer("gzip", CharsetUtil.US_ASCII);
+        assertTrue(ch.writeOutbound(new PrecompressedHttpResponse(
+                HttpVersion.HTTP_1_1, HttpResponseStatus.OK, identity).addVariant("gzip", gzip)));
+
+        HttpResponse headers = ch.readOutbound();
+        assertFalse(headers.headers().contains(HttpHeaderNames.CONTENT_ENCODING));
+        assertEquals("12", headers.headers().get(HttpHeaderNames.CONTENT_LENGTH));
+        assertSame(LastHttpContent.EMPTY_LAST_CONTENT, ch.readOutbound());
+        assertNull(ch.readOutbound());
+        assertEquals(0, identity.refCnt());
+        assertEquals(0, gzip.refCnt());
+        assertTrue(ch.finishAndReleaseAll());
+    }
+
+    @Test
+    public void testSelectPrecompressedEncoding() throws Exception {
+        HttpContentCompressor compressor = new HttpContentCompressor();
+        PrecompressedHttpResponse res = new PrecompressedHttpResponse(
+                HttpVersion.HTTP_1_1, HttpResponseStatus.OK, Unpooled.EMPTY_BUFFER)
+                .addVariant("br", Unpooled.EMPTY_BUFFER)
+                .addVariant("gzip", Unpooled.EMPTY_BUFFER);
+
+        String[] tests = {
+            // Accept-Encoding -> Content-Encoding
+            "", null,
+            "identity", null,
+            "*", "br",
+            "gzip", "gzip",
+            "GZIP, br", "br",
+            "gzip, br;q=0.5", "gzip",
+            "gzip;q=0, br;q=0", null,
+            "*;q=0.5, gzip", "gzip",
+            "br;q=0.5, identity", null,
+            "br;q=0.5, identity;q=0.5", "br",
+            "deflate, compress", null,
+        };
+        for (int i = 0; i < tests.length; i += 2) {
+            assertEquals(tests[i], tests[i + 1], compressor.selectPrecompressedEncoding(res, tests[i]));
+        }
+        res.release();
+    }
+
     private static FullHttpRequest newRequest() {
         FullHttpRequest req = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/");
         req.headers().set(HttpHeaderNames.ACCEPT_ENCODING, "gzip");
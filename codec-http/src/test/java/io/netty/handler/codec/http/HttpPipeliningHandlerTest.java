@@ -0,0 +1,229 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.http;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.TooLongFrameException;
+import io.netty.util.CharsetUtil;
+import org.junit.Test;
+
+import java.nio.channels.ClosedChannelException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class HttpPipeliningHandlerTest {
+
+    @Test
+    public void testResponsesAreWrittenInRequestOrder() {
+        EmbeddedChannel ch = new EmbeddedChannel(new HttpPipeliningHandler());
+        HttpPipelinedRequest[] requests = readRequests(ch, 3);
+
+        ch.writeAndFlush(requests[2].response(newResponse("2")));
+        ch.writeAndFlush(requests[1].response(newResponse("1")));
+        assertNull(ch.readOutbound());
+
+        ch.writeAndFlush(requests[0].response(newResponse("0")));
+        assertResponse(ch.readOutbound(), "0");
+        assertResponse(ch.readOutbound(), "1");
+        assertResponse(ch.readOutbound(), "2");
+        assertNull(ch.readOutbound());
+        assertFalse(ch.finish());
+    }
+
+    @Test
+    public void testStreamedResponses() {
+        EmbeddedChannel ch = new EmbeddedChannel(new HttpPipeliningHandler());
+        HttpPipelinedRequest[] requests = readRequests(ch, 2);
+
+        HttpResponse head = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+        ch.writeAndFlush(requests[1].response(head));
+        ch.writeAndFlush(requests[0].response(new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK)));
+        ch.writeAndFlush(requests[0].response(new DefaultHttpContent(content("a"))));
+        ch.writeAndFlush(requests[1].response(new DefaultLastHttpContent(content("c"))));
+
+        assertTrue(ch.readOutbound() instanceof HttpResponse);
+        assertContent(ch.readOutbound(), "a");
+        assertNull(ch.readOutbound());
+
+        ch.writeAndFlush(requests[0].response(new DefaultLastHttpContent(content("b"))));
+        assertContent(ch.readOutbound(), "b");
+        assertSame(head, ch.readOutbound());
+        assertContent(ch.readOutbound(), "c");
+        assertNull(ch.readOutbound());
+        assertFalse(ch.finish());
+    }
+
+    @Test
+    public void testRequestContentIsPassedOn() {
+        EmbeddedChannel ch = new EmbeddedChannel(new HttpPipeliningHandler());
+        HttpContent content = new DefaultLastHttpContent(content("body"));
+        assertTrue(ch.writeInbound(new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/"), content));
+
+        HttpPipelinedRequest request = ch.readInbound();
+        assertEquals(0, request.sequenceId());
+        assertSame(content, ch.readInbound());
+        content.release();
+        assertFalse(ch.finish());
+    }
+
+    @Test
+    public void testMaxInFlightRequests() {
+        ReadCounter reads = new ReadCounter();
+        EmbeddedChannel ch = new EmbeddedChannel(reads, new HttpPipeliningHandler(2, 1024));
+        ch.config().setAutoRead(false);
+
+        assertTrue(ch.writeInbound(newRequest(), newRequest(), newRequest()));
+        HttpPipelinedRequest first = ch.readInbound();
+        HttpPipelinedRequest second = ch.readInbound();
+        assertNull(ch.readInbound());
+        assertEquals(2, ((HttpPipeliningHandler) ch.pipeline().last()).inFlightRequests());
+
+        int readCount = reads.count;
+        ch.read();
+        assertEquals(readCount, reads.count);
+
+        ch.writeAndFlush(second.response(newResponse("1")));
+        assertNull(ch.readInbound());
+        ch.writeAndFlush(first.response(newResponse("0")));
+        assertResponse(ch.readOutbound(), "0");
+        assertResponse(ch.readOutbound(), "1");
+
+        HttpPipelinedRequest third = ch.readInbound();
+        assertEquals(2, third.sequenceId());
+        // The suppressed read is issued once there is room for another request.
+        assertEquals(readCount + 1, reads.count);
+
+        ch.writeAndFlush(third.response(newResponse("2")));
+        assertResponse(ch.readOutbound(), "2");
+        assertFalse(ch.finish());
+    }
+
+    @Test
+    public void testBufferedResponseBytesExceeded() {
+        EmbeddedChannel ch = new EmbeddedChannel(new HttpPipeliningHandler(4, 4));
+        HttpPipelinedRequest[] requests = readRequests(ch, 3);
+
+        ChannelFuture buffered = ch.writeAndFlush(requests[1].response(newResponse("1")));
+        assertFalse(buffered.isDone());
+        FullHttpResponse tooLarge = newResponse("too large");
+        ChannelFuture future = ch.writeAndFlush(requests[2].response(tooLarge));
+        assertTrue(future.cause() instanceof TooLongFrameException);
+        assertEquals(0, tooLarge.refCnt());
+
+        assertFalse(ch.isOpen());
+        assertTrue(buffered.cause() instanceof ClosedChannelException);
+        assertFalse(ch.finish());
+    }
+
+    @Test
+    public void testUnknownSequenceId() {
+        EmbeddedChannel ch = new EmbeddedChannel(new HttpPipeliningHandler());
+        HttpPipelinedRequest[] requests = readRequests(ch, 1);
+
+        FullHttpResponse response = newResponse("x");
+        ChannelFuture future = ch.writeAndFlush(new HttpPipelinedResponse(response, 1));
+        assertTrue(future.cause() instanceof IllegalStateException);
+        assertEquals(0, response.refCnt());
+
+        ch.writeAndFlush(requests[0].response(newResponse("0")));
+        assertResponse(ch.readOutbound(), "0");
+
+        response = newResponse("y");
+        future = ch.writeAndFlush(requests[0].response(response));
+        assertTrue(future.cause() instanceof IllegalStateException);
+        assertEquals(0, response.refCnt());
+        assertFalse(ch.finish());
+    }
+
+    @Test
+    public void testOtherMessagesAreWrittenThrough() {
+        EmbeddedChannel ch = new EmbeddedChannel(new HttpPipeliningHandler());
+        readRequests(ch, 1);
+
+        ByteBuf buf = content("raw");
+        ch.writeAndFlush(buf);
+        assertSame(buf, ch.readOutbound());
+        buf.release();
+        assertFalse(ch.finish());
+    }
+
+    @Test
+    public void testCloseReleasesPendingMessages() {
+        EmbeddedChannel ch = new EmbeddedChannel(new HttpPipeliningHandler(1, 1024));
+        FullHttpRequest held = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/", content("x"));
+        ch.writeInbound(newRequest(), held);
+        HttpPipelinedRequest request = ch.readInbound();
+        assertNull(ch.readInbound());
+
+        ch.close();
+        assertEquals(0, held.refCnt());
+        request.release();
+        assertFalse(ch.finish());
+    }
+
+    private static HttpPipelinedRequest[] readRequests(EmbeddedChannel ch, int count) {
+        HttpPipelinedRequest[] requests = new HttpPipelinedRequest[count];
+        for (int i = 0; i < count; i++) {
+            assertTrue(ch.writeInbound(newRequest()));
+            requests[i] = ch.readInbound();
+            assertEquals(i, requests[i].sequenceId());
+            requests[i].release();
+        }
+        return requests;
+    }
+
+    private static FullHttpRequest newRequest() {
+        return new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/");
+    }
+
+    private static FullHttpResponse newResponse(String content) {
+        return new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK, content(content));
+    }
+
+    private static ByteBuf content(String content) {
+        return Unpooled.copiedBuffer(content, CharsetUtil.US_ASCII);
+    }
+
+    private static void assertResponse(Object msg, String content) {
+        assertTrue(msg instanceof FullHttpResponse);
+        assertContent(msg, content);
+    }
+
+    private static void assertContent(Object msg, String content) {
+        HttpContent httpContent = (HttpContent) msg;
+        assertEquals(content, httpContent.content().toString(CharsetUtil.US_ASCII));
+        httpContent.release();
+    }
+
+    private static final class ReadCounter extends ChannelOutboundHandlerAdapter {
+        int count;
+
+        @Override
+        public void read(ChannelHandlerContext ctx) throws Exception {
+            count++;
+            super.read(ctx);
+        }
+    }
+}
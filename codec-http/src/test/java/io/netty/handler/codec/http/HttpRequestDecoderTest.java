@@ -22,7 +22,9 @@ import io.netty.util.AsciiString;
 import io.netty.util.CharsetUtil;
 import org.junit.Test;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map.Entry;
 
 import static io.netty.handler.codec.http.HttpHeaderNames.*;
 import static io.netty.handler.codec.http.HttpHeadersTestUtils.of;
@@ -33,6 +35,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
@@ -128,14 +131,22 @@ public class HttpRequestDecoderTest {
         testDecodeWholeRequestInMultipleSteps(CONTENT_MIXED_DELIMITERS);
     }
 
+    @Test
+    public void testDecodeWholeRequestInMultipleStepsAsciiHeaders() {
+        for (int i = 1; i < CONTENT_MIXED_DELIMITERS.length; i++) {
+            testDecodeWholeRequestInMultipleSteps(CONTENT_MIXED_DELIMITERS, i, true);
+        }
+    }
+
     private static void testDecodeWholeRequestInMultipleSteps(byte[] content) {
         for (int i = 1; i < content.length; i++) {
-            testDecodeWholeRequestInMultipleSteps(content, i);
+            testDecodeWholeRequestInMultipleSteps(content, i, false);
         }
     }
 
-    private static void testDecodeWholeRequestInMultipleSteps(byte[] content, int fragmentSize) {
-        EmbeddedChannel channel = new EmbeddedChannel(new HttpRequestDecoder());
+    private static void testDecodeWholeRequestInMultipleSteps(byte[] content, int fragmentSize, boolean asciiHeaders) {
+        EmbeddedChannel channel = new EmbeddedChannel(
+                new HttpRequestDecoder(4096, 8192, 8192, true, 128, asciiHeaders));
         int headerLength = content.length - CONTENT_LENGTH;
 
         // split up the header
@@ -198,6 +209,42 @@ public class HttpRequestDecoderTest {
         assertNull(channel.readInbound());
     }
 
+    @Test
+    public void testAsciiHeaders() {
+        EmbeddedChannel channel = new EmbeddedChannel(new HttpRequestDecoder(4096, 8192, 8192, true, 128, true));
+        String crlf = "\r\n";
+        String request =  "GET /some/path HTTP/1.1" + crlf +
+                "Host: localhost" + crlf +
+                "content-TYPE:   text/plain  " + crlf +
+                "MyTestHeader: part1" + crlf +
+                "              newLinePart2" + crlf +
+                "EmptyHeader:" + crlf + crlf;
+        assertTrue(channel.writeInbound(Unpooled.copiedBuffer(request, CharsetUtil.US_ASCII)));
+        HttpRequest req = channel.readInbound();
+        assertFalse(req.decoderResult().isFailure());
+
+        Iterator<Entry<CharSequence, CharSequence>> headers = req.headers().iteratorCharSequence();
+        Entry<CharSequence, CharSequence> header = headers.next();
+        assertSame(HOST, header.getKey());
+        assertEquals(new AsciiString("localhost"), header.getValue());
+        header = headers.next();
+        assertSame(CONTENT_TYPE, header.getKey());
+        assertEquals(new AsciiString("text/plain"), header.getValue());
+        header = headers.next();
+        assertEquals(new AsciiString("MyTestHeader"), header.getKey());
+        assertEquals(new AsciiString("part1 newLinePart2"), header.getValue());
+        header = headers.next();
+        assertEquals(new AsciiString("EmptyHeader"), header.getKey());
+        assertEquals(AsciiString.EMPTY_STRING, header.getValue());
+        assertFalse(headers.hasNext());
+
+        LastHttpContent c = channel.readInbound();
+        c.release();
+
+        assertFalse(channel.finish());
+        assertNull(channel.readInbound());
+    }
+
     @Test
     public void testEmptyHeaderValue() {
         EmbeddedChannel channel = new EmbeddedChannel(new HttpRequestDecoder());
@@ -310,7 +357,16 @@ public class HttpRequestDecoderTest {
 
     @Test
     public void testTooLargeHeaders() {
-        EmbeddedChannel channel = new EmbeddedChannel(new HttpRequestDecoder(1024, 10, 1024));
+        testTooLargeHeaders(false);
+    }
+
+    @Test
+    public void testTooLargeHeadersAsciiHeaders() {
+        testTooLargeHeaders(true);
+    }
+
+    private static void testTooLargeHeaders(boolean asciiHeaders) {
+        EmbeddedChannel channel = new EmbeddedChannel(new HttpRequestDecoder(1024, 10, 1024, true, 128, asciiHeaders));
         String requestStr = "GET /some/path HTTP/1.1\r\n" +
                 "Host: localhost1\r\n\r\n";
 
@@ -19,11 +19,13 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.FileRegion;
 import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.DateFormatter;
 import io.netty.util.CharsetUtil;
 import org.junit.Test;
 
 import java.io.IOException;
 import java.nio.channels.WritableByteChannel;
+import java.util.Date;
 
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
@@ -397,4 +399,83 @@ public class HttpResponseEncoderTest {
         assertEquals(responseText.toString(), written.toString());
         assertFalse(channel.finish());
     }
+
+    @Test
+    public void testPreEncodedHeaders() {
+        HttpHeaders headers = new DefaultHttpHeaders()
+                .set(HttpHeaderNames.SERVER, "netty")
+                .set(HttpHeaderNames.CACHE_CONTROL, HttpHeaderValues.NO_CACHE);
+        PreEncodedHttpHeaders preEncodedHeaders = new PreEncodedHttpHeaders(headers);
+        EmbeddedChannel channel = new EmbeddedChannel(new HttpResponseEncoder(preEncodedHeaders, false));
+
+        HttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+        response.headers().set(HttpHeaderNames.CONTENT_LENGTH, 0);
+        assertTrue(channel.writeOutbound(response));
+        ByteBuf buffer = channel.readOutbound();
+        assertEquals("HTTP/1.1 200 OK\r\nserver: netty\r\ncache-control: no-cache\r\ncontent-length: 0\r\n\r\n",
+                buffer.toString(CharsetUtil.US_ASCII));
+        buffer.release();
+
+        // The headers of the response take precedence.
+        response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+        response.headers().set(HttpHeaderNames.CACHE_CONTROL, HttpHeaderValues.MAX_AGE + "=60");
+        assertTrue(channel.writeOutbound(response));
+        buffer = channel.readOutbound();
+        assertEquals("HTTP/1.1 200 OK\r\nserver: netty\r\ncache-control: max-age=60\r\n\r\n",
+                buffer.toString(CharsetUtil.US_ASCII));
+        buffer.release();
+
+        assertEquals("netty", preEncodedHeaders.headers().get(HttpHeaderNames.SERVER));
+        assertFalse(channel.finish());
+    }
+
+    @Test
+    public void testPreEncodedHeadersNotAddedToResponsesWithoutEntity() {
+        PreEncodedHttpHeaders preEncodedHeaders = new PreEncodedHttpHeaders(
+                new DefaultHttpHeaders().set(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.TEXT_PLAIN));
+        EmbeddedChannel channel = new EmbeddedChannel(new HttpResponseEncoder(preEncodedHeaders, false));
+
+        HttpResponseStatus[] statuses = {
+                HttpResponseStatus.CONTINUE, HttpResponseStatus.NO_CONTENT, HttpResponseStatus.NOT_MODIFIED };
+        for (HttpResponseStatus status : statuses) {
+            assertTrue(channel.writeOutbound(new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, status)));
+            ByteBuf buffer = channel.readOutbound();
+            assertEquals("HTTP/1.1 " + status + "\r\n\r\n", buffer.toString(CharsetUtil.US_ASCII));
+            buffer.release();
+        }
+        assertFalse(channel.finish());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPreEncodedHeadersRejectContentLength() {
+        new PreEncodedHttpHeaders(new DefaultHttpHeaders().set(HttpHeaderNames.CONTENT_LENGTH, 0));
+    }
+
+    @Test
+    public void testDateHeader() {
+        EmbeddedChannel channel = new EmbeddedChannel(new HttpResponseEncoder(null, true));
+
+        HttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+        long before = System.currentTimeMillis() / 1000 * 1000;
+        assertTrue(channel.writeOutbound(response));
+        ByteBuf buffer = channel.readOutbound();
+        String encoded = buffer.toString(CharsetUtil.US_ASCII);
+        buffer.release();
+        String prefix = "HTTP/1.1 200 OK\r\ndate: ";
+        assertTrue(encoded.startsWith(prefix));
+        assertTrue(encoded.endsWith("\r\n\r\n"));
+        Date date = DateFormatter.parseHttpDate(encoded.substring(prefix.length(), encoded.length() - 4));
+        assertNotNull(date);
+        assertTrue(date.getTime() >= before);
+
+        // An existing Date header is not replaced.
+        response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+        response.headers().set(HttpHeaderNames.DATE, "Thu, 01 Jan 1970 00:00:00 GMT");
+        assertTrue(channel.writeOutbound(response));
+        buffer = channel.readOutbound();
+        assertEquals("HTTP/1.1 200 OK\r\ndate: Thu, 01 Jan 1970 00:00:00 GMT\r\n\r\n",
+                buffer.toString(CharsetUtil.US_ASCII));
+        buffer.release();
+        assertFalse(channel.finish());
+    }
 }
@@ -15,12 +15,14 @@
  */
 package io.netty.handler.codec.http;
 
+import io.netty.util.AsciiString;
 import io.netty.util.CharsetUtil;
 import org.junit.Assert;
 import org.junit.Test;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -361,4 +363,38 @@ public class QueryStringDecoderTest {
         Assert.assertEquals("", empty.rawPath());
         Assert.assertEquals("", empty.rawQuery());
     }
+
+    @Test
+    public void testLazyParameters() {
+        QueryStringDecoder decoder = new QueryStringDecoder(
+                "/foo?a=1&b=&c&a=2;%61=3&x+y=%20z&=empty&&utm_source=newsletter#a=4");
+        Assert.assertEquals("1", decoder.parameter("a"));
+        Assert.assertEquals(Arrays.asList("1", "2", "3"), decoder.parameterValues(AsciiString.of("a")));
+        Assert.assertEquals("", decoder.parameter("b"));
+        Assert.assertEquals("", decoder.parameter("c"));
+        Assert.assertEquals(" z", decoder.parameter("x y"));
+        Assert.assertTrue(decoder.containsParameter("utm_source"));
+        Assert.assertFalse(decoder.containsParameter(""));
+        Assert.assertFalse(decoder.containsParameter("d"));
+        Assert.assertNull(decoder.parameter("d"));
+        Assert.assertTrue(decoder.parameterValues("d").isEmpty());
+
+        // The eager and the lazy decoding must agree.
+        for (Entry<String, List<String>> entry: decoder.parameters().entrySet()) {
+            Assert.assertEquals(entry.getValue(), decoder.parameterValues(entry.getKey()));
+        }
+    }
+
+    @Test
+    public void testLazyParametersWithoutPathAndMaxParams() {
+        QueryStringDecoder decoder = new QueryStringDecoder("a=1&b=2&c=3", CharsetUtil.UTF_8, false, 2);
+        Assert.assertEquals("1", decoder.parameter("a"));
+        Assert.assertEquals("2", decoder.parameter("b"));
+        Assert.assertNull(decoder.parameter("c"));
+        Assert.assertEquals(2, decoder.parameters().size());
+
+        decoder = new QueryStringDecoder("/path");
+        Assert.assertNull(decoder.parameter("path"));
+        Assert.assertFalse(decoder.containsParameter("path"));
+    }
 }
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.http.client;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.util.CharsetUtil;
+import io.netty.util.concurrent.Future;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HttpClientConnectionManagerTest {
+
+    private EventLoopGroup group;
+    private Channel serverChannel;
+    private InetSocketAddress origin;
+    private Bootstrap bootstrap;
+    private final AtomicInteger connections = new AtomicInteger();
+    private final CountDownLatch firstRequestReceived = new CountDownLatch(1);
+    private volatile int batchSize = 1;
+    private volatile String keepAlive;
+
+    @Before
+    public void setUp() throws Exception {
+        group = new NioEventLoopGroup(2);
+        serverChannel = new ServerBootstrap()
+                .group(group)
+                .channel(NioServerSocketChannel.class)
+                .childHandler(new ChannelInitializer<Channel>() {
+                    @Override
+                    protected void initChannel(Channel ch) {
+                        connections.incrementAndGet();
+                        ch.pipeline().addLast(new HttpServerCodec(), new HttpObjectAggregator(1024),
+                                new ServerHandler());
+                    }
+                })
+                .bind("127.0.0.1", 0).sync().channel();
+        origin = (InetSocketAddress) serverChannel.localAddress();
+        bootstrap = new Bootstrap().group(group).channel(NioSocketChannel.class);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        serverChannel.close().sync();
+        group.shutdownGracefully(0, 0, TimeUnit.SECONDS).sync();
+    }
+
+    @Test(timeout = 10000)
+    public void testKeepAliveReusesConnection() throws Exception {
+        HttpClientConnectionManager manager = new HttpClientConnectionManager(bootstrap);
+        try {
+            HttpClientTimings timings = new HttpClientTimings();
+            assertResponse(manager.execute(origin, newRequest(HttpMethod.GET, "/a"), timings), "/a");
+            assertFalse(timings.isReusedConnection());
+            assertTrue(timings.connectNanos() >= 0);
+            assertEquals(-1, timings.tlsNanos());
+            assertTrue(timings.ttfbNanos() >= 0);
+            assertTrue(timings.totalNanos() >= timings.ttfbNanos());
+
+            assertResponse(manager.execute(origin, newRequest(HttpMethod.GET, "/b"), timings), "/b");
+            assertTrue(timings.isReusedConnection());
+            assertEquals(-1, timings.connectNanos());
+            assertEquals(1, connections.get());
+        } finally {
+            manager.close();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testConnectionCloseIsRespected() throws Exception {
+        HttpClientConnectionManager manager = new HttpClientConnectionManager(bootstrap);
+        try {
+            FullHttpRequest request = newRequest(HttpMethod.GET, "/a");
+            request.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.CLOSE);
+            assertResponse(manager.execute(origin, request), "/a");
+            assertResponse(manager.execute(origin, newRequest(HttpMethod.GET, "/b")), "/b");
+            assertEquals(2, connections.get());
+        } finally {
+            manager.close();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testKeepAliveTimeoutIsRespected() throws Exception {
+        keepAlive = "timeout=0";
+        HttpClientConnectionManager manager = new HttpClientConnectionManager(bootstrap);
+        try {
+            assertResponse(manager.execute(origin, newRequest(HttpMethod.GET, "/a")), "/a");
+            assertResponse(manager.execute(origin, newRequest(HttpMethod.GET, "/b")), "/b");
+            assertEquals(2, connections.get());
+        } finally {
+            manager.close();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testMaxConnectionsPerOrigin() throws Exception {
+        HttpClientConnectionManager manager = new HttpClientConnectionManager(
+                bootstrap, null, 1, 1, HttpClientConnectionManager.DEFAULT_MAX_CONTENT_LENGTH);
+        try {
+            List<Future<FullHttpResponse>> futures = new ArrayList<Future<FullHttpResponse>>();
+            for (int i = 0; i < 5; i++) {
+                futures.add(manager.execute(origin, newRequest(HttpMethod.GET, "/" + i)));
+            }
+            for (int i = 0; i < 5; i++) {
+                assertResponse(futures.get(i), "/" + i);
+            }
+            assertEquals(1, connections.get());
+        } finally {
+            manager.close();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testPipelining() throws Exception {
+        // The server only responds once it received all three requests, so they must be pipelined.
+        batchSize = 3;
+        HttpClientConnectionManager manager = new HttpClientConnectionManager(
+                bootstrap, null, 1, 3, HttpClientConnectionManager.DEFAULT_MAX_CONTENT_LENGTH);
+        try {
+            Future<FullHttpResponse> first = manager.execute(origin, newRequest(HttpMethod.GET, "/0"));
+            firstRequestReceived.await();
+            Future<FullHttpResponse> second = manager.execute(origin, newRequest(HttpMethod.GET, "/1"));
+            Future<FullHttpResponse> third = manager.execute(origin, newRequest(HttpMethod.HEAD, "/2"));
+            assertResponse(first, "/0");
+            assertResponse(second, "/1");
+            FullHttpResponse response = third.sync().getNow();
+            assertEquals(0, response.content().readableBytes());
+            response.release();
+            assertEquals(1, connections.get());
+        } finally {
+            manager.close();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testExecuteAfterClose() throws Exception {
+        HttpClientConnectionManager manager = new HttpClientConnectionManager(bootstrap);
+        manager.close();
+        FullHttpRequest request = newRequest(HttpMethod.GET, "/");
+        Future<FullHttpResponse> future = manager.execute(origin, request).await();
+        assertTrue(future.cause() instanceof IllegalStateException);
+        assertEquals(0, request.refCnt());
+    }
+
+    private static FullHttpRequest newRequest(HttpMethod method, String uri) {
+        return new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, method, uri);
+    }
+
+    private static void assertResponse(Future<FullHttpResponse> future, String content) throws Exception {
+        FullHttpResponse response = future.sync().getNow();
+        try {
+            assertEquals(HttpResponseStatus.OK, response.status());
+            assertEquals(content, response.content().toString(CharsetUtil.US_ASCII));
+        } finally {
+            response.release();
+        }
+    }
+
+    private final class ServerHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
+        private final List<FullHttpResponse> pending = new ArrayList<FullHttpResponse>();
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, FullHttpRequest request) {
+            firstRequestReceived.countDown();
+            FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK,
+                    Unpooled.copiedBuffer(request.uri(), CharsetUtil.US_ASCII));
+            HttpUtil.setContentLength(response, response.content().readableBytes());
+            boolean keepAlive = HttpUtil.isKeepAlive(request);
+            HttpUtil.setKeepAlive(response, keepAlive);
+            if (keepAlive && HttpClientConnectionManagerTest.this.keepAlive != null) {
+                response.headers().set(HttpHeaderNames.KEEP_ALIVE, HttpClientConnectionManagerTest.this.keepAlive);
+            }
+            pending.add(response);
+            if (pending.size() < batchSize) {
+                return;
+            }
+            for (FullHttpResponse r: pending) {
+                ctx.write(r);
+            }
+            pending.clear();
+            ctx.flush();
+            if (!keepAlive) {
+                ctx.close();
+            }
+        }
+    }
+}
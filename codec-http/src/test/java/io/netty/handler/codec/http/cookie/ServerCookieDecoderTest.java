@@ -15,6 +15,7 @@
  */
 package io.netty.handler.codec.http.cookie;
 
+import io.netty.util.AsciiString;
 import org.junit.Test;
 
 import java.util.Iterator;
@@ -193,4 +194,36 @@ public class ServerCookieDecoderTest {
 
         assertFalse(it.hasNext());
     }
+
+    @Test
+    public void testDecodeValue() {
+        String header = "a=1; session=\"abc\"; empty=; novalue; b=2; quote=\"x; bad=a b; b=3";
+        assertEquals("1", ServerCookieDecoder.STRICT.decodeValue(header, "a"));
+        assertEquals("abc", ServerCookieDecoder.STRICT.decodeValue(header, "session"));
+        assertEquals("", ServerCookieDecoder.STRICT.decodeValue(header, "empty"));
+        assertEquals("2", ServerCookieDecoder.STRICT.decodeValue(header, "b"));
+        assertNull(ServerCookieDecoder.STRICT.decodeValue(header, "novalue"));
+        assertNull(ServerCookieDecoder.STRICT.decodeValue(header, "quote"));
+        assertNull(ServerCookieDecoder.STRICT.decodeValue(header, "bad"));
+        assertEquals("a b", ServerCookieDecoder.LAX.decodeValue(header, "bad"));
+        assertNull(ServerCookieDecoder.STRICT.decodeValue(header, "A"));
+        assertNull(ServerCookieDecoder.STRICT.decodeValue(header, "missing"));
+        assertNull(ServerCookieDecoder.STRICT.decodeValue("", "a"));
+
+        // Must agree with the full decoding.
+        for (Cookie cookie: ServerCookieDecoder.STRICT.decode(header)) {
+            assertEquals(cookie.value(), ServerCookieDecoder.STRICT.decodeValue(header, cookie.name()).toString());
+        }
+    }
+
+    @Test
+    public void testDecodeValueFromAsciiString() {
+        AsciiString header = new AsciiString("$Version=1; $Path=/; session=abc; $Path=/x; other=def");
+        CharSequence value = ServerCookieDecoder.STRICT.decodeValue(header, AsciiString.of("session"));
+        assertTrue(value instanceof AsciiString);
+        assertEquals(new AsciiString("abc"), value);
+        assertSame(header.array(), ((AsciiString) value).array());
+        assertEquals("def", ServerCookieDecoder.STRICT.decodeValue(header, "other").toString());
+        assertNull(ServerCookieDecoder.STRICT.decodeValue("$Version=1", "session"));
+    }
 }
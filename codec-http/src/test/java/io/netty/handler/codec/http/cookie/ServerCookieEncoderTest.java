@@ -21,7 +21,10 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.matchers.JUnitMatchers.containsString;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.handler.codec.DateFormatter;
+import io.netty.util.CharsetUtil;
 
 import java.text.ParseException;
 import java.util.ArrayList;
@@ -154,4 +157,54 @@ public class ServerCookieEncoderTest {
         List<String> encodedCookies = ServerCookieEncoder.LAX.encode(cookie1, cookie2, cookie3);
         assertEquals(result, encodedCookies);
     }
+
+    @Test
+    public void testEncodingIntoByteBuf() {
+        Cookie cookie = new DefaultCookie("myCookie", "myValue");
+        cookie.setDomain(".adomainsomewhere");
+        cookie.setPath("/apathsomewhere");
+        cookie.setSecure(true);
+        cookie.setHttpOnly(true);
+        assertEncodedIntoByteBuf(cookie);
+
+        cookie = new DefaultCookie("myCookie", "my Value");
+        cookie.setWrap(true);
+        assertEncodedIntoByteBuf(cookie);
+
+        cookie = new DefaultCookie("myCookie", "");
+        assertEncodedIntoByteBuf(cookie);
+
+        cookie = new DefaultCookie("myCookie", "myValue");
+        cookie.setMaxAge(50);
+        cookie.setPath("/");
+        ByteBuf buf = Unpooled.buffer();
+        ServerCookieEncoder.STRICT.encode(cookie, buf);
+        String encoded = buf.toString(CharsetUtil.US_ASCII);
+        buf.release();
+        Matcher matcher = Pattern.compile("myCookie=myValue; Max-Age=50; Expires=(.+?); Path=/$").matcher(encoded);
+        assertTrue(matcher.find());
+        Date expiresDate = DateFormatter.parseHttpDate(matcher.group(1));
+        long diff = (expiresDate.getTime() - System.currentTimeMillis()) / 1000;
+        assertTrue(Math.abs(diff - 50) <= 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEncodingIntoByteBufValidates() {
+        ByteBuf buf = Unpooled.buffer();
+        try {
+            ServerCookieEncoder.STRICT.encode(new DefaultCookie("my Cookie", "myValue"), buf);
+        } finally {
+            buf.release();
+        }
+    }
+
+    private static void assertEncodedIntoByteBuf(Cookie cookie) {
+        ByteBuf buf = Unpooled.buffer();
+        try {
+            ServerCookieEncoder.LAX.encode(cookie, buf);
+            assertEquals(ServerCookieEncoder.LAX.encode(cookie), buf.toString(CharsetUtil.US_ASCII));
+        } finally {
+            buf.release();
+        }
+    }
 }
@@ -0,0 +1,311 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.http.multipart;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpObject;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.handler.codec.http.multipart.HttpPostRequestDecoder.ErrorDataDecoderException;
+import io.netty.util.CharsetUtil;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/** {@link HttpPostMultipartStreamDecoder} test case. */
+public class HttpPostMultipartStreamDecoderTest {
+
+    private static final String BOUNDARY = "dLV9Wyq26L_-JQxk6ferf-RT153LhOO";
+    private static final String BODY =
+            "preamble\r\n" +
+            "--" + BOUNDARY + "\r\n" +
+            "Content-Disposition: form-data; name=\"field\"\r\n" +
+            "\r\n" +
+            "value\r\n" +
+            "--" + BOUNDARY + "  \r\n" +
+            "Content-Disposition: form-data; name=\"file\";\r\n" +
+            " filename=\"a \\\"b\\\".txt\"\r\n" +
+            "Content-Type: text/plain\r\n" +
+            "\r\n" +
+            "line 1\r\n--" + BOUNDARY.substring(0, 10) + "\r\n-\r\n\r\n" +
+            "\r\n--" + BOUNDARY + "\r\n" +
+            "\r\n" +
+            "no headers" +
+            "\r\n--" + BOUNDARY + "--\r\n" +
+            "epilogue";
+
+    @Test
+    public void testDecodeAtOnce() {
+        HttpPostMultipartStreamDecoder decoder = new HttpPostMultipartStreamDecoder(newRequest(
+                Unpooled.copiedBuffer(BODY, CharsetUtil.US_ASCII)));
+        assertTrue(decoder.isEndOfData());
+        assertParts(decoder);
+        decoder.destroy();
+    }
+
+    @Test
+    public void testDecodeByteByByte() {
+        testDecodeInChunks(1);
+    }
+
+    @Test
+    public void testDecodeInChunks() {
+        for (int chunkSize = 2; chunkSize < 64; chunkSize++) {
+            testDecodeInChunks(chunkSize);
+        }
+    }
+
+    private static void testDecodeInChunks(int chunkSize) {
+        HttpPostMultipartStreamDecoder decoder = new HttpPostMultipartStreamDecoder(newRequest(null));
+        byte[] body = BODY.getBytes(CharsetUtil.US_ASCII);
+        List<HttpObject> parts = new ArrayList<HttpObject>();
+        for (int i = 0; i < body.length; i += chunkSize) {
+            int length = Math.min(chunkSize, body.length - i);
+            ByteBuf chunk = Unpooled.wrappedBuffer(body, i, length);
+            HttpContent content = i + length == body.length ?
+                    new DefaultLastHttpContent(chunk) : new DefaultHttpContent(chunk);
+            decoder.offer(content);
+            content.release();
+            // Collect the parts as they are emitted.
+            while (decoder.hasNext()) {
+                parts.add(decoder.next());
+            }
+        }
+        assertTrue(decoder.isEndOfData());
+        assertParts(parts);
+        decoder.destroy();
+    }
+
+    @Test
+    public void testDecodeDirectBuffers() {
+        HttpPostMultipartStreamDecoder decoder = new HttpPostMultipartStreamDecoder(newRequest(null));
+        byte[] body = BODY.getBytes(CharsetUtil.US_ASCII);
+        int split = body.length / 3;
+        ByteBuf first = Unpooled.directBuffer().writeBytes(body, 0, split);
+        ByteBuf second = Unpooled.directBuffer().writeBytes(body, split, body.length - split);
+        decoder.offer(new DefaultHttpContent(first));
+        decoder.offer(new DefaultLastHttpContent(second));
+        // The content was not modified.
+        assertEquals(split, first.readableBytes());
+        first.release();
+        second.release();
+        assertParts(decoder);
+        decoder.destroy();
+    }
+
+    @Test
+    public void testLargeRandomFile() throws Exception {
+        byte[] data = new byte[1024 * 1024];
+        new Random(42).nextBytes(data);
+        ByteBuf body = Unpooled.buffer();
+        body.writeBytes(("--" + BOUNDARY + "\r\n" +
+                "Content-Disposition: form-data; name=\"file\"; filename*=UTF-8''%E2%82%AC+rates.bin\r\n" +
+                "\r\n").getBytes(CharsetUtil.US_ASCII));
+        body.writeBytes(data);
+        body.writeBytes(("\r\n--" + BOUNDARY + "--").getBytes(CharsetUtil.US_ASCII));
+
+        HttpPostMultipartStreamDecoder decoder = new HttpPostMultipartStreamDecoder(newRequest(null));
+        File file = File.createTempFile("netty-", ".tmp");
+        file.deleteOnExit();
+        MultipartFileWriter writer = new MultipartFileWriter(new RandomAccessFile(file, "rw").getChannel());
+        try {
+            MultipartPart part = null;
+            Random random = new Random(7);
+            while (body.isReadable()) {
+                ByteBuf chunk = body.readRetainedSlice(Math.min(body.readableBytes(), random.nextInt(16384) + 1));
+                HttpContent content = body.isReadable() ?
+                        new DefaultHttpContent(chunk) : new DefaultLastHttpContent(chunk);
+                decoder.offer(content);
+                content.release();
+                for (;;) {
+                    HttpObject next = decoder.next();
+                    if (next == null) {
+                        break;
+                    }
+                    if (next instanceof MultipartPart) {
+                        assertNull(part);
+                        part = (MultipartPart) next;
+                    } else {
+                        writer.write(((HttpContent) next).content());
+                    }
+                }
+            }
+            body.release();
+            writer.close();
+
+            assertEquals("file", part.name());
+            assertEquals("€+rates.bin", part.filename());
+            assertEquals("application/octet-stream", part.contentType());
+            assertEquals(data.length, writer.writtenBytes());
+            byte[] written = new byte[data.length];
+            FileInputStream in = new FileInputStream(file);
+            try {
+                int read = 0;
+                while (read < written.length) {
+                    read += in.read(written, read, written.length - read);
+                }
+            } finally {
+                in.close();
+            }
+            assertArrayEquals(data, written);
+        } finally {
+            decoder.destroy();
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testIncompleteBody() {
+        HttpPostMultipartStreamDecoder decoder = new HttpPostMultipartStreamDecoder(newRequest(null));
+        LastHttpContent content = new DefaultLastHttpContent(Unpooled.copiedBuffer(
+                BODY.substring(0, BODY.indexOf("no headers")), CharsetUtil.US_ASCII));
+        try {
+            decoder.offer(content);
+            fail();
+        } catch (ErrorDataDecoderException expected) {
+            // expected
+        } finally {
+            content.release();
+            decoder.destroy();
+        }
+    }
+
+    @Test
+    public void testHeadersTooLarge() {
+        HttpPostMultipartStreamDecoder decoder = new HttpPostMultipartStreamDecoder(
+                newRequest(null), CharsetUtil.UTF_8, 64);
+        HttpContent content = new DefaultHttpContent(Unpooled.copiedBuffer(
+                "--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"a-rather-long-field-name\"\r\n" +
+                "Content-Type: text/plain\r\n", CharsetUtil.US_ASCII));
+        try {
+            decoder.offer(content);
+            fail();
+        } catch (ErrorDataDecoderException expected) {
+            // expected
+        } finally {
+            content.release();
+            decoder.destroy();
+        }
+    }
+
+    @Test(expected = ErrorDataDecoderException.class)
+    public void testNotMultipart() {
+        new HttpPostMultipartStreamDecoder(new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/"));
+    }
+
+    @Test
+    public void testMultipartFileWriterGathersBuffers() throws Exception {
+        File file = File.createTempFile("netty-", ".tmp");
+        file.deleteOnExit();
+        try {
+            MultipartFileWriter writer = new MultipartFileWriter(new RandomAccessFile(file, "rw").getChannel(), 8);
+            ByteBuf a = Unpooled.copiedBuffer("abc", CharsetUtil.US_ASCII);
+            CompositeByteBuf b = Unpooled.compositeBuffer();
+            b.addComponent(true, Unpooled.copiedBuffer("de", CharsetUtil.US_ASCII));
+            b.addComponent(true, Unpooled.directBuffer().writeBytes("fgh".getBytes(CharsetUtil.US_ASCII)));
+            ByteBuf c = Unpooled.copiedBuffer("ij", CharsetUtil.US_ASCII);
+            writer.write(a);
+            assertEquals(0, writer.writtenBytes());
+            writer.write(b);
+            assertEquals(8, writer.writtenBytes());
+            assertEquals(0, a.refCnt());
+            assertEquals(0, b.refCnt());
+            writer.write(c);
+            writer.close();
+            assertEquals(10, writer.writtenBytes());
+            assertEquals(0, c.refCnt());
+            assertEquals(10, file.length());
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static HttpRequest newRequest(ByteBuf content) {
+        HttpRequest request = content == null ?
+                new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/upload") :
+                new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/upload", content);
+        request.headers().set(HttpHeaderNames.CONTENT_TYPE, "multipart/form-data; boundary=" + BOUNDARY);
+        return request;
+    }
+
+    private static void assertParts(HttpPostMultipartStreamDecoder decoder) {
+        List<HttpObject> parts = new ArrayList<HttpObject>();
+        while (decoder.hasNext()) {
+            parts.add(decoder.next());
+        }
+        assertParts(parts);
+    }
+
+    private static void assertParts(List<HttpObject> parts) {
+        List<MultipartPart> headers = new ArrayList<MultipartPart>();
+        List<String> contents = new ArrayList<String>();
+        StringBuilder content = null;
+        for (HttpObject part : parts) {
+            if (part instanceof MultipartPart) {
+                assertNull(content);
+                headers.add((MultipartPart) part);
+                content = new StringBuilder();
+            } else {
+                HttpContent chunk = (HttpContent) part;
+                content.append(chunk.content().toString(CharsetUtil.US_ASCII));
+                chunk.release();
+                if (chunk instanceof LastHttpContent) {
+                    contents.add(content.toString());
+                    content = null;
+                }
+            }
+        }
+        assertNull(content);
+        assertEquals(3, headers.size());
+
+        assertEquals("field", headers.get(0).name());
+        assertFalse(headers.get(0).isFileUpload());
+        assertEquals("text/plain", headers.get(0).contentType());
+        assertEquals("value", contents.get(0));
+
+        assertEquals("file", headers.get(1).name());
+        assertEquals("a \"b\".txt", headers.get(1).filename());
+        assertTrue(headers.get(1).isFileUpload());
+        assertEquals("text/plain", headers.get(1).contentType());
+        assertEquals("line 1\r\n--" + BOUNDARY.substring(0, 10) + "\r\n-\r\n\r\n", contents.get(1));
+
+        assertNull(headers.get(2).name());
+        assertTrue(headers.get(2).headers().isEmpty());
+        assertEquals("no headers", contents.get(2));
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.http.router;
+
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.util.AsciiString;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class HttpRouterTest {
+
+    private final HttpRouter<String> router = new HttpRouter<String>()
+            .addRoute("/", "index")
+            .addRoute("/users", "users")
+            .addRoute(HttpMethod.POST, "/users", "createUser")
+            .addRoute("/users/:id", "user")
+            .addRoute("/users/me", "me")
+            .addRoute("/users/:id/posts/:post", "post")
+            .addRoute("/user-settings", "settings")
+            .addRoute("/static/*file", "static")
+            .addRoute("/static/index.html", "staticIndex");
+
+    @Test
+    public void testStaticRoutes() {
+        assertRoute("index", "/");
+        assertRoute("users", "/users");
+        assertRoute("settings", "/user-settings");
+        assertRoute("me", "/users/me");
+        assertRoute("staticIndex", "/static/index.html");
+        assertNull(router.route(HttpMethod.GET, "/use"));
+        assertNull(router.route(HttpMethod.GET, "/users/"));
+        assertNull(router.route(HttpMethod.GET, "/unknown"));
+    }
+
+    @Test
+    public void testMethods() {
+        assertEquals("createUser", router.route(HttpMethod.POST, "/users").target());
+        assertEquals("users", router.route(HttpMethod.DELETE, "/users").target());
+        assertEquals("createUser", router.route(new DefaultHttpRequest(
+                HttpVersion.HTTP_1_1, HttpMethod.POST, "/users?x=y")).target());
+
+        HttpRouter<String> router = new HttpRouter<String>().addRoute(HttpMethod.GET, "/a", "a");
+        assertNull(router.route(HttpMethod.POST, "/a"));
+    }
+
+    @Test
+    public void testParams() {
+        HttpRouteMatch<String> match = assertRoute("user", "/users/42");
+        assertEquals(1, match.paramCount());
+        assertEquals("id", match.paramName(0));
+        assertEquals(new AsciiString("42"), match.param("id"));
+
+        match = assertRoute("post", "/users/42/posts/7?sort=asc");
+        assertEquals(new AsciiString("42"), match.param(0));
+        assertEquals(new AsciiString("7"), match.param("post"));
+        assertNull(match.param("unknown"));
+
+        assertNull(router.route(HttpMethod.GET, "/users/42/posts"));
+        assertNull(router.route(HttpMethod.GET, "/users/42/posts/"));
+    }
+
+    @Test
+    public void testWildcard() {
+        assertEquals(new AsciiString("css/site.css"), assertRoute("static", "/static/css/site.css").param("file"));
+        assertEquals(new AsciiString("index.htm"), assertRoute("static", "/static/index.htm").param("file"));
+        assertEquals(new AsciiString(""), assertRoute("static", "/static/").param("file"));
+    }
+
+    @Test
+    public void testBacktracking() {
+        HttpRouter<String> router = new HttpRouter<String>()
+                .addRoute("/a/b/c", "static")
+                .addRoute("/a/:x/d", "param")
+                .addRoute("/a/*rest", "wildcard");
+        assertEquals("static", router.route(HttpMethod.GET, "/a/b/c").target());
+        assertEquals("param", router.route(HttpMethod.GET, "/a/b/d").target());
+        assertEquals(new AsciiString("b"), router.route(HttpMethod.GET, "/a/b/d").param("x"));
+        assertEquals("wildcard", router.route(HttpMethod.GET, "/a/b/e").target());
+        assertEquals(new AsciiString("b/e"), router.route(HttpMethod.GET, "/a/b/e").param("rest"));
+    }
+
+    @Test
+    public void testAbsoluteFormAndAsciiString() {
+        assertRoute("user", "http://localhost:8080/users/42");
+        assertRoute("index", "http://localhost:8080");
+        assertRoute("index", "/#fragment");
+        assertNull(router.route(HttpMethod.OPTIONS, "*"));
+
+        AsciiString uri = new AsciiString("xx/users/42/posts/7xx").subSequence(2, 19, false);
+        HttpRouteMatch<String> match = router.route(HttpMethod.GET, uri);
+        assertEquals("post", match.target());
+        assertEquals(new AsciiString("7"), match.param("post"));
+    }
+
+    @Test
+    public void testManyRoutes() {
+        HttpRouter<Integer> router = new HttpRouter<Integer>();
+        for (int i = 0; i < 1000; i++) {
+            router.addRoute("/api/v1/resource" + i + "/:id", i);
+        }
+        for (int i = 0; i < 1000; i++) {
+            HttpRouteMatch<Integer> match = router.route(HttpMethod.GET, "/api/v1/resource" + i + "/abc");
+            assertEquals(i, match.target().intValue());
+            assertEquals(new AsciiString("abc"), match.param("id"));
+        }
+        assertNull(router.route(HttpMethod.GET, "/api/v1/resource1000/abc"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateRoute() {
+        router.addRoute("/users/:other", "duplicate");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWildcardNotLast() {
+        router.addRoute("/files/*path/more", "invalid");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRelativeTemplate() {
+        router.addRoute("users", "invalid");
+    }
+
+    private HttpRouteMatch<String> assertRoute(String expected, String uri) {
+        HttpRouteMatch<String> match = router.route(HttpMethod.GET, uri);
+        assertEquals(expected, match.target());
+        return match;
+    }
+}
@@ -13,6 +13,8 @@
 package io.netty.handler.codec.http.websocketx;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.embedded.EmbeddedChannel;
 import org.junit.Test;
@@ -20,7 +22,9 @@ import org.junit.Test;
 import java.util.HashSet;
 import java.util.Set;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
@@ -69,4 +73,30 @@ public class WebSocket08FrameDecoderTest {
             }
         }
     }
+
+    @Test
+    public void maskedPayloadDoesNotModifyInboundBuffer() {
+        byte[] payload = new byte[100];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) i;
+        }
+        EmbeddedChannel encoderChannel = new EmbeddedChannel(new WebSocket08FrameEncoder(true));
+        assertTrue(encoderChannel.writeOutbound(new BinaryWebSocketFrame(Unpooled.wrappedBuffer(payload))));
+        ByteBuf serializedFrame = encoderChannel.readOutbound();
+        assertFalse(encoderChannel.finish());
+        byte[] serializedBytes = ByteBufUtil.getBytes(serializedFrame);
+
+        // The frame buffer is shared, so the decoder must not unmask it in place.
+        EmbeddedChannel decoderChannel = new EmbeddedChannel(new WebSocket08FrameDecoder(true, false, 65535, false));
+        assertTrue(decoderChannel.writeInbound(serializedFrame.retainedDuplicate()));
+        BinaryWebSocketFrame frame = decoderChannel.readInbound();
+        try {
+            assertArrayEquals(payload, ByteBufUtil.getBytes(frame.content()));
+            assertArrayEquals(serializedBytes, ByteBufUtil.getBytes(serializedFrame));
+        } finally {
+            frame.release();
+            serializedFrame.release();
+            assertFalse(decoderChannel.finish());
+        }
+    }
 }
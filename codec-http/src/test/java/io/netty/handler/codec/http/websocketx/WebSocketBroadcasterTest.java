@@ -0,0 +1,91 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.http.websocketx;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.DefaultChannelId;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.channel.group.ChannelGroupFuture;
+import io.netty.channel.group.DefaultChannelGroup;
+import io.netty.util.concurrent.GlobalEventExecutor;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class WebSocketBroadcasterTest {
+
+    @Test
+    public void testEncodeMatchesEncoder() {
+        // Covers the 7 bit, 16 bit and 64 bit payload length.
+        for (int length: new int[] { 0, 125, 126, 0xFFFF, 0x10000 }) {
+            byte[] payload = new byte[length];
+            for (int i = 0; i < length; i++) {
+                payload[i] = (byte) i;
+            }
+            EmbeddedChannel encoder = new EmbeddedChannel(new WebSocket08FrameEncoder(false));
+            assertTrue(encoder.writeOutbound(new BinaryWebSocketFrame(Unpooled.wrappedBuffer(payload))));
+            ByteBuf expected = Unpooled.buffer();
+            for (;;) {
+                ByteBuf buf = encoder.readOutbound();
+                if (buf == null) {
+                    break;
+                }
+                expected.writeBytes(buf);
+                buf.release();
+            }
+            assertFalse(encoder.finish());
+
+            ByteBuf encoded = WebSocketBroadcaster.encode(UnpooledByteBufAllocator.DEFAULT,
+                    new BinaryWebSocketFrame(Unpooled.wrappedBuffer(payload)));
+            assertTrue(encoded.isReadOnly());
+            assertTrue(ByteBufUtil.equals(expected, encoded));
+            expected.release();
+            encoded.release();
+        }
+    }
+
+    @Test
+    public void testBroadcast() {
+        DefaultChannelGroup group = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
+        EmbeddedChannel[] channels = new EmbeddedChannel[3];
+        for (int i = 0; i < channels.length; i++) {
+            channels[i] = new EmbeddedChannel(DefaultChannelId.newInstance(), new WebSocket13FrameEncoder(false));
+            group.add(channels[i]);
+        }
+
+        TextWebSocketFrame frame = new TextWebSocketFrame("broadcast");
+        ChannelGroupFuture future = WebSocketBroadcaster.broadcast(group, frame);
+        assertTrue(future.isSuccess());
+        assertEquals(0, frame.refCnt());
+
+        for (EmbeddedChannel ch: channels) {
+            ByteBuf encoded = ch.readOutbound();
+            EmbeddedChannel decoder = new EmbeddedChannel(new WebSocket13FrameDecoder(false, false, 65536));
+            assertTrue(decoder.writeInbound(encoded));
+            TextWebSocketFrame decoded = decoder.readInbound();
+            assertEquals("broadcast", decoded.text());
+            assertTrue(decoded.isFinalFragment());
+            decoded.release();
+            assertFalse(decoder.finish());
+            assertFalse(ch.finish());
+        }
+    }
+}
@@ -19,6 +19,7 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.embedded.EmbeddedChannel;
 import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.util.CharsetUtil;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -34,10 +35,44 @@ public class WebSocketUtf8FrameValidatorTest {
         assertCorruptedFrameExceptionHandling(new byte[]{-8, -120, -128, -128, -128});
     }
 
-    private void assertCorruptedFrameExceptionHandling(byte[] data) {
+    @Test
+    public void testCorruptedFrameExceptionAfterAscii() {
+        assertCorruptedFrameExceptionHandling("0123456789abcdef\u00e4\u20ac!".getBytes(CharsetUtil.UTF_8),
+                new byte[] { 'a', 'b', 'c', 'd', 'e', 'f', 'g', 'h', 'i', (byte) 0xFF, 'j' });
+    }
+
+    @Test
+    public void testCorruptedFrameExceptionAsciiInSequence() {
+        // A multi-byte sequence must not be ended early by US-ASCII bytes.
+        assertCorruptedFrameExceptionHandling(new byte[] { 'a', 'b', (byte) 0xE2, (byte) 0x82, 'c', 'd', 'e', 'f',
+                'g', 'h', 'i', 'j' });
+    }
+
+    @Test
+    public void testValidFragmentedText() {
+        String text = "Hello WebSocket, gr\u00fc\u00dfe aus K\u00f6ln \u20ac\u4f60\u597d\ud83d\ude00 and more ASCII";
+        byte[] bytes = text.getBytes(CharsetUtil.UTF_8);
+        // Split the text at every position, so every multi-byte sequence is also split across the fragments.
+        for (int split = 0; split <= bytes.length; split++) {
+            EmbeddedChannel channel = new EmbeddedChannel(new Utf8FrameValidator());
+            Assert.assertTrue(channel.writeInbound(
+                    new TextWebSocketFrame(false, 0, Unpooled.wrappedBuffer(bytes, 0, split))));
+            Assert.assertTrue(channel.writeInbound(new ContinuationWebSocketFrame(true, 0,
+                    Unpooled.wrappedBuffer(bytes, split, bytes.length - split))));
+            Assert.assertTrue(channel.finishAndReleaseAll());
+        }
+    }
+
+    private void assertCorruptedFrameExceptionHandling(byte[]... fragments) {
         EmbeddedChannel channel = new EmbeddedChannel(new Utf8FrameValidator());
         try {
-            channel.writeInbound(new TextWebSocketFrame(Unpooled.copiedBuffer(data)));
+            for (int i = 0; i < fragments.length; i++) {
+                WebSocketFrame frame = i == 0 ?
+                        new TextWebSocketFrame(i == fragments.length - 1, 0, Unpooled.copiedBuffer(fragments[i])) :
+                        new ContinuationWebSocketFrame(i == fragments.length - 1, 0,
+                                Unpooled.copiedBuffer(fragments[i]));
+                channel.writeInbound(frame);
+            }
             Assert.fail();
         } catch (CorruptedFrameException e) {
             // expected exception
@@ -15,8 +15,13 @@
  */
 package io.netty.handler.codec.http.websocketx;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.internal.PlatformDependent;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 public class WebSocketUtilTest {
@@ -40,4 +45,67 @@ public class WebSocketUtilTest {
         }
     }
 
+    @Test
+    public void testMask() {
+        byte[] data = new byte[67];
+        PlatformDependent.threadLocalRandom().nextBytes(data);
+        int mask = 0xCAFEBABE;
+        byte[] key = { (byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE };
+
+        for (int offset = 0; offset < 9; offset++) {
+            for (int length = 0; length <= data.length - offset; length++) {
+                byte[] expected = new byte[length];
+                for (int i = 0; i < length; i++) {
+                    expected[i] = (byte) (data[offset + i] ^ key[i % 4]);
+                }
+                assertMask(expected, mask, Unpooled.wrappedBuffer(data), offset, Unpooled.buffer(length + 3), 3);
+                assertMask(expected, mask, Unpooled.wrappedBuffer(data), offset, Unpooled.directBuffer(length), 0);
+                assertMask(expected, mask, Unpooled.directBuffer(data.length).writeBytes(data), offset,
+                        Unpooled.buffer(length), 0);
+                CompositeByteBuf composite = Unpooled.compositeBuffer();
+                composite.addComponents(true, Unpooled.wrappedBuffer(data, 0, 5),
+                        Unpooled.wrappedBuffer(data, 5, data.length - 5));
+                assertMask(expected, mask, composite, offset, Unpooled.buffer(length), 0);
+            }
+        }
+    }
+
+    @Test
+    public void testMaskInPlace() {
+        byte[] data = new byte[35];
+        PlatformDependent.threadLocalRandom().nextBytes(data);
+        int mask = PlatformDependent.threadLocalRandom().nextInt();
+
+        ByteBuf heap = Unpooled.buffer().writeBytes(data);
+        ByteBuf direct = Unpooled.directBuffer().writeBytes(data);
+        try {
+            WebSocketUtil.mask(mask, heap, 1, heap, 1, data.length - 1);
+            WebSocketUtil.mask(mask, direct, 1, direct, 1, data.length - 1);
+            assertEquals(heap, direct);
+
+            // Masking twice restores the original data.
+            WebSocketUtil.mask(mask, heap, 1, heap, 1, data.length - 1);
+            assertEquals(Unpooled.wrappedBuffer(data), heap);
+        } finally {
+            heap.release();
+            direct.release();
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testMaskOutOfBounds() {
+        WebSocketUtil.mask(0, Unpooled.buffer(8), 1, Unpooled.buffer(8), 0, 8);
+    }
+
+    private static void assertMask(byte[] expected, int mask, ByteBuf src, int srcIndex, ByteBuf dst, int dstIndex) {
+        try {
+            WebSocketUtil.mask(mask, src, srcIndex, dst, dstIndex, expected.length);
+            assertEquals(Unpooled.wrappedBuffer(expected), dst.slice(dstIndex, expected.length));
+            assertEquals(0, src.readerIndex());
+            assertEquals(0, dst.writerIndex());
+        } finally {
+            src.release();
+            dst.release();
+        }
+    }
 }
@@ -189,4 +189,53 @@ public class PerMessageDeflateDecoderTest {
         uncompressedFrame.release();
     }
 
+    @Test
+    public void testPooledDecompression() {
+        DeflateContextPool pool = new DeflateContextPool(9);
+        EmbeddedChannel encoderChannel = new EmbeddedChannel(
+                new PerMessageDeflateEncoder(9, 15, 8, true, 0, pool));
+        EmbeddedChannel decoderChannel = new EmbeddedChannel(new PerMessageDeflateDecoder(true, pool));
+
+        for (int i = 0; i < 3; i++) {
+            // initialize
+            byte[] payload1 = new byte[300];
+            random.nextBytes(payload1);
+            // Compresses well, so the output buffer has to grow.
+            byte[] payload2 = new byte[64 * 1024];
+
+            encoderChannel.writeOutbound(new BinaryWebSocketFrame(true,
+                    WebSocketExtension.RSV3, Unpooled.wrappedBuffer(payload1)));
+            encoderChannel.writeOutbound(new BinaryWebSocketFrame(false,
+                    WebSocketExtension.RSV3, Unpooled.wrappedBuffer(payload2)));
+            encoderChannel.writeOutbound(new ContinuationWebSocketFrame(true,
+                    WebSocketExtension.RSV3, Unpooled.EMPTY_BUFFER));
+
+            // execute
+            for (;;) {
+                Object msg = encoderChannel.readOutbound();
+                if (msg == null) {
+                    break;
+                }
+                decoderChannel.writeInbound(msg);
+            }
+
+            // test
+            BinaryWebSocketFrame uncompressedFrame1 = decoderChannel.readInbound();
+            assertEquals(WebSocketExtension.RSV3, uncompressedFrame1.rsv());
+            assertEquals(Unpooled.wrappedBuffer(payload1), uncompressedFrame1.content());
+            uncompressedFrame1.release();
+
+            BinaryWebSocketFrame uncompressedFrame2 = decoderChannel.readInbound();
+            assertEquals(WebSocketExtension.RSV3, uncompressedFrame2.rsv());
+            assertEquals(Unpooled.wrappedBuffer(payload2), uncompressedFrame2.content());
+            uncompressedFrame2.release();
+
+            ContinuationWebSocketFrame uncompressedFrame3 = decoderChannel.readInbound();
+            assertEquals(WebSocketExtension.RSV3, uncompressedFrame3.rsv());
+            assertFalse(uncompressedFrame3.content().isReadable());
+            uncompressedFrame3.release();
+        }
+        assertFalse(encoderChannel.finish());
+        assertFalse(decoderChannel.finish());
+    }
 }
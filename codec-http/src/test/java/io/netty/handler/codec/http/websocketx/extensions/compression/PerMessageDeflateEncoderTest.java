@@ -157,4 +157,91 @@ public class PerMessageDeflateEncoderTest {
         assertTrue(Arrays.equals(finalPayload3, payload3));
         uncompressedPayload3.release();
     }
+
+    @Test
+    public void testPooledCompressedFrames() {
+        DeflateContextPool pool = new DeflateContextPool(9);
+        EmbeddedChannel encoderChannel = new EmbeddedChannel(
+                new PerMessageDeflateEncoder(9, 15, 8, true, 0, pool));
+
+        for (int i = 0; i < 3; i++) {
+            // initialize
+            byte[] payload1 = new byte[100];
+            random.nextBytes(payload1);
+            byte[] payload2 = new byte[200];
+            random.nextBytes(payload2);
+
+            BinaryWebSocketFrame frame1 = new BinaryWebSocketFrame(false,
+                    WebSocketExtension.RSV3, Unpooled.wrappedBuffer(payload1));
+            ContinuationWebSocketFrame frame2 = new ContinuationWebSocketFrame(true,
+                    WebSocketExtension.RSV3, Unpooled.directBuffer().writeBytes(payload2));
+
+            // execute
+            encoderChannel.writeOutbound(frame1);
+            encoderChannel.writeOutbound(frame2);
+            BinaryWebSocketFrame compressedFrame1 = encoderChannel.readOutbound();
+            ContinuationWebSocketFrame compressedFrame2 = encoderChannel.readOutbound();
+
+            // test
+            assertEquals(WebSocketExtension.RSV1 | WebSocketExtension.RSV3, compressedFrame1.rsv());
+            assertEquals(WebSocketExtension.RSV3, compressedFrame2.rsv());
+
+            // Every message is compressed on its own, so a new decompressor must be able to read it.
+            EmbeddedChannel decoderChannel = new EmbeddedChannel(
+                    ZlibCodecFactory.newZlibDecoder(ZlibWrapper.NONE));
+            decoderChannel.writeInbound(compressedFrame1.content());
+            decoderChannel.writeInbound(compressedFrame2.content());
+            decoderChannel.writeInbound(Unpooled.wrappedBuffer(DeflateDecoder.FRAME_TAIL));
+
+            ByteBuf uncompressedPayload = Unpooled.buffer();
+            for (;;) {
+                ByteBuf buf = decoderChannel.readInbound();
+                if (buf == null) {
+                    break;
+                }
+                uncompressedPayload.writeBytes(buf);
+                buf.release();
+            }
+            assertEquals(Unpooled.wrappedBuffer(payload1, payload2), uncompressedPayload);
+            uncompressedPayload.release();
+            assertFalse(decoderChannel.finish());
+        }
+        assertFalse(encoderChannel.finish());
+    }
+
+    @Test
+    public void testCompressionThreshold() {
+        EmbeddedChannel encoderChannel = new EmbeddedChannel(
+                new PerMessageDeflateEncoder(9, 15, 8, false, 100, null));
+
+        // initialize
+        byte[] payload = new byte[100];
+        random.nextBytes(payload);
+
+        // execute
+        encoderChannel.writeOutbound(new BinaryWebSocketFrame(Unpooled.wrappedBuffer(payload, 0, 99)));
+        encoderChannel.writeOutbound(new BinaryWebSocketFrame(Unpooled.wrappedBuffer(payload)));
+        encoderChannel.writeOutbound(new BinaryWebSocketFrame(false, 0, Unpooled.wrappedBuffer(payload, 0, 10)));
+        encoderChannel.writeOutbound(new ContinuationWebSocketFrame(true, 0, Unpooled.wrappedBuffer(payload, 0, 10)));
+
+        // test
+        BinaryWebSocketFrame smallFrame = encoderChannel.readOutbound();
+        assertEquals(0, smallFrame.rsv());
+        assertEquals(Unpooled.wrappedBuffer(payload, 0, 99), smallFrame.content());
+        smallFrame.release();
+
+        BinaryWebSocketFrame largeFrame = encoderChannel.readOutbound();
+        assertEquals(WebSocketExtension.RSV1, largeFrame.rsv());
+        largeFrame.release();
+
+        // The size of a fragmented message is not known upfront, so it is always compressed.
+        BinaryWebSocketFrame firstFragment = encoderChannel.readOutbound();
+        assertEquals(WebSocketExtension.RSV1, firstFragment.rsv());
+        firstFragment.release();
+        ContinuationWebSocketFrame lastFragment = encoderChannel.readOutbound();
+        assertEquals(0, lastFragment.rsv());
+        lastFragment.release();
+
+        assertFalse(encoderChannel.finish());
+    }
 }
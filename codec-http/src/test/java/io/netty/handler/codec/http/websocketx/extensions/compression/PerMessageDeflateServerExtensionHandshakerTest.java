@@ -169,4 +169,56 @@ public class PerMessageDeflateServerExtensionHandshakerTest {
         assertEquals(PERMESSAGE_DEFLATE_EXTENSION, data.name());
         assertTrue(data.parameters().isEmpty());
     }
+
+    @Test
+    public void testPooledContextsHandshake() {
+        WebSocketServerExtension extension;
+        Map<String, String> parameters;
+        WebSocketExtensionData data;
+
+        // initialize
+        PerMessageDeflateServerExtensionHandshaker handshaker =
+                new PerMessageDeflateServerExtensionHandshaker(6, false, 15, false, true, 8, 64, true);
+
+        // execute
+        extension = handshaker.handshakeExtension(
+                new WebSocketExtensionData(PERMESSAGE_DEFLATE_EXTENSION, Collections.<String, String>emptyMap()));
+
+        // test
+        assertNotNull(extension);
+        assertTrue(extension.newExtensionDecoder() instanceof PerMessageDeflateDecoder);
+        assertTrue(extension.newExtensionEncoder() instanceof PerMessageDeflateEncoder);
+
+        // execute
+        data = extension.newReponseData();
+
+        // test
+        assertEquals(PERMESSAGE_DEFLATE_EXTENSION, data.name());
+        assertTrue(data.parameters().containsKey(SERVER_NO_CONTEXT));
+        assertFalse(data.parameters().containsKey(CLIENT_NO_CONTEXT));
+
+        // initialize
+        parameters = new HashMap<String, String>();
+        parameters.put(SERVER_NO_CONTEXT, null);
+        parameters.put(CLIENT_NO_CONTEXT, null);
+
+        // execute
+        extension = handshaker.handshakeExtension(
+                new WebSocketExtensionData(PERMESSAGE_DEFLATE_EXTENSION, parameters));
+
+        // test
+        assertNotNull(extension);
+
+        // execute
+        data = extension.newReponseData();
+
+        // test
+        assertTrue(data.parameters().containsKey(SERVER_NO_CONTEXT));
+        assertTrue(data.parameters().containsKey(CLIENT_NO_CONTEXT));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMemLevel() {
+        new PerMessageDeflateServerExtensionHandshaker(6, false, 15, false, false, 10, 0, false);
+    }
 }
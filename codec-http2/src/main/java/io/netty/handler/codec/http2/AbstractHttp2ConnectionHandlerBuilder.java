@@ -65,6 +65,7 @@ import static java.util.concurrent.TimeUnit.SECONDS;
  *   <li>{@link #encoderEnforceMaxConcurrentStreams(boolean)}</li>
  *   <li>{@link #encoderIgnoreMaxHeaderListSize(boolean)}</li>
  *   <li>{@link #initialHuffmanDecodeCapacity(int)}</li>
+ *   <li>{@link #coalesceDataFrames(boolean)}</li>
  * </ul>
  *
  * <h3>Exposing necessary methods in a subclass</h3>
@@ -106,6 +107,7 @@ public abstract class AbstractHttp2ConnectionHandlerBuilder<T extends Http2Conne
     private Boolean encoderEnforceMaxConcurrentStreams;
     private Boolean encoderIgnoreMaxHeaderListSize;
     private int initialHuffmanDecodeCapacity = DEFAULT_INITIAL_HUFFMAN_DECODE_CAPACITY;
+    private boolean coalesceDataFrames;
 
     /**
      * Sets the {@link Http2Settings} to use for the initial connection settings exchange.
@@ -364,6 +366,27 @@ public abstract class AbstractHttp2ConnectionHandlerBuilder<T extends Http2Conne
         return self();
     }
 
+    /**
+     * Returns if the DATA frames written by one {@link Http2RemoteFlowController#writePendingBytes()} are coalesced
+     * into a single buffer by a {@link CoalescingHttp2FrameWriter}.
+     */
+    protected boolean isCoalesceDataFrames() {
+        return coalesceDataFrames;
+    }
+
+    /**
+     * Sets if the DATA frames written by one {@link Http2RemoteFlowController#writePendingBytes()} are coalesced
+     * into a single buffer by a {@link CoalescingHttp2FrameWriter}. This saves a buffer per frame when many streams
+     * write small payloads.
+     * @param coalesceDataFrames {@code true} to coalesce DATA frames.
+     * @return this.
+     */
+    protected B coalesceDataFrames(boolean coalesceDataFrames) {
+        enforceNonCodecConstraints("coalesceDataFrames");
+        this.coalesceDataFrames = coalesceDataFrames;
+        return self();
+    }
+
     /**
      * Create a new {@link Http2ConnectionHandler}.
      */
@@ -389,6 +412,9 @@ public abstract class AbstractHttp2ConnectionHandlerBuilder<T extends Http2Conne
         Http2FrameWriter writer = encoderIgnoreMaxHeaderListSize == null ?
                 new DefaultHttp2FrameWriter(headerSensitivityDetector()) :
                 new DefaultHttp2FrameWriter(headerSensitivityDetector(), encoderIgnoreMaxHeaderListSize);
+        if (coalesceDataFrames) {
+            writer = new CoalescingHttp2FrameWriter(writer);
+        }
 
         if (frameLogger != null) {
             reader = new Http2InboundFrameLogger(reader, frameLogger);
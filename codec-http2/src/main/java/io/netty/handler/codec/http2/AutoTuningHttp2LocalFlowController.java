@@ -0,0 +1,191 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License, version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.netty.handler.codec.http2;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.internal.UnstableApi;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.netty.util.internal.ObjectUtil.checkNotNull;
+import static io.netty.util.internal.ObjectUtil.checkPositive;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+/**
+ * A {@link DefaultHttp2LocalFlowController} which grows the flow control windows to the bandwidth-delay product of
+ * the connection, so a single stream is not limited by the round trip time on fast links with a high latency.
+ * <p>
+ * When {@code DATA} is received and no measurement is in progress a {@code PING} is sent, and the bytes which are
+ * received until it is acknowledged are counted. They are an estimate of how much data is in flight in one round
+ * trip. If the sample fills most of the current window and the measured bandwidth is the highest seen so far, the
+ * window is probably what limits the peer. The windows are then grown to twice the sample, but never beyond the
+ * configured maximum. The connection window is grown right away, the initial window of the streams is advertised in
+ * a {@code SETTINGS} frame and applied once the peer acknowledges it. Windows are never shrunk.
+ * <p>
+ * The {@code PING} frames sent by this class are not passed to the {@link Http2FrameListener}. This class needs a
+ * {@link DefaultHttp2ConnectionDecoder} to send and receive them.
+ * <p>
+ * This class is <strong>NOT</strong> thread safe. The assumption is all methods must be invoked from a single thread.
+ * Typically this thread is the event loop thread for the {@link ChannelHandlerContext} managed by this class.
+ */
+@UnstableApi
+public class AutoTuningHttp2LocalFlowController extends DefaultHttp2LocalFlowController {
+    /**
+     * The default maximum size the windows are grown to.
+     */
+    public static final int DEFAULT_MAX_WINDOW_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * The opaque data of the {@code PING} frames used to measure the round trip time, {@code "BDP_PING"} in ASCII.
+     */
+    static final long BDP_PING_DATA = 0x4244505F50494E47L;
+
+    // Weight of a new round trip time sample in the moving average.
+    private static final float RTT_WEIGHT_NEW = 0.9f;
+
+    private final Http2Connection connection;
+    private final int maxWindowSize;
+    private Http2ConnectionEncoder encoder;
+    private ChannelHandlerContext ctx;
+
+    private boolean pinging;
+    private long pingTimeNanos;
+    private long sample;
+    private long rttNanos;
+    private long maxBandwidth;
+    // The largest window requested so far, the peer may not have acknowledged it yet.
+    private int targetWindowSize;
+
+    public AutoTuningHttp2LocalFlowController(Http2Connection connection) {
+        this(connection, DEFAULT_MAX_WINDOW_SIZE);
+    }
+
+    /**
+     * Constructs a controller which grows the windows up to {@code maxWindowSize}.
+     *
+     * @param connection the connection state.
+     * @param maxWindowSize the maximum size of the connection window and of the initial window of the streams.
+     */
+    public AutoTuningHttp2LocalFlowController(Http2Connection connection, int maxWindowSize) {
+        this(connection, DEFAULT_WINDOW_UPDATE_RATIO, false, maxWindowSize);
+    }
+
+    /**
+     * Constructs a controller with the given settings.
+     *
+     * @param connection the connection state.
+     * @param windowUpdateRatio the window percentage below which to send a {@code WINDOW_UPDATE}.
+     * @param autoRefillConnectionWindow if {@code true}, effectively disables the connection window
+     * in the flow control algorithm as they will always refill automatically without requiring the
+     * application to consume the bytes.
+     * @param maxWindowSize the maximum size of the connection window and of the initial window of the streams. The
+     * initial window configured in the local settings is the minimum, the windows are never shrunk below it.
+     */
+    public AutoTuningHttp2LocalFlowController(Http2Connection connection,
+                                              float windowUpdateRatio,
+                                              boolean autoRefillConnectionWindow,
+                                              int maxWindowSize) {
+        super(connection, windowUpdateRatio, autoRefillConnectionWindow);
+        this.connection = connection;
+        this.maxWindowSize = checkPositive(maxWindowSize, "maxWindowSize");
+    }
+
+    /**
+     * Sets the encoder used to send the {@code PING} and {@code SETTINGS} frames. This is done by the
+     * {@link DefaultHttp2ConnectionDecoder}, no frames are sent as long as it is not set.
+     */
+    void encoder(Http2ConnectionEncoder encoder) {
+        this.encoder = checkNotNull(encoder, "encoder");
+    }
+
+    /**
+     * The maximum size of the connection window and of the initial window of the streams.
+     */
+    public int maxWindowSize() {
+        return maxWindowSize;
+    }
+
+    @Override
+    public void channelHandlerContext(ChannelHandlerContext ctx) {
+        super.channelHandlerContext(ctx);
+        this.ctx = ctx;
+    }
+
+    @Override
+    public void receiveFlowControlledFrame(Http2Stream stream, ByteBuf data, int padding,
+            boolean endOfStream) throws Http2Exception {
+        super.receiveFlowControlledFrame(stream, data, padding, endOfStream);
+        if (encoder == null) {
+            return;
+        }
+        int dataLength = data.readableBytes() + padding;
+        if (pinging) {
+            sample += dataLength;
+        } else if (dataLength > 0 && windowSize() < maxWindowSize) {
+            pinging = true;
+            sample = dataLength;
+            pingTimeNanos = System.nanoTime();
+            encoder.writePing(ctx, false, BDP_PING_DATA, ctx.newPromise());
+        }
+    }
+
+    /**
+     * Called when a {@code PING} acknowledgement is read.
+     *
+     * @return {@code true} if the {@code PING} was sent by this controller and must not be passed to the
+     * {@link Http2FrameListener}.
+     */
+    boolean onPingAckRead(long data) throws Http2Exception {
+        if (data != BDP_PING_DATA || !pinging) {
+            return false;
+        }
+        pinging = false;
+        long rtt = max(1, System.nanoTime() - pingTimeNanos);
+        rttNanos = rttNanos == 0 ? rtt : rttNanos + (long) ((rtt - rttNanos) * RTT_WEIGHT_NEW);
+        long bandwidth = sample * TimeUnit.SECONDS.toNanos(1) / max(1, rttNanos);
+        if (bandwidth > maxBandwidth) {
+            maxBandwidth = bandwidth;
+            int windowSize = windowSize();
+            // The sample is at most one window, if it is a lot smaller the window is not what limits the peer.
+            if (sample * 3 >= windowSize * 2L) {
+                growWindows((int) min(maxWindowSize, sample * 2));
+            }
+        }
+        sample = 0;
+        return true;
+    }
+
+    private int windowSize() {
+        return max(initialWindowSize(), targetWindowSize);
+    }
+
+    private void growWindows(int newWindowSize) throws Http2Exception {
+        Http2Stream connectionStream = connection.connectionStream();
+        int connectionDelta = newWindowSize - initialWindowSize(connectionStream);
+        if (connectionDelta > 0) {
+            // The peer does not need to acknowledge a WINDOW_UPDATE, so it can use the larger window right away.
+            expandConnectionWindow(connectionDelta);
+        }
+        if (newWindowSize > windowSize()) {
+            // The streams are only updated by the DefaultHttp2ConnectionDecoder when the peer acknowledged the
+            // SETTINGS, so our view of the windows is always the same as the view of the peer.
+            targetWindowSize = newWindowSize;
+            encoder.writeSettings(ctx, new Http2Settings().initialWindowSize(newWindowSize), ctx.newPromise());
+        }
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.http2;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.util.concurrent.PromiseNotifier;
+import io.netty.util.internal.UnstableApi;
+
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.netty.handler.codec.http2.Http2CodecUtil.FRAME_HEADER_LENGTH;
+import static io.netty.handler.codec.http2.Http2CodecUtil.writeFrameHeaderInternal;
+import static io.netty.handler.codec.http2.Http2FrameTypes.DATA;
+import static io.netty.util.internal.ObjectUtil.checkPositive;
+import static io.netty.util.internal.ObjectUtil.checkPositiveOrZero;
+
+/**
+ * A {@link Http2FrameWriter} which coalesces DATA frames into a single buffer, so many streams sending small payloads
+ * do not produce a frame header buffer and a payload buffer per frame. Payloads up to a size limit are copied into the
+ * buffer, of larger payloads only the frame header is added and the payload is written on its own after it.
+ * <p>
+ * The coalesced frames are written by {@link #writeCoalescedFrames()}, which is also done before any other frame is
+ * written, when the buffer is full and for payloads which are not copied. {@link DefaultHttp2ConnectionEncoder} lets
+ * the {@link DefaultHttp2RemoteFlowController} call it at the end of each
+ * {@link Http2RemoteFlowController#writePendingBytes()}. For this an instance of this class must be given to the
+ * encoder directly or be wrapped by {@link DecoratingHttp2FrameWriter}s and {@link Http2OutboundFrameLogger}s only.
+ * The builders use this class if {@link AbstractHttp2ConnectionHandlerBuilder#coalesceDataFrames(boolean)} is set.
+ * <p>
+ * DATA frames with padding and frames which are larger than the maximum frame size are written by the delegate.
+ * <p>
+ * This class is <strong>NOT</strong> thread safe. The assumption is all methods must be invoked from a single thread.
+ */
+@UnstableApi
+public class CoalescingHttp2FrameWriter extends DecoratingHttp2FrameWriter {
+    public static final int DEFAULT_MAX_COALESCED_BYTES = 16 * 1024;
+    public static final int DEFAULT_MAX_COPIED_BYTES = 1024;
+
+    private static final Http2Flags NO_FLAGS = new Http2Flags();
+    private static final Http2Flags END_STREAM = new Http2Flags().endOfStream(true);
+
+    private final int maxCoalescedBytes;
+    private final int maxCopiedBytes;
+    private final List<ChannelPromise> promises = new ArrayList<ChannelPromise>();
+    private ChannelHandlerContext ctx;
+    private ByteBuf buffer;
+
+    public CoalescingHttp2FrameWriter(Http2FrameWriter delegate) {
+        this(delegate, DEFAULT_MAX_COALESCED_BYTES, DEFAULT_MAX_COPIED_BYTES);
+    }
+
+    /**
+     * Create a new instance.
+     * @param delegate the {@link Http2FrameWriter} which writes all frames which are not coalesced.
+     * @param maxCoalescedBytes the size of the buffer the DATA frames are coalesced into.
+     * @param maxCopiedBytes the largest payload which is copied into the buffer.
+     */
+    public CoalescingHttp2FrameWriter(Http2FrameWriter delegate, int maxCoalescedBytes, int maxCopiedBytes) {
+        super(delegate);
+        this.maxCoalescedBytes = checkPositive(maxCoalescedBytes, "maxCoalescedBytes");
+        this.maxCopiedBytes = checkPositiveOrZero(maxCopiedBytes, "maxCopiedBytes");
+        if (maxCopiedBytes > maxCoalescedBytes - FRAME_HEADER_LENGTH) {
+            throw new IllegalArgumentException("maxCopiedBytes: " + maxCopiedBytes + " (expected: <= " +
+                    (maxCoalescedBytes - FRAME_HEADER_LENGTH) + ')');
+        }
+    }
+
+    @Override
+    public ChannelFuture writeData(ChannelHandlerContext ctx, int streamId, ByteBuf data, int padding,
+                                   boolean endStream, ChannelPromise promise) {
+        int dataLength = data.readableBytes();
+        if (padding != 0 || streamId <= 0 || dataLength > configuration().frameSizePolicy().maxFrameSize()) {
+            // Leave the validation and the splitting into multiple frames to the delegate.
+            writeCoalescedFrames();
+            return super.writeData(ctx, streamId, data, padding, endStream, promise);
+        }
+
+        boolean copy = dataLength <= maxCopiedBytes;
+        int coalescedBytes = copy ? FRAME_HEADER_LENGTH + dataLength : FRAME_HEADER_LENGTH;
+        if (buffer != null && (this.ctx != ctx || buffer.readableBytes() + coalescedBytes > maxCoalescedBytes)) {
+            writeCoalescedFrames();
+        }
+        try {
+            if (buffer == null) {
+                buffer = ctx.alloc().buffer(maxCoalescedBytes);
+                this.ctx = ctx;
+            }
+            writeFrameHeaderInternal(buffer, dataLength, DATA, endStream ? END_STREAM : NO_FLAGS, streamId);
+            if (copy) {
+                buffer.writeBytes(data, data.readerIndex(), dataLength);
+                data.release();
+                if (!promise.isVoid()) {
+                    promises.add(promise);
+                }
+                return promise;
+            }
+        } catch (Throwable cause) {
+            data.release();
+            return promise.setFailure(cause);
+        }
+        // The frame header is the last coalesced frame, the payload needs to follow it directly.
+        writeCoalescedFrames();
+        return ctx.write(data, promise);
+    }
+
+    /**
+     * Returns the number of bytes which are coalesced and not written yet.
+     */
+    int coalescedBytes() {
+        return buffer == null ? 0 : buffer.readableBytes();
+    }
+
+    /**
+     * Writes the coalesced DATA frames, without flushing them.
+     */
+    public void writeCoalescedFrames() {
+        ByteBuf buffer = this.buffer;
+        if (buffer == null) {
+            return;
+        }
+        ChannelHandlerContext ctx = this.ctx;
+        this.buffer = null;
+        this.ctx = null;
+        switch (promises.size()) {
+            case 0:
+                ctx.write(buffer, ctx.voidPromise());
+                break;
+            case 1:
+                ctx.write(buffer, promises.get(0));
+                break;
+            default:
+                ChannelPromise[] notified = promises.toArray(new ChannelPromise[0]);
+                ctx.write(buffer).addListener(new PromiseNotifier<Void, ChannelFuture>(notified));
+                break;
+        }
+        promises.clear();
+    }
+
+    @Override
+    public ChannelFuture writeHeaders(ChannelHandlerContext ctx, int streamId, Http2Headers headers, int padding,
+                                      boolean endStream, ChannelPromise promise) {
+        writeCoalescedFrames();
+        return super.writeHeaders(ctx, streamId, headers, padding, endStream, promise);
+    }
+
+    @Override
+    public ChannelFuture writeHeaders(ChannelHandlerContext ctx, int streamId, Http2Headers headers,
+                                      int streamDependency, short weight, boolean exclusive, int padding,
+                                      boolean endStream, ChannelPromise promise) {
+        writeCoalescedFrames();
+        return super.writeHeaders(ctx, streamId, headers, streamDependency, weight, exclusive, padding, endStream,
+                promise);
+    }
+
+    @Override
+    public ChannelFuture writePriority(ChannelHandlerContext ctx, int streamId, int streamDependency, short weight,
+                                       boolean exclusive, ChannelPromise promise) {
+        writeCoalescedFrames();
+        return super.writePriority(ctx, streamId, streamDependency, weight, exclusive, promise);
+    }
+
+    @Override
+    public ChannelFuture writeRstStream(ChannelHandlerContext ctx, int streamId, long errorCode,
+                                        ChannelPromise promise) {
+        writeCoalescedFrames();
+        return super.writeRstStream(ctx, streamId, errorCode, promise);
+    }
+
+    @Override
+    public ChannelFuture writeSettings(ChannelHandlerContext ctx, Http2Settings settings, ChannelPromise promise) {
+        writeCoalescedFrames();
+        return super.writeSettings(ctx, settings, promise);
+    }
+
+    @Override
+    public ChannelFuture writeSettingsAck(ChannelHandlerContext ctx, ChannelPromise promise) {
+        writeCoalescedFrames();
+        return super.writeSettingsAck(ctx, promise);
+    }
+
+    @Override
+    public ChannelFuture writePing(ChannelHandlerContext ctx, boolean ack, long data, ChannelPromise promise) {
+        writeCoalescedFrames();
+        return super.writePing(ctx, ack, data, promise);
+    }
+
+    @Override
+    public ChannelFuture writePushPromise(ChannelHandlerContext ctx, int streamId, int promisedStreamId,
+                                          Http2Headers headers, int padding, ChannelPromise promise) {
+        writeCoalescedFrames();
+        return super.writePushPromise(ctx, streamId, promisedStreamId, headers, padding, promise);
+    }
+
+    @Override
+    public ChannelFuture writeGoAway(ChannelHandlerContext ctx, int lastStreamId, long errorCode, ByteBuf debugData,
+                                     ChannelPromise promise) {
+        writeCoalescedFrames();
+        return super.writeGoAway(ctx, lastStreamId, errorCode, debugData, promise);
+    }
+
+    @Override
+    public ChannelFuture writeWindowUpdate(ChannelHandlerContext ctx, int streamId, int windowSizeIncrement,
+                                           ChannelPromise promise) {
+        writeCoalescedFrames();
+        return super.writeWindowUpdate(ctx, streamId, windowSizeIncrement, promise);
+    }
+
+    @Override
+    public ChannelFuture writeFrame(ChannelHandlerContext ctx, byte frameType, int streamId, Http2Flags flags,
+                                    ByteBuf payload, ChannelPromise promise) {
+        writeCoalescedFrames();
+        return super.writeFrame(ctx, frameType, streamId, flags, payload, promise);
+    }
+
+    @Override
+    public void close() {
+        if (buffer != null) {
+            buffer.release();
+            buffer = null;
+            ctx = null;
+            ClosedChannelException cause = new ClosedChannelException();
+            for (int i = 0; i < promises.size(); i++) {
+                promises.get(i).tryFailure(cause);
+            }
+            promises.clear();
+        }
+        super.close();
+    }
+}
@@ -33,6 +33,13 @@ public class DecoratingHttp2FrameWriter implements Http2FrameWriter {
         this.delegate = checkNotNull(delegate, "delegate");
     }
 
+    /**
+     * Returns the decorated {@link Http2FrameWriter}.
+     */
+    Http2FrameWriter delegate() {
+        return delegate;
+    }
+
     @Override
     public ChannelFuture writeData(ChannelHandlerContext ctx, int streamId, ByteBuf data, int padding,
                                    boolean endStream, ChannelPromise promise) {
@@ -75,7 +75,11 @@ public class DefaultHttp2ConnectionDecoder implements Http2ConnectionDecoder {
         if (connection.local().flowController() == null) {
             connection.local().flowController(new DefaultHttp2LocalFlowController(connection));
         }
-        connection.local().flowController().frameWriter(encoder.frameWriter());
+        Http2LocalFlowController flowController = connection.local().flowController();
+        flowController.frameWriter(encoder.frameWriter());
+        if (flowController instanceof AutoTuningHttp2LocalFlowController) {
+            ((AutoTuningHttp2LocalFlowController) flowController).encoder(encoder);
+        }
     }
 
     @Override
@@ -430,6 +434,12 @@ public class DefaultHttp2ConnectionDecoder implements Http2ConnectionDecoder {
 
         @Override
         public void onPingAckRead(ChannelHandlerContext ctx, long data) throws Http2Exception {
+            Http2LocalFlowController flowController = flowController();
+            if (flowController instanceof AutoTuningHttp2LocalFlowController &&
+                    ((AutoTuningHttp2LocalFlowController) flowController).onPingAckRead(data)) {
+                // The PING was sent by the flow controller to measure the round trip time.
+                return;
+            }
             listener.onPingAckRead(ctx, data);
         }
 
@@ -51,6 +51,34 @@ public class DefaultHttp2ConnectionEncoder implements Http2ConnectionEncoder {
         if (connection.remote().flowController() == null) {
             connection.remote().flowController(new DefaultHttp2RemoteFlowController(connection));
         }
+        CoalescingHttp2FrameWriter coalescingFrameWriter = coalescingFrameWriter(frameWriter);
+        if (coalescingFrameWriter != null) {
+            Http2RemoteFlowController flowController = connection.remote().flowController();
+            if (!(flowController instanceof DefaultHttp2RemoteFlowController)) {
+                throw new IllegalArgumentException(CoalescingHttp2FrameWriter.class.getSimpleName() +
+                        " requires a " + DefaultHttp2RemoteFlowController.class.getSimpleName());
+            }
+            ((DefaultHttp2RemoteFlowController) flowController).coalescingFrameWriter(coalescingFrameWriter);
+        }
+    }
+
+    /**
+     * Finds the {@link CoalescingHttp2FrameWriter} which may be wrapped by a {@link DecoratingHttp2FrameWriter} or a
+     * {@link Http2OutboundFrameLogger}.
+     */
+    private static CoalescingHttp2FrameWriter coalescingFrameWriter(Http2FrameWriter frameWriter) {
+        for (;;) {
+            if (frameWriter instanceof CoalescingHttp2FrameWriter) {
+                return (CoalescingHttp2FrameWriter) frameWriter;
+            }
+            if (frameWriter instanceof DecoratingHttp2FrameWriter) {
+                frameWriter = ((DecoratingHttp2FrameWriter) frameWriter).delegate();
+            } else if (frameWriter instanceof Http2OutboundFrameLogger) {
+                frameWriter = ((Http2OutboundFrameLogger) frameWriter).writer();
+            } else {
+                return null;
+            }
+        }
     }
 
     @Override
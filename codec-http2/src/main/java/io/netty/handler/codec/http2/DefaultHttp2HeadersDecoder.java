@@ -71,7 +71,25 @@ public class DefaultHttp2HeadersDecoder implements Http2HeadersDecoder, Http2Hea
      */
     public DefaultHttp2HeadersDecoder(boolean validateHeaders, long maxHeaderListSize,
                                       int initialHuffmanDecodeCapacity) {
-        this(validateHeaders, new HpackDecoder(maxHeaderListSize, initialHuffmanDecodeCapacity));
+        this(validateHeaders, maxHeaderListSize, initialHuffmanDecodeCapacity, false);
+    }
+
+    /**
+     * Create a new instance.
+     * @param validateHeaders {@code true} to validate headers are valid according to the RFC.
+     * @param maxHeaderListSize This is the only setting that can be configured before notifying the peer.
+     *  This is because <a href="https://tools.ietf.org/html/rfc7540#section-6.5.1">SETTINGS_MAX_HEADER_LIST_SIZE</a>
+     *  allows a lower than advertised limit from being enforced, and the default limit is unlimited
+     *  (which is dangerous).
+     * @param initialHuffmanDecodeCapacity Size of an intermediate buffer used during huffman decode.
+     * @param zeroCopyLiterals {@code true} to copy the header blocks in chunks and to return header names and values
+     *  which are not Huffman coded as views of these copies, instead of copying every one on its own. Recently decoded
+     *  Huffman coded names and values are cached per connection, so repeated values like cookies are not decoded
+     *  again. This saves allocations, but the decoded {@link Http2Headers} keep the chunks alive.
+     */
+    public DefaultHttp2HeadersDecoder(boolean validateHeaders, long maxHeaderListSize,
+                                      int initialHuffmanDecodeCapacity, boolean zeroCopyLiterals) {
+        this(validateHeaders, new HpackDecoder(maxHeaderListSize, initialHuffmanDecodeCapacity, zeroCopyLiterals));
     }
 
     /**
@@ -46,6 +46,20 @@ public class DefaultHttp2HeadersEncoder implements Http2HeadersEncoder, Http2Hea
         this(sensitivityDetector, new HpackEncoder(ignoreMaxHeaderListSize, dynamicTableArraySizeHint));
     }
 
+    /**
+     * Create a new instance.
+     * @param sensitivityDetector Detects the headers which must never be indexed, neither by us nor by intermediaries.
+     * @param indexingPolicy Decides which of the other headers are added to the dynamic table. It is used by this
+     *  encoder only and must not be shared with other connections.
+     * @param ignoreMaxHeaderListSize {@code true} to not enforce the max header list size of the peer.
+     * @param dynamicTableArraySizeHint The expected number of entries in the dynamic table.
+     */
+    public DefaultHttp2HeadersEncoder(SensitivityDetector sensitivityDetector, IndexingPolicy indexingPolicy,
+                                      boolean ignoreMaxHeaderListSize, int dynamicTableArraySizeHint) {
+        this(sensitivityDetector,
+             new HpackEncoder(ignoreMaxHeaderListSize, dynamicTableArraySizeHint, indexingPolicy));
+    }
+
     /**
      * Exposed Used for testing only! Default values used in the initial settings frame are overridden intentionally
      * for testing but violate the RFC if used outside the scope of testing.
@@ -97,4 +111,11 @@ public class DefaultHttp2HeadersEncoder implements Http2HeadersEncoder, Http2Hea
     public Configuration configuration() {
         return this;
     }
+
+    /**
+     * Returns the statistics about the compression of the headers encoded by this instance.
+     */
+    public Http2HeadersEncoderMetrics metrics() {
+        return hpackEncoder.metrics();
+    }
 }
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.http2;
+
+import io.netty.util.AsciiString;
+import io.netty.util.internal.UnstableApi;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static io.netty.util.internal.ObjectUtil.checkNotNull;
+import static io.netty.util.internal.ObjectUtil.checkPositiveOrZero;
+
+/**
+ * An {@link Http2HeadersEncoder.IndexingPolicy} which does not add the following headers to the dynamic table:
+ * <ul>
+ *     <li>headers with one of the configured names</li>
+ *     <li>headers with values longer than the configured length</li>
+ *     <li>headers with names whose last entries were evicted from the dynamic table without ever being used, like
+ *     request or trace ids which are different for every request</li>
+ * </ul>
+ * Headers of the last kind are still added from time to time, so their name is indexed again once its values start
+ * to repeat. Headers which must not be indexed by intermediaries either should be detected by a
+ * {@link Http2HeadersEncoder.SensitivityDetector} instead.
+ * <p>
+ * Instances keep counters per header name and must not be shared between connections.
+ */
+@UnstableApi
+public final class DefaultHttp2HeadersIndexingPolicy implements Http2HeadersEncoder.IndexingPolicy {
+    private static final int DEFAULT_MAX_INDEXED_VALUE_LENGTH = 1024;
+    private static final int DEFAULT_MAX_UNUSED_EVICTIONS = 4;
+    // How often headers with a name that is not indexed anymore are declined before one of them is added again.
+    private static final int RETRY_INTERVAL = 64;
+    // Bounds the memory used for the counters if the peer sends many different names.
+    private static final int MAX_TRACKED_NAMES = 256;
+
+    private final Set<AsciiString> notIndexedNames;
+    private final int maxIndexedValueLength;
+    private final int maxUnusedEvictions;
+    private final Map<AsciiString, NameCounters> counters = new HashMap<AsciiString, NameCounters>();
+
+    /**
+     * Create a new instance which does not index values longer than 1024 characters and names whose last 4 entries
+     * were evicted unused.
+     */
+    public DefaultHttp2HeadersIndexingPolicy() {
+        this(DEFAULT_MAX_INDEXED_VALUE_LENGTH, DEFAULT_MAX_UNUSED_EVICTIONS);
+    }
+
+    /**
+     * Create a new instance.
+     * @param maxIndexedValueLength Headers with longer values are not indexed.
+     * @param maxUnusedEvictions Headers are not indexed anymore once this many entries with their name were evicted
+     *  from the dynamic table in a row without ever being used. {@code 0} disables this heuristic.
+     * @param notIndexedNames The names of the headers which are never indexed.
+     */
+    public DefaultHttp2HeadersIndexingPolicy(int maxIndexedValueLength, int maxUnusedEvictions,
+                                             CharSequence... notIndexedNames) {
+        this.maxIndexedValueLength = checkPositiveOrZero(maxIndexedValueLength, "maxIndexedValueLength");
+        this.maxUnusedEvictions = checkPositiveOrZero(maxUnusedEvictions, "maxUnusedEvictions");
+        checkNotNull(notIndexedNames, "notIndexedNames");
+        this.notIndexedNames = new HashSet<AsciiString>(notIndexedNames.length);
+        for (CharSequence name : notIndexedNames) {
+            this.notIndexedNames.add(new AsciiString(checkNotNull(name, "name")));
+        }
+    }
+
+    @Override
+    public boolean shouldIndex(CharSequence name, CharSequence value) {
+        if (value.length() > maxIndexedValueLength) {
+            return false;
+        }
+        if (notIndexedNames.isEmpty() && maxUnusedEvictions == 0) {
+            return true;
+        }
+        AsciiString key = AsciiString.of(name);
+        if (notIndexedNames.contains(key)) {
+            return false;
+        }
+        if (maxUnusedEvictions == 0) {
+            return true;
+        }
+        NameCounters nameCounters = counters.get(key);
+        if (nameCounters == null || nameCounters.unusedEvictions < maxUnusedEvictions) {
+            return true;
+        }
+        return ++nameCounters.declined % RETRY_INTERVAL == 0;
+    }
+
+    @Override
+    public void evicted(CharSequence name, CharSequence value, int hits) {
+        if (maxUnusedEvictions == 0) {
+            return;
+        }
+        AsciiString key = AsciiString.of(name);
+        NameCounters nameCounters = counters.get(key);
+        if (hits > 0) {
+            if (nameCounters != null) {
+                nameCounters.unusedEvictions = 0;
+            }
+            return;
+        }
+        if (nameCounters == null) {
+            if (counters.size() >= MAX_TRACKED_NAMES) {
+                return;
+            }
+            nameCounters = new NameCounters();
+            // Copy the name, as it may be a view of a larger buffer.
+            counters.put(new AsciiString(name), nameCounters);
+        }
+        nameCounters.unusedEvictions++;
+    }
+
+    private static final class NameCounters {
+        // The number of entries with this name that were evicted unused since the last one that was used.
+        int unusedEvictions;
+        int declined;
+    }
+}
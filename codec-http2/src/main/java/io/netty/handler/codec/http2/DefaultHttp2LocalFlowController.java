@@ -170,6 +170,17 @@ public class DefaultHttp2LocalFlowController implements Http2LocalFlowController
         state.writeWindowUpdateIfNeeded();
     }
 
+    /**
+     * Increments the connection window like {@link #incrementWindowSize(Http2Stream, int)}, but sends the
+     * {@code WINDOW_UPDATE} right away instead of waiting until enough bytes were consumed.
+     */
+    void expandConnectionWindow(int delta) throws Http2Exception {
+        assert ctx != null && ctx.executor().inEventLoop();
+        DefaultState state = (DefaultState) connectionState();
+        state.incrementInitialStreamWindow(delta);
+        state.writeWindowUpdate();
+    }
+
     @Override
     public boolean consumeBytes(Http2Stream stream, int numBytes) throws Http2Exception {
         assert ctx != null && ctx.executor().inEventLoop();
@@ -52,6 +52,7 @@ public class DefaultHttp2RemoteFlowController implements Http2RemoteFlowControll
     private int initialWindowSize = DEFAULT_WINDOW_SIZE;
     private WritabilityMonitor monitor;
     private ChannelHandlerContext ctx;
+    private CoalescingHttp2FrameWriter coalescingFrameWriter;
 
     public DefaultHttp2RemoteFlowController(Http2Connection connection) {
         this(connection, (Listener) null);
@@ -246,7 +247,12 @@ public class DefaultHttp2RemoteFlowController implements Http2RemoteFlowControll
 
     private int maxUsableChannelBytes() {
         // If the channel isWritable, allow at least minUsableChannelBytes.
-        int channelWritableBytes = (int) min(Integer.MAX_VALUE, ctx.channel().bytesBeforeUnwritable());
+        long bytesBeforeUnwritable = ctx.channel().bytesBeforeUnwritable();
+        if (coalescingFrameWriter != null) {
+            // Coalesced frames are not in the ChannelOutboundBuffer yet, but will be once they are written.
+            bytesBeforeUnwritable -= coalescingFrameWriter.coalescedBytes();
+        }
+        int channelWritableBytes = (int) min(Integer.MAX_VALUE, bytesBeforeUnwritable);
         int usableBytes = channelWritableBytes > 0 ? max(channelWritableBytes, minUsableChannelBytes()) : 0;
 
         // Clip the usable bytes by the connection window.
@@ -266,6 +272,14 @@ public class DefaultHttp2RemoteFlowController implements Http2RemoteFlowControll
         monitor.writePendingBytes();
     }
 
+    /**
+     * Sets the {@link CoalescingHttp2FrameWriter} which writes the frames of this flow controller, so its coalesced
+     * frames are written at the end of {@link #writePendingBytes()}.
+     */
+    void coalescingFrameWriter(CoalescingHttp2FrameWriter coalescingFrameWriter) {
+        this.coalescingFrameWriter = coalescingFrameWriter;
+    }
+
     /**
      * The remote flow control state for a single stream.
      */
@@ -631,6 +645,9 @@ public class DefaultHttp2RemoteFlowController implements Http2RemoteFlowControll
                 }
             } finally {
                 inWritePendingBytes = false;
+                if (coalescingFrameWriter != null) {
+                    coalescingFrameWriter.writeCoalescedFrames();
+                }
             }
         }
 
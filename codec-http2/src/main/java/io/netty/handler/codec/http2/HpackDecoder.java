@@ -50,6 +50,8 @@ import static io.netty.handler.codec.http2.Http2Headers.PseudoHeaderName.hasPseu
 import static io.netty.util.AsciiString.EMPTY_STRING;
 import static io.netty.util.internal.ObjectUtil.checkPositive;
 import static io.netty.util.internal.ThrowableUtil.unknownStackTrace;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
 
 final class HpackDecoder {
     private static final Http2Exception DECODE_ULE_128_DECOMPRESSION_EXCEPTION = unknownStackTrace(
@@ -82,8 +84,19 @@ final class HpackDecoder {
     private static final byte READ_LITERAL_HEADER_VALUE_LENGTH = 8;
     private static final byte READ_LITERAL_HEADER_VALUE = 9;
 
+    // Number of recently decoded Huffman coded literals which are cached in zero copy literals mode.
+    private static final int HUFFMAN_CACHE_SIZE = 32;
+    // In zero copy literals mode the header block is copied in chunks of this size, so a literal does not keep a
+    // large header block alive and the copies are cheap to allocate.
+    private static final int HEADER_BLOCK_CHUNK_SIZE = 2048;
+
     private final HpackDynamicTable hpackDynamicTable;
     private final HpackHuffmanDecoder hpackHuffmanDecoder;
+    private final boolean zeroCopyLiterals;
+    // The copy of the part of the header block which is currently decoded in zero copy literals mode, starting at the
+    // reader index headerBlockOffset of the input buffer.
+    private byte[] headerBlock;
+    private int headerBlockOffset;
     private long maxHeaderListSize;
     private long maxDynamicTableSize;
     private long encoderMaxDynamicTableSize;
@@ -98,7 +111,23 @@ final class HpackDecoder {
      * @param initialHuffmanDecodeCapacity Size of an intermediate buffer used during huffman decode.
      */
     HpackDecoder(long maxHeaderListSize, int initialHuffmanDecodeCapacity) {
-        this(maxHeaderListSize, initialHuffmanDecodeCapacity, DEFAULT_HEADER_TABLE_SIZE);
+        this(maxHeaderListSize, initialHuffmanDecodeCapacity, false);
+    }
+
+    /**
+     * Create a new instance.
+     * @param maxHeaderListSize This is the only setting that can be configured before notifying the peer.
+     *  This is because <a href="https://tools.ietf.org/html/rfc7540#section-6.5.1">SETTINGS_MAX_HEADER_LIST_SIZE</a>
+     *  allows a lower than advertised limit from being enforced, and the default limit is unlimited
+     *  (which is dangerous).
+     * @param initialHuffmanDecodeCapacity Size of an intermediate buffer used during huffman decode.
+     * @param zeroCopyLiterals {@code true} to copy the header blocks in chunks and to return literals which are not
+     *  Huffman coded as views of these copies, instead of copying every literal on its own. Recently decoded Huffman
+     *  coded literals are cached, so repeated values like cookies are not decoded again. Literals which are added to
+     *  the dynamic table are neither views nor cached.
+     */
+    HpackDecoder(long maxHeaderListSize, int initialHuffmanDecodeCapacity, boolean zeroCopyLiterals) {
+        this(maxHeaderListSize, initialHuffmanDecodeCapacity, DEFAULT_HEADER_TABLE_SIZE, zeroCopyLiterals);
     }
 
     /**
@@ -106,12 +135,23 @@ final class HpackDecoder {
      * for testing but violate the RFC if used outside the scope of testing.
      */
     HpackDecoder(long maxHeaderListSize, int initialHuffmanDecodeCapacity, int maxHeaderTableSize) {
+        this(maxHeaderListSize, initialHuffmanDecodeCapacity, maxHeaderTableSize, false);
+    }
+
+    /**
+     * Exposed Used for testing only! Default values used in the initial settings frame are overridden intentionally
+     * for testing but violate the RFC if used outside the scope of testing.
+     */
+    HpackDecoder(long maxHeaderListSize, int initialHuffmanDecodeCapacity, int maxHeaderTableSize,
+                 boolean zeroCopyLiterals) {
         this.maxHeaderListSize = checkPositive(maxHeaderListSize, "maxHeaderListSize");
 
         maxDynamicTableSize = encoderMaxDynamicTableSize = maxHeaderTableSize;
         maxDynamicTableSizeChangeRequired = false;
         hpackDynamicTable = new HpackDynamicTable(maxHeaderTableSize);
-        hpackHuffmanDecoder = new HpackHuffmanDecoder(initialHuffmanDecodeCapacity);
+        hpackHuffmanDecoder = new HpackHuffmanDecoder(initialHuffmanDecodeCapacity,
+                zeroCopyLiterals ? HUFFMAN_CACHE_SIZE : 0);
+        this.zeroCopyLiterals = zeroCopyLiterals;
     }
 
     /**
@@ -129,6 +169,15 @@ final class HpackDecoder {
     }
 
     private void decode(ByteBuf in, Sink sink) throws Http2Exception {
+        try {
+            decodeBlock(in, sink);
+        } finally {
+            // Do not retain the copy of the header block, only the literals which are views of it keep it alive.
+            headerBlock = null;
+        }
+    }
+
+    private void decodeBlock(ByteBuf in, Sink sink) throws Http2Exception {
         int index = 0;
         int nameLength = 0;
         int valueLength = 0;
@@ -246,7 +295,7 @@ final class HpackDecoder {
                         throw notEnoughDataException(in);
                     }
 
-                    name = readStringLiteral(in, nameLength, huffmanEncoded);
+                    name = readStringLiteral(in, nameLength, huffmanEncoded, indexType);
 
                     state = READ_LITERAL_HEADER_VALUE_LENGTH_PREFIX;
                     break;
@@ -283,7 +332,7 @@ final class HpackDecoder {
                         throw notEnoughDataException(in);
                     }
 
-                    CharSequence value = readStringLiteral(in, valueLength, huffmanEncoded);
+                    CharSequence value = readStringLiteral(in, valueLength, huffmanEncoded, indexType);
                     insertHeader(sink, name, value, indexType);
                     state = READ_HEADER_REPRESENTATION;
                     break;
@@ -439,10 +488,40 @@ final class HpackDecoder {
         }
     }
 
-    private CharSequence readStringLiteral(ByteBuf in, int length, boolean huffmanEncoded) throws Http2Exception {
-        if (huffmanEncoded) {
-            return hpackHuffmanDecoder.decode(in, length);
+    private CharSequence readStringLiteral(ByteBuf in, int length, boolean huffmanEncoded, IndexType indexType)
+            throws Http2Exception {
+        if (indexType == IndexType.INCREMENTAL) {
+            // The peer will refer to the dynamic table entry instead of sending the literal again, so there is no
+            // need to cache it. The entry may be used much longer than the header block, so it must not keep it alive.
+            return huffmanEncoded ? hpackHuffmanDecoder.decode(in, length) : readLiteralCopy(in, length);
+        }
+        if (!zeroCopyLiterals) {
+            return huffmanEncoded ? hpackHuffmanDecoder.decode(in, length) : readLiteralCopy(in, length);
+        }
+        int blockIndex = headerBlockIndex(in, length);
+        AsciiString literal = huffmanEncoded ? hpackHuffmanDecoder.decodeCached(headerBlock, blockIndex, length) :
+                new AsciiString(headerBlock, blockIndex, length, false);
+        in.skipBytes(length);
+        return literal;
+    }
+
+    /**
+     * Returns the index of the reader index of {@code in} in the copy of the header block, which contains at least
+     * the next {@code length} bytes. The header block is most likely a slice of a pooled buffer which is reused once
+     * we are done, so a chunk of it is copied when a literal is not part of the current copy yet. The literals are
+     * views of these copies.
+     */
+    private int headerBlockIndex(ByteBuf in, int length) {
+        int readerIndex = in.readerIndex();
+        if (headerBlock == null || readerIndex + length > headerBlockOffset + headerBlock.length) {
+            headerBlockOffset = readerIndex;
+            headerBlock = new byte[min(in.readableBytes(), max(length, HEADER_BLOCK_CHUNK_SIZE))];
+            in.getBytes(readerIndex, headerBlock);
         }
+        return readerIndex - headerBlockOffset;
+    }
+
+    private static CharSequence readLiteralCopy(ByteBuf in, int length) {
         byte[] buf = new byte[length];
         in.readBytes(buf);
         return new AsciiString(buf, false);
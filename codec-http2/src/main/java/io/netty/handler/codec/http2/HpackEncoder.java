@@ -33,6 +33,7 @@ package io.netty.handler.codec.http2;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.handler.codec.http2.HpackUtil.IndexType;
+import io.netty.handler.codec.http2.Http2HeadersEncoder.IndexingPolicy;
 import io.netty.handler.codec.http2.Http2HeadersEncoder.SensitivityDetector;
 import io.netty.util.AsciiString;
 import io.netty.util.CharsetUtil;
@@ -49,6 +50,7 @@ import static io.netty.handler.codec.http2.Http2CodecUtil.MIN_HEADER_TABLE_SIZE;
 import static io.netty.handler.codec.http2.Http2CodecUtil.headerListSizeExceeded;
 import static io.netty.handler.codec.http2.Http2Error.PROTOCOL_ERROR;
 import static io.netty.handler.codec.http2.Http2Exception.connectionError;
+import static io.netty.util.internal.ObjectUtil.checkNotNull;
 import static io.netty.util.internal.MathUtil.findNextPositivePowerOfTwo;
 import static java.lang.Math.max;
 import static java.lang.Math.min;
@@ -61,6 +63,8 @@ final class HpackEncoder {
     private final HpackHuffmanEncoder hpackHuffmanEncoder = new HpackHuffmanEncoder();
     private final byte hashMask;
     private final boolean ignoreMaxHeaderListSize;
+    private final IndexingPolicy indexingPolicy;
+    private final Metrics metrics = new Metrics();
     private long size;
     private long maxHeaderTableSize;
     private long maxHeaderListSize;
@@ -83,7 +87,15 @@ final class HpackEncoder {
      * Creates a new encoder.
      */
     public HpackEncoder(boolean ignoreMaxHeaderListSize, int arraySizeHint) {
+        this(ignoreMaxHeaderListSize, arraySizeHint, Http2HeadersEncoder.ALWAYS_INDEX);
+    }
+
+    /**
+     * Creates a new encoder.
+     */
+    public HpackEncoder(boolean ignoreMaxHeaderListSize, int arraySizeHint, IndexingPolicy indexingPolicy) {
         this.ignoreMaxHeaderListSize = ignoreMaxHeaderListSize;
+        this.indexingPolicy = checkNotNull(indexingPolicy, "indexingPolicy");
         maxHeaderTableSize = DEFAULT_HEADER_TABLE_SIZE;
         maxHeaderListSize = MAX_HEADER_LIST_SIZE;
         // Enforce a bound of [2, 128] because hashMask is a byte. The max possible value of hashMask is one less
@@ -100,11 +112,13 @@ final class HpackEncoder {
      */
     public void encodeHeaders(int streamId, ByteBuf out, Http2Headers headers, SensitivityDetector sensitivityDetector)
             throws Http2Exception {
+        int writerIndex = out.writerIndex();
         if (ignoreMaxHeaderListSize) {
             encodeHeadersIgnoreMaxHeaderListSize(out, headers, sensitivityDetector);
         } else {
             encodeHeadersEnforceMaxHeaderListSize(streamId, out, headers, sensitivityDetector);
         }
+        metrics.encodedBytes += out.writerIndex() - writerIndex;
     }
 
     private void encodeHeadersEnforceMaxHeaderListSize(int streamId, ByteBuf out, Http2Headers headers,
@@ -130,6 +144,7 @@ final class HpackEncoder {
         for (Map.Entry<CharSequence, CharSequence> header : headers) {
             CharSequence name = header.getKey();
             CharSequence value = header.getValue();
+            metrics.headerBytes += name.length() + value.length();
             encodeHeader(out, name, value, sensitivityDetector.isSensitive(name, value),
                          HpackHeaderField.sizeOf(name, value));
         }
@@ -143,6 +158,7 @@ final class HpackEncoder {
     private void encodeHeader(ByteBuf out, CharSequence name, CharSequence value, boolean sensitive, long headerSize) {
         // If the header value is sensitive then it must never be indexed
         if (sensitive) {
+            metrics.neverIndexed++;
             int nameIndex = getNameIndex(name);
             encodeLiteral(out, name, value, IndexType.NEVER, nameIndex);
             return;
@@ -152,9 +168,11 @@ final class HpackEncoder {
         if (maxHeaderTableSize == 0) {
             int staticTableIndex = HpackStaticTable.getIndex(name, value);
             if (staticTableIndex == -1) {
+                metrics.notIndexed++;
                 int nameIndex = HpackStaticTable.getIndex(name);
                 encodeLiteral(out, name, value, IndexType.NONE, nameIndex);
             } else {
+                metrics.staticTableHits++;
                 encodeInteger(out, 0x80, 7, staticTableIndex);
             }
             return;
@@ -162,6 +180,7 @@ final class HpackEncoder {
 
         // If the headerSize is greater than the max table size then it must be encoded literally
         if (headerSize > maxHeaderTableSize) {
+            metrics.notIndexed++;
             int nameIndex = getNameIndex(name);
             encodeLiteral(out, name, value, IndexType.NONE, nameIndex);
             return;
@@ -169,18 +188,27 @@ final class HpackEncoder {
 
         HeaderEntry headerField = getEntry(name, value);
         if (headerField != null) {
+            metrics.dynamicTableHits++;
+            headerField.hits++;
             int index = getIndex(headerField.index) + HpackStaticTable.length;
             // Section 6.1. Indexed Header Field Representation
             encodeInteger(out, 0x80, 7, index);
         } else {
             int staticTableIndex = HpackStaticTable.getIndex(name, value);
             if (staticTableIndex != -1) {
+                metrics.staticTableHits++;
                 // Section 6.1. Indexed Header Field Representation
                 encodeInteger(out, 0x80, 7, staticTableIndex);
             } else {
-                ensureCapacity(headerSize);
-                encodeLiteral(out, name, value, IndexType.INCREMENTAL, getNameIndex(name));
-                add(name, value, headerSize);
+                metrics.dynamicTableMisses++;
+                if (indexingPolicy.shouldIndex(name, value)) {
+                    ensureCapacity(headerSize);
+                    encodeLiteral(out, name, value, IndexType.INCREMENTAL, getNameIndex(name));
+                    add(name, value, headerSize);
+                } else {
+                    metrics.notIndexed++;
+                    encodeLiteral(out, name, value, IndexType.NONE, getNameIndex(name));
+                }
             }
         }
     }
@@ -198,8 +226,11 @@ final class HpackEncoder {
         }
         this.maxHeaderTableSize = maxHeaderTableSize;
         ensureCapacity(0);
+        int writerIndex = out.writerIndex();
         // Casting to integer is safe as we verified the maxHeaderTableSize is a valid unsigned int.
         encodeInteger(out, 0x20, 5, maxHeaderTableSize);
+        // The update is sent as part of the next header block.
+        metrics.encodedBytes += out.writerIndex() - writerIndex;
     }
 
     /**
@@ -221,6 +252,13 @@ final class HpackEncoder {
         return maxHeaderListSize;
     }
 
+    /**
+     * Returns the statistics about the headers encoded by this encoder.
+     */
+    Http2HeadersEncoderMetrics metrics() {
+        return metrics;
+    }
+
     /**
      * Encode integer according to <a href="https://tools.ietf.org/html/rfc7541#section-5.1">Section 5.1</a>.
      */
@@ -411,6 +449,7 @@ final class HpackEncoder {
         headerFields[i] = e;
         e.addBefore(head);
         size += headerSize;
+        metrics.dynamicTableInsertions++;
     }
 
     /**
@@ -435,6 +474,11 @@ final class HpackEncoder {
                 }
                 eldest.remove();
                 size -= eldest.size();
+                metrics.dynamicTableEvictions++;
+                if (eldest.hits == 0) {
+                    metrics.unusedDynamicTableEvictions++;
+                }
+                indexingPolicy.evicted(eldest.name, eldest.value, eldest.hits);
                 return eldest;
             }
             prev = e;
@@ -459,6 +503,96 @@ final class HpackEncoder {
         return h & hashMask;
     }
 
+    private final class Metrics implements Http2HeadersEncoderMetrics {
+        // Only updated by the thread which encodes the headers.
+        long dynamicTableHits;
+        long staticTableHits;
+        long dynamicTableMisses;
+        long dynamicTableInsertions;
+        long dynamicTableEvictions;
+        long unusedDynamicTableEvictions;
+        long notIndexed;
+        long neverIndexed;
+        long headerBytes;
+        long encodedBytes;
+
+        @Override
+        public long dynamicTableHits() {
+            return dynamicTableHits;
+        }
+
+        @Override
+        public long staticTableHits() {
+            return staticTableHits;
+        }
+
+        @Override
+        public long dynamicTableMisses() {
+            return dynamicTableMisses;
+        }
+
+        @Override
+        public long dynamicTableInsertions() {
+            return dynamicTableInsertions;
+        }
+
+        @Override
+        public long dynamicTableEvictions() {
+            return dynamicTableEvictions;
+        }
+
+        @Override
+        public long unusedDynamicTableEvictions() {
+            return unusedDynamicTableEvictions;
+        }
+
+        @Override
+        public long notIndexed() {
+            return notIndexed;
+        }
+
+        @Override
+        public long neverIndexed() {
+            return neverIndexed;
+        }
+
+        @Override
+        public int dynamicTableLength() {
+            return length();
+        }
+
+        @Override
+        public long dynamicTableSize() {
+            return size();
+        }
+
+        @Override
+        public long headerBytes() {
+            return headerBytes;
+        }
+
+        @Override
+        public long encodedBytes() {
+            return encodedBytes;
+        }
+
+        @Override
+        public String toString() {
+            return "Http2HeadersEncoderMetrics(dynamicTableHits: " + dynamicTableHits +
+                    ", staticTableHits: " + staticTableHits +
+                    ", dynamicTableMisses: " + dynamicTableMisses +
+                    ", dynamicTableInsertions: " + dynamicTableInsertions +
+                    ", dynamicTableEvictions: " + dynamicTableEvictions +
+                    ", unusedDynamicTableEvictions: " + unusedDynamicTableEvictions +
+                    ", notIndexed: " + notIndexed +
+                    ", neverIndexed: " + neverIndexed +
+                    ", dynamicTableLength: " + dynamicTableLength() +
+                    ", dynamicTableSize: " + dynamicTableSize() +
+                    ", headerBytes: " + headerBytes +
+                    ", encodedBytes: " + encodedBytes + ')';
+        }
+    }
+
     /**
      * A linked hash map HpackHeaderField entry.
      */
@@ -473,6 +607,9 @@ final class HpackEncoder {
         // This is used to compute the index in the dynamic table.
         int index;
 
+        // How often this entry was encoded as reference to the dynamic table.
+        int hits;
+
         /**
          * Creates new entry.
          */
@@ -34,9 +34,13 @@ package io.netty.handler.codec.http2;
 import io.netty.buffer.ByteBuf;
 import io.netty.util.AsciiString;
 import io.netty.util.ByteProcessor;
+import io.netty.util.internal.MathUtil;
 import io.netty.util.internal.ObjectUtil;
+import io.netty.util.internal.PlatformDependent;
 import io.netty.util.internal.ThrowableUtil;
 
+import java.util.Arrays;
+
 import static io.netty.handler.codec.http2.Http2Error.COMPRESSION_ERROR;
 import static io.netty.handler.codec.http2.Http2Exception.connectionError;
 
@@ -47,12 +51,47 @@ final class HpackHuffmanDecoder {
     private static final Http2Exception INVALID_PADDING = ThrowableUtil.unknownStackTrace(
             connectionError(COMPRESSION_ERROR, "HPACK - Invalid Padding"), HpackHuffmanDecoder.class, "decode(..)");
 
-    private static final Node ROOT = buildTree(HpackUtil.HUFFMAN_CODES, HpackUtil.HUFFMAN_CODE_LENGTHS);
+    // Flags of the entries of DECODE_TABLE, see buildDecodeTable(..).
+    private static final int EMIT_SHIFT = 20;
+    private static final int EMIT = 1 << EMIT_SHIFT;
+    private static final int ACCEPT = 1 << 21;
+    private static final int FAIL = 1 << 22;
+
+    /**
+     * The entry for a state and 4 bits of input is found at {@code state << 4 | bits}. It contains the next state
+     * shifted left by 4 in bits 4 to 11, the decoded symbol in bits 12 to 19, and the flags {@link #EMIT},
+     * {@link #ACCEPT} and {@link #FAIL}.
+     */
+    private static final int[] DECODE_TABLE =
+            buildDecodeTable(HpackUtil.HUFFMAN_CODES, HpackUtil.HUFFMAN_CODE_LENGTHS);
+
+    // Longer strings are not cached, they are less likely to be repeated and would make the cache too large.
+    private static final int MAX_CACHED_LENGTH = 512;
 
     private final DecoderProcessor processor;
+    private final CachedString[] cache;
+    // Hash of the last string which missed the cache per slot. A string is only cached when it is seen a second
+    // time, so strings which are not repeated do not evict others and are not copied.
+    private final int[] candidates;
 
     HpackHuffmanDecoder(int initialCapacity) {
+        this(initialCapacity, 0);
+    }
+
+    /**
+     * @param initialCapacity Size of an intermediate buffer used during huffman decode.
+     * @param cacheSize The number of recently decoded strings which are remembered, so they do not need to be decoded
+     *  again if they are received repeatedly. Rounded up to the next power of two, {@code 0} disables the cache.
+     */
+    HpackHuffmanDecoder(int initialCapacity, int cacheSize) {
         processor = new DecoderProcessor(initialCapacity);
+        if (cacheSize == 0) {
+            cache = null;
+            candidates = null;
+        } else {
+            cache = new CachedString[MathUtil.findNextPositivePowerOfTwo(cacheSize)];
+            candidates = new int[cache.length];
+        }
     }
 
     /**
@@ -69,177 +108,182 @@ final class HpackHuffmanDecoder {
         return processor.end();
     }
 
-    private static final class Node {
-
-        private final int symbol;      // terminal nodes have a symbol
-        private final int bits;        // number of bits matched by the node
-        private final Node[] children; // internal nodes have children
-
-        /**
-         * Construct an internal node
-         */
-        Node() {
-            symbol = 0;
-            bits = 8;
-            children = new Node[256];
+    /**
+     * Decompresses the given Huffman coded string literal like {@link #decode(ByteBuf, int)}, but returns the
+     * previously decoded string if the same literal was decoded recently.
+     */
+    AsciiString decodeCached(byte[] array, int offset, int length) throws Http2Exception {
+        if (cache == null || length > MAX_CACHED_LENGTH) {
+            return decode(array, offset, length);
         }
-
-        /**
-         * Construct a terminal node
-         *
-         * @param symbol the symbol the node represents
-         * @param bits the number of bits matched by this node
-         */
-        Node(int symbol, int bits) {
-            assert bits > 0 && bits <= 8;
-            this.symbol = symbol;
-            this.bits = bits;
-            children = null;
+        int hash = PlatformDependent.hashCodeAscii(array, offset, length);
+        int slot = hash & cache.length - 1;
+        CachedString cached = cache[slot];
+        if (cached != null && cached.encoded.length == length &&
+                PlatformDependent.equals(cached.encoded, 0, array, offset, length)) {
+            return cached.decoded;
         }
+        AsciiString decoded = decode(array, offset, length);
+        if (candidates[slot] == hash) {
+            // The decoded string is never modified, so it can be handed out again.
+            cache[slot] = new CachedString(Arrays.copyOfRange(array, offset, offset + length), decoded);
+        } else {
+            candidates[slot] = hash;
+        }
+        return decoded;
+    }
 
-        private boolean isTerminal() {
-            return children == null;
+    private AsciiString decode(byte[] array, int offset, int length) throws Http2Exception {
+        processor.reset();
+        for (int i = offset; i < offset + length; i++) {
+            processor.process(array[i]);
         }
+        return processor.end();
     }
 
-    private static Node buildTree(int[] codes, byte[] lengths) {
-        Node root = new Node();
-        for (int i = 0; i < codes.length; i++) {
-            insert(root, i, codes[i], lengths[i]);
+    private static final class CachedString {
+        final byte[] encoded;
+        final AsciiString decoded;
+
+        CachedString(byte[] encoded, AsciiString decoded) {
+            this.encoded = encoded;
+            this.decoded = decoded;
         }
-        return root;
     }
 
-    private static void insert(Node root, int symbol, int code, byte length) {
-        // traverse tree using the most significant bytes of code
-        Node current = root;
-        while (length > 8) {
-            if (current.isTerminal()) {
-                throw new IllegalStateException("invalid Huffman code: prefix not unique");
-            }
-            length -= 8;
-            int i = (code >>> length) & 0xFF;
-            if (current.children[i] == null) {
-                current.children[i] = new Node();
+    /**
+     * Builds the decoding state machine. Each state is an internal node of the Huffman tree, the root being state
+     * {@code 0}. For every state and every 4 bit input the table holds the state which is reached after walking the
+     * tree with these 4 bits, the symbol which was completed on the way if any, and whether the input may end in the
+     * reached state. As the shortest code is 5 bits long at most one symbol is completed per 4 bits.
+     */
+    private static int[] buildDecodeTable(int[] codes, byte[] lengths) {
+        // children[node << 1 | bit] holds the child node, or -(symbol + 1) for a terminal node.
+        int[] children = new int[codes.length << 1];
+        int nodes = 1;
+        for (int symbol = 0; symbol < codes.length; symbol++) {
+            int node = 0;
+            for (int bit = lengths[symbol] - 1; bit > 0; bit--) {
+                int child = node << 1 | (codes[symbol] >>> bit & 1);
+                if (children[child] < 0) {
+                    throw new IllegalStateException("invalid Huffman code: prefix not unique");
+                }
+                if (children[child] == 0) {
+                    children[child] = nodes++;
+                }
+                node = children[child];
             }
-            current = current.children[i];
+            children[node << 1 | (codes[symbol] & 1)] = -(symbol + 1);
         }
 
-        Node terminal = new Node(symbol, length);
-        int shift = 8 - length;
-        int start = (code << shift) & 0xFF;
-        int end = 1 << shift;
-        for (int i = start; i < start + end; i++) {
-            current.children[i] = terminal;
+        // States on the path of the EOS code are the ones reached by padding, it may be at most 7 bits long.
+        boolean[] padding = new boolean[nodes];
+        for (int node = 0, depth = 0; node >= 0; node = children[node << 1 | 1], depth++) {
+            padding[node] = depth <= 7;
+        }
+
+        // Entries only have room for 256 states, which is exactly the number of internal nodes of the HPACK code.
+        assert nodes <= 256 : nodes;
+        int[] table = new int[nodes << 4];
+        for (int state = 0; state < nodes; state++) {
+            for (int nibble = 0; nibble < 16; nibble++) {
+                int node = state;
+                int entry = 0;
+                for (int bit = 3; bit >= 0; bit--) {
+                    node = children[node << 1 | (nibble >>> bit & 1)];
+                    if (node < 0) {
+                        int symbol = -node - 1;
+                        if (symbol == HpackUtil.HUFFMAN_EOS) {
+                            entry = FAIL;
+                            break;
+                        }
+                        entry = symbol << 12 | EMIT;
+                        node = 0;
+                    }
+                }
+                if (entry != FAIL) {
+                    entry |= node << 4;
+                    if (padding[node]) {
+                        entry |= ACCEPT;
+                    }
+                }
+                table[state << 4 | nibble] = entry;
+            }
         }
+        return table;
     }
 
     private static final class DecoderProcessor implements ByteProcessor {
         private final int initialCapacity;
         private byte[] bytes;
         private int index;
-        private Node node;
-        private int current;
-        private int currentBits;
-        private int symbolBits;
+        // The current state of the state machine, already shifted left by 4 so it can be combined with the input.
+        private int state;
+        private boolean accept;
 
         DecoderProcessor(int initialCapacity) {
             this.initialCapacity = ObjectUtil.checkPositive(initialCapacity, "initialCapacity");
         }
 
         void reset() {
-            node = ROOT;
-            current = 0;
-            currentBits = 0;
-            symbolBits = 0;
+            state = 0;
+            accept = true;
             bytes = new byte[initialCapacity];
             index = 0;
         }
 
         /*
-         * The idea here is to consume whole bytes at a time rather than individual bits. node
-         * represents the Huffman tree, with all bit patterns denormalized as 256 children. Each
-         * child represents the last 8 bits of the huffman code. The parents of each child each
-         * represent the successive 8 bit chunks that lead up to the last most part. 8 bit bytes
-         * from buf are used to traverse these tree until a terminal node is found.
-         *
-         * current is a bit buffer. The low order bits represent how much of the huffman code has
-         * not been used to traverse the tree. Thus, the high order bits are just garbage.
-         * currentBits represents how many of the low order bits of current are actually valid.
-         * currentBits will vary between 0 and 15.
+         * The idea here is to walk the Huffman tree 4 bits at a time instead of bit by bit. Every internal node of
+         * the tree is a state of DECODE_TABLE, and for each state all 16 possible nibbles were walked in advance. So a
+         * byte is consumed with two table lookups, each of which yields the next state and at most one decoded symbol.
          *
-         * symbolBits is the number of bits of the symbol being decoded, *including* all those of
-         * the parent nodes. symbolBits tells how far down the tree we are. For example, when
-         * decoding the invalid sequence {0xff, 0xff}, currentBits will be 0, but symbolBits will be
-         * 16. This is used to know if buf ended early (before consuming a whole symbol) or if
-         * there is too much padding.
+         * accept tells if the bits after the last decoded symbol are a valid padding, which means they are a prefix
+         * of the EOS code (all ones) and at most 7 bits long. This is used to know if buf ended early (before
+         * consuming a whole symbol) or if there is too much padding.
          */
         @Override
         public boolean process(byte value) throws Http2Exception {
-            current = (current << 8) | (value & 0xFF);
-            currentBits += 8;
-            symbolBits += 8;
-            // While there are unconsumed bits in current, keep consuming symbols.
-            do {
-                node = node.children[(current >>> (currentBits - 8)) & 0xFF];
-                currentBits -= node.bits;
-                if (node.isTerminal()) {
-                    if (node.symbol == HpackUtil.HUFFMAN_EOS) {
-                        throw EOS_DECODED;
-                    }
-                    append(node.symbol);
-                    node = ROOT;
-                    // Upon consuming a whole symbol, reset the symbol bits to the number of bits
-                    // left over in the byte.
-                    symbolBits = currentBits;
-                }
-            } while (currentBits >= 8);
+            // Up to two symbols are decoded per byte. The symbol of an entry is always stored, but index is only
+            // advanced if it was really decoded, which saves a hard to predict branch.
+            while (bytes.length - index < 2) {
+                grow();
+            }
+            int entry = DECODE_TABLE[state | (value & 0xFF) >>> 4];
+            bytes[index] = (byte) (entry >>> 12);
+            index += entry >>> EMIT_SHIFT & 1;
+            int first = entry;
+            entry = DECODE_TABLE[entry & 0xFF0 | value & 0x0F];
+            bytes[index] = (byte) (entry >>> 12);
+            index += entry >>> EMIT_SHIFT & 1;
+            // A failed entry has no symbol and leads back to the root, so it is enough to check it at the end.
+            if (((first | entry) & FAIL) != 0) {
+                throw EOS_DECODED;
+            }
+            state = entry & 0xFF0;
+            accept = (entry & ACCEPT) != 0;
             return true;
         }
 
         AsciiString end() throws Http2Exception {
-            /*
-             * We have consumed all the bytes in buf, but haven't consumed all the symbols. We may be on
-             * a partial symbol, so consume until there is nothing left. This will loop at most 2 times.
-             */
-            while (currentBits > 0) {
-                node = node.children[(current << (8 - currentBits)) & 0xFF];
-                if (node.isTerminal() && node.bits <= currentBits) {
-                    if (node.symbol == HpackUtil.HUFFMAN_EOS) {
-                        throw EOS_DECODED;
-                    }
-                    currentBits -= node.bits;
-                    append(node.symbol);
-                    node = ROOT;
-                    symbolBits = currentBits;
-                } else {
-                    break;
-                }
-            }
-
             // Section 5.2. String Literal Representation
             // A padding strictly longer than 7 bits MUST be treated as a decoding error.
             // Padding not corresponding to the most significant bits of the code
             // for the EOS symbol (0xFF) MUST be treated as a decoding error.
-            int mask = (1 << symbolBits) - 1;
-            if (symbolBits > 7 || (current & mask) != mask) {
+            if (!accept) {
                 throw INVALID_PADDING;
             }
 
             return new AsciiString(bytes, 0, index, false);
         }
 
-        private void append(int i) {
-            if (bytes.length == index) {
-                // Choose an expanding strategy depending on how big the buffer already is.
-                // 1024 was choosen as a good guess and we may be able to investigate more if there are better choices.
-                // See also https://github.com/netty/netty/issues/6846
-                final int newLength = bytes.length >= 1024 ? bytes.length + initialCapacity : bytes.length << 1;
-                byte[] newBytes = new byte[newLength];
-                System.arraycopy(bytes, 0, newBytes, 0, bytes.length);
-                bytes = newBytes;
-            }
-            bytes[index++] = (byte) i;
+        private void grow() {
+            // Choose an expanding strategy depending on how big the buffer already is.
+            // 1024 was choosen as a good guess and we may be able to investigate more if there are better choices.
+            // See also https://github.com/netty/netty/issues/6846
+            final int newLength = bytes.length >= 1024 ? bytes.length + initialCapacity : bytes.length << 1;
+            byte[] newBytes = new byte[newLength];
+            System.arraycopy(bytes, 0, newBytes, 0, bytes.length);
+            bytes = newBytes;
         }
     }
 }
@@ -95,12 +95,23 @@ final class HpackHuffmanEncoder {
             current |= code;
             n += nbits;
 
-            while (n >= 8) {
-                n -= 8;
-                out.writeByte((int) (current >> n));
+            if (n >= 32) {
+                n -= 32;
+                out.writeInt((int) (current >>> n));
             }
         }
 
+        writeRemaining(out, current, n);
+    }
+
+    /**
+     * Writes the {@code n} remaining bits of {@code current} followed by the padding.
+     */
+    private static void writeRemaining(ByteBuf out, long current, int n) {
+        while (n >= 8) {
+            n -= 8;
+            out.writeByte((int) (current >>> n));
+        }
         if (n > 0) {
             current <<= 8 - n;
             current |= 0xFF >>> n; // this should be EOS symbol
@@ -152,20 +163,18 @@ final class HpackHuffmanEncoder {
             current |= codes[b];
             n += nbits;
 
-            while (n >= 8) {
-                n -= 8;
-                out.writeByte((int) (current >> n));
+            // Codes are at most 30 bits long, so there is always room for the next one in current after at most 31
+            // bits were left over. Writing 32 bits at once needs a lot less bounds checks than writing single bytes.
+            if (n >= 32) {
+                n -= 32;
+                out.writeInt((int) (current >>> n));
             }
             return true;
         }
 
         void end() {
             try {
-                if (n > 0) {
-                    current <<= 8 - n;
-                    current |= 0xFF >>> n; // this should be EOS symbol
-                    out.writeByte((int) current);
-                }
+                writeRemaining(out, current, n);
             } finally {
                 out = null;
                 current = 0;
@@ -92,6 +92,11 @@ public final class Http2ConnectionHandlerBuilder
         return super.initialHuffmanDecodeCapacity(initialHuffmanDecodeCapacity);
     }
 
+    @Override
+    public Http2ConnectionHandlerBuilder coalesceDataFrames(boolean coalesceDataFrames) {
+        return super.coalesceDataFrames(coalesceDataFrames);
+    }
+
     @Override
     public Http2ConnectionHandler build() {
         return super.build();
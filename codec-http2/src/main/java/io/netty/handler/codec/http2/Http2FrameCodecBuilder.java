@@ -139,6 +139,11 @@ public class Http2FrameCodecBuilder extends
         return super.initialHuffmanDecodeCapacity(initialHuffmanDecodeCapacity);
     }
 
+    @Override
+    public Http2FrameCodecBuilder coalesceDataFrames(boolean coalesceDataFrames) {
+        return super.coalesceDataFrames(coalesceDataFrames);
+    }
+
     /**
      * Build a {@link Http2FrameCodec} object.
      */
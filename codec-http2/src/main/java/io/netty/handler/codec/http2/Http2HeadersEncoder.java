@@ -73,6 +73,34 @@ public interface Http2HeadersEncoder {
         boolean isSensitive(CharSequence name, CharSequence value);
     }
 
+    /**
+     * Determine if a header name/value pair, which was neither found in the static nor in the dynamic table, should
+     * be added to the
+     * <a href="https://tools.ietf.org/html/rfc7541#section-2.3.2">dynamic table</a>. Headers which are added but never
+     * used again, like request ids, evict other headers from the table, so not indexing them improves the compression.
+     * <p>
+     * An instance is used by a single {@link Http2HeadersEncoder} only and is always called by the thread which encodes
+     * the headers, so implementations can keep state without synchronization.
+     */
+    interface IndexingPolicy {
+        /**
+         * Determine if a header {@code name}/{@code value} pair should be added to the dynamic table.
+         * @param name The name for the header.
+         * @param value The value of the header.
+         * @return {@code true} if the header should be added to the dynamic table, {@code false} if it should be
+         * encoded as literal without indexing.
+         */
+        boolean shouldIndex(CharSequence name, CharSequence value);
+
+        /**
+         * Called when a header that was added to the dynamic table is evicted to make room for other headers.
+         * @param name The name for the header.
+         * @param value The value of the header.
+         * @param hits How often the header was encoded as reference to the dynamic table.
+         */
+        void evicted(CharSequence name, CharSequence value, int hits);
+    }
+
     /**
      * Encodes the given headers and writes the output headers block to the given output buffer.
      *
@@ -106,4 +134,18 @@ public interface Http2HeadersEncoder {
             return true;
         }
     };
+
+    /**
+     * Always return {@code true} for {@link IndexingPolicy#shouldIndex(CharSequence, CharSequence)}.
+     */
+    IndexingPolicy ALWAYS_INDEX = new IndexingPolicy() {
+        @Override
+        public boolean shouldIndex(CharSequence name, CharSequence value) {
+            return true;
+        }
+
+        @Override
+        public void evicted(CharSequence name, CharSequence value, int hits) {
+        }
+    };
 }
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.http2;
+
+import io.netty.util.internal.UnstableApi;
+
+/**
+ * Statistics about the HPACK compression of the headers sent on a connection, which help to find out how well the
+ * <a href="https://tools.ietf.org/html/rfc7541#section-2.3.2">dynamic table</a> is used and to tune the
+ * {@link Http2HeadersEncoder.IndexingPolicy}.
+ * <p>
+ * All values are updated by the thread which encodes the headers, so reading them from another thread may return
+ * slightly stale values.
+ */
+@UnstableApi
+public interface Http2HeadersEncoderMetrics {
+
+    /**
+     * Returns the number of headers which were encoded as reference to the dynamic table.
+     */
+    long dynamicTableHits();
+
+    /**
+     * Returns the number of headers which were encoded as reference to the static table.
+     */
+    long staticTableHits();
+
+    /**
+     * Returns the number of headers which were looked up but neither found in the dynamic nor in the static table,
+     * and so were encoded as literal.
+     */
+    long dynamicTableMisses();
+
+    /**
+     * Returns the number of headers which were added to the dynamic table.
+     */
+    long dynamicTableInsertions();
+
+    /**
+     * Returns the number of headers which were evicted from the dynamic table to make room for other headers.
+     */
+    long dynamicTableEvictions();
+
+    /**
+     * Returns the number of headers which were evicted from the dynamic table without ever being referenced.
+     */
+    long unusedDynamicTableEvictions();
+
+    /**
+     * Returns the number of headers which were encoded as literal without indexing, because the
+     * {@link Http2HeadersEncoder.IndexingPolicy} declined them or they were too large for the dynamic table.
+     */
+    long notIndexed();
+
+    /**
+     * Returns the number of headers which were encoded as literal never indexed, because the
+     * {@link Http2HeadersEncoder.SensitivityDetector} detected them as sensitive.
+     */
+    long neverIndexed();
+
+    /**
+     * Returns the current number of headers in the dynamic table.
+     */
+    int dynamicTableLength();
+
+    /**
+     * Returns the current size of the dynamic table in bytes, as defined by
+     * <a href="https://tools.ietf.org/html/rfc7541#section-4.1">Section 4.1</a>.
+     */
+    long dynamicTableSize();
+
+    /**
+     * Returns the total length of the names and values of all encoded headers.
+     */
+    long headerBytes();
+
+    /**
+     * Returns the total number of bytes of the encoded header blocks. Together with {@link #headerBytes()} this
+     * gives the compression ratio.
+     */
+    long encodedBytes();
+}
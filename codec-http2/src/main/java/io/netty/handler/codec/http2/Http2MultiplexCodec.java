@@ -37,6 +37,8 @@ import io.netty.channel.RecvByteBufAllocator;
 import io.netty.channel.RecvByteBufAllocator.Handle;
 import io.netty.channel.VoidChannelPromise;
 import io.netty.channel.WriteBufferWaterMark;
+import io.netty.util.Attribute;
+import io.netty.util.AttributeKey;
 import io.netty.util.DefaultAttributeMap;
 import io.netty.util.ReferenceCountUtil;
 import io.netty.util.ReferenceCounted;
@@ -79,6 +81,14 @@ import static java.lang.Math.min;
  *
  * <p>{@link ChannelConfig#setMaxMessagesPerRead(int)} and {@link ChannelConfig#setAutoRead(boolean)} are supported.
  *
+ * <h3>Recycling of Child Channels</h3>
+ *
+ * Creating a channel with its pipeline for every stream is expensive when a connection carries many short streams. If
+ * enabled via {@link Http2MultiplexCodecBuilder#childChannelRecycling(int, Http2StreamChannelResetHook)}, the channels
+ * of remotely created streams are kept after they were closed and unregistered, and are reused together with their
+ * pipeline for new streams once the {@link Http2StreamChannelResetHook} reset them. In this mode handlers must not use
+ * a channel anymore after they were notified that it was unregistered, as it may belong to another stream by then.
+ *
  * <h3>Reference Counting</h3>
  *
  * Some {@link Http2StreamFrame}s implement the {@link ReferenceCounted} interface, as they carry
@@ -149,6 +159,11 @@ public class Http2MultiplexCodec extends Http2FrameCodec {
 
     private final ChannelHandler inboundStreamHandler;
     private final ChannelHandler upgradeStreamHandler;
+    private final int maxRecycledChildChannels;
+    private final Http2StreamChannelResetHook childChannelResetHook;
+
+    // Closed child channels of remotely created streams, which can be reused for new streams.
+    private ArrayDeque<DefaultHttp2StreamChannel> recycledChildChannels;
 
     private int initialOutboundStreamWindow = Http2CodecUtil.DEFAULT_WINDOW_SIZE;
     private boolean parentReadInProgress;
@@ -166,9 +181,21 @@ public class Http2MultiplexCodec extends Http2FrameCodec {
                         Http2Settings initialSettings,
                         ChannelHandler inboundStreamHandler,
                         ChannelHandler upgradeStreamHandler) {
+        this(encoder, decoder, initialSettings, inboundStreamHandler, upgradeStreamHandler, 0, null);
+    }
+
+    Http2MultiplexCodec(Http2ConnectionEncoder encoder,
+                        Http2ConnectionDecoder decoder,
+                        Http2Settings initialSettings,
+                        ChannelHandler inboundStreamHandler,
+                        ChannelHandler upgradeStreamHandler,
+                        int maxRecycledChildChannels,
+                        Http2StreamChannelResetHook childChannelResetHook) {
         super(encoder, decoder, initialSettings);
         this.inboundStreamHandler = inboundStreamHandler;
         this.upgradeStreamHandler = upgradeStreamHandler;
+        this.maxRecycledChildChannels = maxRecycledChildChannels;
+        this.childChannelResetHook = childChannelResetHook;
     }
 
     @Override
@@ -219,6 +246,7 @@ public class Http2MultiplexCodec extends Http2FrameCodec {
             curr.next = curr.previous = null;
         }
         head = tail = null;
+        recycledChildChannels = null;
     }
 
     @Override
@@ -276,7 +304,7 @@ public class Http2MultiplexCodec extends Http2FrameCodec {
                     break;
                 }
                 // fall-trough
-                ChannelFuture future = ctx.channel().eventLoop().register(new DefaultHttp2StreamChannel(s, false));
+                ChannelFuture future = ctx.channel().eventLoop().register(newInboundChildChannel(s));
                 if (future.isDone()) {
                     registerDone(future);
                 } else {
@@ -295,6 +323,44 @@ public class Http2MultiplexCodec extends Http2FrameCodec {
         }
     }
 
+    private DefaultHttp2StreamChannel newInboundChildChannel(Http2MultiplexCodecStream stream) {
+        DefaultHttp2StreamChannel channel = recycledChildChannels == null ? null : recycledChildChannels.pollLast();
+        if (channel == null) {
+            return new DefaultHttp2StreamChannel(stream, false);
+        }
+        channel.reuse(stream);
+        return channel;
+    }
+
+    /**
+     * Keeps the closed and unregistered child channel of a remotely created stream, so it can be reused for a new
+     * stream, if recycling is enabled and the {@link Http2StreamChannelResetHook} allows it.
+     *
+     * @return {@code true} if the channel will be reused.
+     */
+    private boolean recycleChildChannel(DefaultHttp2StreamChannel channel) {
+        if (maxRecycledChildChannels == 0 || channel.outbound || ctx == null || ctx.isRemoved() ||
+                channel.stream.state() != Http2Stream.State.CLOSED) {
+            return false;
+        }
+        if (recycledChildChannels == null) {
+            recycledChildChannels = new ArrayDeque<DefaultHttp2StreamChannel>(min(maxRecycledChildChannels, 16));
+        } else if (recycledChildChannels.size() >= maxRecycledChildChannels) {
+            return false;
+        }
+        try {
+            if (!childChannelResetHook.reset(channel)) {
+                return false;
+            }
+        } catch (Throwable cause) {
+            logger.warn("Failed to reset child channel {}, it will not be reused.", channel, cause);
+            return false;
+        }
+        channel.recycle();
+        recycledChildChannels.add(channel);
+        return true;
+    }
+
     @Override
     final void onHttp2StreamWritabilityChanged(ChannelHandlerContext ctx, Http2FrameStream stream, boolean writable) {
         (((Http2MultiplexCodecStream) stream).channel).writabilityChanged(writable);
@@ -450,15 +516,20 @@ public class Http2MultiplexCodec extends Http2FrameCodec {
     }
 
     // TODO: Handle writability changes due writing from outside the eventloop.
-    private final class DefaultHttp2StreamChannel extends DefaultAttributeMap implements Http2StreamChannel {
+    private final class DefaultHttp2StreamChannel implements Http2StreamChannel {
         private final Http2StreamChannelConfig config = new Http2StreamChannelConfig(this);
         private final Http2ChannelUnsafe unsafe = new Http2ChannelUnsafe();
-        private final ChannelId channelId;
         private final ChannelPipeline pipeline;
-        private final DefaultHttp2FrameStream stream;
-        private final ChannelPromise closePromise;
         private final boolean outbound;
 
+        // These are replaced when the channel is reused for another stream.
+        private ChannelId channelId;
+        private DefaultHttp2FrameStream stream;
+        private ChannelPromise closePromise;
+        private DefaultAttributeMap attributes = new DefaultAttributeMap();
+        // Incremented when the channel is reused, so tasks and listeners of the previous stream can detect that.
+        private int generation;
+
         private volatile boolean registered;
         // We start with the writability of the channel when creating the StreamChannel.
         private volatile boolean writable;
@@ -500,16 +571,57 @@ public class Http2MultiplexCodec extends Http2FrameCodec {
                 protected void decrementPendingOutboundBytes(long size) {
                     // Do thing for now
                 }
+
+                @Override
+                protected boolean removeHandlersOnClose() {
+                    // Keep the handlers if the channel is reused for another stream.
+                    return !recycleChildChannel(DefaultHttp2StreamChannel.this);
+                }
             };
             closePromise = pipeline.newPromise();
             channelId = new Http2StreamChannelId(parent().id(), ++idCount);
         }
 
+        /**
+         * Clears the state of the previous stream once the channel was closed and unregistered.
+         */
+        void recycle() {
+            assert !registered && closePromise.isDone() && next == null && previous == null;
+            ((Http2MultiplexCodecStream) stream).channel = null;
+            attributes = new DefaultAttributeMap();
+            generation++;
+        }
+
+        /**
+         * Prepares the recycled channel for the given stream, like a new channel would be.
+         */
+        void reuse(DefaultHttp2FrameStream stream) {
+            this.stream = stream;
+            writable = initialWritability(stream);
+            ((Http2MultiplexCodecStream) stream).channel = this;
+            closePromise = pipeline.newPromise();
+            channelId = new Http2StreamChannelId(parent().id(), ++idCount);
+            readStatus = ReadStatus.IDLE;
+            outboundClosed = false;
+            firstFrameWritten = false;
+            unsafe.reuse();
+        }
+
         @Override
         public Http2FrameStream stream() {
             return stream;
         }
 
+        @Override
+        public <T> Attribute<T> attr(AttributeKey<T> key) {
+            return attributes.attr(key);
+        }
+
+        @Override
+        public <T> boolean hasAttr(AttributeKey<T> key) {
+            return attributes.hasAttr(key);
+        }
+
         void streamClosed() {
             unsafe.readEOS();
             // Attempt to drain any queued data from the queue and deliver it to the application before closing this
@@ -801,6 +913,12 @@ public class Http2MultiplexCodec extends Http2FrameCodec {
             private boolean closeInitiated;
             private boolean readEOS;
 
+            void reuse() {
+                writeDoneAndNoFlush = false;
+                closeInitiated = false;
+                readEOS = false;
+            }
+
             @Override
             public void connect(final SocketAddress remoteAddress,
                                 SocketAddress localAddress, final ChannelPromise promise) {
@@ -840,7 +958,8 @@ public class Http2MultiplexCodec extends Http2FrameCodec {
 
                 registered = true;
 
-                if (!outbound) {
+                // A recycled channel still has its handlers, unless the Http2StreamChannelResetHook removed them.
+                if (!outbound && pipeline().first() == null) {
                     // Add the handler to the pipeline now that we are registered.
                     pipeline().addLast(inboundStreamHandler);
                 }
@@ -946,9 +1065,15 @@ public class Http2MultiplexCodec extends Http2FrameCodec {
                 //
                 // See:
                 // https://github.com/netty/netty/issues/4435
+                final int generation = DefaultHttp2StreamChannel.this.generation;
                 invokeLater(new Runnable() {
                     @Override
                     public void run() {
+                        if (generation != DefaultHttp2StreamChannel.this.generation) {
+                            // The channel was deregistered before and is used for another stream by now.
+                            safeSetSuccess(promise);
+                            return;
+                        }
                         if (fireChannelInactive) {
                             pipeline.fireChannelInactive();
                         }
@@ -1130,12 +1255,13 @@ public class Http2MultiplexCodec extends Http2FrameCodec {
 
                     ChannelFuture future = write0(msg);
                     if (future.isDone()) {
-                        writeComplete(future, promise);
+                        writeComplete(future, promise, generation);
                     } else {
+                        final int generation = DefaultHttp2StreamChannel.this.generation;
                         future.addListener(new ChannelFutureListener() {
                             @Override
                             public void operationComplete(ChannelFuture future) {
-                                writeComplete(future, promise);
+                                writeComplete(future, promise, generation);
                             }
                         });
                     }
@@ -1160,13 +1286,15 @@ public class Http2MultiplexCodec extends Http2FrameCodec {
                 }
             }
 
-            private void writeComplete(ChannelFuture future, ChannelPromise promise) {
+            private void writeComplete(ChannelFuture future, ChannelPromise promise, int generation) {
                 Throwable cause = future.cause();
                 if (cause == null) {
                     promise.setSuccess();
                 } else {
                     Throwable error = wrapStreamClosedError(cause);
-                    if (error instanceof ClosedChannelException) {
+                    // Once the channel was reused the failure belongs to the previous stream, which is closed anyway.
+                    if (error instanceof ClosedChannelException &&
+                            generation == DefaultHttp2StreamChannel.this.generation) {
                         if (config.isAutoClose()) {
                             // Close channel if needed.
                             closeForcibly();
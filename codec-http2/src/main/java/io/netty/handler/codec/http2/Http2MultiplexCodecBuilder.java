@@ -20,6 +20,7 @@ import io.netty.channel.ChannelHandlerAdapter;
 import io.netty.util.internal.UnstableApi;
 
 import static io.netty.util.internal.ObjectUtil.checkNotNull;
+import static io.netty.util.internal.ObjectUtil.checkPositiveOrZero;
 
 /**
  * A builder for {@link Http2MultiplexCodec}.
@@ -31,6 +32,8 @@ public class Http2MultiplexCodecBuilder
 
     final ChannelHandler childHandler;
     private ChannelHandler upgradeStreamHandler;
+    private int maxRecycledChildChannels;
+    private Http2StreamChannelResetHook childChannelResetHook;
 
     Http2MultiplexCodecBuilder(boolean server, ChannelHandler childHandler) {
         server(server);
@@ -99,6 +102,23 @@ public class Http2MultiplexCodecBuilder
         return this;
     }
 
+    /**
+     * Enables the recycling of the child channels of remotely created streams. Once such a channel was closed and
+     * unregistered, it is reset by the given {@link Http2StreamChannelResetHook} and used together with its pipeline
+     * for a new stream, instead of creating a new channel and pipeline for every stream. Handlers must not use a
+     * channel anymore after they were notified that it was unregistered.
+     *
+     * @param maxRecycledChildChannels the maximum number of closed channels kept per connection, {@code 0} disables
+     *     the recycling.
+     * @param resetHook resets the handlers of a closed channel before it is reused.
+     */
+    public Http2MultiplexCodecBuilder childChannelRecycling(int maxRecycledChildChannels,
+                                                           Http2StreamChannelResetHook resetHook) {
+        this.maxRecycledChildChannels = checkPositiveOrZero(maxRecycledChildChannels, "maxRecycledChildChannels");
+        this.childChannelResetHook = checkNotNull(resetHook, "resetHook");
+        return this;
+    }
+
     @Override
     public boolean isServer() {
         return super.isServer();
@@ -165,6 +185,11 @@ public class Http2MultiplexCodecBuilder
         return super.initialHuffmanDecodeCapacity(initialHuffmanDecodeCapacity);
     }
 
+    @Override
+    public Http2MultiplexCodecBuilder coalesceDataFrames(boolean coalesceDataFrames) {
+        return super.coalesceDataFrames(coalesceDataFrames);
+    }
+
     @Override
     public Http2MultiplexCodec build() {
         Http2FrameWriter frameWriter = this.frameWriter;
@@ -195,6 +220,7 @@ public class Http2MultiplexCodecBuilder
     @Override
     protected Http2MultiplexCodec build(
             Http2ConnectionDecoder decoder, Http2ConnectionEncoder encoder, Http2Settings initialSettings) {
-        return new Http2MultiplexCodec(encoder, decoder, initialSettings, childHandler, upgradeStreamHandler);
+        return new Http2MultiplexCodec(encoder, decoder, initialSettings, childHandler, upgradeStreamHandler,
+                maxRecycledChildChannels, childChannelResetHook);
     }
 }
@@ -37,6 +37,13 @@ public class Http2OutboundFrameLogger implements Http2FrameWriter {
         this.logger = checkNotNull(logger, "logger");
     }
 
+    /**
+     * Returns the {@link Http2FrameWriter} the logged frames are written to.
+     */
+    Http2FrameWriter writer() {
+        return writer;
+    }
+
     @Override
     public ChannelFuture writeData(ChannelHandlerContext ctx, int streamId, ByteBuf data,
             int padding, boolean endStream, ChannelPromise promise) {
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.http2;
+
+import io.netty.channel.ChannelPipeline;
+import io.netty.util.internal.UnstableApi;
+
+/**
+ * Prepares a closed {@link Http2StreamChannel} of a remotely created stream to be reused for another stream, see
+ * {@link Http2MultiplexCodecBuilder#childChannelRecycling(int, Http2StreamChannelResetHook)}.
+ */
+@UnstableApi
+public interface Http2StreamChannelResetHook {
+
+    /**
+     * Called once the {@link Http2StreamChannel} was closed and unregistered. The implementation must reset the state
+     * of the handlers in the {@link ChannelPipeline} and the configuration of the channel if it was changed, as they
+     * are used as they are for the next stream. The attributes of the channel are removed after this method returns.
+     * If the pipeline is left empty the handler given to the {@link Http2MultiplexCodecBuilder} is added again.
+     *
+     * @param channel the closed channel.
+     * @return {@code true} if the channel can be reused, {@code false} if it must be discarded.
+     */
+    boolean reset(Http2StreamChannel channel) throws Exception;
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License, version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.netty.handler.codec.http2;
+
+import io.netty.util.internal.UnstableApi;
+
+import static io.netty.handler.codec.http2.Http2CodecUtil.DEFAULT_MIN_ALLOCATION_CHUNK;
+import static io.netty.handler.codec.http2.Http2CodecUtil.streamableBytes;
+import static io.netty.handler.codec.http2.Http2Error.INTERNAL_ERROR;
+import static io.netty.handler.codec.http2.Http2Exception.connectionError;
+import static io.netty.util.internal.ObjectUtil.checkNotNull;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+/**
+ * A {@link StreamByteDistributor} that ignores stream priority and allocates bytes to all streams in a deficit round
+ * robin fashion. In each round every stream may write up to a quantum of
+ * {@code max(minAllocationChunk, maxBytes / number of streams)} bytes. A stream which could not use its quantum because
+ * {@code maxBytes} ran out stays first in line and writes the rest of the quantum in the next call to
+ * {@link #distribute(int, Writer)}.
+ * <p>
+ * Streams with streamable bytes are kept in an intrusive linked list, so updating the streamable bytes of a stream,
+ * closing it and writing to it take constant time regardless of the number of active streams. This makes this class a
+ * good fit for connections with many thousands of active streams.
+ */
+@UnstableApi
+public final class RoundRobinStreamByteDistributor implements StreamByteDistributor {
+    private final Http2Connection.PropertyKey stateKey;
+    private State head;
+    private State tail;
+    private int size;
+
+    /**
+     * The minimum number of bytes that we will attempt to allocate to a stream. This is to
+     * help improve goodput on a per-stream basis.
+     */
+    private int minAllocationChunk = DEFAULT_MIN_ALLOCATION_CHUNK;
+    private long totalStreamableBytes;
+
+    public RoundRobinStreamByteDistributor(Http2Connection connection) {
+        // Add a state for the connection.
+        stateKey = connection.newKey();
+        Http2Stream connectionStream = connection.connectionStream();
+        connectionStream.setProperty(stateKey, new State(connectionStream));
+
+        // Register for notification of new streams.
+        connection.addListener(new Http2ConnectionAdapter() {
+            @Override
+            public void onStreamAdded(Http2Stream stream) {
+                stream.setProperty(stateKey, new State(stream));
+            }
+
+            @Override
+            public void onStreamClosed(Http2Stream stream) {
+                state(stream).close();
+            }
+        });
+    }
+
+    /**
+     * Sets the minimum allocation chunk that will be allocated to each stream. Defaults to 1KiB.
+     *
+     * @param minAllocationChunk the minimum number of bytes that will be allocated to each stream.
+     * Must be > 0.
+     */
+    public void minAllocationChunk(int minAllocationChunk) {
+        if (minAllocationChunk <= 0) {
+            throw new IllegalArgumentException("minAllocationChunk must be > 0");
+        }
+        this.minAllocationChunk = minAllocationChunk;
+    }
+
+    @Override
+    public void updateStreamableBytes(StreamState streamState) {
+        state(streamState.stream()).updateStreamableBytes(streamableBytes(streamState),
+                                                          streamState.hasFrame(),
+                                                          streamState.windowSize());
+    }
+
+    @Override
+    public void updateDependencyTree(int childStreamId, int parentStreamId, short weight, boolean exclusive) {
+        // This class ignores priority and dependency!
+    }
+
+    @Override
+    public boolean distribute(int maxBytes, Writer writer) throws Http2Exception {
+        if (size == 0) {
+            return totalStreamableBytes > 0;
+        }
+
+        final int quantum = max(minAllocationChunk, maxBytes / size);
+
+        State state;
+        while ((state = head) != null) {
+            if (maxBytes == 0 && state.streamableBytes > 0) {
+                // Stop at the first state that can't send. Note that empty frames at the head of the queue will
+                // always be written, assuming the stream window is not negative.
+                break;
+            }
+
+            // A state which kept its turn only uses what is left of its quantum.
+            int deficit = state.deficit > 0 ? state.deficit : quantum;
+            int chunk = min(deficit, min(maxBytes, state.streamableBytes));
+            maxBytes -= chunk;
+            deficit -= chunk;
+
+            // Write the allocated bytes. The state is added back to the end of the queue if it is still allowed to
+            // write once its streamable bytes were updated.
+            remove(state);
+            state.write(chunk, writer);
+
+            if (maxBytes == 0 && deficit > 0 && state.enqueued) {
+                // Out of bytes before the quantum was used, keep the turn for the next distribution.
+                remove(state);
+                addFirst(state);
+                state.deficit = deficit;
+                break;
+            }
+        }
+
+        return totalStreamableBytes > 0;
+    }
+
+    private State state(Http2Stream stream) {
+        return checkNotNull(stream, "stream").getProperty(stateKey);
+    }
+
+    private void addLast(State state) {
+        state.prev = tail;
+        state.next = null;
+        if (tail == null) {
+            head = state;
+        } else {
+            tail.next = state;
+        }
+        tail = state;
+        state.enqueued = true;
+        state.deficit = 0;
+        size++;
+    }
+
+    private void addFirst(State state) {
+        state.prev = null;
+        state.next = head;
+        if (head == null) {
+            tail = state;
+        } else {
+            head.prev = state;
+        }
+        head = state;
+        state.enqueued = true;
+        state.deficit = 0;
+        size++;
+    }
+
+    private void remove(State state) {
+        if (state.prev == null) {
+            head = state.next;
+        } else {
+            state.prev.next = state.next;
+        }
+        if (state.next == null) {
+            tail = state.prev;
+        } else {
+            state.next.prev = state.prev;
+        }
+        state.prev = null;
+        state.next = null;
+        state.enqueued = false;
+        state.deficit = 0;
+        size--;
+    }
+
+    /**
+     * The remote flow control state for a single stream.
+     */
+    private final class State {
+        final Http2Stream stream;
+        State prev;
+        State next;
+        int streamableBytes;
+        int deficit;
+        boolean enqueued;
+        boolean writing;
+
+        State(Http2Stream stream) {
+            this.stream = stream;
+        }
+
+        void updateStreamableBytes(int newStreamableBytes, boolean hasFrame, int windowSize) {
+            assert hasFrame || newStreamableBytes == 0 :
+                "hasFrame: " + hasFrame + " newStreamableBytes: " + newStreamableBytes;
+
+            int delta = newStreamableBytes - streamableBytes;
+            if (delta != 0) {
+                streamableBytes = newStreamableBytes;
+                totalStreamableBytes += delta;
+            }
+            // A state is only queued when it has frames and the window is not negative. If the window is zero it is
+            // only queued if we are not writing. If we are writing that means we gave the state a chance to write zero
+            // length frames. We wait until updateStreamableBytes is called again before this state is allowed to
+            // write. As removal is cheap, states which are not allowed to write are removed right away.
+            boolean writable = hasFrame && (windowSize > 0 || windowSize == 0 && !writing);
+            if (writable != enqueued) {
+                if (writable) {
+                    addLast(this);
+                } else {
+                    remove(this);
+                }
+            }
+        }
+
+        /**
+         * Write any allocated bytes for the given stream and updates the streamable bytes,
+         * assuming all of the bytes will be written.
+         */
+        void write(int numBytes, Writer writer) throws Http2Exception {
+            writing = true;
+            try {
+                // Write the allocated bytes.
+                writer.write(stream, numBytes);
+            } catch (Throwable t) {
+                throw connectionError(INTERNAL_ERROR, t, "byte distribution write error");
+            } finally {
+                writing = false;
+            }
+        }
+
+        void close() {
+            // Clear the streamable bytes, which also removes this state from the queue.
+            updateStreamableBytes(0, false, 0);
+        }
+    }
+}
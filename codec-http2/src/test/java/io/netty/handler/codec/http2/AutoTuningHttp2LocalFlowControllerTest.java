@@ -0,0 +1,201 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.http2;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.netty.handler.codec.http2.AutoTuningHttp2LocalFlowController.BDP_PING_DATA;
+import static io.netty.handler.codec.http2.Http2CodecUtil.DEFAULT_WINDOW_SIZE;
+import static io.netty.handler.codec.http2.Http2CodecUtil.connectionPrefaceBuf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link AutoTuningHttp2LocalFlowController}.
+ */
+public class AutoTuningHttp2LocalFlowControllerTest {
+    private static final int STREAM_ID = 3;
+    private static final int MAX_WINDOW_SIZE = 100000;
+
+    private final List<Long> pingAcks = new ArrayList<Long>();
+    private final FrameRecorder written = new FrameRecorder();
+    private final EmbeddedChannel clientChannel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+    private final ChannelHandlerContext clientCtx = clientChannel.pipeline().firstContext();
+    private final DefaultHttp2FrameWriter clientWriter = new DefaultHttp2FrameWriter();
+    private final DefaultHttp2FrameReader reader = new DefaultHttp2FrameReader();
+    private Http2Connection connection;
+    private AutoTuningHttp2LocalFlowController flowController;
+    private EmbeddedChannel channel;
+
+    @Before
+    public void setUp() throws Exception {
+        connection = new DefaultHttp2Connection(true);
+        flowController = new AutoTuningHttp2LocalFlowController(connection, MAX_WINDOW_SIZE);
+        connection.local().flowController(flowController);
+        Http2ConnectionHandler handler = new Http2ConnectionHandlerBuilder()
+                .connection(connection)
+                .frameListener(new Http2FrameAdapter() {
+                    @Override
+                    public void onPingAckRead(ChannelHandlerContext ctx, long data) {
+                        pingAcks.add(data);
+                    }
+                })
+                .build();
+        channel = new EmbeddedChannel(handler);
+
+        channel.writeInbound(connectionPrefaceBuf());
+        clientWriter.writeSettings(clientCtx, new Http2Settings(), clientCtx.newPromise());
+        clientWriter.writeSettingsAck(clientCtx, clientCtx.newPromise());
+        Http2Headers headers = new DefaultHttp2Headers().method("POST").path("/").scheme("https");
+        clientWriter.writeHeaders(clientCtx, STREAM_ID, headers, 0, false, clientCtx.newPromise());
+        writeInbound();
+        readOutbound();
+        written.settings.clear();
+    }
+
+    @After
+    public void tearDown() {
+        channel.finishAndReleaseAll();
+        clientChannel.finishAndReleaseAll();
+        reader.close();
+    }
+
+    @Test
+    public void windowsGrowWhenTheyLimitThePeer() throws Exception {
+        writeData(12000, 4);
+        readOutbound();
+        assertEquals(1, written.pings.size());
+        assertEquals(BDP_PING_DATA, (long) written.pings.get(0));
+
+        ackPing();
+        assertTrue(pingAcks.isEmpty());
+        assertEquals(1, written.settings.size());
+        assertEquals(96000, (int) written.settings.get(0).initialWindowSize());
+        // All received bytes were consumed, so the connection window is full again.
+        assertEquals(96000, flowController.windowSize(connection.connectionStream()));
+        // The stream windows are only grown when the peer acknowledged the new settings.
+        assertEquals(DEFAULT_WINDOW_SIZE, flowController.initialWindowSize());
+
+        clientWriter.writeSettingsAck(clientCtx, clientCtx.newPromise());
+        writeInbound();
+        assertEquals(96000, flowController.initialWindowSize());
+        assertEquals(96000, flowController.initialWindowSize(connection.stream(STREAM_ID)));
+    }
+
+    @Test
+    public void windowsAreNotGrownBeyondTheMaximum() throws Exception {
+        writeData(16000, 4);
+        ackPing();
+        clientWriter.writeSettingsAck(clientCtx, clientCtx.newPromise());
+        writeInbound();
+        assertEquals(MAX_WINDOW_SIZE, flowController.initialWindowSize());
+
+        // No more measurements are needed once the maximum is reached.
+        written.pings.clear();
+        writeData(1000, 1);
+        readOutbound();
+        assertTrue(written.pings.isEmpty());
+    }
+
+    @Test
+    public void windowsDoNotGrowForSmallSamples() throws Exception {
+        writeData(1000, 4);
+        ackPing();
+        assertTrue(written.settings.isEmpty());
+        assertEquals(DEFAULT_WINDOW_SIZE, flowController.initialWindowSize(connection.connectionStream()));
+        assertEquals(DEFAULT_WINDOW_SIZE, flowController.initialWindowSize());
+    }
+
+    @Test
+    public void otherPingAcksArePassedToTheListener() throws Exception {
+        writeData(1000, 1);
+        clientWriter.writePing(clientCtx, true, 42, clientCtx.newPromise());
+        clientWriter.writePing(clientCtx, true, BDP_PING_DATA, clientCtx.newPromise());
+        // Not outstanding anymore, so this one did not come from the flow controller.
+        clientWriter.writePing(clientCtx, true, BDP_PING_DATA, clientCtx.newPromise());
+        writeInbound();
+
+        assertEquals(2, pingAcks.size());
+        assertEquals(42, (long) pingAcks.get(0));
+        assertEquals(BDP_PING_DATA, (long) pingAcks.get(1));
+    }
+
+    private void writeData(int length, int frames) throws Exception {
+        for (int i = 0; i < frames; i++) {
+            clientWriter.writeData(clientCtx, STREAM_ID, Unpooled.wrappedBuffer(new byte[length]), 0, false,
+                    clientCtx.newPromise());
+        }
+        writeInbound();
+    }
+
+    private void ackPing() throws Exception {
+        clientWriter.writePing(clientCtx, true, BDP_PING_DATA, clientCtx.newPromise());
+        writeInbound();
+        readOutbound();
+    }
+
+    private void writeInbound() {
+        clientChannel.flush();
+        for (;;) {
+            ByteBuf buf = clientChannel.readOutbound();
+            if (buf == null) {
+                break;
+            }
+            channel.writeInbound(buf);
+        }
+        channel.checkException();
+    }
+
+    private void readOutbound() throws Exception {
+        channel.flush();
+        for (;;) {
+            ByteBuf buf = channel.readOutbound();
+            if (buf == null) {
+                break;
+            }
+            try {
+                reader.readFrame(clientCtx, buf, written);
+            } finally {
+                buf.release();
+            }
+        }
+    }
+
+    private static final class FrameRecorder extends Http2FrameAdapter {
+        final List<Long> pings = new ArrayList<Long>();
+        final List<Http2Settings> settings = new ArrayList<Http2Settings>();
+
+        @Override
+        public void onPingRead(ChannelHandlerContext ctx, long data) {
+            pings.add(data);
+        }
+
+        @Override
+        public void onSettingsRead(ChannelHandlerContext ctx, Http2Settings settings) {
+            this.settings.add(settings);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.http2;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.logging.LogLevel;
+import io.netty.util.ReferenceCountUtil;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link CoalescingHttp2FrameWriter}.
+ */
+public class CoalescingHttp2FrameWriterTest {
+    private final EmbeddedChannel channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+    private final ChannelHandlerContext ctx = channel.pipeline().firstContext();
+    private final EmbeddedChannel expectedChannel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+    private final ChannelHandlerContext expectedCtx = expectedChannel.pipeline().firstContext();
+    private final DefaultHttp2FrameWriter expectedWriter = new DefaultHttp2FrameWriter();
+    private final CoalescingHttp2FrameWriter writer =
+            new CoalescingHttp2FrameWriter(new DefaultHttp2FrameWriter(), 64, 16);
+
+    @After
+    public void tearDown() {
+        writer.close();
+        channel.finishAndReleaseAll();
+        expectedChannel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void smallFramesAreCoalesced() {
+        ChannelFuture first = writeData(3, 10, false);
+        ChannelFuture second = writeData(5, 16, true);
+        ChannelFuture third = writeData(3, 0, true);
+        assertEquals(0, outboundMessages());
+        assertFalse(first.isDone());
+
+        writer.writeCoalescedFrames();
+        assertEquals(1, outboundMessages());
+        assertOutbound();
+        assertTrue(first.isSuccess());
+        assertTrue(second.isSuccess());
+        assertTrue(third.isSuccess());
+    }
+
+    @Test
+    public void payloadWhichIsNotCopiedFollowsItsFrameHeader() {
+        writeData(3, 10, false);
+        ChannelFuture large = writeData(5, 17, true);
+
+        assertEquals(2, outboundMessages());
+        assertOutbound();
+        assertTrue(large.isSuccess());
+    }
+
+    @Test
+    public void fullBufferIsWritten() {
+        writeData(3, 16, false);
+        writeData(5, 16, false);
+        // Two frames of 25 bytes fill 50 of 64 bytes, so the third one does not fit anymore.
+        assertEquals(0, outboundMessages());
+        writeData(7, 16, false);
+        assertEquals(1, outboundMessages());
+
+        writer.writeCoalescedFrames();
+        assertEquals(2, outboundMessages());
+        assertOutbound();
+    }
+
+    @Test
+    public void coalescedFramesAreWrittenBeforeOtherFrames() {
+        writeData(3, 10, false);
+        writer.writeRstStream(ctx, 5, Http2Error.CANCEL.code(), ctx.newPromise());
+        expectedWriter.writeRstStream(expectedCtx, 5, Http2Error.CANCEL.code(), expectedCtx.newPromise());
+        writeData(3, 0, true);
+        writer.writeCoalescedFrames();
+
+        assertEquals(3, outboundMessages());
+        assertOutbound();
+    }
+
+    @Test
+    public void paddedFrameIsWrittenByDelegate() {
+        writeData(3, 10, false);
+        writer.writeData(ctx, 5, payload(10), 5, true, ctx.newPromise());
+        expectedWriter.writeData(expectedCtx, 5, payload(10), 5, true, expectedCtx.newPromise());
+
+        assertOutbound();
+    }
+
+    @Test
+    public void closeFailsCoalescedFrames() {
+        ChannelFuture future = writeData(3, 10, false);
+        writer.close();
+
+        assertFalse(future.isSuccess());
+        assertEquals(0, outboundMessages());
+    }
+
+    @Test
+    public void flowControllerWritesCoalescedFrames() throws Exception {
+        Http2Connection connection = new DefaultHttp2Connection(false);
+        Http2ConnectionEncoder encoder = new DefaultHttp2ConnectionEncoder(connection,
+                new CoalescingHttp2FrameWriter(new DefaultHttp2FrameWriter()));
+        Http2ConnectionDecoder decoder =
+                new DefaultHttp2ConnectionDecoder(connection, encoder, new DefaultHttp2FrameReader());
+        assertFlowControllerWritesCoalescedFrames(new Http2ConnectionHandlerBuilder()
+                .codec(decoder, encoder).frameListener(new Http2FrameAdapter()).build());
+    }
+
+    @Test
+    public void flowControllerWritesCoalescedFramesOfWrappedWriter() throws Exception {
+        // The frame logger wraps the CoalescingHttp2FrameWriter created by the builder.
+        assertFlowControllerWritesCoalescedFrames(new Http2ConnectionHandlerBuilder()
+                .server(false)
+                .frameLogger(new Http2FrameLogger(LogLevel.DEBUG))
+                .coalesceDataFrames(true)
+                .frameListener(new Http2FrameAdapter()).build());
+    }
+
+    private static void assertFlowControllerWritesCoalescedFrames(Http2ConnectionHandler handler) throws Exception {
+        EmbeddedChannel clientChannel = new EmbeddedChannel(handler);
+        try {
+            ChannelHandlerContext clientCtx = clientChannel.pipeline().firstContext();
+            Http2ConnectionEncoder encoder = handler.encoder();
+            List<ChannelFuture> futures = new ArrayList<ChannelFuture>();
+            for (int streamId = 3; streamId < 9; streamId += 2) {
+                encoder.writeHeaders(clientCtx, streamId, new DefaultHttp2Headers(), 0, false,
+                        clientCtx.newPromise());
+                futures.add(encoder.writeData(clientCtx, streamId, payload(100), 0, true, clientCtx.newPromise()));
+            }
+            clientChannel.flush();
+
+            ByteBuf last = null;
+            for (;;) {
+                ByteBuf msg = clientChannel.readOutbound();
+                if (msg == null) {
+                    break;
+                }
+                if (last != null) {
+                    last.release();
+                }
+                last = msg;
+            }
+            // All DATA frames are written as one buffer.
+            assertEquals(3 * (Http2CodecUtil.FRAME_HEADER_LENGTH + 100), last.readableBytes());
+            last.release();
+            for (ChannelFuture future : futures) {
+                assertTrue(future.isSuccess());
+            }
+        } finally {
+            clientChannel.finishAndReleaseAll();
+        }
+    }
+
+    private ChannelFuture writeData(int streamId, int length, boolean endStream) {
+        expectedWriter.writeData(expectedCtx, streamId, payload(length), 0, endStream, expectedCtx.newPromise());
+        return writer.writeData(ctx, streamId, payload(length), 0, endStream, ctx.newPromise());
+    }
+
+    private static ByteBuf payload(int length) {
+        ByteBuf payload = Unpooled.buffer(length);
+        for (int i = 0; i < length; i++) {
+            payload.writeByte(i);
+        }
+        return payload;
+    }
+
+    private int outboundMessages() {
+        channel.flush();
+        return channel.outboundMessages().size();
+    }
+
+    private void assertOutbound() {
+        channel.flush();
+        expectedChannel.flush();
+        assertEquals(drain(expectedChannel), drain(channel));
+    }
+
+    private static ByteBuf drain(EmbeddedChannel channel) {
+        ByteBuf bytes = Unpooled.buffer();
+        for (;;) {
+            Object msg = channel.readOutbound();
+            if (msg == null) {
+                return bytes;
+            }
+            bytes.writeBytes((ByteBuf) msg);
+            ReferenceCountUtil.release(msg);
+        }
+    }
+}
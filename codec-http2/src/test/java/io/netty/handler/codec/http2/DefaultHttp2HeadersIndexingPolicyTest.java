@@ -0,0 +1,98 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.http2;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.AsciiString;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link DefaultHttp2HeadersIndexingPolicy}.
+ */
+public class DefaultHttp2HeadersIndexingPolicyTest {
+
+    @Test
+    public void notIndexedNamesAreNotIndexed() {
+        DefaultHttp2HeadersIndexingPolicy policy = new DefaultHttp2HeadersIndexingPolicy(1024, 0, "x-request-id");
+        assertFalse(policy.shouldIndex("x-request-id", "1"));
+        assertFalse(policy.shouldIndex(new AsciiString("x-request-id"), "1"));
+        assertTrue(policy.shouldIndex("x-user-agent", "1"));
+    }
+
+    @Test
+    public void longValuesAreNotIndexed() {
+        DefaultHttp2HeadersIndexingPolicy policy = new DefaultHttp2HeadersIndexingPolicy(3, 0);
+        assertTrue(policy.shouldIndex("a", "123"));
+        assertFalse(policy.shouldIndex("a", "1234"));
+    }
+
+    @Test
+    public void namesEvictedUnusedAreNotIndexedAnymore() {
+        DefaultHttp2HeadersIndexingPolicy policy = new DefaultHttp2HeadersIndexingPolicy(1024, 2);
+        policy.evicted("x-trace-id", "1", 0);
+        assertTrue(policy.shouldIndex("x-trace-id", "2"));
+        policy.evicted("x-trace-id", "2", 0);
+        assertTrue(policy.shouldIndex("x-span-id", "1"));
+
+        // Only every 64th header is indexed to find out if the values start to repeat.
+        for (int i = 0; i < 63; i++) {
+            assertFalse(policy.shouldIndex("x-trace-id", "3"));
+        }
+        assertTrue(policy.shouldIndex("x-trace-id", "3"));
+
+        policy.evicted("x-trace-id", "3", 1);
+        assertTrue(policy.shouldIndex("x-trace-id", "4"));
+    }
+
+    @Test
+    public void encoderUsesPolicyAndRecordsMetrics() throws Http2Exception {
+        DefaultHttp2HeadersEncoder encoder = new DefaultHttp2HeadersEncoder(Http2HeadersEncoder.NEVER_SENSITIVE,
+                new DefaultHttp2HeadersIndexingPolicy(1024, 1), false, 16);
+        // Only a single header fits into the dynamic table.
+        encoder.maxHeaderTableSize(64);
+        ByteBuf buf = Unpooled.buffer();
+        try {
+            encoder.encodeHeaders(3, new DefaultHttp2Headers().method("GET").add("x-request-id", "1"), buf);
+            // Evicts the first request id without it ever being used.
+            encoder.encodeHeaders(5, new DefaultHttp2Headers().add("x-request-id", "2"), buf);
+            // Not indexed anymore, so the second request id stays in the table.
+            encoder.encodeHeaders(7, new DefaultHttp2Headers().add("x-request-id", "3"), buf);
+            encoder.encodeHeaders(9, new DefaultHttp2Headers().add("x-request-id", "2"), buf);
+
+            Http2HeadersEncoderMetrics metrics = encoder.metrics();
+            assertEquals(1, metrics.staticTableHits());
+            assertEquals(1, metrics.dynamicTableHits());
+            assertEquals(3, metrics.dynamicTableMisses());
+            assertEquals(2, metrics.dynamicTableInsertions());
+            assertEquals(1, metrics.dynamicTableEvictions());
+            assertEquals(1, metrics.unusedDynamicTableEvictions());
+            assertEquals(1, metrics.notIndexed());
+            assertEquals(0, metrics.neverIndexed());
+            assertEquals(1, metrics.dynamicTableLength());
+            assertEquals(45, metrics.dynamicTableSize());
+            assertEquals(":methodGET".length() + 4 * "x-request-id1".length(), metrics.headerBytes());
+            // The table size update is counted as well, as it is part of the first header block.
+            assertEquals(buf.readableBytes(), metrics.encodedBytes());
+        } finally {
+            buf.release();
+        }
+    }
+}
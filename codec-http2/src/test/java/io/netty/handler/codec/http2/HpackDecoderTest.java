@@ -47,6 +47,7 @@ import static java.lang.Integer.MAX_VALUE;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -671,4 +672,66 @@ public class HpackDecoderTest {
             in2.release();
         }
     }
+
+    @Test
+    public void testZeroCopyLiterals() throws Http2Exception {
+        hpackDecoder = new HpackDecoder(8192, 32, true);
+        ByteBuf in = Unpooled.buffer(200);
+        try {
+            HpackEncoder hpackEncoder = new HpackEncoder(true);
+            // Characters with long Huffman codes, so the literals are not Huffman coded.
+            Http2Headers toEncode = new DefaultHttp2Headers();
+            toEncode.add("x-indexed", "{|}~");
+            toEncode.add("x-sensitive", "~}|{");
+            hpackEncoder.encodeHeaders(1, in, toEncode, new Http2HeadersEncoder.SensitivityDetector() {
+                @Override
+                public boolean isSensitive(CharSequence name, CharSequence value) {
+                    return "x-sensitive".contentEquals(name);
+                }
+            });
+
+            Http2Headers decoded = new DefaultHttp2Headers();
+            hpackDecoder.decode(1, in.duplicate(), decoded, true);
+            // The input buffer may be reused once decoded.
+            in.setZero(0, in.writerIndex());
+            assertEquals(toEncode, decoded);
+
+            // The indexed header must still be usable after the header block is gone.
+            in.clear();
+            in.writeByte(0x80 | 62);
+            Http2Headers decoded2 = new DefaultHttp2Headers();
+            hpackDecoder.decode(1, in, decoded2, true);
+            Http2Headers golden = new DefaultHttp2Headers();
+            golden.add("x-indexed", "{|}~");
+            assertEquals(golden, decoded2);
+        } finally {
+            in.release();
+        }
+    }
+
+    @Test
+    public void testZeroCopyLiteralsCachesHuffmanCodedValues() throws Http2Exception {
+        hpackDecoder = new HpackDecoder(8192, 32, true);
+        ByteBuf in = Unpooled.buffer(200);
+        try {
+            HpackEncoder hpackEncoder = new HpackEncoder(true);
+            Http2Headers toEncode = new DefaultHttp2Headers();
+            toEncode.add("cookie", "session=0123456789abcdef");
+            hpackEncoder.encodeHeaders(1, in, toEncode, Http2HeadersEncoder.ALWAYS_SENSITIVE);
+
+            // Values are only cached once they were seen twice.
+            Http2Headers decoded = new DefaultHttp2Headers();
+            hpackDecoder.decode(1, in.duplicate(), decoded, true);
+            Http2Headers decoded2 = new DefaultHttp2Headers();
+            hpackDecoder.decode(3, in.duplicate(), decoded2, true);
+            Http2Headers decoded3 = new DefaultHttp2Headers();
+            hpackDecoder.decode(5, in, decoded3, true);
+            assertEquals(toEncode, decoded);
+            assertEquals(toEncode, decoded2);
+            assertEquals(toEncode, decoded3);
+            assertSame(decoded2.get("cookie"), decoded3.get("cookie"));
+        } finally {
+            in.release();
+        }
+    }
 }
@@ -37,6 +37,7 @@ import io.netty.util.AsciiString;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.util.Arrays;
 import java.util.Random;
 
@@ -113,6 +114,133 @@ public class HpackHuffmanTest {
         decode(newHuffmanDecoder(), buf);
     }
 
+    @Test
+    public void testAllSymbols() throws Http2Exception {
+        HpackHuffmanEncoder encoder = new HpackHuffmanEncoder();
+        HpackHuffmanDecoder decoder = newHuffmanDecoder();
+        for (int i = 0; i < 256; i++) {
+            byte[] symbol = { (byte) i };
+            // The code of the symbol followed by the most significant bits of EOS as padding.
+            byte[] expected = new Bits().symbol(i).paddedWithOnes();
+            Assert.assertArrayEquals(expected, encode(encoder, symbol));
+            Assert.assertArrayEquals(symbol, decode(decoder, expected));
+
+            // Every symbol once after symbol i, so all symbols are decoded at all bit offsets.
+            byte[] all = new byte[257];
+            all[0] = (byte) i;
+            for (int j = 0; j < 256; j++) {
+                all[j + 1] = (byte) j;
+            }
+            roundTrip(encoder, decoder, all);
+        }
+    }
+
+    @Test
+    public void testDecodeMatchesHuffmanCodes() throws Http2Exception {
+        HpackHuffmanDecoder decoder = newHuffmanDecoder();
+        Random random = new Random(987654321L);
+        for (int i = 0; i < 100; i++) {
+            byte[] expected = new byte[random.nextInt(64)];
+            random.nextBytes(expected);
+            // Encoded from the code table, independent of the HpackHuffmanEncoder.
+            Bits bits = new Bits();
+            for (byte b : expected) {
+                bits.symbol(b & 0xFF);
+            }
+            Assert.assertArrayEquals(expected, decode(decoder, bits.paddedWithOnes()));
+        }
+    }
+
+    @Test
+    public void testDecodeEOSAfterEachSymbol() {
+        for (int i = 0; i < 256; i++) {
+            assertDecodeFails(new Bits().symbol(i).symbol(HpackUtil.HUFFMAN_EOS).paddedWithOnes());
+        }
+    }
+
+    @Test
+    public void testDecodeIllegalPaddingAfterEachSymbol() {
+        for (int i = 0; i < 256; i++) {
+            Bits bits = new Bits().symbol(i);
+            if (bits.pendingBits() != 0) {
+                // The padding must be the most significant bits of EOS, which are all 1.
+                assertDecodeFails(bits.paddedWithOnesEndingInZero());
+            }
+        }
+    }
+
+    @Test
+    public void testDecodeOverlongPaddingAfterEachSymbol() {
+        for (int i = 0; i < 256; i++) {
+            // Padding of 8 or more bits is not allowed.
+            Bits bits = new Bits().symbol(i);
+            assertDecodeFails(bits.append(0xFF, 8).paddedWithOnes());
+        }
+    }
+
+    private static void assertDecodeFails(byte[] buf) {
+        try {
+            decode(newHuffmanDecoder(), buf);
+            Assert.fail("decoded invalid input: " + Arrays.toString(buf));
+        } catch (Http2Exception expected) {
+            // expected
+        }
+    }
+
+    private static byte[] encode(HpackHuffmanEncoder encoder, byte[] buf) {
+        ByteBuf buffer = Unpooled.buffer();
+        try {
+            encoder.encode(buffer, new AsciiString(buf, false));
+            byte[] bytes = new byte[buffer.readableBytes()];
+            buffer.readBytes(bytes);
+            return bytes;
+        } finally {
+            buffer.release();
+        }
+    }
+
+    /**
+     * Writes Huffman codes from {@link HpackUtil#HUFFMAN_CODES}, most significant bit first.
+     */
+    private static final class Bits {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private long current;
+        private int pending;
+
+        Bits symbol(int symbol) {
+            return append(HpackUtil.HUFFMAN_CODES[symbol], HpackUtil.HUFFMAN_CODE_LENGTHS[symbol]);
+        }
+
+        Bits append(long bits, int length) {
+            current = current << length | bits;
+            pending += length;
+            while (pending >= 8) {
+                pending -= 8;
+                out.write((int) (current >>> pending));
+            }
+            current &= (1L << pending) - 1;
+            return this;
+        }
+
+        int pendingBits() {
+            return pending;
+        }
+
+        byte[] paddedWithOnes() {
+            if (pending != 0) {
+                int padding = 8 - pending;
+                append((1 << padding) - 1, padding);
+            }
+            return out.toByteArray();
+        }
+
+        byte[] paddedWithOnesEndingInZero() {
+            int padding = 8 - pending;
+            append(((1 << padding) - 1) & ~1, padding);
+            return out.toByteArray();
+        }
+    }
+
     private static byte[] makeBuf(int ... bytes) {
         byte[] buf = new byte[bytes.length];
         for (int i = 0; i < buf.length; i++) {
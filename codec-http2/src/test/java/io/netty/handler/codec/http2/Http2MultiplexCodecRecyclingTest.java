@@ -0,0 +1,208 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.http2;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelId;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.AttributeKey;
+import io.netty.util.ReferenceCountUtil;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.netty.handler.codec.http2.Http2CodecUtil.connectionPrefaceBuf;
+import static io.netty.handler.codec.http2.Http2CodecUtil.writeFrameHeader;
+import static io.netty.handler.codec.http2.Http2FrameTypes.HEADERS;
+import static io.netty.handler.codec.http2.Http2FrameTypes.SETTINGS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests the recycling of the child channels of {@link Http2MultiplexCodec}.
+ */
+public class Http2MultiplexCodecRecyclingTest {
+    private static final AttributeKey<String> KEY = AttributeKey.valueOf("Http2MultiplexCodecRecyclingTest");
+
+    private final List<Channel> childChannels = new ArrayList<Channel>();
+    private final List<ResponseHandler> handlers = new ArrayList<ResponseHandler>();
+    private final List<Channel> resetChannels = new ArrayList<Channel>();
+    private final DefaultHttp2HeadersEncoder headersEncoder = new DefaultHttp2HeadersEncoder();
+    private EmbeddedChannel parentChannel;
+
+    @After
+    public void tearDown() {
+        if (parentChannel != null) {
+            parentChannel.finishAndReleaseAll();
+        }
+    }
+
+    @Test
+    public void childChannelsAreNotReusedByDefault() throws Exception {
+        init(Http2MultiplexCodecBuilder.forServer(new Initializer()));
+        request(3);
+        request(5);
+
+        assertEquals(2, childChannels.size());
+        assertNotSame(childChannels.get(0), childChannels.get(1));
+        assertEquals(2, handlers.size());
+    }
+
+    @Test
+    public void closedChildChannelIsReused() throws Exception {
+        init(Http2MultiplexCodecBuilder.forServer(new Initializer()).childChannelRecycling(4,
+                new Http2StreamChannelResetHook() {
+                    @Override
+                    public boolean reset(Http2StreamChannel channel) {
+                        resetChannels.add(channel);
+                        channel.pipeline().get(ResponseHandler.class).responded = false;
+                        return true;
+                    }
+                }));
+        Channel first = request(3);
+        assertFalse(first.isOpen());
+        assertEquals(1, resetChannels.size());
+        assertSame(first, resetChannels.get(0));
+        assertNull(first.attr(KEY).get());
+        ChannelId firstId = first.id();
+
+        Channel second = request(5);
+        assertSame(first, second);
+        assertEquals(5, ((Http2StreamChannel) second).stream().id());
+        assertNotEquals(firstId, second.id());
+        // The pipeline was reused, so the initializer was not called again.
+        assertEquals(1, handlers.size());
+        assertEquals(2, handlers.get(0).requests);
+        request(7);
+        assertEquals(3, handlers.get(0).requests);
+    }
+
+    @Test
+    public void childChannelIsNotReusedIfResetHookDeclines() throws Exception {
+        init(Http2MultiplexCodecBuilder.forServer(new Initializer()).childChannelRecycling(4,
+                new Http2StreamChannelResetHook() {
+                    @Override
+                    public boolean reset(Http2StreamChannel channel) {
+                        resetChannels.add(channel);
+                        return false;
+                    }
+                }));
+        request(3);
+        request(5);
+
+        assertEquals(2, resetChannels.size());
+        assertNotSame(childChannels.get(0), childChannels.get(1));
+        assertEquals(2, handlers.size());
+    }
+
+    @Test
+    public void childChannelWithEmptyPipelineIsInitializedAgain() throws Exception {
+        init(Http2MultiplexCodecBuilder.forServer(new Initializer()).childChannelRecycling(4,
+                new Http2StreamChannelResetHook() {
+                    @Override
+                    public boolean reset(Http2StreamChannel channel) {
+                        channel.pipeline().remove(ResponseHandler.class);
+                        return true;
+                    }
+                }));
+        request(3);
+        request(5);
+
+        assertSame(childChannels.get(0), childChannels.get(1));
+        assertEquals(2, handlers.size());
+        assertEquals(1, handlers.get(1).requests);
+    }
+
+    private void init(Http2MultiplexCodecBuilder builder) {
+        parentChannel = new EmbeddedChannel(builder.build());
+        ByteBuf settings = Unpooled.buffer();
+        writeFrameHeader(settings, 0, SETTINGS, new Http2Flags(), 0);
+        parentChannel.writeInbound(connectionPrefaceBuf(), settings);
+    }
+
+    /**
+     * Sends a request on the given stream, which is answered by the {@link ResponseHandler}, and returns the child
+     * channel of the stream once it was closed.
+     */
+    private Channel request(int streamId) throws Http2Exception {
+        ByteBuf headerBlock = Unpooled.buffer();
+        headersEncoder.encodeHeaders(streamId, new DefaultHttp2Headers().method("GET").path("/").scheme("http"),
+                headerBlock);
+        ByteBuf frame = Unpooled.buffer();
+        writeFrameHeader(frame, headerBlock.readableBytes(), HEADERS,
+                new Http2Flags().endOfHeaders(true).endOfStream(true), streamId);
+        frame.writeBytes(headerBlock);
+        headerBlock.release();
+
+        int children = childChannels.size();
+        parentChannel.writeInbound(frame);
+        parentChannel.runPendingTasks();
+        releaseOutbound();
+        assertEquals(children + 1, childChannels.size());
+        return childChannels.get(children);
+    }
+
+    private void releaseOutbound() {
+        for (;;) {
+            Object msg = parentChannel.readOutbound();
+            if (msg == null) {
+                break;
+            }
+            ReferenceCountUtil.release(msg);
+        }
+    }
+
+    private final class Initializer extends ChannelInitializer<Channel> {
+        @Override
+        protected void initChannel(Channel ch) {
+            ResponseHandler handler = new ResponseHandler();
+            handlers.add(handler);
+            ch.pipeline().addLast(handler);
+        }
+    }
+
+    private final class ResponseHandler extends ChannelInboundHandlerAdapter {
+        int requests;
+        boolean responded;
+
+        @Override
+        public void channelActive(ChannelHandlerContext ctx) throws Exception {
+            childChannels.add(ctx.channel());
+            assertNull(ctx.channel().attr(KEY).setIfAbsent("stream"));
+            super.channelActive(ctx);
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            ReferenceCountUtil.release(msg);
+            assertFalse(responded);
+            requests++;
+            responded = true;
+            ctx.writeAndFlush(new DefaultHttp2HeadersFrame(new DefaultHttp2Headers().status("200"), true));
+        }
+    }
+}
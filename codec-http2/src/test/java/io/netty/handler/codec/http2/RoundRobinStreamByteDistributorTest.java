@@ -0,0 +1,243 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License, version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.netty.handler.codec.http2;
+
+import io.netty.util.collection.IntObjectHashMap;
+import io.netty.util.collection.IntObjectMap;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link RoundRobinStreamByteDistributor}.
+ */
+public class RoundRobinStreamByteDistributorTest {
+    private static final int CHUNK_SIZE = 100;
+
+    private static final int STREAM_A = 1;
+    private static final int STREAM_B = 3;
+    private static final int STREAM_C = 5;
+    private static final int STREAM_D = 7;
+
+    private final IntObjectMap<TestState> stateMap = new IntObjectHashMap<TestState>();
+    private final List<int[]> writes = new ArrayList<int[]>();
+    private Http2Connection connection;
+    private RoundRobinStreamByteDistributor distributor;
+    private RuntimeException writeException;
+
+    private final StreamByteDistributor.Writer writer = new StreamByteDistributor.Writer() {
+        @Override
+        public void write(Http2Stream stream, int numBytes) {
+            if (writeException != null) {
+                throw writeException;
+            }
+            writes.add(new int[] { stream.id(), numBytes });
+            TestState state = stateMap.get(stream.id());
+            state.pendingBytes -= numBytes;
+            state.windowSize -= numBytes;
+            state.hasFrame = state.pendingBytes > 0;
+            distributor.updateStreamableBytes(state);
+        }
+    };
+
+    @Before
+    public void setup() throws Http2Exception {
+        connection = new DefaultHttp2Connection(false);
+        distributor = new RoundRobinStreamByteDistributor(connection);
+        distributor.minAllocationChunk(CHUNK_SIZE);
+
+        connection.local().createStream(STREAM_A, false);
+        connection.local().createStream(STREAM_B, false);
+        connection.local().createStream(STREAM_C, false);
+        connection.local().createStream(STREAM_D, false);
+    }
+
+    @Test
+    public void bytesUnassignedAfterProcessing() throws Http2Exception {
+        initState(STREAM_A, 1, true);
+        initState(STREAM_B, 2, true);
+        initState(STREAM_C, 3, true);
+        initState(STREAM_D, 4, true);
+
+        assertFalse(distributor.distribute(10, writer));
+        assertWrites(STREAM_A, 1, STREAM_B, 2, STREAM_C, 3, STREAM_D, 4);
+
+        assertFalse(distributor.distribute(10, writer));
+        assertWrites();
+    }
+
+    @Test
+    public void streamsAreWrittenRoundRobin() throws Http2Exception {
+        initState(STREAM_A, 1000, true);
+        initState(STREAM_B, 1000, true);
+        initState(STREAM_C, 1000, true);
+
+        // The quantum is maxBytes / 3 = 200.
+        assertTrue(distributor.distribute(600, writer));
+        assertWrites(STREAM_A, 200, STREAM_B, 200, STREAM_C, 200);
+
+        // The quantum is the minimum of 100.
+        assertTrue(distributor.distribute(250, writer));
+        assertWrites(STREAM_A, 100, STREAM_B, 100, STREAM_C, 50);
+
+        // C keeps its turn until it used the rest of its quantum.
+        assertTrue(distributor.distribute(250, writer));
+        assertWrites(STREAM_C, 50, STREAM_A, 100, STREAM_B, 100);
+    }
+
+    @Test
+    public void allBytesAreWrittenToManyStreams() throws Http2Exception {
+        int streams = 10000;
+        for (int i = 0; i < streams; i++) {
+            int streamId = 9 + 2 * i;
+            connection.local().createStream(streamId, false);
+            initState(streamId, 1000, true);
+        }
+
+        int calls = 0;
+        while (distributor.distribute(64 * 1024, writer)) {
+            calls++;
+        }
+        long totalBytes = 0;
+        for (int[] write : writes) {
+            assertTrue(write[1] <= CHUNK_SIZE);
+            totalBytes += write[1];
+        }
+        assertEquals(streams * 1000L, totalBytes);
+        assertEquals(streams * 1000 / (64 * 1024), calls);
+        // Every stream got a turn before any stream got a second one. A stream which ran out of bytes in the middle
+        // of its turn continues it in the next call.
+        int turns = 0;
+        int lastStreamId = 0;
+        for (int i = 0; turns < streams; i++) {
+            int streamId = writes.get(i)[0];
+            if (streamId != lastStreamId) {
+                assertEquals(9 + 2 * turns++, streamId);
+                lastStreamId = streamId;
+            }
+        }
+    }
+
+    @Test
+    public void emptyFrameIsWrittenOnceWithZeroWindow() throws Http2Exception {
+        initState(STREAM_A, 0, true, 0);
+        initState(STREAM_B, 10, true, 0);
+
+        assertFalse(distributor.distribute(10, writer));
+        assertWrites(STREAM_A, 0, STREAM_B, 0);
+
+        assertFalse(distributor.distribute(10, writer));
+        assertWrites();
+    }
+
+    @Test
+    public void streamWithNegativeWindowIsNotWritten() throws Http2Exception {
+        initState(STREAM_A, 10, true, -1);
+        initState(STREAM_B, 10, true);
+
+        assertFalse(distributor.distribute(100, writer));
+        assertWrites(STREAM_B, 10);
+    }
+
+    @Test
+    public void closedStreamIsNotWritten() throws Http2Exception {
+        initState(STREAM_A, 10, true);
+        initState(STREAM_B, 10, true);
+        connection.stream(STREAM_A).close();
+
+        assertFalse(distributor.distribute(100, writer));
+        assertWrites(STREAM_B, 10);
+    }
+
+    @Test
+    public void connectionErrorForWriterException() throws Http2Exception {
+        initState(STREAM_A, 1, true);
+        writeException = new RuntimeException("Fake exception");
+
+        try {
+            distributor.distribute(10, writer);
+            fail("Expected an exception");
+        } catch (Http2Exception e) {
+            assertFalse(Http2Exception.isStreamError(e));
+            assertEquals(Http2Error.INTERNAL_ERROR, e.error());
+            assertSame(writeException, e.getCause());
+        }
+    }
+
+    private void initState(int streamId, long pendingBytes, boolean hasFrame) {
+        initState(streamId, pendingBytes, hasFrame, Integer.MAX_VALUE);
+    }
+
+    private void initState(int streamId, long pendingBytes, boolean hasFrame, int windowSize) {
+        TestState state = new TestState(connection.stream(streamId), pendingBytes, hasFrame, windowSize);
+        stateMap.put(streamId, state);
+        distributor.updateStreamableBytes(state);
+    }
+
+    private void assertWrites(int... streamIdsAndBytes) {
+        List<String> expected = new ArrayList<String>();
+        for (int i = 0; i < streamIdsAndBytes.length; i += 2) {
+            expected.add(streamIdsAndBytes[i] + ":" + streamIdsAndBytes[i + 1]);
+        }
+        List<String> actual = new ArrayList<String>();
+        for (int[] write : writes) {
+            actual.add(write[0] + ":" + write[1]);
+        }
+        assertEquals(expected, actual);
+        writes.clear();
+    }
+
+    private static final class TestState implements StreamByteDistributor.StreamState {
+        private final Http2Stream stream;
+        long pendingBytes;
+        boolean hasFrame;
+        int windowSize;
+
+        TestState(Http2Stream stream, long pendingBytes, boolean hasFrame, int windowSize) {
+            this.stream = stream;
+            this.pendingBytes = pendingBytes;
+            this.hasFrame = hasFrame;
+            this.windowSize = windowSize;
+        }
+
+        @Override
+        public Http2Stream stream() {
+            return stream;
+        }
+
+        @Override
+        public long pendingBytes() {
+            return pendingBytes;
+        }
+
+        @Override
+        public boolean hasFrame() {
+            return hasFrame;
+        }
+
+        @Override
+        public int windowSize() {
+            return windowSize;
+        }
+    }
+}
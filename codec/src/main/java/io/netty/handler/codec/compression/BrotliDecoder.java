@@ -0,0 +1,156 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.compression;
+
+import com.aayushatharva.brotli4j.decoder.DecoderJNI;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static io.netty.util.internal.ObjectUtil.checkPositive;
+
+/**
+ * Decompresses a {@link ByteBuf} encoded with the <a href="https://tools.ietf.org/html/rfc7932">Brotli</a> format.
+ * <p>
+ * This requires the optional <a href="https://github.com/hyperxpro/Brotli4j">Brotli4j</a> dependency, see
+ * {@link Brotli#isAvailable()}.
+ */
+public class BrotliDecoder extends ByteToMessageDecoder {
+
+    private final int inputBufferSize;
+    private DecoderJNI.Wrapper decoder;
+    private boolean destroyed;
+
+    /**
+     * Creates a new decoder with a default input buffer size of {@code 8192} bytes.
+     */
+    public BrotliDecoder() {
+        this(8 * 1024);
+    }
+
+    /**
+     * Creates a new decoder with the specified size of the native input buffer.
+     */
+    public BrotliDecoder(int inputBufferSize) {
+        this.inputBufferSize = checkPositive(inputBufferSize, "inputBufferSize");
+        Brotli.ensureAvailability();
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+        decoder = new DecoderJNI.Wrapper(inputBufferSize);
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+        if (destroyed) {
+            // Skip data received after the end of the stream.
+            in.skipBytes(in.readableBytes());
+            return;
+        }
+        if (!in.isReadable()) {
+            return;
+        }
+
+        try {
+            if (decompress(ctx.alloc(), in, out)) {
+                destroy();
+            }
+        } catch (Exception e) {
+            destroy();
+            throw e;
+        }
+    }
+
+    /**
+     * Feeds {@code in} to the native decoder and adds all output to {@code out}. Returns {@code true} once the end
+     * of the stream was reached.
+     */
+    private boolean decompress(ByteBufAllocator alloc, ByteBuf in, List<Object> out) {
+        for (;;) {
+            switch (decoder.getStatus()) {
+            case DONE:
+                return true;
+            case OK:
+                decoder.push(0);
+                break;
+            case NEEDS_MORE_INPUT:
+                if (decoder.hasOutput()) {
+                    out.add(pull(alloc));
+                }
+                if (!in.isReadable()) {
+                    return false;
+                }
+                decoder.push(readBytes(in, decoder.getInputBuffer()));
+                break;
+            case NEEDS_MORE_OUTPUT:
+                out.add(pull(alloc));
+                break;
+            default:
+                throw new DecompressionException("Brotli stream corrupted");
+            }
+        }
+    }
+
+    private ByteBuf pull(ByteBufAllocator alloc) {
+        ByteBuffer nativeBuffer = decoder.pull();
+        // The native buffer is reused by the decoder, so we need to copy it.
+        ByteBuf copy = alloc.buffer(nativeBuffer.remaining());
+        copy.writeBytes(nativeBuffer);
+        return copy;
+    }
+
+    private static int readBytes(ByteBuf in, ByteBuffer dest) {
+        int limit = Math.min(in.readableBytes(), dest.remaining());
+        ByteBuffer slice = dest.slice();
+        slice.limit(limit);
+        in.readBytes(slice);
+        dest.position(dest.position() + limit);
+        return limit;
+    }
+
+    private void destroy() {
+        if (!destroyed) {
+            destroyed = true;
+            if (decoder != null) {
+                decoder.destroy();
+                decoder = null;
+            }
+        }
+    }
+
+    @Override
+    protected void handlerRemoved0(ChannelHandlerContext ctx) throws Exception {
+        try {
+            destroy();
+        } finally {
+            super.handlerRemoved0(ctx);
+        }
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        try {
+            destroy();
+        } finally {
+            super.channelInactive(ctx);
+        }
+    }
+}
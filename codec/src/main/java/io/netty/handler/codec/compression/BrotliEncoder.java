@@ -0,0 +1,87 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.compression;
+
+import com.aayushatharva.brotli4j.encoder.BrotliOutputStream;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+import io.netty.buffer.ByteBuf;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Compresses a {@link ByteBuf} using the <a href="https://tools.ietf.org/html/rfc7932">Brotli</a> format.
+ * <p>
+ * This requires the optional <a href="https://github.com/hyperxpro/Brotli4j">Brotli4j</a> dependency, see
+ * {@link Brotli#isAvailable()}.
+ */
+public class BrotliEncoder extends StreamCompressionEncoder {
+
+    /**
+     * The quality which is used by default. Higher qualities quickly become too slow to compress dynamic content.
+     */
+    public static final int DEFAULT_QUALITY = 4;
+
+    /**
+     * The base two logarithm of the default window size.
+     */
+    public static final int DEFAULT_WINDOW = 22;
+
+    private final int quality;
+    private final int window;
+
+    /**
+     * Creates a new encoder with the {@link #DEFAULT_QUALITY} and the {@link #DEFAULT_WINDOW}.
+     */
+    public BrotliEncoder() {
+        this(DEFAULT_QUALITY);
+    }
+
+    /**
+     * Creates a new encoder with the specified quality and the {@link #DEFAULT_WINDOW}.
+     *
+     * @param quality
+     *        {@code 0} yields the fastest compression and {@code 11} yields the best compression.
+     */
+    public BrotliEncoder(int quality) {
+        this(quality, DEFAULT_WINDOW);
+    }
+
+    /**
+     * Creates a new encoder with the specified quality and window size.
+     *
+     * @param quality
+     *        {@code 0} yields the fastest compression and {@code 11} yields the best compression.
+     * @param window
+     *        The base two logarithm of the window size, in the range {@code 10} to {@code 24} inclusive.
+     */
+    public BrotliEncoder(int quality, int window) {
+        if (quality < 0 || quality > 11) {
+            throw new IllegalArgumentException("quality: " + quality + " (expected: 0-11)");
+        }
+        if (window < 10 || window > 24) {
+            throw new IllegalArgumentException("window: " + window + " (expected: 10-24)");
+        }
+        Brotli.ensureAvailability();
+        this.quality = quality;
+        this.window = window;
+    }
+
+    @Override
+    protected OutputStream newCompressionStream(OutputStream out) throws IOException {
+        return new BrotliOutputStream(out, new Encoder.Parameters().setQuality(quality).setWindow(window));
+    }
+}
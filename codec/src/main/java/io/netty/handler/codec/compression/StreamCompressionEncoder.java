@@ -0,0 +1,198 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.compression;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.EncoderException;
+import io.netty.handler.codec.MessageToByteEncoder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base class for encoders which are backed by a compressing {@link OutputStream} of a third-party library, such as
+ * {@link BrotliEncoder} and {@link ZstdEncoder}.
+ * <p>
+ * Every message is compressed and flushed on its own, so the receiver can decode the data as soon as it arrives.
+ * The stream is finished and its trailer written when the {@link io.netty.channel.Channel} is closed. Messages
+ * written after that are passed through uncompressed. The native resources of the stream are released when the
+ * handler is removed from the pipeline.
+ */
+public abstract class StreamCompressionEncoder extends MessageToByteEncoder<ByteBuf> {
+
+    private static final int COPY_BUFFER_SIZE = 8192;
+    // How long close() waits for the trailer to be written before the channel is closed anyway.
+    private static final long CLOSE_TIMEOUT_SECONDS = 10;
+
+    private final ByteBufSink sink = new ByteBufSink();
+    private OutputStream stream;
+    private byte[] copyBuffer;
+    private volatile boolean finished;
+
+    /**
+     * Creates a new encoder. The compressing stream is created lazily when the first message is encoded.
+     */
+    protected StreamCompressionEncoder() { }
+
+    /**
+     * Creates a new compressing stream which writes into {@code out}.
+     */
+    protected abstract OutputStream newCompressionStream(OutputStream out) throws IOException;
+
+    /**
+     * Returns {@code true} if and only if the end of the compressed stream has been reached.
+     */
+    public boolean isClosed() {
+        return finished;
+    }
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, ByteBuf msg, ByteBuf out) throws Exception {
+        if (finished) {
+            out.writeBytes(msg);
+            return;
+        }
+
+        int length = msg.readableBytes();
+        if (length == 0) {
+            return;
+        }
+
+        OutputStream stream = stream();
+        sink.target = out;
+        try {
+            if (msg.hasArray()) {
+                stream.write(msg.array(), msg.arrayOffset() + msg.readerIndex(), length);
+                msg.skipBytes(length);
+            } else {
+                byte[] copyBuffer = this.copyBuffer;
+                if (copyBuffer == null) {
+                    this.copyBuffer = copyBuffer = new byte[COPY_BUFFER_SIZE];
+                }
+                while (msg.isReadable()) {
+                    int chunk = Math.min(msg.readableBytes(), copyBuffer.length);
+                    msg.readBytes(copyBuffer, 0, chunk);
+                    stream.write(copyBuffer, 0, chunk);
+                }
+            }
+            stream.flush();
+        } finally {
+            sink.target = null;
+        }
+    }
+
+    @Override
+    protected ByteBuf allocateBuffer(ChannelHandlerContext ctx, ByteBuf msg, boolean preferDirect) {
+        // Compressible content rarely grows, so half the input plus some room for the block headers is a good start.
+        int initialCapacity = (msg.readableBytes() >>> 1) + 64;
+        return preferDirect ? ctx.alloc().ioBuffer(initialCapacity) : ctx.alloc().heapBuffer(initialCapacity);
+    }
+
+    /**
+     * Writes the trailer of the compressed stream and closes the {@link io.netty.channel.Channel} once it is
+     * written, or after 10 seconds at the latest.
+     */
+    @Override
+    public void close(final ChannelHandlerContext ctx, final ChannelPromise promise) throws Exception {
+        ChannelFuture f = finishEncode(ctx, ctx.newPromise());
+        f.addListener(new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture f) throws Exception {
+                ctx.close(promise);
+            }
+        });
+
+        if (!f.isDone()) {
+            // Ensure the channel is closed even if the write operation completes in time.
+            ctx.executor().schedule(new Runnable() {
+                @Override
+                public void run() {
+                    ctx.close(promise);
+                }
+            }, CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    private ChannelFuture finishEncode(ChannelHandlerContext ctx, ChannelPromise promise) {
+        if (finished) {
+            promise.setSuccess();
+            return promise;
+        }
+
+        finished = true;
+        ByteBuf footer = ctx.alloc().heapBuffer();
+        try {
+            // Closing the stream writes the final block, also if nothing was written at all.
+            OutputStream stream = stream();
+            sink.target = footer;
+            stream.close();
+        } catch (IOException e) {
+            footer.release();
+            promise.setFailure(new EncoderException(e));
+            return promise;
+        } finally {
+            sink.target = null;
+            stream = null;
+        }
+        return ctx.writeAndFlush(footer, promise);
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        OutputStream stream = this.stream;
+        if (stream != null) {
+            // Release the native resources, the sink has no target so nothing is written anymore.
+            this.stream = null;
+            finished = true;
+            stream.close();
+        }
+        super.handlerRemoved(ctx);
+    }
+
+    private OutputStream stream() throws IOException {
+        OutputStream stream = this.stream;
+        if (stream == null) {
+            this.stream = stream = newCompressionStream(sink);
+        }
+        return stream;
+    }
+
+    /**
+     * Forwards everything the compressing stream writes to the {@link ByteBuf} that is currently encoded into.
+     */
+    private static final class ByteBufSink extends OutputStream {
+        ByteBuf target;
+
+        @Override
+        public void write(int b) {
+            if (target != null) {
+                target.writeByte(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            if (target != null) {
+                target.writeBytes(b, off, len);
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.compression;
+
+import com.github.luben.zstd.ZstdInputStream;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import static io.netty.util.internal.ObjectUtil.checkPositive;
+
+/**
+ * Decompresses a {@link ByteBuf} encoded with the <a href="https://tools.ietf.org/html/rfc8478">Zstandard</a>
+ * format.
+ * <p>
+ * This requires the optional <a href="https://github.com/luben/zstd-jni">zstd-jni</a> dependency, see
+ * {@link Zstd#isAvailable()}.
+ */
+public class ZstdDecoder extends ByteToMessageDecoder {
+
+    private final ByteBufSource source = new ByteBufSource();
+    private final int outputBufferSize;
+    private ZstdInputStream stream;
+
+    /**
+     * Creates a new decoder which emits buffers of up to {@code 8192} bytes.
+     */
+    public ZstdDecoder() {
+        this(8 * 1024);
+    }
+
+    /**
+     * Creates a new decoder which emits buffers of up to {@code outputBufferSize} bytes.
+     */
+    public ZstdDecoder(int outputBufferSize) {
+        this.outputBufferSize = checkPositive(outputBufferSize, "outputBufferSize");
+        Zstd.ensureAvailability();
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+        stream = new ZstdInputStream(source);
+        // Return what could be decoded so far instead of failing when the input ends in the middle of a frame.
+        stream.setContinuous(true);
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+        if (stream == null) {
+            in.skipBytes(in.readableBytes());
+            return;
+        }
+
+        source.current = in;
+        ByteBuf buffer = null;
+        try {
+            for (;;) {
+                if (buffer == null) {
+                    buffer = ctx.alloc().heapBuffer(outputBufferSize, outputBufferSize);
+                }
+                if (buffer.writeBytes(stream, buffer.writableBytes()) <= 0) {
+                    break;
+                }
+                if (!buffer.isWritable()) {
+                    out.add(buffer);
+                    buffer = null;
+                }
+            }
+            if (buffer.isReadable()) {
+                out.add(buffer);
+                buffer = null;
+            }
+        } catch (IOException e) {
+            close();
+            throw new DecompressionException(e);
+        } finally {
+            if (buffer != null) {
+                buffer.release();
+            }
+            source.current = null;
+        }
+    }
+
+    private void close() {
+        ZstdInputStream stream = this.stream;
+        if (stream != null) {
+            this.stream = null;
+            try {
+                stream.close();
+            } catch (IOException ignore) {
+                // Only releases native resources.
+            }
+        }
+    }
+
+    @Override
+    protected void handlerRemoved0(ChannelHandlerContext ctx) throws Exception {
+        try {
+            close();
+        } finally {
+            super.handlerRemoved0(ctx);
+        }
+    }
+
+    /**
+     * Exposes the cumulation which is currently decoded to the {@link ZstdInputStream}.
+     */
+    private static final class ByteBufSource extends InputStream {
+        ByteBuf current;
+
+        @Override
+        public int read() {
+            if (current == null || !current.isReadable()) {
+                return -1;
+            }
+            return current.readByte() & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (current == null || !current.isReadable()) {
+                return -1;
+            }
+            len = Math.min(len, current.readableBytes());
+            current.readBytes(b, off, len);
+            return len;
+        }
+
+        @Override
+        public int available() {
+            return current == null ? 0 : current.readableBytes();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.compression;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import io.netty.buffer.ByteBuf;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Compresses a {@link ByteBuf} using the <a href="https://tools.ietf.org/html/rfc8478">Zstandard</a> format.
+ * <p>
+ * This requires the optional <a href="https://github.com/luben/zstd-jni">zstd-jni</a> dependency, see
+ * {@link Zstd#isAvailable()}.
+ */
+public class ZstdEncoder extends StreamCompressionEncoder {
+
+    /**
+     * The compression level which is used by default.
+     */
+    public static final int DEFAULT_COMPRESSION_LEVEL = 3;
+
+    /**
+     * The highest supported compression level.
+     */
+    public static final int MAX_COMPRESSION_LEVEL = 22;
+
+    private final int compressionLevel;
+
+    /**
+     * Creates a new encoder with the {@link #DEFAULT_COMPRESSION_LEVEL}.
+     */
+    public ZstdEncoder() {
+        this(DEFAULT_COMPRESSION_LEVEL);
+    }
+
+    /**
+     * Creates a new encoder with the specified compression level.
+     *
+     * @param compressionLevel
+     *        {@code 1} yields the fastest compression and {@code 22} yields the best compression.
+     */
+    public ZstdEncoder(int compressionLevel) {
+        if (compressionLevel < 1 || compressionLevel > MAX_COMPRESSION_LEVEL) {
+            throw new IllegalArgumentException(
+                    "compressionLevel: " + compressionLevel + " (expected: 1-" + MAX_COMPRESSION_LEVEL + ')');
+        }
+        Zstd.ensureAvailability();
+        this.compressionLevel = compressionLevel;
+    }
+
+    @Override
+    protected OutputStream newCompressionStream(OutputStream out) throws IOException {
+        return new ZstdOutputStream(out, compressionLevel);
+    }
+}
@@ -32,6 +32,16 @@ public final class RejectedExecutionHandlers {
         }
     };
 
+    private static final RejectedExecutionHandler DISCARD = new RejectedExecutionHandler() {
+        @Override
+        public void rejected(Runnable task, SingleThreadEventExecutor executor) {
+            if (task instanceof java.util.concurrent.Future) {
+                // Notify everyone who waits for the result of the task.
+                ((java.util.concurrent.Future<?>) task).cancel(false);
+            }
+        }
+    };
+
     private RejectedExecutionHandlers() { }
 
     /**
@@ -41,6 +51,18 @@ public final class RejectedExecutionHandlers {
         return REJECT;
     }
 
+    /**
+     * Returns a {@link RejectedExecutionHandler} that silently drops the task instead of throwing. Tasks that are also
+     * a {@link java.util.concurrent.Future}, like the ones created by {@link EventExecutor#submit(Runnable)}, are
+     * cancelled. Be aware that the listeners of such a {@link Future} are notified via the same executor and so may be
+     * dropped as well, only threads that wait for the {@link Future} are guaranteed to be woken up.
+     * The number of dropped tasks can be obtained via {@link SingleThreadEventExecutor#rejectedTasks()}.
+     * This is useful to shed load when the task queue is bounded via {@code maxPendingTasks}.
+     */
+    public static RejectedExecutionHandler discard() {
+        return DISCARD;
+    }
+
     /**
      * Tries to backoff when the task can not be added due restrictions for an configured amount of time. This
      * is only done if the task was added from outside of the event loop which means
@@ -15,6 +15,7 @@
  */
 package io.netty.util.concurrent;
 
+import io.netty.util.internal.LongCounter;
 import io.netty.util.internal.ObjectUtil;
 import io.netty.util.internal.PlatformDependent;
 import io.netty.util.internal.SystemPropertyUtil;
@@ -37,6 +38,13 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
     static final int DEFAULT_MAX_PENDING_EXECUTOR_TASKS = Math.max(16,
             SystemPropertyUtil.getInt("io.netty.eventexecutor.maxPendingTasks", Integer.MAX_VALUE));
 
+    // A high water mark of 0 disables the overload detection.
+    private static final int DEFAULT_PENDING_TASKS_HIGH_WATER_MARK = Math.max(0,
+            SystemPropertyUtil.getInt("io.netty.eventexecutor.pendingTasksHighWaterMark", 0));
+    private static final int DEFAULT_PENDING_TASKS_LOW_WATER_MARK = Math.max(0,
+            SystemPropertyUtil.getInt("io.netty.eventexecutor.pendingTasksLowWaterMark",
+                    DEFAULT_PENDING_TASKS_HIGH_WATER_MARK / 2));
+
     private static final InternalLogger logger =
             InternalLoggerFactory.getInstance(SingleThreadEventExecutor.class);
 
@@ -63,6 +71,8 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
      * 字段 state 的原子更新器
      */
     private static final AtomicIntegerFieldUpdater<SingleThreadEventExecutor> STATE_UPDATER = AtomicIntegerFieldUpdater.newUpdater(SingleThreadEventExecutor.class, "state");
+    private static final AtomicIntegerFieldUpdater<SingleThreadEventExecutor> OVERLOADED_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(SingleThreadEventExecutor.class, "overloaded");
     /**
      * 字段 threadProperties 的原子更新器
      */
@@ -85,6 +95,13 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
     private final boolean addTaskWakesUp;
     private final int maxPendingTasks;
     private final RejectedExecutionHandler rejectedExecutionHandler;
+    private final LongCounter rejectedTasks = PlatformDependent.newLongCounter();
+
+    private volatile int pendingTasksLowWaterMark;
+    private volatile int pendingTasksHighWaterMark;
+    private volatile int overloaded;
+    // Only accessed from within the EventLoop.
+    private boolean overloadNotified;
 
     private long lastExecutionTime;
 
@@ -157,6 +174,10 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
         this.executor = ObjectUtil.checkNotNull(executor, "executor");
         taskQueue = newTaskQueue(this.maxPendingTasks);
         rejectedExecutionHandler = ObjectUtil.checkNotNull(rejectedHandler, "rejectedHandler");
+        if (DEFAULT_PENDING_TASKS_HIGH_WATER_MARK > 0) {
+            int highWaterMark = Math.min(DEFAULT_PENDING_TASKS_HIGH_WATER_MARK, this.maxPendingTasks);
+            setPendingTasksWaterMarks(Math.min(DEFAULT_PENDING_TASKS_LOW_WATER_MARK, highWaterMark), highWaterMark);
+        }
     }
 
     /**
@@ -222,6 +243,9 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
             throw new UnsupportedOperationException();
         }
 
+        // Executors which only use takeTask() never call runAllTasks(), so the overload state is updated here as well.
+        // This is done before a task is taken, so the state is also cleared before blocking on an empty queue.
+        updateOverloadState();
         BlockingQueue<Runnable> taskQueue = (BlockingQueue<Runnable>) this.taskQueue;
         for (;;) {
             ScheduledFutureTask<?> scheduledTask = peekScheduledTask();
@@ -303,6 +327,100 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
         return taskQueue.size();
     }
 
+    /**
+     * Returns the maximum number of tasks the task queue can hold before new tasks are passed to the
+     * {@link RejectedExecutionHandler}.
+     */
+    public final int maxPendingTasks() {
+        return maxPendingTasks;
+    }
+
+    /**
+     * Returns the number of tasks that could not be added to the task queue and so were passed to the
+     * {@link RejectedExecutionHandler}.
+     */
+    public final long rejectedTasks() {
+        return rejectedTasks.value();
+    }
+
+    /**
+     * Sets the low and high water mark for the number of tasks in the task queue.
+     * <p>
+     * Once the number of queued tasks reaches {@code highWaterMark} this executor is marked as overloaded, which can be
+     * checked via {@link #isOverloaded()}. It stays overloaded until the executor drained its task queue down to
+     * {@code lowWaterMark} tasks. Every change of the overload state is reported from within the executor thread via
+     * {@link #overloadStateChanged(boolean)}. A {@code highWaterMark} of {@code 0} disables the overload detection.
+     * </p>
+     */
+    public final void setPendingTasksWaterMarks(int lowWaterMark, int highWaterMark) {
+        ObjectUtil.checkPositiveOrZero(lowWaterMark, "lowWaterMark");
+        ObjectUtil.checkPositiveOrZero(highWaterMark, "highWaterMark");
+        if (lowWaterMark > highWaterMark) {
+            throw new IllegalArgumentException(
+                    "lowWaterMark cannot be greater than highWaterMark (" + highWaterMark + "): " + lowWaterMark);
+        }
+        if (highWaterMark > maxPendingTasks) {
+            throw new IllegalArgumentException(
+                    "highWaterMark cannot be greater than maxPendingTasks (" + maxPendingTasks + "): " +
+                            highWaterMark);
+        }
+        pendingTasksLowWaterMark = lowWaterMark;
+        pendingTasksHighWaterMark = highWaterMark;
+        if (highWaterMark == 0) {
+            // The overload detection was disabled, the executor will report the state change on its next run.
+            overloaded = 0;
+        }
+    }
+
+    /**
+     * Returns the low water mark for the number of tasks in the task queue.
+     */
+    public final int pendingTasksLowWaterMark() {
+        return pendingTasksLowWaterMark;
+    }
+
+    /**
+     * Returns the high water mark for the number of tasks in the task queue or {@code 0} if the overload detection is
+     * disabled.
+     */
+    public final int pendingTasksHighWaterMark() {
+        return pendingTasksHighWaterMark;
+    }
+
+    /**
+     * Returns {@code true} if the number of tasks in the task queue reached the
+     * {@linkplain #pendingTasksHighWaterMark() high water mark} and was not yet drained down to the
+     * {@linkplain #pendingTasksLowWaterMark() low water mark}.
+     */
+    public final boolean isOverloaded() {
+        return overloaded != 0;
+    }
+
+    /**
+     * Called from within the executor thread once the value of {@link #isOverloaded()} changed. Sub-classes may
+     * override this to shed load, for example by stopping to read from the channels that are served by this executor.
+     */
+    @UnstableApi
+    protected void overloadStateChanged(boolean overloaded) {
+        // NOOP
+    }
+
+    private void updateOverloadState() {
+        boolean nowOverloaded = overloaded != 0;
+        // Only leave the overloaded state once it was reported, so every transition is seen by overloadStateChanged.
+        if (nowOverloaded && overloadNotified && taskQueue.size() <= pendingTasksLowWaterMark) {
+            nowOverloaded = !OVERLOADED_UPDATER.compareAndSet(this, 1, 0);
+        }
+        if (nowOverloaded != overloadNotified) {
+            overloadNotified = nowOverloaded;
+            try {
+                overloadStateChanged(nowOverloaded);
+            } catch (Throwable t) {
+                logger.warn("An exception was thrown by " + getClass().getName() + ".overloadStateChanged()", t);
+            }
+        }
+    }
+
     /**
      * Add a task to the task queue, or throws a {@link RejectedExecutionException} if this instance was shutdown
      * before.
@@ -320,7 +438,14 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
         if (isShutdown()) {
             reject();
         }
-        return taskQueue.offer(task);
+        if (!taskQueue.offer(task)) {
+            return false;
+        }
+        int highWaterMark = pendingTasksHighWaterMark;
+        if (highWaterMark != 0 && overloaded == 0 && taskQueue.size() >= highWaterMark) {
+            OVERLOADED_UPDATER.compareAndSet(this, 0, 1);
+        }
+        return true;
     }
 
     /**
@@ -343,6 +468,7 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
         boolean fetchedAll;
         boolean ranAtLeastOne = false;
 
+        updateOverloadState();
         do {
             fetchedAll = fetchFromScheduledTaskQueue();
             if (runAllTasksFrom(taskQueue)) {
@@ -353,6 +479,7 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
         if (ranAtLeastOne) {
             lastExecutionTime = ScheduledFutureTask.nanoTime();
         }
+        updateOverloadState();
         afterRunningAllTasks();
         return ranAtLeastOne;
     }
@@ -383,9 +510,11 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
      * the tasks in the task queue and returns if it ran longer than {@code timeoutNanos}.
      */
     protected boolean runAllTasks(long timeoutNanos) {
+        updateOverloadState();
         fetchFromScheduledTaskQueue();
         Runnable task = pollTask();
         if (task == null) {
+            updateOverloadState();
             afterRunningAllTasks();
             return false;
         }
@@ -414,6 +543,7 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
             }
         }
 
+        updateOverloadState();
         afterRunningAllTasks();
         this.lastExecutionTime = lastExecutionTime;
         return true;
@@ -844,6 +974,7 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
      * @param task to reject.
      */
     protected final void reject(Runnable task) {
+        rejectedTasks.increment();
         rejectedExecutionHandler.rejected(task, this);
     }
 
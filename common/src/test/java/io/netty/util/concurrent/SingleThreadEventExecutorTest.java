@@ -20,10 +20,13 @@ import org.junit.Test;
 
 import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
@@ -170,4 +173,127 @@ public class SingleThreadEventExecutorTest {
             executor.shutdownGracefully(0, 0, TimeUnit.MILLISECONDS);
         }
     }
+
+    @Test(timeout = 5000)
+    public void testOverloadStateChanged() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final BlockingQueue<Boolean> states = new LinkedBlockingQueue<Boolean>();
+        SingleThreadEventExecutor executor = new LatchedEventExecutor(latch, RejectedExecutionHandlers.reject()) {
+            @Override
+            protected void overloadStateChanged(boolean overloaded) {
+                states.add(overloaded);
+            }
+        };
+        executor.setPendingTasksWaterMarks(1, 3);
+        try {
+            executor.execute(NOOP);
+            executor.execute(NOOP);
+            Assert.assertFalse(executor.isOverloaded());
+            executor.execute(NOOP);
+            Assert.assertTrue(executor.isOverloaded());
+            executor.execute(NOOP);
+
+            latch.countDown();
+            Assert.assertEquals(Boolean.TRUE, states.take());
+            Assert.assertEquals(Boolean.FALSE, states.take());
+            Assert.assertFalse(executor.isOverloaded());
+        } finally {
+            latch.countDown();
+            executor.shutdownGracefully(0, 0, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void testOverloadStateClearedByTakeTask() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        // DefaultEventExecutor only uses takeTask() and never runAllTasks().
+        DefaultEventExecutor executor = new DefaultEventExecutor();
+        executor.setPendingTasksWaterMarks(1, 3);
+        try {
+            executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        latch.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            for (int i = 0; i < 3; i++) {
+                executor.execute(NOOP);
+            }
+            Assert.assertTrue(executor.isOverloaded());
+
+            latch.countDown();
+            while (executor.isOverloaded()) {
+                Thread.sleep(10);
+            }
+            Assert.assertEquals(0, executor.pendingTasks());
+        } finally {
+            latch.countDown();
+            executor.shutdownGracefully(0, 0, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidWaterMarks() {
+        SingleThreadEventExecutor executor = new LatchedEventExecutor(
+                new CountDownLatch(0), RejectedExecutionHandlers.reject());
+        executor.setPendingTasksWaterMarks(4, 3);
+    }
+
+    @Test(timeout = 5000)
+    public void testDiscardRejectedTasks() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        SingleThreadEventExecutor executor = new LatchedEventExecutor(latch, RejectedExecutionHandlers.discard());
+        try {
+            for (int i = 0; i < executor.maxPendingTasks(); i++) {
+                executor.execute(NOOP);
+            }
+            Assert.assertEquals(0, executor.rejectedTasks());
+
+            executor.execute(NOOP);
+            executor.execute(NOOP);
+            Assert.assertEquals(2, executor.rejectedTasks());
+
+            Future<?> future = executor.submit(NOOP);
+            Assert.assertTrue(future.isCancelled());
+        } finally {
+            latch.countDown();
+            executor.shutdownGracefully(0, 0, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static final Runnable NOOP = new Runnable() {
+        @Override
+        public void run() {
+            // NOOP
+        }
+    };
+
+    private static class LatchedEventExecutor extends SingleThreadEventExecutor {
+        private final CountDownLatch latch;
+
+        LatchedEventExecutor(CountDownLatch latch, RejectedExecutionHandler rejectedHandler) {
+            super(null, Executors.defaultThreadFactory(), true, 16, rejectedHandler);
+            this.latch = latch;
+        }
+
+        @Override
+        protected void run() {
+            try {
+                latch.await();
+            } catch (InterruptedException ignore) {
+                // Ignore
+            }
+            do {
+                Runnable task = takeTask();
+                if (task != null) {
+                    task.run();
+                }
+                runAllTasks();
+            } while (!confirmShutdown());
+        }
+    }
 }
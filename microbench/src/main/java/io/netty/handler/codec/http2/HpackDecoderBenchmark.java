@@ -57,11 +57,16 @@ public class HpackDecoderBenchmark extends AbstractMicrobenchmark {
     @Param({ "true", "false" })
     public boolean limitToAscii;
 
+    @Param({ "true", "false" })
+    public boolean zeroCopyLiterals;
+
     private ByteBuf input;
+    private HpackDecoder connectionDecoder;
 
     @Setup(Level.Trial)
     public void setup() throws Http2Exception {
         input = wrappedBuffer(getSerializedHeaders(http2Headers(size, limitToAscii), sensitive));
+        connectionDecoder = new HpackDecoder(DEFAULT_HEADER_LIST_SIZE, 32, zeroCopyLiterals);
     }
 
     @TearDown(Level.Trial)
@@ -72,7 +77,21 @@ public class HpackDecoderBenchmark extends AbstractMicrobenchmark {
     @Benchmark
     @BenchmarkMode(Mode.Throughput)
     public void decode(final Blackhole bh) throws Http2Exception {
-        HpackDecoder hpackDecoder = new HpackDecoder(DEFAULT_HEADER_LIST_SIZE, 32);
+        HpackDecoder hpackDecoder = new HpackDecoder(DEFAULT_HEADER_LIST_SIZE, 32, zeroCopyLiterals);
+        hpackDecoder.decode(0, input.duplicate(), newHeaders(bh), true);
+    }
+
+    /**
+     * Decodes the same header block again and again with the same decoder, like the requests of a connection which
+     * repeat the same header values.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public void decodeOnConnection(final Blackhole bh) throws Http2Exception {
+        connectionDecoder.decode(0, input.duplicate(), newHeaders(bh), true);
+    }
+
+    private Http2Headers newHeaders(final Blackhole bh) {
         @SuppressWarnings("unchecked")
         Http2Headers headers =
                 new DefaultHttp2Headers() {
@@ -82,7 +101,7 @@ public class HpackDecoderBenchmark extends AbstractMicrobenchmark {
                 return this;
             }
         };
-        hpackDecoder.decode(0, input.duplicate(), headers, true);
+        return headers;
     }
 
     private byte[] getSerializedHeaders(Http2Headers headers, boolean sensitive) throws Http2Exception {
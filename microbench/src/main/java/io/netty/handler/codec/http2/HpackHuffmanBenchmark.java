@@ -0,0 +1,106 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.http2;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the Huffman coding of header names and values on their own, without the rest of HPACK.
+ */
+@Fork(1)
+@Threads(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HpackHuffmanBenchmark extends AbstractMicrobenchmark {
+
+    @Param
+    public HpackHeadersSize size;
+
+    @Param({ "true", "false" })
+    public boolean limitToAscii;
+
+    private CharSequence[] strings;
+    private ByteBuf[] encoded;
+    private ByteBuf output;
+    private HpackHuffmanEncoder encoder;
+    private HpackHuffmanDecoder decoder;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        List<HpackHeader> headers = HpackBenchmarkUtil.headers(size, limitToAscii);
+        encoder = new HpackHuffmanEncoder();
+        decoder = new HpackHuffmanDecoder(Http2CodecUtil.DEFAULT_INITIAL_HUFFMAN_DECODE_CAPACITY);
+        strings = new CharSequence[headers.size() * 2];
+        encoded = new ByteBuf[strings.length];
+        for (int i = 0; i < headers.size(); ++i) {
+            strings[i * 2] = headers.get(i).name;
+            strings[i * 2 + 1] = headers.get(i).value;
+        }
+        for (int i = 0; i < strings.length; ++i) {
+            encoded[i] = Unpooled.buffer(encoder.getEncodedLength(strings[i]));
+            encoder.encode(encoded[i], strings[i]);
+        }
+        output = size.newOutBuffer();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for (ByteBuf buf : encoded) {
+            buf.release();
+        }
+        output.release();
+    }
+
+    @Benchmark
+    public void encode(Blackhole bh) {
+        output.clear();
+        for (CharSequence string : strings) {
+            encoder.encode(output, string);
+        }
+        bh.consume(output);
+    }
+
+    @Benchmark
+    public void decode(Blackhole bh) throws Http2Exception {
+        for (ByteBuf buf : encoded) {
+            bh.consume(decoder.decode(buf, buf.readableBytes()));
+            buf.readerIndex(0);
+        }
+    }
+}
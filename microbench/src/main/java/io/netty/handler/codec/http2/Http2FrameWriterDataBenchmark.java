@@ -70,11 +70,22 @@ public class Http2FrameWriterDataBenchmark extends AbstractMicrobenchmark {
     private ChannelHandlerContext ctx;
     private Http2DataWriter writer;
     private Http2DataWriter oldWriter;
+    private CoalescingHttp2FrameWriter coalescingWriter;
+
+    /**
+     * The number of streams which each write a DATA frame before the frames are flushed.
+     */
+    @State(Scope.Benchmark)
+    public static class Streams {
+        @Param({ "10", "100" })
+        public int streams;
+    }
 
     @Setup(Level.Trial)
     public void setup() {
         writer = new DefaultHttp2FrameWriter();
         oldWriter = new OldDefaultHttp2FrameWriter();
+        coalescingWriter = new CoalescingHttp2FrameWriter(new DefaultHttp2FrameWriter());
         payload = pooled ? PooledByteBufAllocator.DEFAULT.buffer(payloadSize) : Unpooled.buffer(payloadSize);
         payload.writeZero(payloadSize);
         ctx = new EmbeddedChannelWriteReleaseHandlerContext(
@@ -92,6 +103,9 @@ public class Http2FrameWriterDataBenchmark extends AbstractMicrobenchmark {
         if (payload != null) {
             payload.release();
         }
+        if (coalescingWriter != null) {
+            coalescingWriter.close();
+        }
         if (ctx != null) {
             ctx.close();
         }
@@ -111,6 +125,27 @@ public class Http2FrameWriterDataBenchmark extends AbstractMicrobenchmark {
         ctx.flush();
     }
 
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public void newWriterManyStreams(Streams streams) {
+        writeManyStreams(writer, streams.streams);
+        ctx.flush();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public void coalescingWriterManyStreams(Streams streams) {
+        writeManyStreams(coalescingWriter, streams.streams);
+        coalescingWriter.writeCoalescedFrames();
+        ctx.flush();
+    }
+
+    private void writeManyStreams(Http2DataWriter writer, int streams) {
+        for (int i = 0; i < streams; i++) {
+            writer.writeData(ctx, 3 + 2 * i, payload.retainedDuplicate(), padding, true, ctx.voidPromise());
+        }
+    }
+
     private static final class OldDefaultHttp2FrameWriter implements Http2DataWriter {
         private static final ByteBuf ZERO_BUFFER =
                 unreleasableBuffer(directBuffer(MAX_UNSIGNED_BYTE).writeZero(MAX_UNSIGNED_BYTE)).asReadOnly();
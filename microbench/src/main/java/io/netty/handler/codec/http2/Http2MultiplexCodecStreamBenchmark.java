@@ -0,0 +1,132 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.http2;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler.Sharable;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import io.netty.util.ReferenceCountUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.netty.handler.codec.http2.Http2CodecUtil.connectionPrefaceBuf;
+import static io.netty.handler.codec.http2.Http2CodecUtil.writeFrameHeader;
+import static io.netty.handler.codec.http2.Http2FrameTypes.HEADERS;
+import static io.netty.handler.codec.http2.Http2FrameTypes.SETTINGS;
+
+/**
+ * Measures how many request streams per second a server side {@link Http2MultiplexCodec} can open, answer and close,
+ * with and without recycling of its child channels.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class Http2MultiplexCodecStreamBenchmark extends AbstractMicrobenchmark {
+    // GET http://<no authority>/ using only indexed header fields of the static table.
+    private static final byte[] HEADER_BLOCK = { (byte) 0x82, (byte) 0x86, (byte) 0x84 };
+
+    @Param({ "true", "false" })
+    public boolean recycle;
+
+    private EmbeddedChannel channel;
+    private int streamId;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        Http2MultiplexCodecBuilder builder = Http2MultiplexCodecBuilder.forServer(new ChannelInitializer<Channel>() {
+            @Override
+            protected void initChannel(Channel ch) {
+                ch.pipeline().addLast(ResponseHandler.INSTANCE);
+            }
+        });
+        if (recycle) {
+            builder.childChannelRecycling(16, new Http2StreamChannelResetHook() {
+                @Override
+                public boolean reset(Http2StreamChannel channel) {
+                    // ResponseHandler is stateless, so there is nothing to reset.
+                    return true;
+                }
+            });
+        }
+        channel = new EmbeddedChannel(builder.build());
+        ByteBuf settings = Unpooled.buffer();
+        writeFrameHeader(settings, 0, SETTINGS, new Http2Flags(), 0);
+        channel.writeInbound(connectionPrefaceBuf(), settings);
+        releaseOutbound();
+        streamId = 1;
+    }
+
+    @TearDown(Level.Iteration)
+    public void teardown() {
+        channel.finishAndReleaseAll();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public void stream() {
+        ByteBuf frame = channel.alloc().buffer(Http2CodecUtil.FRAME_HEADER_LENGTH + HEADER_BLOCK.length);
+        writeFrameHeader(frame, HEADER_BLOCK.length, HEADERS, new Http2Flags().endOfHeaders(true).endOfStream(true),
+                streamId);
+        frame.writeBytes(HEADER_BLOCK);
+        streamId += 2;
+        channel.writeInbound(frame);
+        channel.runPendingTasks();
+        releaseOutbound();
+    }
+
+    private void releaseOutbound() {
+        for (;;) {
+            Object msg = channel.readOutbound();
+            if (msg == null) {
+                break;
+            }
+            ReferenceCountUtil.release(msg);
+        }
+    }
+
+    @Sharable
+    private static final class ResponseHandler extends ChannelInboundHandlerAdapter {
+        static final ResponseHandler INSTANCE = new ResponseHandler();
+        private static final Http2Headers RESPONSE_HEADERS = new DefaultHttp2Headers().status("200");
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            ReferenceCountUtil.release(msg);
+            ctx.writeAndFlush(new DefaultHttp2HeadersFrame(RESPONSE_HEADERS, true));
+        }
+    }
+}
@@ -15,13 +15,21 @@
  */
 package io.netty.microbench.http;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.handler.codec.http.cookie.ClientCookieDecoder;
 import io.netty.handler.codec.http.cookie.Cookie;
+import io.netty.handler.codec.http.cookie.ServerCookieEncoder;
+import io.netty.util.CharsetUtil;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
 
 import java.util.concurrent.TimeUnit;
 
+@State(Scope.Thread)
 @OutputTimeUnit(TimeUnit.SECONDS)
 public class ClientCookieDecoderBenchmark {
 
@@ -29,8 +37,30 @@ public class ClientCookieDecoderBenchmark {
             "__Host-user_session_same_site=fgfMsM59vJTpZg88nxqKkIhgOt0ADF8LX8wjMMbtcb4IJMufWCnCcXORhbo9QMuyiybdtx; " +
                     "path=/; expires=Mon, 28 Nov 2016 13:56:01 GMT; secure; HttpOnly";
 
+    private static final Cookie COOKIE = ClientCookieDecoder.STRICT.decode(COOKIE_STRING);
+
+    private final ByteBuf out = Unpooled.directBuffer(512);
+
+    @TearDown
+    public void teardown() {
+        out.release();
+    }
+
     @Benchmark
     public Cookie decodeCookieWithRfc1123ExpiresField() {
         return ClientCookieDecoder.STRICT.decode(COOKIE_STRING);
     }
+
+    @Benchmark
+    public int encodeSetCookieToString() {
+        out.clear();
+        return out.writeCharSequence(ServerCookieEncoder.STRICT.encode(COOKIE), CharsetUtil.US_ASCII);
+    }
+
+    @Benchmark
+    public int encodeSetCookieToByteBuf() {
+        out.clear();
+        ServerCookieEncoder.STRICT.encode(COOKIE, out);
+        return out.readableBytes();
+    }
 }
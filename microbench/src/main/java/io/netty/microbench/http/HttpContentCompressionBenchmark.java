@@ -0,0 +1,148 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.http;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.compression.BrotliEncoder;
+import io.netty.handler.codec.compression.ZlibCodecFactory;
+import io.netty.handler.codec.compression.ZlibWrapper;
+import io.netty.handler.codec.compression.ZstdEncoder;
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import io.netty.util.CharsetUtil;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+
+/**
+ * Compares the throughput and the compression ratio of the content encodings which are supported by
+ * {@link io.netty.handler.codec.http.HttpContentCompressor}, using the default settings of the compressor.
+ * The {@code br} and {@code zstd} encodings require the native libraries of Brotli4j and zstd-jni.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Threads(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class HttpContentCompressionBenchmark extends AbstractMicrobenchmark {
+
+    public enum Encoding {
+        GZIP,
+        BR,
+        ZSTD
+    }
+
+    @Param
+    private Encoding encoding;
+
+    @Param({ "1024", "65536" })
+    private int payloadSize;
+
+    private ByteBuf payload;
+
+    /**
+     * The sizes of the compressed responses of a single iteration.
+     */
+    @AuxCounters
+    @State(Scope.Thread)
+    public static class CompressionCounters {
+        long uncompressedBytes;
+        long compressedBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            uncompressedBytes = 0;
+            compressedBytes = 0;
+        }
+
+        /**
+         * The compressed size in percent of the original size.
+         */
+        public double compressedPercent() {
+            return uncompressedBytes == 0 ? 0 : compressedBytes * 100.0 / uncompressedBytes;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        // A JSON document is the typical dynamic content, so it is neither trivially nor hardly compressible.
+        Random random = new Random(42);
+        StringBuilder json = new StringBuilder(payloadSize + 128).append('[');
+        for (int i = 0; json.length() < payloadSize; i++) {
+            json.append("{\"id\":").append(i)
+                .append(",\"name\":\"user-").append(Long.toHexString(random.nextLong()))
+                .append("\",\"active\":").append(random.nextBoolean())
+                .append(",\"score\":").append(random.nextInt(100000))
+                .append(",\"tags\":[\"netty\",\"http\",\"compression\"]},");
+        }
+        json.setLength(payloadSize - 1);
+        json.append(']');
+        payload = Unpooled.unreleasableBuffer(
+                Unpooled.directBuffer(payloadSize).writeBytes(json.toString().getBytes(CharsetUtil.US_ASCII)));
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() {
+        payload.unwrap().release();
+    }
+
+    @Benchmark
+    public int compress(CompressionCounters counters) {
+        // Every response is compressed with a new encoder, like HttpContentCompressor does.
+        EmbeddedChannel channel = new EmbeddedChannel(newEncoder());
+        channel.writeOutbound(payload.duplicate());
+        channel.finish();
+
+        int compressedBytes = 0;
+        for (;;) {
+            ByteBuf buf = channel.readOutbound();
+            if (buf == null) {
+                break;
+            }
+            compressedBytes += buf.readableBytes();
+            buf.release();
+        }
+        counters.uncompressedBytes += payloadSize;
+        counters.compressedBytes += compressedBytes;
+        return compressedBytes;
+    }
+
+    private ChannelHandler newEncoder() {
+        switch (encoding) {
+        case GZIP:
+            return ZlibCodecFactory.newZlibEncoder(ZlibWrapper.GZIP, 6, 15, 8);
+        case BR:
+            return new BrotliEncoder();
+        case ZSTD:
+            return new ZstdEncoder();
+        default:
+            throw new Error();
+        }
+    }
+}
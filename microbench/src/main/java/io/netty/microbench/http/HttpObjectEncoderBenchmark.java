@@ -19,22 +19,29 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.buffer.Unpooled;
 import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.DateFormatter;
 import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
 import io.netty.handler.codec.http.DefaultHttpHeaders;
 import io.netty.handler.codec.http.DefaultHttpRequest;
 import io.netty.handler.codec.http.DefaultLastHttpContent;
 import io.netty.handler.codec.http.EmptyHttpHeaders;
 import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
 import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpHeaderValues;
 import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpMethod;
 import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.HttpRequestEncoder;
+import io.netty.handler.codec.http.HttpResponseEncoder;
+import io.netty.handler.codec.http.HttpResponseStatus;
 import io.netty.handler.codec.http.HttpVersion;
 import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.handler.codec.http.PreEncodedHttpHeaders;
 import io.netty.microbench.channel.EmbeddedChannelWriteReleaseHandlerContext;
 import io.netty.microbench.util.AbstractMicrobenchmark;
 import org.openjdk.jmh.annotations.Benchmark;
@@ -49,6 +56,8 @@ import org.openjdk.jmh.annotations.TearDown;
 import org.openjdk.jmh.annotations.Threads;
 import org.openjdk.jmh.annotations.Warmup;
 
+import java.util.Date;
+
 @State(Scope.Benchmark)
 @Fork(1)
 @Threads(1)
@@ -62,6 +71,12 @@ public class HttpObjectEncoderBenchmark extends AbstractMicrobenchmark {
     private HttpRequest chunkedRequest;
     private ByteBuf content;
     private ChannelHandlerContext context;
+    private HttpResponseEncoder responseEncoder;
+    private ChannelHandlerContext responseContext;
+    private HttpResponseEncoder preEncodedResponseEncoder;
+    private ChannelHandlerContext preEncodedResponseContext;
+    private FullHttpResponse fullResponse;
+    private FullHttpResponse preEncodedFullResponse;
 
     @Param({ "true", "false" })
     public boolean pooledAllocator;
@@ -87,9 +102,31 @@ public class HttpObjectEncoderBenchmark extends AbstractMicrobenchmark {
         chunkedRequest = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/index", headersWithChunked);
         lastContent = new DefaultLastHttpContent(testContent, false);
 
+        HttpHeaders staticHeaders = new DefaultHttpHeaders(false)
+                .add(HttpHeaderNames.SERVER, "netty")
+                .add(HttpHeaderNames.CONTENT_TYPE, "application/json; charset=utf-8")
+                .add(HttpHeaderNames.CACHE_CONTROL, "no-cache, no-store, must-revalidate")
+                .add(HttpHeaderNames.VARY, HttpHeaderNames.ACCEPT_ENCODING);
+        HttpHeaders responseHeaders = new DefaultHttpHeaders(false)
+                .add(staticHeaders)
+                .add(HttpHeaderNames.DATE, DateFormatter.format(new Date()))
+                .add(HttpHeaderNames.CONTENT_LENGTH, testContent.readableBytes());
+        fullResponse = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK, testContent,
+                responseHeaders, EmptyHttpHeaders.INSTANCE);
+        preEncodedFullResponse = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK,
+                testContent, headersWithContentLength, EmptyHttpHeaders.INSTANCE);
+
         encoder = new HttpRequestEncoder();
-        context = new EmbeddedChannelWriteReleaseHandlerContext(pooledAllocator ? PooledByteBufAllocator.DEFAULT :
-                UnpooledByteBufAllocator.DEFAULT, encoder) {
+        context = newContext(encoder);
+        responseEncoder = new HttpResponseEncoder();
+        responseContext = newContext(responseEncoder);
+        preEncodedResponseEncoder = new HttpResponseEncoder(new PreEncodedHttpHeaders(staticHeaders), true);
+        preEncodedResponseContext = newContext(preEncodedResponseEncoder);
+    }
+
+    private ChannelHandlerContext newContext(ChannelHandler handler) {
+        return new EmbeddedChannelWriteReleaseHandlerContext(pooledAllocator ? PooledByteBufAllocator.DEFAULT :
+                UnpooledByteBufAllocator.DEFAULT, handler) {
             @Override
             protected void handleException(Throwable t) {
                 handleUnexpectedException(t);
@@ -120,7 +157,22 @@ public class HttpObjectEncoderBenchmark extends AbstractMicrobenchmark {
         encoder.write(context, lastContent, newPromise());
     }
 
+    @Benchmark
+    public void fullResponse() throws Exception {
+        responseEncoder.write(responseContext, fullResponse, newPromise(responseContext));
+    }
+
+    @Benchmark
+    public void fullResponsePreEncodedHeaders() throws Exception {
+        preEncodedResponseEncoder.write(preEncodedResponseContext, preEncodedFullResponse,
+                newPromise(preEncodedResponseContext));
+    }
+
     private ChannelPromise newPromise() {
+        return newPromise(context);
+    }
+
+    private ChannelPromise newPromise(ChannelHandlerContext context) {
         return voidPromise ? context.voidPromise() : context.newPromise();
     }
 }
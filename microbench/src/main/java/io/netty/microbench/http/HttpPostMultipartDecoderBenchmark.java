@@ -0,0 +1,147 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.http;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpObject;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.multipart.DefaultHttpDataFactory;
+import io.netty.handler.codec.http.multipart.FileUpload;
+import io.netty.handler.codec.http.multipart.HttpPostMultipartStreamDecoder;
+import io.netty.handler.codec.http.multipart.HttpPostRequestDecoder;
+import io.netty.handler.codec.http.multipart.MultipartFileWriter;
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import io.netty.util.CharsetUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Random;
+
+/**
+ * Compares {@link HttpPostRequestDecoder} with {@link HttpPostMultipartStreamDecoder} for a large file upload which
+ * is received in chunks of {@code 8192} bytes and written to disk.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Threads(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class HttpPostMultipartDecoderBenchmark extends AbstractMicrobenchmark {
+
+    private static final String BOUNDARY = "dLV9Wyq26L_-JQxk6ferf-RT153LhOO";
+    private static final int CHUNK_SIZE = 8192;
+
+    @Param({ "1048576", "16777216" })
+    private int fileSize;
+
+    private HttpRequest request;
+    private ByteBuf body;
+    private File file;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        request = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/upload");
+        request.headers().set(HttpHeaderNames.CONTENT_TYPE, "multipart/form-data; boundary=" + BOUNDARY);
+
+        byte[] data = new byte[fileSize];
+        new Random(42).nextBytes(data);
+        ByteBuf body = Unpooled.directBuffer(fileSize + 256);
+        body.writeBytes(("--" + BOUNDARY + "\r\n" +
+                "Content-Disposition: form-data; name=\"file\"; filename=\"upload.bin\"\r\n" +
+                "Content-Type: application/octet-stream\r\n" +
+                "\r\n").getBytes(CharsetUtil.US_ASCII));
+        body.writeBytes(data);
+        body.writeBytes(("\r\n--" + BOUNDARY + "--\r\n").getBytes(CharsetUtil.US_ASCII));
+        this.body = Unpooled.unreleasableBuffer(body);
+
+        file = File.createTempFile("netty-benchmark-", ".bin");
+        file.deleteOnExit();
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() {
+        body.unwrap().release();
+        file.delete();
+    }
+
+    @Benchmark
+    public long postRequestDecoder() throws IOException {
+        HttpPostRequestDecoder decoder = new HttpPostRequestDecoder(new DefaultHttpDataFactory(true), request);
+        try {
+            ByteBuf body = this.body.duplicate();
+            long length = 0;
+            while (body.isReadable()) {
+                decoder.offer(nextChunk(body));
+                while (decoder.hasNext()) {
+                    length += ((FileUpload) decoder.next()).length();
+                }
+            }
+            return length;
+        } finally {
+            decoder.destroy();
+        }
+    }
+
+    @Benchmark
+    public long multipartStreamDecoder() throws IOException {
+        HttpPostMultipartStreamDecoder decoder = new HttpPostMultipartStreamDecoder(request);
+        MultipartFileWriter writer = new MultipartFileWriter(new RandomAccessFile(file, "rw").getChannel());
+        try {
+            ByteBuf body = this.body.duplicate();
+            while (body.isReadable()) {
+                decoder.offer(nextChunk(body));
+                for (;;) {
+                    HttpObject next = decoder.next();
+                    if (next == null) {
+                        break;
+                    }
+                    if (next instanceof HttpContent) {
+                        writer.write(((HttpContent) next).content());
+                    }
+                }
+            }
+        } finally {
+            writer.close();
+            decoder.destroy();
+        }
+        return writer.writtenBytes();
+    }
+
+    private static HttpContent nextChunk(ByteBuf body) {
+        ByteBuf chunk = body.readSlice(Math.min(CHUNK_SIZE, body.readableBytes()));
+        return body.isReadable() ? new DefaultHttpContent(chunk) : new DefaultLastHttpContent(chunk);
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.http;
+
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import io.netty.handler.codec.http.router.HttpRouteMatch;
+import io.netty.handler.codec.http.router.HttpRouter;
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import io.netty.util.AsciiString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Compares {@link HttpRouter} with dispatching on the path returned by {@link QueryStringDecoder}, using a
+ * {@link HashMap} for static routes and matching the segments of the templates with parameters one after the other.
+ * Half of the requests go to static routes, the other half to routes with two parameters.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Threads(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class HttpRouterBenchmark extends AbstractMicrobenchmark {
+
+    private static final int URI_COUNT = 1024;
+
+    @Param({ "10", "1000", "10000" })
+    private int routeCount;
+
+    private HttpRouter<Integer> router;
+    private Map<String, Integer> staticRoutes;
+    private List<String[]> templates;
+    private String[] uris;
+    private AsciiString[] asciiUris;
+    private int index;
+
+    @Setup
+    public void setup() {
+        router = new HttpRouter<Integer>();
+        staticRoutes = new HashMap<String, Integer>();
+        templates = new ArrayList<String[]>();
+        for (int i = 0; i < routeCount; i++) {
+            String staticPath = "/api/v1/resource" + i;
+            String template = "/api/v1/resource" + i + "/:id/items/:item";
+            router.addRoute(HttpMethod.GET, staticPath, i);
+            router.addRoute(HttpMethod.GET, template, i);
+            staticRoutes.put(staticPath, i);
+            templates.add(template.split("/"));
+        }
+
+        Random random = new Random(42);
+        uris = new String[URI_COUNT];
+        asciiUris = new AsciiString[URI_COUNT];
+        for (int i = 0; i < URI_COUNT; i++) {
+            int route = random.nextInt(routeCount);
+            uris[i] = (i & 1) == 0 ? "/api/v1/resource" + route + "?page=" + i :
+                    "/api/v1/resource" + route + '/' + random.nextInt(100000) + "/items/" + i + "?expand=all";
+            asciiUris[i] = new AsciiString(uris[i]);
+        }
+    }
+
+    @Benchmark
+    public int routerAsciiString() {
+        HttpRouteMatch<Integer> match = router.route(HttpMethod.GET, asciiUris[next()]);
+        return match.paramCount() == 0 ? match.target() : match.target() + match.param(1).length();
+    }
+
+    @Benchmark
+    public int routerString() {
+        HttpRouteMatch<Integer> match = router.route(HttpMethod.GET, uris[next()]);
+        return match.paramCount() == 0 ? match.target() : match.target() + match.param(1).length();
+    }
+
+    @Benchmark
+    public int queryStringDecoder() {
+        String path = new QueryStringDecoder(uris[next()]).path();
+        Integer target = staticRoutes.get(path);
+        if (target != null) {
+            return target;
+        }
+        String[] segments = path.split("/");
+        for (int i = 0; i < templates.size(); i++) {
+            String[] template = templates.get(i);
+            if (template.length != segments.length) {
+                continue;
+            }
+            Map<String, String> params = new HashMap<String, String>();
+            boolean matches = true;
+            for (int j = 0; j < template.length; j++) {
+                if (template[j].startsWith(":")) {
+                    params.put(template[j].substring(1), segments[j]);
+                } else if (!template[j].equals(segments[j])) {
+                    matches = false;
+                    break;
+                }
+            }
+            if (matches) {
+                return i + params.get("item").length();
+            }
+        }
+        throw new IllegalStateException("no route for " + path);
+    }
+
+    private int next() {
+        return index = (index + 1) & (URI_COUNT - 1);
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.http;
+
+import io.netty.handler.codec.http.QueryStringDecoder;
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import io.netty.util.AsciiString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reads a single parameter from a URI with a long tracking query string, either via
+ * {@link QueryStringDecoder#parameters()} or via {@link QueryStringDecoder#parameter(CharSequence)}.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Threads(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class QueryStringDecoderBenchmark extends AbstractMicrobenchmark {
+
+    private static final AsciiString ID = AsciiString.cached("id");
+
+    @Param({ "4", "32" })
+    private int trackingParams;
+
+    private String uri;
+
+    @Setup
+    public void setup() {
+        StringBuilder buf = new StringBuilder("/api/v1/items?id=1234567890");
+        for (int i = 0; i < trackingParams; i++) {
+            buf.append("&utm_param").append(i).append("=campaign%20").append(i).append("%2Fnewsletter");
+        }
+        uri = buf.toString();
+    }
+
+    @Benchmark
+    public String eager() {
+        return new QueryStringDecoder(uri).parameters().get("id").get(0);
+    }
+
+    @Benchmark
+    public String lazy() {
+        return new QueryStringDecoder(uri).parameter(ID);
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.http;
+
+import io.netty.handler.codec.http.cookie.Cookie;
+import io.netty.handler.codec.http.cookie.ServerCookieDecoder;
+import io.netty.util.AsciiString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looks up a single cookie of a typical browser Cookie header, either by decoding all cookies or via
+ * {@link ServerCookieDecoder#decodeValue(CharSequence, CharSequence)}.
+ */
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ServerCookieDecoderBenchmark {
+
+    private static final String COOKIE_STRING =
+            "_ga=GA1.2.1950823374.1548062381; _gid=GA1.2.1224417183.1548062381; " +
+            "__utma=111872281.1950823374.1548062381.1548062381.1548062381.1; __utmz=111872281.1548062381.1.1." +
+            "utmcsr=(direct)|utmccn=(direct)|utmcmd=(none); theme=dark; lang=en-US; " +
+            "session=fgfMsM59vJTpZg88nxqKkIhgOt0ADF8LX8wjMMbtcb4IJMufWCnCcXORhbo9QMuyiybdtx; " +
+            "_fbp=fb.1.1548062381813.1824195624";
+    private static final AsciiString COOKIE_ASCII_STRING = new AsciiString(COOKIE_STRING);
+    private static final AsciiString SESSION = AsciiString.cached("session");
+
+    @Benchmark
+    public String decodeAll() {
+        for (Cookie cookie: ServerCookieDecoder.STRICT.decode(COOKIE_STRING)) {
+            if (cookie.name().equals("session")) {
+                return cookie.value();
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public CharSequence decodeValue() {
+        return ServerCookieDecoder.STRICT.decodeValue(COOKIE_STRING, SESSION);
+    }
+
+    @Benchmark
+    public CharSequence decodeValueAsciiString() {
+        return ServerCookieDecoder.STRICT.decodeValue(COOKIE_ASCII_STRING, SESSION);
+    }
+}
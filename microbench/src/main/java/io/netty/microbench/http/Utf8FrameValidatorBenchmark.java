@@ -0,0 +1,96 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.http;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.Utf8FrameValidator;
+import io.netty.microbench.channel.EmbeddedChannelWriteReleaseHandlerContext;
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import io.netty.util.CharsetUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Validates text frames with US-ASCII, mostly US-ASCII and CJK content.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Threads(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class Utf8FrameValidatorBenchmark extends AbstractMicrobenchmark {
+
+    public enum Content {
+        ASCII("{\"user\":\"netty\",\"message\":\"Hello, how are you doing today?\"}"),
+        MIXED("{\"user\":\"n\u00e9tty\",\"message\":\"Gr\u00fc\u00dfe aus K\u00f6ln, das kostet 5\u20ac\"}"),
+        CJK("\u4f60\u597d\uff0c\u4eca\u5929\u600e\u4e48\u6837\uff1f\u3053\u3093\u306b\u3061\u306f\uc548\ub155");
+
+        private final String text;
+
+        Content(String text) {
+            this.text = text;
+        }
+    }
+
+    @Param
+    public Content content;
+
+    @Param({ "128", "65536" })
+    public int size;
+
+    private ByteBuf payload;
+    private Utf8FrameValidator validator;
+    private ChannelHandlerContext context;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        byte[] bytes = content.text.getBytes(CharsetUtil.UTF_8);
+        payload = Unpooled.buffer(size + bytes.length);
+        while (payload.readableBytes() < size) {
+            payload.writeBytes(bytes);
+        }
+        validator = new Utf8FrameValidator();
+        context = new EmbeddedChannelWriteReleaseHandlerContext(UnpooledByteBufAllocator.DEFAULT, validator) {
+            @Override
+            protected void handleException(Throwable t) {
+                handleUnexpectedException(t);
+            }
+        };
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() {
+        payload.release();
+    }
+
+    @Benchmark
+    public void validate() throws Exception {
+        validator.channelRead(context, new TextWebSocketFrame(payload.retainedDuplicate()));
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.http;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.DefaultEventLoopGroup;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.group.ChannelMatchers;
+import io.netty.channel.group.DefaultChannelGroup;
+import io.netty.channel.group.UnwritableChannelPolicy;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalChannel;
+import io.netty.channel.local.LocalServerChannel;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocket13FrameEncoder;
+import io.netty.handler.codec.http.websocketx.WebSocketBroadcaster;
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.GlobalEventExecutor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Sends one text frame to all web socket connections of a {@link DefaultChannelGroup}, either by writing the frame
+ * to the group, so it is encoded for every connection, or by broadcasting it encoded once via
+ * {@link WebSocketBroadcaster}.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Threads(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class WebSocketBroadcastBenchmark extends AbstractMicrobenchmark {
+
+    public enum Mode {
+        CHANNEL_GROUP, BROADCAST
+    }
+
+    @Param({ "1000", "10000" })
+    public int connections;
+
+    @Param({ "256" })
+    public int payloadSize;
+
+    @Param
+    public Mode mode;
+
+    private EventLoopGroup group;
+    private Channel serverChannel;
+    private DefaultChannelGroup channels;
+    private ByteBuf payload;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        group = new DefaultEventLoopGroup(4);
+        LocalAddress address = new LocalAddress("websocket-broadcast");
+        serverChannel = new ServerBootstrap().group(group).channel(LocalServerChannel.class)
+                .childHandler(new DiscardHandler()).bind(address).sync().channel();
+
+        channels = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
+        Bootstrap bootstrap = new Bootstrap().group(group).channel(LocalChannel.class)
+                .handler(new ChannelInitializer<Channel>() {
+                    @Override
+                    protected void initChannel(Channel ch) {
+                        ch.pipeline().addLast(new WebSocket13FrameEncoder(false));
+                    }
+                });
+        for (int i = 0; i < connections; i++) {
+            channels.add(bootstrap.connect(address).sync().channel());
+        }
+
+        byte[] bytes = new byte[payloadSize];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) ('a' + i % 26);
+        }
+        payload = Unpooled.unreleasableBuffer(Unpooled.directBuffer(payloadSize).writeBytes(bytes));
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws Exception {
+        channels.close().sync();
+        serverChannel.close().sync();
+        group.shutdownGracefully().sync();
+    }
+
+    @Benchmark
+    public void broadcast() {
+        TextWebSocketFrame frame = new TextWebSocketFrame(payload.duplicate());
+        if (mode == Mode.BROADCAST) {
+            WebSocketBroadcaster.broadcast(channels, frame, ChannelMatchers.all(), UnwritableChannelPolicy.WRITE,
+                    false).syncUninterruptibly();
+        } else {
+            channels.writeAndFlush(frame).syncUninterruptibly();
+        }
+    }
+
+    /**
+     * The receiving side of the connections, only discards what it gets.
+     */
+    @ChannelHandler.Sharable
+    private static final class DiscardHandler extends ChannelInboundHandlerAdapter {
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            ReferenceCountUtil.release(msg);
+        }
+    }
+}
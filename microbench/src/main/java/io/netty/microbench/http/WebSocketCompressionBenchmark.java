@@ -0,0 +1,183 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.http;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtensionData;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketServerExtension;
+import io.netty.handler.codec.http.websocketx.extensions.compression.PerMessageDeflateServerExtensionHandshaker;
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import io.netty.util.CharsetUtil;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sends permessage-deflate compressed messages round robin over many server connections and reports the memory
+ * the connections retain for compression.
+ * <p>
+ * The retained heap is measured once all connections sent their first message. The native memory of the JDK
+ * {@link java.util.zip.Deflater}s is not part of the heap, so it is estimated with the formula of zlib, which is
+ * {@code (1 << (windowBits + 2)) + (1 << (memLevel + 9))} bytes per compressor, and the number of compressors the
+ * connections keep between their messages.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Threads(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class WebSocketCompressionBenchmark extends AbstractMicrobenchmark {
+
+    public enum ContextMode {
+        /**
+         * The default, every connection keeps its compressor.
+         */
+        CONTEXT_TAKEOVER,
+        /**
+         * The client offers server_no_context_takeover, so a new compressor is created for every message.
+         */
+        NO_CONTEXT_TAKEOVER,
+        /**
+         * The connections borrow their compressor from a pool of the EventLoop for every message.
+         */
+        POOLED
+    }
+
+    private static final int ZLIB_DEFLATE_BYTES = (1 << 15 + 2) + (1 << 8 + 9);
+
+    @Param
+    public ContextMode mode;
+
+    @Param({ "1000" })
+    public int connections;
+
+    @Param({ "1024" })
+    public int payloadSize;
+
+    private EmbeddedChannel[] channels;
+    private ByteBuf payload;
+    private int next;
+    private long heapBytesPerConnection;
+    private long nativeBytesPerConnection;
+
+    /**
+     * The memory retained per connection, the values do not change between the iterations.
+     */
+    @AuxCounters
+    @State(Scope.Thread)
+    public static class MemoryCounters {
+        long heapBytesPerConnection;
+        long nativeBytesPerConnection;
+
+        public long heapBytesPerConnection() {
+            return heapBytesPerConnection;
+        }
+
+        public long nativeBytesPerConnection() {
+            return nativeBytesPerConnection;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        StringBuilder text = new StringBuilder(payloadSize);
+        for (int i = 0; text.length() < payloadSize; i++) {
+            text.append("{\"id\":").append(i).append(",\"message\":\"Hello from netty\"},");
+        }
+        text.setLength(payloadSize);
+        payload = Unpooled.unreleasableBuffer(
+                Unpooled.directBuffer(payloadSize).writeBytes(text.toString().getBytes(CharsetUtil.US_ASCII)));
+
+        PerMessageDeflateServerExtensionHandshaker handshaker = new PerMessageDeflateServerExtensionHandshaker(
+                6, false, PerMessageDeflateServerExtensionHandshaker.MAX_WINDOW_SIZE, true, false, 8, 0,
+                mode == ContextMode.POOLED);
+        Map<String, String> parameters = mode == ContextMode.NO_CONTEXT_TAKEOVER ?
+                Collections.<String, String>singletonMap("server_no_context_takeover", null) :
+                new HashMap<String, String>();
+        WebSocketExtensionData offer = new WebSocketExtensionData("permessage-deflate", parameters);
+
+        long usedHeap = usedHeapAfterGc();
+        channels = new EmbeddedChannel[connections];
+        for (int i = 0; i < channels.length; i++) {
+            WebSocketServerExtension extension = handshaker.handshakeExtension(offer);
+            channels[i] = new EmbeddedChannel(extension.newExtensionEncoder());
+            send(channels[i]);
+        }
+        heapBytesPerConnection = Math.max(0, usedHeapAfterGc() - usedHeap) / connections;
+        switch (mode) {
+        case CONTEXT_TAKEOVER:
+            nativeBytesPerConnection = ZLIB_DEFLATE_BYTES;
+            break;
+        case POOLED:
+            // As the EmbeddedChannels share a single thread, they share a single pooled compressor.
+            nativeBytesPerConnection = ZLIB_DEFLATE_BYTES / connections;
+            break;
+        default:
+            nativeBytesPerConnection = 0;
+            break;
+        }
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() {
+        for (EmbeddedChannel channel : channels) {
+            channel.finishAndReleaseAll();
+        }
+        payload.unwrap().release();
+    }
+
+    @Benchmark
+    public int sendMessage(MemoryCounters counters) {
+        counters.heapBytesPerConnection = heapBytesPerConnection;
+        counters.nativeBytesPerConnection = nativeBytesPerConnection;
+        EmbeddedChannel channel = channels[next];
+        next = next + 1 == channels.length ? 0 : next + 1;
+        return send(channel);
+    }
+
+    private int send(EmbeddedChannel channel) {
+        channel.writeOutbound(new TextWebSocketFrame(payload.duplicate()));
+        WebSocketFrame compressed = channel.readOutbound();
+        int compressedBytes = compressed.content().readableBytes();
+        compressed.release();
+        return compressedBytes;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.http;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocket08FrameDecoder;
+import io.netty.handler.codec.http.websocketx.WebSocket08FrameEncoder;
+import io.netty.microbench.channel.EmbeddedChannelWriteReleaseHandlerContext;
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Encodes and decodes binary WebSocket frames of different sizes, with and without masking.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Threads(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class WebSocketFrameCodecBenchmark extends AbstractMicrobenchmark {
+
+    @Param({ "64", "1024", "65536" })
+    public int payloadSize;
+
+    @Param({ "true", "false" })
+    public boolean masked;
+
+    @Param({ "true", "false" })
+    public boolean direct;
+
+    private ByteBuf payload;
+    private ByteBuf encodedFrame;
+    private WebSocket08FrameEncoder encoder;
+    private ChannelHandlerContext encoderContext;
+    private WebSocket08FrameDecoder decoder;
+    private ChannelHandlerContext decoderContext;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        byte[] bytes = new byte[payloadSize];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        payload = direct ? Unpooled.directBuffer(payloadSize) : Unpooled.buffer(payloadSize);
+        payload.writeBytes(bytes);
+
+        // Clients mask the frames they send, servers expect them to be masked.
+        encoder = new WebSocket08FrameEncoder(masked);
+        encoderContext = newContext(encoder);
+        decoder = new WebSocket08FrameDecoder(masked, false, Integer.MAX_VALUE);
+        decoderContext = newContext(decoder);
+
+        EmbeddedChannel channel = new EmbeddedChannel(new WebSocket08FrameEncoder(masked));
+        channel.writeOutbound(new BinaryWebSocketFrame(payload.retainedDuplicate()));
+        encodedFrame = Unpooled.buffer();
+        for (ByteBuf buf; (buf = channel.readOutbound()) != null;) {
+            encodedFrame.writeBytes(buf);
+            buf.release();
+        }
+        channel.finishAndReleaseAll();
+    }
+
+    private ChannelHandlerContext newContext(ChannelHandler handler) {
+        return new EmbeddedChannelWriteReleaseHandlerContext(PooledByteBufAllocator.DEFAULT, handler) {
+            @Override
+            protected void handleException(Throwable t) {
+                handleUnexpectedException(t);
+            }
+        };
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() {
+        payload.release();
+        encodedFrame.release();
+    }
+
+    @Benchmark
+    public void encode() throws Exception {
+        encoder.write(encoderContext, new BinaryWebSocketFrame(payload.retainedDuplicate()),
+                encoderContext.voidPromise());
+    }
+
+    @Benchmark
+    public void decode() throws Exception {
+        // Every iteration reads a new buffer, like a fresh socket read.
+        ByteBuf in = direct ? decoderContext.alloc().directBuffer(encodedFrame.readableBytes()) :
+                decoderContext.alloc().heapBuffer(encodedFrame.readableBytes());
+        in.writeBytes(encodedFrame, encodedFrame.readerIndex(), encodedFrame.readableBytes());
+        decoder.channelRead(decoderContext, in);
+    }
+}
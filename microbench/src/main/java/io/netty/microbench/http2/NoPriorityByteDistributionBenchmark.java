@@ -26,6 +26,7 @@ import io.netty.handler.codec.http2.Http2FrameAdapter;
 import io.netty.handler.codec.http2.Http2RemoteFlowController;
 import io.netty.handler.codec.http2.Http2Stream;
 import io.netty.handler.codec.http2.Http2StreamVisitor;
+import io.netty.handler.codec.http2.RoundRobinStreamByteDistributor;
 import io.netty.handler.codec.http2.StreamByteDistributor;
 import io.netty.handler.codec.http2.UniformStreamByteDistributor;
 import io.netty.handler.codec.http2.WeightedFairQueueByteDistributor;
@@ -50,10 +51,11 @@ import org.openjdk.jmh.annotations.Threads;
 public class NoPriorityByteDistributionBenchmark extends AbstractMicrobenchmark {
     public enum Algorithm {
         WFQ,
-        UNIFORM
+        UNIFORM,
+        ROUND_ROBIN
     }
 
-    @Param({ "100", "10000" })
+    @Param({ "10", "1000", "10000" })
     private int numStreams;
 
     @Param({ "1024", "65536", "1048576" })
@@ -128,6 +130,9 @@ public class NoPriorityByteDistributionBenchmark extends AbstractMicrobenchmark
             case UNIFORM:
                 distributor = new UniformStreamByteDistributor(connection);
                 break;
+            case ROUND_ROBIN:
+                distributor = new RoundRobinStreamByteDistributor(connection);
+                break;
         }
         controller = new DefaultHttp2RemoteFlowController(connection, new ByteCounter(distributor));
         connection.remote().flowController(controller);
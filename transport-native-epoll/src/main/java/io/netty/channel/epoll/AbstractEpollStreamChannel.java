@@ -30,6 +30,7 @@ import io.netty.channel.EventLoop;
 import io.netty.channel.FileRegion;
 import io.netty.channel.RecvByteBufAllocator;
 import io.netty.channel.internal.ChannelUtils;
+import io.netty.channel.internal.SharedReadBuffer;
 import io.netty.channel.socket.DuplexChannel;
 import io.netty.channel.unix.FileDescriptor;
 import io.netty.channel.unix.IovArray;
@@ -316,6 +317,9 @@ public abstract class AbstractEpollStreamChannel extends AbstractEpollChannel im
         final long localWrittenBytes = socket.writevAddresses(array.memoryAddress(0), cnt);
         if (localWrittenBytes > 0) {
             adjustMaxBytesPerGatheringWrite(expectedWrittenBytes, localWrittenBytes, array.maxBytes());
+            if (cnt > 1) {
+                in.recordGatheringWrite(cnt);
+            }
             in.removeBytes(localWrittenBytes);
             return 1;
         }
@@ -351,6 +355,9 @@ public abstract class AbstractEpollStreamChannel extends AbstractEpollChannel im
         final long localWrittenBytes = socket.writev(nioBuffers, 0, nioBufferCnt, expectedWrittenBytes);
         if (localWrittenBytes > 0) {
             adjustMaxBytesPerGatheringWrite(expectedWrittenBytes, localWrittenBytes, maxBytesPerGatheringWrite);
+            if (nioBufferCnt > 1) {
+                in.recordGatheringWrite(nioBufferCnt);
+            }
             in.removeBytes(localWrittenBytes);
             return 1;
         }
@@ -756,6 +763,7 @@ public abstract class AbstractEpollStreamChannel extends AbstractEpollChannel im
 
             final ChannelPipeline pipeline = pipeline();
             final ByteBufAllocator allocator = config.getAllocator();
+            final SharedReadBuffer sharedReadBuffer = SharedReadBuffer.get(config);
             allocHandle.reset(config);
             epollInBefore();
 
@@ -781,12 +789,21 @@ public abstract class AbstractEpollStreamChannel extends AbstractEpollChannel im
 
                     // we use a direct buffer here as the native implementations only be able
                     // to handle direct buffers.
-                    byteBuf = allocHandle.allocate(allocator);
-                    allocHandle.lastBytesRead(doReadBytes(byteBuf));
+                    if (sharedReadBuffer != null) {
+                        allocHandle.lastBytesRead(doReadBytes(sharedReadBuffer.buffer(allocator)));
+                        if (allocHandle.lastBytesRead() > 0) {
+                            byteBuf = sharedReadBuffer.take(allocator, config().getSharedReadBufferCopyThreshold());
+                        }
+                    } else {
+                        byteBuf = allocHandle.allocate(allocator);
+                        allocHandle.lastBytesRead(doReadBytes(byteBuf));
+                    }
                     if (allocHandle.lastBytesRead() <= 0) {
                         // nothing was read, release the buffer.
-                        byteBuf.release();
-                        byteBuf = null;
+                        if (byteBuf != null) {
+                            byteBuf.release();
+                            byteBuf = null;
+                        }
                         close = allocHandle.lastBytesRead() < 0;
                         if (close) {
                             // There is nothing left to read as we received an EOF.
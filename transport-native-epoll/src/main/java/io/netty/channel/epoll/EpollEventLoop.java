@@ -17,6 +17,7 @@ package io.netty.channel.epoll;
 
 import io.netty.channel.EventLoop;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.EventLoopOverloadEvent;
 import io.netty.channel.SelectStrategy;
 import io.netty.channel.SingleThreadEventLoop;
 import io.netty.channel.epoll.AbstractEpollChannel.AbstractEpollUnsafe;
@@ -369,6 +370,19 @@ class EpollEventLoop extends SingleThreadEventLoop {
         }
     }
 
+    @Override
+    protected void overloadStateChanged(boolean overloaded) {
+        EventLoopOverloadEvent evt = overloaded ? EventLoopOverloadEvent.OVERLOADED : EventLoopOverloadEvent.RECOVERED;
+        // Using the intermediate collection as the handlers may register or close channels while the event is fired.
+        AbstractEpollChannel[] localChannels = channels.values().toArray(new AbstractEpollChannel[0]);
+
+        for (AbstractEpollChannel ch : localChannels) {
+            if (ch.isRegistered()) {
+                ch.pipeline().fireUserEventTriggered(evt);
+            }
+        }
+    }
+
     private void closeAll() {
         try {
             epollWaitNow();
@@ -153,6 +153,9 @@ public abstract class AbstractKQueueStreamChannel extends AbstractKQueueChannel
         final long localWrittenBytes = socket.writevAddresses(array.memoryAddress(0), cnt);
         if (localWrittenBytes > 0) {
             adjustMaxBytesPerGatheringWrite(expectedWrittenBytes, localWrittenBytes, array.maxBytes());
+            if (cnt > 1) {
+                in.recordGatheringWrite(cnt);
+            }
             in.removeBytes(localWrittenBytes);
             return 1;
         }
@@ -188,6 +191,9 @@ public abstract class AbstractKQueueStreamChannel extends AbstractKQueueChannel
         final long localWrittenBytes = socket.writev(nioBuffers, 0, nioBufferCnt, expectedWrittenBytes);
         if (localWrittenBytes > 0) {
             adjustMaxBytesPerGatheringWrite(expectedWrittenBytes, localWrittenBytes, maxBytesPerGatheringWrite);
+            if (nioBufferCnt > 1) {
+                in.recordGatheringWrite(nioBufferCnt);
+            }
             in.removeBytes(localWrittenBytes);
             return 1;
         }
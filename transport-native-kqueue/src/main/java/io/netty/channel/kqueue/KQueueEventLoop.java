@@ -17,6 +17,7 @@ package io.netty.channel.kqueue;
 
 import io.netty.channel.EventLoop;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.EventLoopOverloadEvent;
 import io.netty.channel.SelectStrategy;
 import io.netty.channel.SingleThreadEventLoop;
 import io.netty.channel.kqueue.AbstractKQueueChannel.AbstractKQueueUnsafe;
@@ -324,6 +325,19 @@ final class KQueueEventLoop extends SingleThreadEventLoop {
         }
     }
 
+    @Override
+    protected void overloadStateChanged(boolean overloaded) {
+        EventLoopOverloadEvent evt = overloaded ? EventLoopOverloadEvent.OVERLOADED : EventLoopOverloadEvent.RECOVERED;
+        // Using the intermediate collection as the handlers may register or close channels while the event is fired.
+        AbstractKQueueChannel[] localChannels = channels.values().toArray(new AbstractKQueueChannel[0]);
+
+        for (AbstractKQueueChannel ch : localChannels) {
+            if (ch.isRegistered()) {
+                ch.pipeline().fireUserEventTriggered(evt);
+            }
+        }
+    }
+
     private void closeAll() {
         try {
             kqueueWaitNow();
@@ -129,6 +129,11 @@ public class ChannelOption<T> extends AbstractConstant<ChannelOption<T>> {
     public static final ChannelOption<Boolean> SINGLE_EVENTEXECUTOR_PER_GROUP =
             valueOf("SINGLE_EVENTEXECUTOR_PER_GROUP");
 
+    public static final ChannelOption<Boolean> SHARED_READ_BUFFER = valueOf("SHARED_READ_BUFFER");
+    public static final ChannelOption<Integer> SHARED_READ_BUFFER_COPY_THRESHOLD =
+            valueOf("SHARED_READ_BUFFER_COPY_THRESHOLD");
+    public static final ChannelOption<Boolean> OUTBOUND_BUFFER_METRICS = valueOf("OUTBOUND_BUFFER_METRICS");
+
     /**
      * Creates a new {@link ChannelOption} with the specified unique {@code name}.
      */
@@ -53,12 +53,13 @@ public final class ChannelOutboundBuffer {
     // Assuming a 64-bit JVM:
     //  - 16 bytes object header
     //  - 8 reference fields
-    //  - 2 long fields
+    //  - 4 long fields
     //  - 2 int fields
     //  - 1 boolean field
     //  - padding
+    // The 2 long fields for the ChannelOutboundBufferMetrics timestamps add 16 bytes to the former 96.
     static final int CHANNEL_OUTBOUND_BUFFER_ENTRY_OVERHEAD =
-            SystemPropertyUtil.getInt("io.netty.transport.outboundBufferEntrySizeOverhead", 96);
+            SystemPropertyUtil.getInt("io.netty.transport.outboundBufferEntrySizeOverhead", 112);
 
     private static final InternalLogger logger = InternalLoggerFactory.getInstance(ChannelOutboundBuffer.class);
 
@@ -101,6 +102,9 @@ public final class ChannelOutboundBuffer {
 
     private volatile Runnable fireChannelWritabilityChangedTask;
 
+    // Set by the DefaultChannelConfig, so the hot paths only need a null check when the metrics are disabled.
+    private volatile DefaultChannelOutboundBufferMetrics outboundBufferMetrics;
+
     ChannelOutboundBuffer(AbstractChannel channel) {
         this.channel = channel;
     }
@@ -111,6 +115,9 @@ public final class ChannelOutboundBuffer {
      */
     public void addMessage(Object msg, int size, ChannelPromise promise) {
         Entry entry = Entry.newInstance(msg, size, total(msg), promise);
+        if (outboundBufferMetrics != null) {
+            entry.enqueueNanos = System.nanoTime();
+        }
         if (tailEntry == null) {
             flushedEntry = null;
         } else {
@@ -142,8 +149,10 @@ public final class ChannelOutboundBuffer {
                 // there is no flushedEntry yet, so start with the entry
                 flushedEntry = entry;
             }
+            final long flushNanos = outboundBufferMetrics != null ? System.nanoTime() : 0;
             do {
                 flushed ++;
+                entry.flushNanos = flushNanos;
                 if (!entry.promise.setUncancellable()) {
                     // Was cancelled so make sure we free up memory and notify about the freed bytes
                     int pending = entry.cancel();
@@ -171,6 +180,10 @@ public final class ChannelOutboundBuffer {
         }
 
         long newWriteBufferSize = TOTAL_PENDING_SIZE_UPDATER.addAndGet(this, size);
+        DefaultChannelOutboundBufferMetrics metrics = outboundBufferMetrics;
+        if (metrics != null) {
+            metrics.pendingBytes(newWriteBufferSize);
+        }
         if (newWriteBufferSize > channel.config().getWriteBufferHighWaterMark()) {
             setUnwritable(invokeLater);
         }
@@ -253,6 +266,10 @@ public final class ChannelOutboundBuffer {
         removeEntry(e);
 
         if (!e.cancelled) {
+            DefaultChannelOutboundBufferMetrics metrics = outboundBufferMetrics;
+            if (metrics != null) {
+                metrics.messageWritten(e.enqueueNanos, e.flushNanos, System.nanoTime());
+            }
             // only release message, notify and decrement if it was not canceled before.
             ReferenceCountUtil.safeRelease(msg);
             safeSuccess(promise);
@@ -576,6 +593,12 @@ public final class ChannelOutboundBuffer {
             final int oldValue = unwritable;
             final int newValue = oldValue & ~1;
             if (UNWRITABLE_UPDATER.compareAndSet(this, oldValue, newValue)) {
+                if (oldValue != newValue) {
+                    DefaultChannelOutboundBufferMetrics metrics = outboundBufferMetrics;
+                    if (metrics != null) {
+                        metrics.writable();
+                    }
+                }
                 if (oldValue != 0 && newValue == 0) {
                     fireChannelWritabilityChanged(invokeLater);
                 }
@@ -589,6 +612,12 @@ public final class ChannelOutboundBuffer {
             final int oldValue = unwritable;
             final int newValue = oldValue | 1;
             if (UNWRITABLE_UPDATER.compareAndSet(this, oldValue, newValue)) {
+                if (oldValue != newValue) {
+                    DefaultChannelOutboundBufferMetrics metrics = outboundBufferMetrics;
+                    if (metrics != null) {
+                        metrics.unwritable();
+                    }
+                }
                 if (oldValue == 0 && newValue != 0) {
                     fireChannelWritabilityChanged(invokeLater);
                 }
@@ -773,6 +802,35 @@ public final class ChannelOutboundBuffer {
         } while (isFlushedEntry(entry));
     }
 
+    /**
+     * Records a gathering write in the {@link ChannelOutboundBufferMetrics}, if enabled. Transports call this after
+     * more than one buffer was written with a single operation, e.g. {@code writev(...)}, and the operation wrote at
+     * least one byte.
+     *
+     * @param buffers the number of buffers that were passed to the gathering write.
+     */
+    public void recordGatheringWrite(int buffers) {
+        DefaultChannelOutboundBufferMetrics metrics = outboundBufferMetrics;
+        if (metrics != null) {
+            metrics.gatheringWrite(buffers);
+        }
+    }
+
+    /**
+     * Returns the {@link ChannelOutboundBufferMetrics} if {@link ChannelOption#OUTBOUND_BUFFER_METRICS} is enabled for
+     * the {@link Channel} and {@code null} otherwise.
+     */
+    public ChannelOutboundBufferMetrics metrics() {
+        return outboundBufferMetrics;
+    }
+
+    /**
+     * Called by {@link DefaultChannelConfig} when {@link ChannelOption#OUTBOUND_BUFFER_METRICS} is changed.
+     */
+    void outboundBufferMetrics(DefaultChannelOutboundBufferMetrics metrics) {
+        outboundBufferMetrics = metrics;
+    }
+
     private boolean isFlushedEntry(Entry e) {
         return e != null && e != unflushedEntry;
     }
@@ -801,6 +859,8 @@ public final class ChannelOutboundBuffer {
         ChannelPromise promise;
         long progress;
         long total;
+        long enqueueNanos;
+        long flushNanos;
         int pendingSize;
         int count = -1;
         boolean cancelled;
@@ -845,6 +905,8 @@ public final class ChannelOutboundBuffer {
             promise = null;
             progress = 0;
             total = 0;
+            enqueueNanos = 0;
+            flushNanos = 0;
             pendingSize = 0;
             count = -1;
             cancelled = false;
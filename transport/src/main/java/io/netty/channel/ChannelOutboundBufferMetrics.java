@@ -0,0 +1,83 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+/**
+ * Statistics about the outbound path of a {@link Channel}, which help to find out if write latency is caused by
+ * the application (messages are written but not flushed), by the network (messages are flushed but the socket does
+ * not accept them) or by back-pressure (the {@link Channel} is not writable).
+ * <p>
+ * Collecting these statistics must be enabled via {@link ChannelOption#OUTBOUND_BUFFER_METRICS} and the instance can
+ * be obtained via {@link DefaultChannelConfig#getOutboundBufferMetrics()}. The values are updated atomically and
+ * may be read from any thread, but they are not a consistent snapshot as they keep changing while being read.
+ */
+public interface ChannelOutboundBufferMetrics {
+
+    /**
+     * Returns the number of messages that were written successfully.
+     */
+    long writtenMessages();
+
+    /**
+     * Returns the sum of the nanoseconds the written messages spent between being written and being flushed.
+     */
+    long totalEnqueueToFlushNanos();
+
+    /**
+     * Returns the maximum of the nanoseconds a written message spent between being written and being flushed.
+     */
+    long maxEnqueueToFlushNanos();
+
+    /**
+     * Returns the sum of the nanoseconds the written messages spent between being flushed and being accepted by the
+     * transport.
+     */
+    long totalFlushToWrittenNanos();
+
+    /**
+     * Returns the maximum of the nanoseconds a written message spent between being flushed and being accepted by the
+     * transport.
+     */
+    long maxFlushToWrittenNanos();
+
+    /**
+     * Returns the largest number of bytes that were pending in the {@link ChannelOutboundBuffer} at the same time.
+     */
+    long peakPendingBytes();
+
+    /**
+     * Returns how often the pending bytes exceeded the {@link WriteBufferWaterMark#high()} and so made the
+     * {@link Channel} unwritable.
+     */
+    long unwritableCount();
+
+    /**
+     * Returns the nanoseconds the {@link Channel} spent unwritable because the pending bytes exceeded the
+     * {@link WriteBufferWaterMark#high()}, including the current period if it is unwritable right now.
+     */
+    long unwritableNanos();
+
+    /**
+     * Returns the number of gathering writes, which are writes of more than one buffer with a single operation. They
+     * are reported by the transport via {@link ChannelOutboundBuffer#recordGatheringWrite(int)}.
+     */
+    long gatheringWrites();
+
+    /**
+     * Returns the total number of buffers that were written by gathering writes.
+     */
+    long gatheringWriteBuffers();
+}
@@ -30,12 +30,16 @@ import static io.netty.channel.ChannelOption.CONNECT_TIMEOUT_MILLIS;
 import static io.netty.channel.ChannelOption.MAX_MESSAGES_PER_READ;
 import static io.netty.channel.ChannelOption.MESSAGE_SIZE_ESTIMATOR;
 import static io.netty.channel.ChannelOption.RCVBUF_ALLOCATOR;
+import static io.netty.channel.ChannelOption.OUTBOUND_BUFFER_METRICS;
+import static io.netty.channel.ChannelOption.SHARED_READ_BUFFER;
+import static io.netty.channel.ChannelOption.SHARED_READ_BUFFER_COPY_THRESHOLD;
 import static io.netty.channel.ChannelOption.SINGLE_EVENTEXECUTOR_PER_GROUP;
 import static io.netty.channel.ChannelOption.WRITE_BUFFER_HIGH_WATER_MARK;
 import static io.netty.channel.ChannelOption.WRITE_BUFFER_LOW_WATER_MARK;
 import static io.netty.channel.ChannelOption.WRITE_BUFFER_WATER_MARK;
 import static io.netty.channel.ChannelOption.WRITE_SPIN_COUNT;
 import static io.netty.util.internal.ObjectUtil.checkNotNull;
+import static io.netty.util.internal.ObjectUtil.checkPositiveOrZero;
 
 /**
  * The default {@link ChannelConfig} implementation.
@@ -64,6 +68,9 @@ public class DefaultChannelConfig implements ChannelConfig {
     private volatile boolean autoClose = true;
     private volatile WriteBufferWaterMark writeBufferWaterMark = WriteBufferWaterMark.DEFAULT;
     private volatile boolean pinEventExecutor = true;
+    private volatile boolean sharedReadBuffer;
+    private volatile int sharedReadBufferCopyThreshold = Integer.MAX_VALUE;
+    private volatile DefaultChannelOutboundBufferMetrics outboundBufferMetrics;
 
     public DefaultChannelConfig(Channel channel) {
         this(channel, new AdaptiveRecvByteBufAllocator());
@@ -82,7 +89,8 @@ public class DefaultChannelConfig implements ChannelConfig {
                 CONNECT_TIMEOUT_MILLIS, MAX_MESSAGES_PER_READ, WRITE_SPIN_COUNT,
                 ALLOCATOR, AUTO_READ, AUTO_CLOSE, RCVBUF_ALLOCATOR, WRITE_BUFFER_HIGH_WATER_MARK,
                 WRITE_BUFFER_LOW_WATER_MARK, WRITE_BUFFER_WATER_MARK, MESSAGE_SIZE_ESTIMATOR,
-                SINGLE_EVENTEXECUTOR_PER_GROUP);
+                SINGLE_EVENTEXECUTOR_PER_GROUP, SHARED_READ_BUFFER, SHARED_READ_BUFFER_COPY_THRESHOLD,
+                OUTBOUND_BUFFER_METRICS);
     }
 
     protected Map<ChannelOption<?>, Object> getOptions(
@@ -156,6 +164,15 @@ public class DefaultChannelConfig implements ChannelConfig {
         if (option == SINGLE_EVENTEXECUTOR_PER_GROUP) {
             return (T) Boolean.valueOf(getPinEventExecutorPerGroup());
         }
+        if (option == SHARED_READ_BUFFER) {
+            return (T) Boolean.valueOf(isSharedReadBuffer());
+        }
+        if (option == SHARED_READ_BUFFER_COPY_THRESHOLD) {
+            return (T) Integer.valueOf(getSharedReadBufferCopyThreshold());
+        }
+        if (option == OUTBOUND_BUFFER_METRICS) {
+            return (T) Boolean.valueOf(isOutboundBufferMetrics());
+        }
         return null;
     }
 
@@ -188,6 +205,12 @@ public class DefaultChannelConfig implements ChannelConfig {
             setMessageSizeEstimator((MessageSizeEstimator) value);
         } else if (option == SINGLE_EVENTEXECUTOR_PER_GROUP) {
             setPinEventExecutorPerGroup((Boolean) value);
+        } else if (option == SHARED_READ_BUFFER) {
+            setSharedReadBuffer((Boolean) value);
+        } else if (option == SHARED_READ_BUFFER_COPY_THRESHOLD) {
+            setSharedReadBufferCopyThreshold((Integer) value);
+        } else if (option == OUTBOUND_BUFFER_METRICS) {
+            setOutboundBufferMetrics((Boolean) value);
         } else {
             return false;
         }
@@ -436,4 +459,80 @@ public class DefaultChannelConfig implements ChannelConfig {
         return pinEventExecutor;
     }
 
+    /**
+     * Returns {@code true} if the {@link Channel} reads into a buffer that is shared by all {@link Channel}s of its
+     * {@link EventLoop} and only passes the received bytes to the {@link ChannelPipeline}. This is only supported by
+     * some transports and reduces the memory footprint for huge numbers of mostly idle connections.
+     */
+    public boolean isSharedReadBuffer() {
+        return sharedReadBuffer;
+    }
+
+    /**
+     * Sets if the {@link Channel} reads into a buffer that is shared by all {@link Channel}s of its {@link EventLoop}.
+     *
+     * @see #isSharedReadBuffer()
+     */
+    public ChannelConfig setSharedReadBuffer(boolean sharedReadBuffer) {
+        this.sharedReadBuffer = sharedReadBuffer;
+        return this;
+    }
+
+    /**
+     * Returns the number of bytes from which on the received bytes are passed to the {@link ChannelPipeline} as
+     * retained slice of the shared read buffer instead of a copy. The default is to always copy, as a slice keeps the
+     * whole shared buffer alive until it is released.
+     *
+     * @see #isSharedReadBuffer()
+     */
+    public int getSharedReadBufferCopyThreshold() {
+        return sharedReadBufferCopyThreshold;
+    }
+
+    /**
+     * Sets the number of bytes from which on the received bytes are passed to the {@link ChannelPipeline} as
+     * retained slice of the shared read buffer instead of a copy.
+     *
+     * @see #getSharedReadBufferCopyThreshold()
+     */
+    public ChannelConfig setSharedReadBufferCopyThreshold(int sharedReadBufferCopyThreshold) {
+        this.sharedReadBufferCopyThreshold =
+                checkPositiveOrZero(sharedReadBufferCopyThreshold, "sharedReadBufferCopyThreshold");
+        return this;
+    }
+
+    /**
+     * Returns {@code true} if the {@link ChannelOutboundBuffer} of the {@link Channel} collects
+     * {@link ChannelOutboundBufferMetrics}.
+     */
+    public boolean isOutboundBufferMetrics() {
+        return outboundBufferMetrics != null;
+    }
+
+    /**
+     * Sets if the {@link ChannelOutboundBuffer} of the {@link Channel} collects
+     * {@link ChannelOutboundBufferMetrics}. Enabling it again after it was disabled starts over with new metrics.
+     *
+     * @see #getOutboundBufferMetrics()
+     */
+    public ChannelConfig setOutboundBufferMetrics(boolean outboundBufferMetrics) {
+        if (!outboundBufferMetrics) {
+            this.outboundBufferMetrics = null;
+        } else if (this.outboundBufferMetrics == null) {
+            this.outboundBufferMetrics = new DefaultChannelOutboundBufferMetrics();
+        }
+        ChannelOutboundBuffer buffer = channel.unsafe().outboundBuffer();
+        if (buffer != null) {
+            buffer.outboundBufferMetrics(this.outboundBufferMetrics);
+        }
+        return this;
+    }
+
+    /**
+     * Returns the {@link ChannelOutboundBufferMetrics} of the {@link Channel} or {@code null} if
+     * {@link ChannelOption#OUTBOUND_BUFFER_METRICS} is not enabled.
+     */
+    public ChannelOutboundBufferMetrics getOutboundBufferMetrics() {
+        return outboundBufferMetrics;
+    }
 }
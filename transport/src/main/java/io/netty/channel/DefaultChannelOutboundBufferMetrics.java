@@ -0,0 +1,193 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * The default {@link ChannelOutboundBufferMetrics} implementation, which is updated by the
+ * {@link ChannelOutboundBuffer} of a {@link Channel}.
+ * <p>
+ * Most values are only updated by the {@link EventLoop}, but the pending bytes and so the writability may also
+ * change when a message is written from another thread. All values are therefore updated atomically.
+ */
+final class DefaultChannelOutboundBufferMetrics implements ChannelOutboundBufferMetrics {
+
+    private static final AtomicLongFieldUpdater<DefaultChannelOutboundBufferMetrics> WRITTEN_MESSAGES_UPDATER =
+            newUpdater("writtenMessages");
+    private static final AtomicLongFieldUpdater<DefaultChannelOutboundBufferMetrics>
+            TOTAL_ENQUEUE_TO_FLUSH_NANOS_UPDATER = newUpdater("totalEnqueueToFlushNanos");
+    private static final AtomicLongFieldUpdater<DefaultChannelOutboundBufferMetrics>
+            MAX_ENQUEUE_TO_FLUSH_NANOS_UPDATER = newUpdater("maxEnqueueToFlushNanos");
+    private static final AtomicLongFieldUpdater<DefaultChannelOutboundBufferMetrics>
+            TOTAL_FLUSH_TO_WRITTEN_NANOS_UPDATER = newUpdater("totalFlushToWrittenNanos");
+    private static final AtomicLongFieldUpdater<DefaultChannelOutboundBufferMetrics>
+            MAX_FLUSH_TO_WRITTEN_NANOS_UPDATER = newUpdater("maxFlushToWrittenNanos");
+    private static final AtomicLongFieldUpdater<DefaultChannelOutboundBufferMetrics> GATHERING_WRITES_UPDATER =
+            newUpdater("gatheringWrites");
+    private static final AtomicLongFieldUpdater<DefaultChannelOutboundBufferMetrics>
+            GATHERING_WRITE_BUFFERS_UPDATER = newUpdater("gatheringWriteBuffers");
+    private static final AtomicLongFieldUpdater<DefaultChannelOutboundBufferMetrics> PEAK_PENDING_BYTES_UPDATER =
+            newUpdater("peakPendingBytes");
+    private static final AtomicLongFieldUpdater<DefaultChannelOutboundBufferMetrics> UNWRITABLE_COUNT_UPDATER =
+            newUpdater("unwritableCount");
+    private static final AtomicLongFieldUpdater<DefaultChannelOutboundBufferMetrics> UNWRITABLE_NANOS_UPDATER =
+            newUpdater("unwritableNanos");
+    private static final AtomicLongFieldUpdater<DefaultChannelOutboundBufferMetrics>
+            UNWRITABLE_SINCE_NANOS_UPDATER = newUpdater("unwritableSinceNanos");
+
+    @SuppressWarnings("UnusedDeclaration")
+    private volatile long writtenMessages;
+    @SuppressWarnings("UnusedDeclaration")
+    private volatile long totalEnqueueToFlushNanos;
+    @SuppressWarnings("UnusedDeclaration")
+    private volatile long maxEnqueueToFlushNanos;
+    @SuppressWarnings("UnusedDeclaration")
+    private volatile long totalFlushToWrittenNanos;
+    @SuppressWarnings("UnusedDeclaration")
+    private volatile long maxFlushToWrittenNanos;
+    @SuppressWarnings("UnusedDeclaration")
+    private volatile long gatheringWrites;
+    @SuppressWarnings("UnusedDeclaration")
+    private volatile long gatheringWriteBuffers;
+    @SuppressWarnings("UnusedDeclaration")
+    private volatile long peakPendingBytes;
+    @SuppressWarnings("UnusedDeclaration")
+    private volatile long unwritableCount;
+    @SuppressWarnings("UnusedDeclaration")
+    private volatile long unwritableNanos;
+    // 0 if the Channel is writable.
+    @SuppressWarnings("UnusedDeclaration")
+    private volatile long unwritableSinceNanos;
+
+    private static AtomicLongFieldUpdater<DefaultChannelOutboundBufferMetrics> newUpdater(String fieldName) {
+        return AtomicLongFieldUpdater.newUpdater(DefaultChannelOutboundBufferMetrics.class, fieldName);
+    }
+
+    private void updateMax(AtomicLongFieldUpdater<DefaultChannelOutboundBufferMetrics> updater, long value) {
+        for (;;) {
+            long max = updater.get(this);
+            if (value <= max || updater.compareAndSet(this, max, value)) {
+                return;
+            }
+        }
+    }
+
+    void messageWritten(long enqueueNanos, long flushNanos, long writtenNanos) {
+        if (enqueueNanos == 0 || flushNanos == 0) {
+            // The message was added before the metrics were enabled.
+            return;
+        }
+        long enqueueToFlush = flushNanos - enqueueNanos;
+        long flushToWritten = writtenNanos - flushNanos;
+        WRITTEN_MESSAGES_UPDATER.incrementAndGet(this);
+        TOTAL_ENQUEUE_TO_FLUSH_NANOS_UPDATER.addAndGet(this, enqueueToFlush);
+        updateMax(MAX_ENQUEUE_TO_FLUSH_NANOS_UPDATER, enqueueToFlush);
+        TOTAL_FLUSH_TO_WRITTEN_NANOS_UPDATER.addAndGet(this, flushToWritten);
+        updateMax(MAX_FLUSH_TO_WRITTEN_NANOS_UPDATER, flushToWritten);
+    }
+
+    void pendingBytes(long pendingBytes) {
+        updateMax(PEAK_PENDING_BYTES_UPDATER, pendingBytes);
+    }
+
+    void unwritable() {
+        UNWRITABLE_COUNT_UPDATER.incrementAndGet(this);
+        // Keep the older start if the transitions of two threads were recorded out of order.
+        UNWRITABLE_SINCE_NANOS_UPDATER.compareAndSet(this, 0, System.nanoTime());
+    }
+
+    void writable() {
+        long since = UNWRITABLE_SINCE_NANOS_UPDATER.getAndSet(this, 0);
+        if (since != 0) {
+            UNWRITABLE_NANOS_UPDATER.addAndGet(this, System.nanoTime() - since);
+        }
+    }
+
+    void gatheringWrite(int buffers) {
+        GATHERING_WRITES_UPDATER.incrementAndGet(this);
+        GATHERING_WRITE_BUFFERS_UPDATER.addAndGet(this, buffers);
+    }
+
+    @Override
+    public long writtenMessages() {
+        return writtenMessages;
+    }
+
+    @Override
+    public long totalEnqueueToFlushNanos() {
+        return totalEnqueueToFlushNanos;
+    }
+
+    @Override
+    public long maxEnqueueToFlushNanos() {
+        return maxEnqueueToFlushNanos;
+    }
+
+    @Override
+    public long totalFlushToWrittenNanos() {
+        return totalFlushToWrittenNanos;
+    }
+
+    @Override
+    public long maxFlushToWrittenNanos() {
+        return maxFlushToWrittenNanos;
+    }
+
+    @Override
+    public long peakPendingBytes() {
+        return peakPendingBytes;
+    }
+
+    @Override
+    public long unwritableCount() {
+        return unwritableCount;
+    }
+
+    @Override
+    public long unwritableNanos() {
+        long unwritableNanos = this.unwritableNanos;
+        long since = unwritableSinceNanos;
+        if (since != 0) {
+            unwritableNanos += System.nanoTime() - since;
+        }
+        return unwritableNanos;
+    }
+
+    @Override
+    public long gatheringWrites() {
+        return gatheringWrites;
+    }
+
+    @Override
+    public long gatheringWriteBuffers() {
+        return gatheringWriteBuffers;
+    }
+
+    @Override
+    public String toString() {
+        return "DefaultChannelOutboundBufferMetrics(writtenMessages: " + writtenMessages +
+                ", totalEnqueueToFlushNanos: " + totalEnqueueToFlushNanos +
+                ", maxEnqueueToFlushNanos: " + maxEnqueueToFlushNanos +
+                ", totalFlushToWrittenNanos: " + totalFlushToWrittenNanos +
+                ", maxFlushToWrittenNanos: " + maxFlushToWrittenNanos +
+                ", peakPendingBytes: " + peakPendingBytes +
+                ", unwritableCount: " + unwritableCount +
+                ", unwritableNanos: " + unwritableNanos() +
+                ", gatheringWrites: " + gatheringWrites +
+                ", gatheringWriteBuffers: " + gatheringWriteBuffers + ')';
+    }
+}
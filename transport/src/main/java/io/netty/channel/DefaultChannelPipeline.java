@@ -1237,6 +1237,16 @@ public class DefaultChannelPipeline implements ChannelPipeline {
     protected void onUnhandledChannelWritabilityChanged() {
     }
 
+    /**
+     * Called once the {@link Channel} was closed and unregistered and all handlers were notified about it. Returns
+     * {@code true} if all handlers should be removed from the {@link ChannelPipeline} now, which is the default.
+     * Sub-classes may return {@code false} if the {@link Channel} and its {@link ChannelPipeline} are reused.
+     */
+    @UnstableApi
+    protected boolean removeHandlersOnClose() {
+        return true;
+    }
+
     @UnstableApi
     protected void incrementPendingOutboundBytes(long size) {
         ChannelOutboundBuffer buffer = channel.unsafe().outboundBuffer();
@@ -1401,7 +1411,7 @@ public class DefaultChannelPipeline implements ChannelPipeline {
             ctx.fireChannelUnregistered();
 
             // Remove all handlers sequentially if channel is closed and unregistered.
-            if (!channel.isOpen()) {
+            if (!channel.isOpen() && removeHandlersOnClose()) {
                 destroy();
             }
         }
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.util.concurrent.SingleThreadEventExecutor;
+
+/**
+ * Special event which will be fired and passed to the
+ * {@link ChannelInboundHandler#userEventTriggered(ChannelHandlerContext, Object)} methods of all {@link Channel}s
+ * that are registered to an {@link EventLoop} once its overload state changes. See
+ * {@link SingleThreadEventExecutor#setPendingTasksWaterMarks(int, int)}.
+ * <p>
+ * A server may for example react on {@link #OVERLOADED} by calling {@code channel.config().setAutoRead(false)} and
+ * on {@link #RECOVERED} by calling {@code channel.config().setAutoRead(true)}, so no new work is accepted while the
+ * {@link EventLoop} can not keep up with its tasks.
+ */
+public final class EventLoopOverloadEvent {
+
+    /**
+     * Fired once the {@link EventLoop} became overloaded.
+     */
+    public static final EventLoopOverloadEvent OVERLOADED = new EventLoopOverloadEvent(true);
+
+    /**
+     * Fired once the {@link EventLoop} is not overloaded anymore.
+     */
+    public static final EventLoopOverloadEvent RECOVERED = new EventLoopOverloadEvent(false);
+
+    private final boolean overloaded;
+
+    private EventLoopOverloadEvent(boolean overloaded) {
+        this.overloaded = overloaded;
+    }
+
+    /**
+     * Returns {@code true} if the {@link EventLoop} is overloaded.
+     */
+    public boolean isOverloaded() {
+        return overloaded;
+    }
+
+    @Override
+    public String toString() {
+        return "EventLoopOverloadEvent(" + (overloaded ? "OVERLOADED" : "RECOVERED") + ')';
+    }
+}
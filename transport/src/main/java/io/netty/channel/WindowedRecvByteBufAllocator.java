@@ -0,0 +1,160 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.util.internal.MathUtil;
+
+import static io.netty.util.internal.ObjectUtil.checkPositive;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+/**
+ * The {@link RecvByteBufAllocator} that predicts the buffer size from the largest read of a short moving window of
+ * the most recent read cycles.
+ * <p>
+ * Unlike {@link AdaptiveRecvByteBufAllocator}, which only looks at the last read, a single small read does not shrink
+ * the prediction as long as a larger read is still part of the window. This keeps the prediction stable for bursty
+ * traffic. If a read fills the allocated buffer completely the prediction is doubled right away, so bulk transfers
+ * ramp up as quickly as before.
+ * <p>
+ * When used with a {@link PooledByteBufAllocator} the size of the allocated buffers is rounded up to the size class
+ * the pool will use for it anyway, so the memory that is reserved for a buffer is also usable for reading.
+ */
+public class WindowedRecvByteBufAllocator extends DefaultMaxMessagesRecvByteBufAllocator {
+
+    static final int DEFAULT_MINIMUM = 64;
+    static final int DEFAULT_INITIAL = 1024;
+    static final int DEFAULT_MAXIMUM = 65536;
+    static final int DEFAULT_WINDOW_SIZE = 16;
+
+    private final int minimum;
+    private final int initial;
+    private final int maximum;
+    private final int windowSize;
+
+    /**
+     * Creates a new predictor with the default parameters.  With the default
+     * parameters, the expected buffer size starts from {@code 1024}, does not
+     * go down below {@code 64}, does not go up above {@code 65536} and is
+     * based on the last {@code 16} read cycles.
+     */
+    public WindowedRecvByteBufAllocator() {
+        this(DEFAULT_MINIMUM, DEFAULT_INITIAL, DEFAULT_MAXIMUM, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Creates a new predictor with the specified parameters.
+     *
+     * @param minimum     the inclusive lower bound of the expected buffer size
+     * @param initial     the initial buffer size when no feed back was received
+     * @param maximum     the inclusive upper bound of the expected buffer size
+     * @param windowSize  the number of read cycles to consider, rounded up to the next power of two
+     */
+    public WindowedRecvByteBufAllocator(int minimum, int initial, int maximum, int windowSize) {
+        checkPositive(minimum, "minimum");
+        if (initial < minimum) {
+            throw new IllegalArgumentException("initial: " + initial);
+        }
+        if (maximum < initial) {
+            throw new IllegalArgumentException("maximum: " + maximum);
+        }
+        checkPositive(windowSize, "windowSize");
+        if (windowSize > 1 << 10) {
+            throw new IllegalArgumentException("windowSize: " + windowSize + " (expected: <= 1024)");
+        }
+
+        this.minimum = minimum;
+        this.initial = initial;
+        this.maximum = maximum;
+        this.windowSize = MathUtil.findNextPositivePowerOfTwo(windowSize);
+    }
+
+    @SuppressWarnings("deprecation")
+    @Override
+    public Handle newHandle() {
+        return new HandleImpl();
+    }
+
+    @Override
+    public WindowedRecvByteBufAllocator respectMaybeMoreData(boolean respectMaybeMoreData) {
+        super.respectMaybeMoreData(respectMaybeMoreData);
+        return this;
+    }
+
+    /**
+     * Returns the capacity {@code alloc} will reserve for a buffer of {@code size} bytes.
+     */
+    static int sizeClass(ByteBufAllocator alloc, int size) {
+        if (!(alloc instanceof PooledByteBufAllocator) ||
+                size >= ((PooledByteBufAllocator) alloc).metric().chunkSize()) {
+            // Not pooled, so we get exactly what we ask for.
+            return size;
+        }
+        if (size < 512) {
+            // Quantum-spaced
+            return (size + 15) & ~15;
+        }
+        return MathUtil.findNextPositivePowerOfTwo(size);
+    }
+
+    private final class HandleImpl extends MaxMessageHandle {
+        private final int[] window = new int[windowSize];
+        private int windowIndex;
+        private int nextReceiveBufferSize = initial;
+
+        @Override
+        public ByteBuf allocate(ByteBufAllocator alloc) {
+            return alloc.ioBuffer(min(sizeClass(alloc, guess()), maximum));
+        }
+
+        @Override
+        public void lastBytesRead(int bytes) {
+            // If we read as much as we asked for there is most likely more data pending, so ramp up right away to
+            // avoid going back to the selector for large data transfers.
+            if (bytes > 0 && bytes == attemptedBytesRead()) {
+                record(bytes <= maximum >>> 1 ? bytes << 1 : maximum);
+            }
+            super.lastBytesRead(bytes);
+        }
+
+        @Override
+        public int guess() {
+            return nextReceiveBufferSize;
+        }
+
+        @Override
+        public void readComplete() {
+            int totalBytesRead = totalBytesRead();
+            if (totalBytesRead > 0) {
+                record(totalBytesRead);
+            }
+        }
+
+        private void record(int bytes) {
+            window[windowIndex] = bytes;
+            windowIndex = (windowIndex + 1) & window.length - 1;
+
+            int largest = 0;
+            for (int size: window) {
+                largest = max(largest, size);
+            }
+            nextReceiveBufferSize = min(max(largest, minimum), maximum);
+        }
+    }
+}
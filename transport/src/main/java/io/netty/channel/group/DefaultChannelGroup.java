@@ -18,22 +18,29 @@ package io.netty.channel.group;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufHolder;
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelException;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelId;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.EventLoop;
 import io.netty.channel.ServerChannel;
 import io.netty.util.ReferenceCountUtil;
 import io.netty.util.concurrent.EventExecutor;
 import io.netty.util.internal.PlatformDependent;
 import io.netty.util.internal.StringUtil;
+import io.netty.util.internal.ThrowableUtil;
 
 import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -42,6 +49,8 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class DefaultChannelGroup extends AbstractSet<Channel> implements ChannelGroup {
 
     private static final AtomicInteger nextId = new AtomicInteger();
+    private static final ChannelException UNWRITABLE_EXCEPTION = ThrowableUtil.unknownStackTrace(
+            new ChannelException("channel not writable"), DefaultChannelGroup.class, "broadcast(...)");
     private final String name;
     private final EventExecutor executor;
     private final ConcurrentMap<ChannelId, Channel> serverChannels = PlatformDependent.newConcurrentHashMap();
@@ -425,6 +434,128 @@ public class DefaultChannelGroup extends AbstractSet<Channel> implements Channel
         return future;
     }
 
+    /**
+     * Writes and flushes the message to all {@link Channel}s of this group which are matched by the given
+     * {@link ChannelMatcher}, like {@link #writeAndFlush(Object, ChannelMatcher, boolean)} does. Instead of one
+     * write and one flush task per {@link Channel}, the {@link Channel}s are grouped by their {@link EventLoop} and a
+     * single task is submitted to each {@link EventLoop}, which writes and flushes the message to all of its
+     * {@link Channel}s. This makes broadcasting to a large number of {@link Channel}s a lot cheaper.
+     * <p>
+     * The message should be encoded already, for example as a read-only {@link ByteBuf}, as it is shared by all
+     * {@link Channel}s. If a {@link Channel} is not {@linkplain Channel#isWritable() writable} once its
+     * {@link EventLoop} runs the task the given {@link UnwritableChannelPolicy} is applied, and the
+     * {@link ChannelFuture} of a {@link Channel} which was skipped or closed is failed.
+     */
+    public ChannelGroupFuture broadcast(Object message, ChannelMatcher matcher, UnwritableChannelPolicy policy,
+                                        boolean voidPromise) {
+        if (message == null) {
+            throw new NullPointerException("message");
+        }
+        if (matcher == null) {
+            throw new NullPointerException("matcher");
+        }
+        if (policy == null) {
+            throw new NullPointerException("policy");
+        }
+
+        Map<Channel, ChannelFuture> futures = voidPromise ? null : new LinkedHashMap<Channel, ChannelFuture>(size());
+        Map<EventLoop, BroadcastTask> tasks = new IdentityHashMap<EventLoop, BroadcastTask>();
+        for (Channel c: nonServerChannels.values()) {
+            if (matcher.matches(c)) {
+                EventLoop loop = c.eventLoop();
+                BroadcastTask task = tasks.get(loop);
+                if (task == null) {
+                    task = new BroadcastTask(message, policy, voidPromise);
+                    tasks.put(loop, task);
+                }
+                if (voidPromise) {
+                    task.add(c, null);
+                } else {
+                    ChannelPromise promise = c.newPromise();
+                    task.add(c, promise);
+                    futures.put(c, promise);
+                }
+            }
+        }
+        for (Map.Entry<EventLoop, BroadcastTask> entry: tasks.entrySet()) {
+            EventLoop loop = entry.getKey();
+            BroadcastTask task = entry.getValue();
+            ReferenceCountUtil.retain(message);
+            if (loop.inEventLoop()) {
+                task.run();
+            } else {
+                try {
+                    loop.execute(task);
+                } catch (RejectedExecutionException e) {
+                    task.fail(e);
+                }
+            }
+        }
+        ReferenceCountUtil.release(message);
+        return voidPromise ? voidFuture : new DefaultChannelGroupFuture(this, futures, executor);
+    }
+
+    /**
+     * Writes and flushes a message to all {@link Channel}s of one {@link EventLoop}. The task owns one reference
+     * of the message which is released once it is done.
+     */
+    private static final class BroadcastTask implements Runnable {
+        private final Object message;
+        private final UnwritableChannelPolicy policy;
+        private final boolean voidPromise;
+        private final List<Channel> channels = new ArrayList<Channel>();
+        private final List<ChannelPromise> promises;
+
+        BroadcastTask(Object message, UnwritableChannelPolicy policy, boolean voidPromise) {
+            this.message = message;
+            this.policy = policy;
+            this.voidPromise = voidPromise;
+            promises = voidPromise ? null : new ArrayList<ChannelPromise>();
+        }
+
+        void add(Channel channel, ChannelPromise promise) {
+            channels.add(channel);
+            if (promises != null) {
+                promises.add(promise);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (int i = 0; i < channels.size(); i++) {
+                    Channel c = channels.get(i);
+                    ChannelPromise promise = voidPromise ? c.voidPromise() : promises.get(i);
+                    if (policy != UnwritableChannelPolicy.WRITE && !c.isWritable()) {
+                        if (policy == UnwritableChannelPolicy.CLOSE) {
+                            c.close();
+                        }
+                        if (!voidPromise) {
+                            // Do not fail the void promise as this would fire an exceptionCaught event.
+                            promise.setFailure(UNWRITABLE_EXCEPTION);
+                        }
+                        continue;
+                    }
+                    c.writeAndFlush(safeDuplicate(message), promise);
+                }
+            } finally {
+                ReferenceCountUtil.release(message);
+            }
+        }
+
+        void fail(Throwable cause) {
+            try {
+                if (promises != null) {
+                    for (ChannelPromise promise: promises) {
+                        promise.tryFailure(cause);
+                    }
+                }
+            } finally {
+                ReferenceCountUtil.release(message);
+            }
+        }
+    }
+
     @Override
     public ChannelGroupFuture newCloseFuture() {
         return newCloseFuture(ChannelMatchers.all());
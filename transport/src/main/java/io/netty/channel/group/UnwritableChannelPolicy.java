@@ -0,0 +1,37 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.group;
+
+import io.netty.channel.Channel;
+
+/**
+ * Defines what {@link DefaultChannelGroup#broadcast(Object, ChannelMatcher, UnwritableChannelPolicy, boolean)} does
+ * with a {@link Channel} that is not {@linkplain Channel#isWritable() writable} when the message is written to it.
+ */
+public enum UnwritableChannelPolicy {
+    /**
+     * The message is written anyway, so it is queued in the outbound buffer of the {@link Channel}.
+     */
+    WRITE,
+    /**
+     * The message is not written to the {@link Channel}, so a slow receiver misses it but does not buffer up memory.
+     */
+    SKIP,
+    /**
+     * The message is not written and the {@link Channel} is closed, for receivers which must not miss a message.
+     */
+    CLOSE
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.internal;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.ChannelConfig;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.DefaultChannelConfig;
+import io.netty.util.concurrent.FastThreadLocal;
+import io.netty.util.internal.SystemPropertyUtil;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+/**
+ * A large direct buffer which is shared by all channels of an {@link io.netty.channel.EventLoop} that have
+ * {@link ChannelOption#SHARED_READ_BUFFER} enabled. The channels read into this buffer and only hand the received
+ * bytes to the pipeline, either as right-sized copy or as retained slice, so no partially filled receive buffer is
+ * kept per channel.
+ */
+public final class SharedReadBuffer {
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(SharedReadBuffer.class);
+
+    private static final int CAPACITY = Math.max(4096,
+            SystemPropertyUtil.getInt("io.netty.sharedReadBuffer.capacity", 65536));
+    // Once less than this is left we start over with a new buffer, so reads are not needlessly split.
+    private static final int MIN_WRITABLE = CAPACITY >>> 2;
+
+    static {
+        if (logger.isDebugEnabled()) {
+            logger.debug("-Dio.netty.sharedReadBuffer.capacity: {}", CAPACITY);
+        }
+    }
+
+    // Every EventLoop is powered by exactly one thread, so this gives us one buffer per EventLoop.
+    private static final FastThreadLocal<SharedReadBuffer> BUFFERS = new FastThreadLocal<SharedReadBuffer>() {
+        @Override
+        protected SharedReadBuffer initialValue() {
+            return new SharedReadBuffer();
+        }
+
+        @Override
+        protected void onRemoval(SharedReadBuffer value) {
+            value.release();
+        }
+    };
+
+    private ByteBuf buffer;
+
+    private SharedReadBuffer() { }
+
+    /**
+     * Returns the {@link SharedReadBuffer} of the current thread if {@link ChannelOption#SHARED_READ_BUFFER} is
+     * enabled for the given {@link ChannelConfig} and {@code null} otherwise.
+     */
+    public static SharedReadBuffer get(ChannelConfig config) {
+        if (config instanceof DefaultChannelConfig && ((DefaultChannelConfig) config).isSharedReadBuffer()) {
+            return BUFFERS.get();
+        }
+        return null;
+    }
+
+    /**
+     * Returns the buffer to read into. All bytes that were written into it must be obtained via
+     * {@link #take(ByteBufAllocator, int)} before the buffer is requested again.
+     */
+    public ByteBuf buffer(ByteBufAllocator alloc) {
+        ByteBuf buffer = this.buffer;
+        if (buffer == null || buffer.writableBytes() < MIN_WRITABLE) {
+            // Retained slices of the old buffer may still be in use, they keep it alive as long as needed.
+            release();
+            this.buffer = buffer = alloc.directBuffer(CAPACITY, CAPACITY);
+        }
+        return buffer;
+    }
+
+    /**
+     * Returns the bytes that were written into {@link #buffer(ByteBufAllocator)} since the last call. If there are
+     * less than {@code copyThreshold} bytes they are copied into a new buffer of the exact size and the space is
+     * reused for the next read, otherwise a retained slice is returned.
+     */
+    public ByteBuf take(ByteBufAllocator alloc, int copyThreshold) {
+        ByteBuf buffer = this.buffer;
+        int readerIndex = buffer.readerIndex();
+        int length = buffer.readableBytes();
+        if (length < copyThreshold) {
+            ByteBuf copy = alloc.ioBuffer(length);
+            copy.writeBytes(buffer, readerIndex, length);
+            buffer.writerIndex(readerIndex);
+            return copy;
+        }
+        ByteBuf slice = buffer.retainedSlice(readerIndex, length);
+        buffer.readerIndex(buffer.writerIndex());
+        return slice;
+    }
+
+    private void release() {
+        if (buffer != null) {
+            buffer.release();
+            buffer = null;
+        }
+    }
+}
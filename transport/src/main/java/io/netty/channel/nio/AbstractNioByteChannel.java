@@ -23,9 +23,11 @@ import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelMetadata;
 import io.netty.channel.ChannelOutboundBuffer;
 import io.netty.channel.ChannelPipeline;
+import io.netty.channel.DefaultChannelConfig;
 import io.netty.channel.FileRegion;
 import io.netty.channel.RecvByteBufAllocator;
 import io.netty.channel.internal.ChannelUtils;
+import io.netty.channel.internal.SharedReadBuffer;
 import io.netty.channel.socket.ChannelInputShutdownEvent;
 import io.netty.channel.socket.ChannelInputShutdownReadComplete;
 import io.netty.channel.socket.SocketChannelConfig;
@@ -138,18 +140,29 @@ public abstract class AbstractNioByteChannel extends AbstractNioChannel {
             final ChannelPipeline pipeline = pipeline();
             final ByteBufAllocator allocator = config.getAllocator();
             final RecvByteBufAllocator.Handle allocHandle = recvBufAllocHandle();
+            final SharedReadBuffer sharedReadBuffer = SharedReadBuffer.get(config);
             allocHandle.reset(config);
 
             ByteBuf byteBuf = null;
             boolean close = false;
             try {
                 do {
-                    byteBuf = allocHandle.allocate(allocator);
-                    allocHandle.lastBytesRead(doReadBytes(byteBuf));
+                    if (sharedReadBuffer != null) {
+                        allocHandle.lastBytesRead(doReadBytes(sharedReadBuffer.buffer(allocator)));
+                        if (allocHandle.lastBytesRead() > 0) {
+                            byteBuf = sharedReadBuffer.take(allocator,
+                                    ((DefaultChannelConfig) config).getSharedReadBufferCopyThreshold());
+                        }
+                    } else {
+                        byteBuf = allocHandle.allocate(allocator);
+                        allocHandle.lastBytesRead(doReadBytes(byteBuf));
+                    }
                     if (allocHandle.lastBytesRead() <= 0) {
                         // nothing was read. release the buffer.
-                        byteBuf.release();
-                        byteBuf = null;
+                        if (byteBuf != null) {
+                            byteBuf.release();
+                            byteBuf = null;
+                        }
                         close = allocHandle.lastBytesRead() < 0;
                         if (close) {
                             // There is nothing left to read as we received an EOF.
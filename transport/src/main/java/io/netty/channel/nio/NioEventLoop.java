@@ -19,6 +19,7 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelException;
 import io.netty.channel.EventLoop;
 import io.netty.channel.EventLoopException;
+import io.netty.channel.EventLoopOverloadEvent;
 import io.netty.channel.SelectStrategy;
 import io.netty.channel.SingleThreadEventLoop;
 import io.netty.util.IntSupplier;
@@ -705,6 +706,26 @@ public final class NioEventLoop extends SingleThreadEventLoop {
         }
     }
 
+    @Override
+    protected void overloadStateChanged(boolean overloaded) {
+        EventLoopOverloadEvent evt = overloaded ? EventLoopOverloadEvent.OVERLOADED : EventLoopOverloadEvent.RECOVERED;
+        // Using the intermediate collection as the handlers may register or close channels while the event is fired.
+        Set<SelectionKey> keys = selector.keys();
+        Collection<AbstractNioChannel> channels = new ArrayList<AbstractNioChannel>(keys.size());
+        for (SelectionKey k: keys) {
+            Object a = k.attachment();
+            if (a instanceof AbstractNioChannel) {
+                channels.add((AbstractNioChannel) a);
+            }
+        }
+
+        for (AbstractNioChannel ch: channels) {
+            if (ch.isRegistered()) {
+                ch.pipeline().fireUserEventTriggered(evt);
+            }
+        }
+    }
+
     private void closeAll() {
         selectAgain();
         Set<SelectionKey> keys = selector.keys();
@@ -432,6 +432,7 @@ public class NioSocketChannel extends AbstractNioByteChannel implements io.netty
                     // Casting to int is safe because we limit the total amount of data in the nioBuffers to int above.
                     adjustMaxBytesPerGatheringWrite((int) attemptedBytes, (int) localWrittenBytes,
                             maxBytesPerGatheringWrite);
+                    in.recordGatheringWrite(nioBufferCnt);
                     in.removeBytes(localWrittenBytes);
                     --writeSpinCount;
                     break;
@@ -29,6 +29,7 @@ import java.nio.ByteBuffer;
 import java.util.Queue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import static io.netty.buffer.Unpooled.*;
 import static org.hamcrest.Matchers.*;
@@ -124,6 +125,87 @@ public class ChannelOutboundBufferTest {
         buf.release();
     }
 
+    @Test
+    public void testMetrics() throws Exception {
+        EmbeddedChannel ch = new EmbeddedChannel();
+        assertNull(ch.unsafe().outboundBuffer().metrics());
+
+        ch.config().setOption(ChannelOption.OUTBOUND_BUFFER_METRICS, true);
+        ch.config().setWriteBufferLowWaterMark(128);
+        ch.config().setWriteBufferHighWaterMark(256);
+        ChannelOutboundBufferMetrics metrics = ((DefaultChannelConfig) ch.config()).getOutboundBufferMetrics();
+        assertNotNull(metrics);
+        assertSame(metrics, ch.unsafe().outboundBuffer().metrics());
+
+        ch.write(buffer().writeZero(512));
+        ch.write(buffer().writeZero(128));
+        assertFalse(ch.isWritable());
+        assertEquals(1, metrics.unwritableCount());
+        Thread.sleep(10);
+        ch.flush();
+        assertTrue(ch.isWritable());
+
+        assertEquals(2, metrics.writtenMessages());
+        assertTrue(metrics.peakPendingBytes() >= 640);
+        assertTrue(metrics.maxEnqueueToFlushNanos() >= TimeUnit.MILLISECONDS.toNanos(10));
+        assertTrue(metrics.totalEnqueueToFlushNanos() >= metrics.maxEnqueueToFlushNanos());
+        assertTrue(metrics.totalFlushToWrittenNanos() >= metrics.maxFlushToWrittenNanos());
+        assertTrue(metrics.unwritableNanos() >= TimeUnit.MILLISECONDS.toNanos(10));
+        assertTrue(ch.finishAndReleaseAll());
+
+        TestChannel channel = new TestChannel();
+        ChannelOutboundBuffer buffer = channel.unsafe().outboundBuffer();
+        ((DefaultChannelConfig) channel.config()).setOutboundBufferMetrics(true);
+        buffer.addMessage(directBuffer().writeZero(8), 8, channel.voidPromise());
+        buffer.addMessage(directBuffer().writeZero(8), 8, channel.voidPromise());
+        buffer.addFlush();
+        // Only gathering writes reported by the transport are counted, not every filling of the array.
+        buffer.nioBuffers();
+        buffer.nioBuffers();
+        assertEquals(0, buffer.metrics().gatheringWrites());
+        buffer.recordGatheringWrite(buffer.nioBufferCount());
+        assertEquals(1, buffer.metrics().gatheringWrites());
+        assertEquals(2, buffer.metrics().gatheringWriteBuffers());
+        release(buffer);
+
+        ((DefaultChannelConfig) channel.config()).setOutboundBufferMetrics(false);
+        assertNull(buffer.metrics());
+    }
+
+    @Test
+    public void testMetricsConcurrentUpdates() throws Exception {
+        final DefaultChannelOutboundBufferMetrics metrics = new DefaultChannelOutboundBufferMetrics();
+        final int threads = 4;
+        final int updates = 10000;
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            final long base = i * updates;
+            workers[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int j = 1; j <= updates; j++) {
+                        metrics.pendingBytes(base + j);
+                        metrics.gatheringWrite(2);
+                    }
+                }
+            });
+            workers[i].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertEquals(threads * updates, metrics.peakPendingBytes());
+        assertEquals(threads * updates, metrics.gatheringWrites());
+        assertEquals(threads * updates * 2, metrics.gatheringWriteBuffers());
+    }
+
     private static void release(ChannelOutboundBuffer buffer) {
         for (;;) {
             if (!buffer.remove()) {
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2019 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class WindowedRecvByteBufAllocatorTest {
+    private final ByteBufAllocator alloc = UnpooledByteBufAllocator.DEFAULT;
+    private ChannelConfig config;
+    private RecvByteBufAllocator.ExtendedHandle handle;
+
+    @Before
+    public void setup() {
+        config = new EmbeddedChannel().config();
+        WindowedRecvByteBufAllocator recvByteBufAllocator = new WindowedRecvByteBufAllocator(64, 512, 65536, 4);
+        handle = (RecvByteBufAllocator.ExtendedHandle) recvByteBufAllocator.newHandle();
+        handle.reset(config);
+    }
+
+    @Test
+    public void rampUpBeforeReadCompleteWhenLargeDataPending() {
+        allocReadExpected(handle, alloc, 512);
+        allocReadExpected(handle, alloc, 1024);
+        allocReadExpected(handle, alloc, 2048);
+        allocReadExpected(handle, alloc, 4096);
+        handle.readComplete();
+
+        handle.reset(config);
+        allocReadExpected(handle, alloc, 8192);
+    }
+
+    @Test
+    public void smallReadsDoNotShrinkBeforeWindowIsPassed() {
+        readCycle(3000);
+        assertEquals(3000, handle.guess());
+
+        // The window holds 4 read cycles, so the large read is still considered for the next 3 small ones.
+        for (int i = 0; i < 3; i++) {
+            readCycle(100);
+            assertEquals(3000, handle.guess());
+        }
+        readCycle(100);
+        assertEquals(100, handle.guess());
+    }
+
+    @Test
+    public void guessIsBoundedByMinimumAndMaximum() {
+        readCycle(1);
+        readCycle(1);
+        readCycle(1);
+        readCycle(1);
+        assertEquals(64, handle.guess());
+
+        readCycle(1024 * 1024);
+        assertEquals(65536, handle.guess());
+    }
+
+    @Test
+    public void alignToPooledSizeClasses() {
+        PooledByteBufAllocator pooled = new PooledByteBufAllocator(false);
+        assertEquals(112, WindowedRecvByteBufAllocator.sizeClass(pooled, 100));
+        assertEquals(512, WindowedRecvByteBufAllocator.sizeClass(pooled, 512));
+        assertEquals(4096, WindowedRecvByteBufAllocator.sizeClass(pooled, 3000));
+        int chunkSize = pooled.metric().chunkSize();
+        assertEquals(chunkSize + 1, WindowedRecvByteBufAllocator.sizeClass(pooled, chunkSize + 1));
+        assertEquals(3000, WindowedRecvByteBufAllocator.sizeClass(alloc, 3000));
+
+        readCycle(3000);
+        ByteBuf buf = handle.allocate(pooled);
+        assertEquals(4096, buf.capacity());
+        buf.release();
+    }
+
+    private void readCycle(int bytes) {
+        handle.reset(config);
+        handle.attemptedBytesRead(bytes + 1);
+        handle.lastBytesRead(bytes);
+        handle.incMessagesRead(1);
+        handle.readComplete();
+    }
+
+    private static void allocReadExpected(RecvByteBufAllocator.ExtendedHandle handle,
+                                          ByteBufAllocator alloc,
+                                          int expectedSize) {
+        ByteBuf buf = handle.allocate(alloc);
+        assertEquals(expectedSize, buf.capacity());
+        handle.attemptedBytesRead(expectedSize);
+        handle.lastBytesRead(expectedSize);
+        handle.incMessagesRead(1);
+        buf.release();
+    }
+}
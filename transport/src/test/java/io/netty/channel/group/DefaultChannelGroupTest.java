@@ -16,15 +16,25 @@
 package io.netty.channel.group;
 
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.DefaultChannelId;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.embedded.EmbeddedChannel;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.util.concurrent.GlobalEventExecutor;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
 public class DefaultChannelGroupTest {
 
     // Test for #1183
@@ -57,4 +67,94 @@ public class DefaultChannelGroupTest {
         bossGroup.terminationFuture().sync();
         workerGroup.terminationFuture().sync();
     }
+
+    @Test
+    public void testBroadcast() {
+        EmbeddedChannel ch1 = new EmbeddedChannel(DefaultChannelId.newInstance());
+        EmbeddedChannel ch2 = new EmbeddedChannel(DefaultChannelId.newInstance());
+        ChannelGroup group = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
+        group.add(ch1);
+        group.add(ch2);
+
+        ByteBuf message = Unpooled.copiedBuffer(new byte[] { 1, 2, 3 }).asReadOnly();
+        ChannelGroupFuture future = ((DefaultChannelGroup) group).broadcast(
+                message, ChannelMatchers.all(), UnwritableChannelPolicy.SKIP, false);
+        assertTrue(future.isSuccess());
+        assertBroadcastReceived(ch1);
+        assertBroadcastReceived(ch2);
+        assertEquals(0, message.refCnt());
+
+        assertFalse(ch1.finish());
+        assertFalse(ch2.finish());
+    }
+
+    @Test
+    public void testBroadcastSkipsUnwritable() {
+        EmbeddedChannel writable = new EmbeddedChannel(DefaultChannelId.newInstance());
+        EmbeddedChannel unwritable = newUnwritableChannel();
+        DefaultChannelGroup group = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
+        group.add(writable);
+        group.add(unwritable);
+
+        ByteBuf message = Unpooled.copiedBuffer(new byte[] { 1, 2, 3 });
+        ChannelGroupFuture future = group.broadcast(
+                message, ChannelMatchers.all(), UnwritableChannelPolicy.SKIP, false);
+        assertFalse(future.isSuccess());
+        assertTrue(future.find(writable).isSuccess());
+        assertFalse(future.find(unwritable).isSuccess());
+        assertBroadcastReceived(writable);
+        assertNull(unwritable.readOutbound());
+        assertTrue(unwritable.isActive());
+        assertEquals(0, message.refCnt());
+
+        assertFalse(writable.finish());
+        unwritable.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testBroadcastClosesUnwritable() {
+        EmbeddedChannel unwritable = newUnwritableChannel();
+        DefaultChannelGroup group = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
+        group.add(unwritable);
+
+        ByteBuf message = Unpooled.copiedBuffer(new byte[] { 1, 2, 3 });
+        group.broadcast(message, ChannelMatchers.all(), UnwritableChannelPolicy.CLOSE, true);
+        assertFalse(unwritable.isActive());
+        assertTrue(group.isEmpty());
+        assertEquals(0, message.refCnt());
+        unwritable.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testBroadcastWritesToUnwritable() {
+        EmbeddedChannel unwritable = newUnwritableChannel();
+        DefaultChannelGroup group = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
+        group.add(unwritable);
+
+        ByteBuf message = Unpooled.copiedBuffer(new byte[] { 1, 2, 3 });
+        ChannelGroupFuture future = group.broadcast(
+                message, ChannelMatchers.all(), UnwritableChannelPolicy.WRITE, false);
+        assertTrue(future.isSuccess());
+        ByteBuf pending = unwritable.readOutbound();
+        pending.release();
+        assertBroadcastReceived(unwritable);
+        assertEquals(0, message.refCnt());
+        assertFalse(unwritable.finish());
+    }
+
+    private static EmbeddedChannel newUnwritableChannel() {
+        EmbeddedChannel ch = new EmbeddedChannel(DefaultChannelId.newInstance());
+        ch.config().setWriteBufferWaterMark(new WriteBufferWaterMark(1, 2));
+        // Not flushed, so it stays in the outbound buffer.
+        ch.write(Unpooled.wrappedBuffer(new byte[8]));
+        assertFalse(ch.isWritable());
+        return ch;
+    }
+
+    private static void assertBroadcastReceived(EmbeddedChannel ch) {
+        ByteBuf received = ch.readOutbound();
+        assertEquals(3, received.readableBytes());
+        assertEquals(1, received.getByte(0));
+        received.release();
+    }
 }
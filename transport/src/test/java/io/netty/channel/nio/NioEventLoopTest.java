@@ -17,8 +17,11 @@ package io.netty.channel.nio;
 
 import io.netty.channel.AbstractEventLoopTest;
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.channel.EventLoop;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.EventLoopOverloadEvent;
 import io.netty.channel.SelectStrategy;
 import io.netty.channel.SelectStrategyFactory;
 import io.netty.channel.socket.ServerSocketChannel;
@@ -35,7 +38,9 @@ import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.SocketChannel;
 import java.nio.channels.spi.SelectorProvider;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
@@ -258,4 +263,52 @@ public class NioEventLoopTest extends AbstractEventLoopTest {
         }
     }
 
+    @Test(timeout = 3000)
+    public void testOverloadEventFiredToRegisteredChannels() throws Exception {
+        NioEventLoopGroup group = new NioEventLoopGroup(1);
+        NioEventLoop loop = (NioEventLoop) group.next();
+        final BlockingQueue<Object> events = new LinkedBlockingQueue<Object>();
+
+        try {
+            Channel channel = new NioServerSocketChannel();
+            channel.pipeline().addLast(new ChannelInboundHandlerAdapter() {
+                @Override
+                public void userEventTriggered(ChannelHandlerContext ctx, Object evt) {
+                    events.add(evt);
+                }
+            });
+            loop.register(channel).syncUninterruptibly();
+            loop.setPendingTasksWaterMarks(1, 3);
+
+            final CountDownLatch latch = new CountDownLatch(1);
+            loop.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        latch.await();
+                    } catch (InterruptedException ignore) {
+                        // Ignore
+                    }
+                }
+            });
+            for (int i = 0; i < 3; i++) {
+                loop.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        // NOOP
+                    }
+                });
+            }
+            assertTrue(loop.isOverloaded());
+            latch.countDown();
+
+            assertSame(EventLoopOverloadEvent.OVERLOADED, events.take());
+            assertSame(EventLoopOverloadEvent.RECOVERED, events.take());
+            assertFalse(loop.isOverloaded());
+
+            channel.close().syncUninterruptibly();
+        } finally {
+            group.shutdownGracefully();
+        }
+    }
 }
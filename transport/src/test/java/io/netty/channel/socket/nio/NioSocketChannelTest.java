@@ -37,6 +37,7 @@ import io.netty.util.NetUtil;
 import io.netty.util.internal.PlatformDependent;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.DataInput;
 import java.io.DataInputStream;
 import java.io.IOException;
@@ -281,6 +282,52 @@ public class NioSocketChannelTest extends AbstractNioChannelTest<NioSocketChanne
         }
     }
 
+    @Test(timeout = 3000)
+    public void testSharedReadBuffer() throws Exception {
+        testSharedReadBuffer(Integer.MAX_VALUE);
+        testSharedReadBuffer(0);
+    }
+
+    private static void testSharedReadBuffer(int copyThreshold) throws Exception {
+        NioEventLoopGroup group = new NioEventLoopGroup(1);
+        Socket socket = null;
+        try {
+            final ByteArrayOutputStream received = new ByteArrayOutputStream();
+            final CountDownLatch latch = new CountDownLatch(1);
+            final byte[] data = new byte[1024 * 1024];
+            PlatformDependent.threadLocalRandom().nextBytes(data);
+
+            ServerBootstrap sb = new ServerBootstrap();
+            sb.group(group).channel(NioServerSocketChannel.class);
+            sb.childOption(ChannelOption.SHARED_READ_BUFFER, true);
+            sb.childOption(ChannelOption.SHARED_READ_BUFFER_COPY_THRESHOLD, copyThreshold);
+            sb.childHandler(new SimpleChannelInboundHandler<ByteBuf>() {
+                @Override
+                protected void channelRead0(ChannelHandlerContext ctx, ByteBuf msg) throws Exception {
+                    // Only the received bytes are passed to the pipeline.
+                    assertEquals(msg.readableBytes(), msg.capacity());
+                    msg.readBytes(received, msg.readableBytes());
+                    if (received.size() == data.length) {
+                        latch.countDown();
+                    }
+                }
+            });
+
+            SocketAddress address = sb.bind(0).sync().channel().localAddress();
+            socket = new Socket(NetUtil.LOCALHOST, ((InetSocketAddress) address).getPort());
+            socket.getOutputStream().write(data);
+            socket.getOutputStream().flush();
+
+            latch.await();
+            assertArrayEquals(data, received.toByteArray());
+        } finally {
+            if (socket != null) {
+                socket.close();
+            }
+            group.shutdownGracefully().sync();
+        }
+    }
+
     @Override
     protected NioSocketChannel newNioChannel() {
         return new NioSocketChannel();